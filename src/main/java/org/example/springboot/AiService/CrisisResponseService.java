@@ -0,0 +1,189 @@
+package org.example.springboot.AiService;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.config.CrisisDetectorProperties;
+import org.example.springboot.config.TransactionGuard;
+import org.example.springboot.enumClass.AiTaskType;
+import org.example.springboot.service.AiAnalysisTaskService;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 心理危机响应服务
+ * 对话消息和情绪日记先经过 CrisisTermDetector 本地扫描；命中后立即创建紧急复核任务，
+ * 并在 crisisDetectionExecutor 中调用 CRISIS_DETECTION_SYSTEM_PROMPT 复核，未命中的内容不会产生大模型调用
+ */
+@Slf4j
+@Service
+public class CrisisResponseService {
+
+    /**
+     * 紧急优先级
+     */
+    private static final int URGENT_PRIORITY = 4;
+
+    @Autowired
+    @Qualifier("open-ai")
+    private ChatClient chatClient;
+
+    @Autowired
+    private CrisisTermDetector crisisTermDetector;
+
+    @Autowired
+    private CrisisDetectorProperties properties;
+
+    @Autowired
+    private LlmCallTracker llmCallTracker;
+
+    @Autowired
+    private AiAnalysisTaskService aiAnalysisTaskService;
+
+    @Autowired
+    @Qualifier("crisisDetectionExecutor")
+    private Executor crisisDetectionExecutor;
+
+    /**
+     * 扫描对话消息，只用于向用户推送风险提示，不创建复核任务
+     * 同一条消息重复提交时每次都会提示，复核任务由 escalateChatMessage 在消息去重保存后创建
+     *
+     * @param message 用户消息
+     * @return 扫描结果
+     */
+    public CrisisTermDetector.Scan scanChatMessage(String message) {
+        return crisisTermDetector.scan(message, "chat");
+    }
+
+    /**
+     * 为新保存的对话消息创建复核任务；重复提交的消息不应调用
+     *
+     * @param userId     用户ID
+     * @param sessionId  数据库会话ID
+     * @param messageSeq 消息在会话内的序号
+     * @param message    用户消息
+     * @param scan       scanChatMessage 的扫描结果，未命中时不做任何处理
+     */
+    public void escalateChatMessage(Long userId, Long sessionId, Long messageSeq, String message,
+                                    CrisisTermDetector.Scan scan) {
+        if (!scan.hit()) {
+            return;
+        }
+        log.warn("对话消息命中危机词，用户ID: {}, 会话ID: {}, 消息序号: {}, 风险等级: {}, 命中: {}",
+                userId, sessionId, messageSeq, scan.riskLevel(), scan.terms());
+        escalate(userId, message, scan,
+                () -> aiAnalysisTaskService.createMessageTask(sessionId, messageSeq, userId, AiTaskType.CRISIS, URGENT_PRIORITY));
+    }
+
+    /**
+     * 检测新保存的对话消息并创建复核任务
+     *
+     * @param userId     用户ID
+     * @param sessionId  数据库会话ID
+     * @param messageSeq 消息在会话内的序号
+     * @param message    用户消息
+     * @return 扫描结果
+     */
+    public CrisisTermDetector.Scan screenChatMessage(Long userId, Long sessionId, Long messageSeq, String message) {
+        CrisisTermDetector.Scan scan = scanChatMessage(message);
+        escalateChatMessage(userId, sessionId, messageSeq, message, scan);
+        return scan;
+    }
+
+    /**
+     * 检测情绪日记
+     *
+     * @param userId  用户ID
+     * @param diaryId 日记ID
+     * @param content 日记内容
+     * @return 扫描结果
+     */
+    public CrisisTermDetector.Scan screenDiary(Long userId, Long diaryId, String content) {
+        CrisisTermDetector.Scan scan = crisisTermDetector.scan(content, "diary");
+        if (scan.hit()) {
+            log.warn("情绪日记命中危机词，用户ID: {}, 日记ID: {}, 风险等级: {}, 命中: {}",
+                    userId, diaryId, scan.riskLevel(), scan.terms());
+            escalate(userId, content, scan,
+                    () -> aiAnalysisTaskService.createTask(diaryId, userId, AiTaskType.CRISIS, URGENT_PRIORITY));
+        }
+        return scan;
+    }
+
+    /**
+     * 命中危机词时推送给用户的提示
+     */
+    public String warningMessage() {
+        return properties.getWarningMessage();
+    }
+
+    /**
+     * 调用大模型进行危机检测
+     *
+     * @param content 待检测内容
+     * @return 危机检测结果
+     */
+    public StructOutPut.CrisisDetectionResult detectCrisis(String content) {
+        Prompt prompt = new Prompt(List.of(
+                new SystemMessage(PromptManage.CRISIS_DETECTION_SYSTEM_PROMPT)
+        ));
+        return llmCallTracker.callEntity(LlmCallTracker.CALL_SITE_CRISIS,
+                () -> chatClient
+                        .prompt(prompt)
+                        .user("请检测以下内容是否存在心理危机：\n" + content)
+                        .call()
+                        .responseEntity(StructOutPut.CrisisDetectionResult.class));
+    }
+
+    /**
+     * 创建紧急复核任务并提交大模型复核
+     */
+    private void escalate(Long userId, String content, CrisisTermDetector.Scan scan, Supplier<Long> reviewTask) {
+        Long taskId = null;
+        if (properties.isReviewTaskEnabled()) {
+            try {
+                taskId = reviewTask.get();
+            } catch (Exception e) {
+                log.error("创建危机复核任务失败，用户ID: {}, 错误: {}", userId, e.getMessage(), e);
+            }
+        }
+        if (!properties.isLlmConfirmEnabled()) {
+            return;
+        }
+
+        // 复核任务可能在调用方事务中创建，提交后再交给线程池，保证复核线程能读到任务；
+        // 此时事务连接尚未归还，线程池已满时不在当前线程复核，任务保持待处理状态由人工跟进
+        Long reviewTaskId = taskId;
+        TransactionGuard.runAfterCommit(() -> {
+            try {
+                CompletableFuture.runAsync(() -> confirm(userId, reviewTaskId, content, scan), crisisDetectionExecutor);
+            } catch (RejectedExecutionException e) {
+                log.error("危机复核队列已满，转人工处理，用户ID: {}, 任务ID: {}", userId, reviewTaskId);
+            }
+        });
+    }
+
+    /**
+     * 大模型复核：判定为中度预警及以上时保留任务待人工处理，否则关闭任务
+     */
+    private void confirm(Long userId, Long taskId, String content, CrisisTermDetector.Scan scan) {
+        try {
+            StructOutPut.CrisisDetectionResult result = detectCrisis(content);
+            log.warn("危机复核完成，用户ID: {}, 任务ID: {}, 词典等级: {}, 复核等级: {}, 结论: {}",
+                    userId, taskId, scan.riskLevel(), result.urgencyLevel(), result.summary());
+            if (taskId != null && result.urgencyLevel() < 2) {
+                aiAnalysisTaskService.markAsCompleted(taskId);
+            }
+        } catch (Exception e) {
+            // 复核失败时任务保持待处理状态，由人工跟进
+            log.error("危机复核失败，用户ID: {}, 任务ID: {}, 错误: {}", userId, taskId, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.springboot.AiService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.config.CrisisDetectorProperties;
+import org.example.springboot.util.AhoCorasickMatcher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 心理危机词检测器
+ * 启动时把危机词典编译为 Aho-Corasick 自动机，对话消息和情绪日记在进程内线性时间扫描，
+ * 不依赖大模型即可在微秒级给出风险信号；是否真正构成危机由后续的大模型复核判断。
+ * 词典分两套自动机：含汉字的词条在去除空白与标点后的文本上匹配，能识别“想 死”这类插入分隔符的写法；
+ * 纯拉丁字母的词条（拼音、英文）只按整词匹配，避免“orange wand”去掉空格后误中“gewan”这类跨单词命中
+ */
+@Slf4j
+@Component
+public class CrisisTermDetector {
+
+    private final CrisisDetectorProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AhoCorasickMatcher<Integer> matcher;
+    private final AhoCorasickMatcher<Integer> wordMatcher;
+    private final Timer scanTimer;
+
+    public CrisisTermDetector(CrisisDetectorProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        AhoCorasickMatcher.Builder<Integer> builder = AhoCorasickMatcher.builder();
+        AhoCorasickMatcher.Builder<Integer> wordBuilder = AhoCorasickMatcher.builder();
+        loadLexicon(properties.getLexicon(), builder, wordBuilder);
+        this.matcher = builder.build();
+        this.wordMatcher = wordBuilder.build();
+        this.scanTimer = Timer.builder("crisis.detector.scan")
+                .description("危机词扫描耗时")
+                .register(meterRegistry);
+        log.info("危机词典加载完成，词条数: {}（整词匹配 {}）", matcher.size() + wordMatcher.size(), wordMatcher.size());
+    }
+
+    /**
+     * 扫描文本中的危机词
+     *
+     * @param content 待检测文本
+     * @param source  来源（chat / diary），用于指标标签
+     * @return 扫描结果
+     */
+    public Scan scan(String content, String source) {
+        if (!properties.isEnabled() || content == null || content.isEmpty()) {
+            return Scan.NONE;
+        }
+        long start = System.nanoTime();
+        Set<String> terms = new LinkedHashSet<>();
+        int riskLevel = 0;
+        for (AhoCorasickMatcher.Hit<Integer> hit : matcher.findAll(normalize(content))) {
+            terms.add(hit.pattern());
+            riskLevel = Math.max(riskLevel, hit.payload());
+        }
+        for (AhoCorasickMatcher.Hit<Integer> hit : wordMatcher.findAll(normalizeWords(content))) {
+            terms.add(hit.pattern().trim());
+            riskLevel = Math.max(riskLevel, hit.payload());
+        }
+        scanTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (terms.isEmpty()) {
+            return Scan.NONE;
+        }
+        Counter.builder("crisis.detector.hits")
+                .description("危机词命中次数")
+                .tag("source", source)
+                .tag("riskLevel", String.valueOf(riskLevel))
+                .register(meterRegistry)
+                .increment();
+        return new Scan(new ArrayList<>(terms), riskLevel);
+    }
+
+    /**
+     * 文本归一化：全角转半角、英文转小写、去除空白与标点（保留汉字、字母、数字）
+     */
+    public static String normalize(CharSequence text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = normalizeChar(text.charAt(i));
+            if (c != 0) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 整词匹配用的归一化：全角转半角、英文转小写，字母数字以外的字符（含汉字）连续出现时合并为一个空格，首尾补空格。
+     * 整词词条以同样方式处理后两端也带空格，命中即意味着两侧都是单词边界
+     */
+    public static String normalizeWords(CharSequence text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append(' ');
+        for (int i = 0; i < text.length(); i++) {
+            char c = normalizeChar(text.charAt(i));
+            if (isLatinLetterOrDigit(c)) {
+                sb.append(c);
+            } else if (sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        if (sb.charAt(sb.length() - 1) != ' ') {
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 单字符归一化，需要丢弃的字符返回0
+     */
+    public static char normalizeChar(char c) {
+        if (c == '　') {
+            return 0;
+        }
+        if (c >= '！' && c <= '～') {
+            c = (char) (c - 0xFEE0);
+        }
+        if (!Character.isLetterOrDigit(c)) {
+            return 0;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static void loadLexicon(String path, AhoCorasickMatcher.Builder<Integer> builder,
+                                    AhoCorasickMatcher.Builder<Integer> wordBuilder) {
+        ClassPathResource resource = new ClassPathResource(path);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                String term = normalize(parts[0]);
+                if (term.isEmpty()) {
+                    continue;
+                }
+                int riskLevel = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 3;
+                if (term.chars().allMatch(c -> isLatinLetterOrDigit((char) c))) {
+                    wordBuilder.add(normalizeWords(parts[0]), riskLevel);
+                } else {
+                    builder.add(term, riskLevel);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("加载危机词典失败: " + path, e);
+        }
+    }
+
+    private static boolean isLatinLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * 扫描结果
+     *
+     * @param terms     命中的危机词（归一化后，整词词条保留单词间的空格）
+     * @param riskLevel 命中词条中的最高风险等级，未命中为0
+     */
+    public record Scan(List<String> terms, int riskLevel) {
+
+        public static final Scan NONE = new Scan(List.of(), 0);
+
+        public boolean hit() {
+            return !terms.isEmpty();
+        }
+    }
+}
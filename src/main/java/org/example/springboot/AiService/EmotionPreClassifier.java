@@ -0,0 +1,301 @@
+package org.example.springboot.AiService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.config.EmotionPreClassifierProperties;
+import org.example.springboot.enumClass.EmotionTypeEnum;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 本地情绪预分类器
+ * 基于 EmotionTypeEnum 与加权中文情绪词典，在进程内快速给出临时的 EmotionAnalysisResult，
+ * 并判断是否需要升级到大模型做完整情绪分析，以减少"嗯"、"谢谢"这类短回复触发的大模型调用
+ */
+@Slf4j
+@Component
+public class EmotionPreClassifier {
+
+    /**
+     * 否定词：命中后翻转紧随其后的情绪词极性
+     */
+    private static final Set<Character> NEGATORS = Set.of('不', '没', '别', '非', '未');
+
+    /**
+     * 程度副词及放大倍数
+     */
+    private static final Map<String, Double> INTENSIFIERS = Map.of(
+            "非常", 1.6, "特别", 1.6, "超级", 1.6, "极其", 1.8,
+            "太", 1.5, "很", 1.3, "好", 1.2, "真", 1.2, "有点", 0.7, "有些", 0.7
+    );
+
+    /**
+     * 否定词/程度副词的回看窗口（字符数）
+     */
+    private static final int MODIFIER_WINDOW = 3;
+
+    private final EmotionPreClassifierProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LexiconEntry> lexicon;
+    private final int maxWordLength;
+
+    public EmotionPreClassifier(EmotionPreClassifierProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.lexicon = loadLexicon(properties.getLexicon());
+        this.maxWordLength = lexicon.keySet().stream().mapToInt(String::length).max().orElse(1);
+        log.info("情绪词典加载完成，词条数: {}", lexicon.size());
+    }
+
+    /**
+     * 对文本做本地情绪分类
+     *
+     * @param content 用户消息
+     * @return 分类结果
+     */
+    public Classification classify(String content) {
+        String text = content == null ? "" : content.replaceAll("\\s+", "");
+        if (text.isEmpty()) {
+            return Classification.unmatched(0);
+        }
+
+        EmotionTypeEnum[] types = EmotionTypeEnum.values();
+        double[] scores = new double[types.length];
+        Set<String> keywords = new LinkedHashSet<>();
+        int lastMatchEnd = 0;
+        int i = 0;
+        while (i < text.length()) {
+            LexiconEntry entry = null;
+            int length = Math.min(maxWordLength, text.length() - i);
+            for (; length > 0; length--) {
+                entry = lexicon.get(text.substring(i, i + length));
+                if (entry != null) {
+                    break;
+                }
+            }
+            if (entry == null) {
+                i++;
+                continue;
+            }
+
+            String window = text.substring(Math.max(lastMatchEnd, i - MODIFIER_WINDOW), i);
+            double weight = entry.weight() * intensifier(window);
+            EmotionTypeEnum emotion = entry.emotion();
+            if (negated(window)) {
+                // 否定后的正面情绪视为困扰，否定后的负面情绪视为（弱）平静
+                if ("positive".equals(emotion.getCategory())) {
+                    emotion = EmotionTypeEnum.TROUBLED;
+                    weight *= 0.6;
+                } else if ("negative".equals(emotion.getCategory())) {
+                    emotion = EmotionTypeEnum.PEACEFUL;
+                    weight *= 0.3;
+                }
+            }
+            scores[emotion.ordinal()] += weight;
+            keywords.add(text.substring(i, i + length));
+            i += length;
+            lastMatchEnd = i;
+        }
+
+        double total = 0;
+        double negative = 0;
+        int best = -1;
+        for (int k = 0; k < scores.length; k++) {
+            total += scores[k];
+            if ("negative".equals(types[k].getCategory())) {
+                negative += scores[k];
+            }
+            if (scores[k] > 0 && (best < 0 || scores[k] > scores[best])) {
+                best = k;
+            }
+        }
+        if (best < 0) {
+            return Classification.unmatched(text.length());
+        }
+
+        // 感叹号加强情绪强度
+        long exclamations = text.chars().filter(c -> c == '!' || c == '！').count();
+        total *= 1 + Math.min(3, exclamations) * 0.1;
+
+        EmotionTypeEnum primary = types[best];
+        int intensity = (int) Math.round(100 * (1 - Math.exp(-total / 1.2)));
+        // 负面度 = 负面情绪占比 × 情绪强度，避免一个轻微的负面词就触发升级
+        double negativity = total == 0 ? 0 : (negative / total) * intensity / 100.0;
+        boolean isNegative = "negative".equals(primary.getCategory());
+        int riskLevel = isNegative ? estimateRiskLevel(primary, intensity) : 0;
+
+        StructOutPut.EmotionAnalysisResult result = new StructOutPut.EmotionAnalysisResult(
+                primary.getEmotionName(),
+                intensity,
+                isNegative,
+                riskLevel,
+                keywords.stream().limit(5).toList(),
+                suggestionFor(primary.getCategory()),
+                primary.getIcon(),
+                primary.getEmotionName(),
+                riskLevel >= 2 ? "负面情绪较强，需要关注" : isNegative ? "存在一定情绪波动" : "情绪状态稳定",
+                improvementsFor(primary.getCategory()),
+                System.currentTimeMillis()
+        );
+        return new Classification(result, true, intensity, negativity, text.length());
+    }
+
+    /**
+     * 判断是否升级到大模型情绪分析
+     *
+     * @param current  本地分类结果
+     * @param previous 会话上一次的情绪分析结果，可为null
+     * @return 升级决策
+     */
+    public Decision decide(Classification current, StructOutPut.EmotionAnalysisResult previous) {
+        Decision decision = evaluate(current, previous);
+        Counter.builder("emotion.preclassifier.decisions")
+                .description("情绪预分类升级决策次数")
+                .tag("escalate", String.valueOf(decision.escalate()))
+                .tag("reason", decision.reason())
+                .register(meterRegistry)
+                .increment();
+        return decision;
+    }
+
+    private Decision evaluate(Classification current, StructOutPut.EmotionAnalysisResult previous) {
+        if (!properties.isEnabled()) {
+            return new Decision(true, "disabled");
+        }
+        if (!current.matched()) {
+            return current.textLength() >= properties.getUnmatchedMinLength()
+                    ? new Decision(true, "unmatched-long")
+                    : new Decision(false, "trivial");
+        }
+        StructOutPut.EmotionAnalysisResult result = current.result();
+        if (current.intensity() >= properties.getIntensityThreshold()) {
+            return new Decision(true, "intensity");
+        }
+        if (result.isNegative() && current.negativity() >= properties.getNegativityThreshold()) {
+            return new Decision(true, "negativity");
+        }
+        if (previous == null) {
+            return new Decision(true, "first");
+        }
+        if (previous.isNegative() != result.isNegative()) {
+            return new Decision(true, "polarity-change");
+        }
+        if (Math.abs(previous.emotionScore() - current.intensity()) >= properties.getChangeThreshold()) {
+            return new Decision(true, "intensity-change");
+        }
+        return new Decision(false, "stable");
+    }
+
+    private static int estimateRiskLevel(EmotionTypeEnum primary, int intensity) {
+        if (primary == EmotionTypeEnum.DESPERATE || intensity >= 80) {
+            return 2;
+        }
+        return intensity >= 40 ? 1 : 0;
+    }
+
+    private static double intensifier(String window) {
+        double factor = 1.0;
+        for (Map.Entry<String, Double> entry : INTENSIFIERS.entrySet()) {
+            if (window.contains(entry.getKey())) {
+                factor = Math.max(factor, entry.getValue());
+                if (entry.getValue() < 1) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return factor;
+    }
+
+    private static boolean negated(String window) {
+        for (int k = 0; k < window.length(); k++) {
+            if (NEGATORS.contains(window.charAt(k))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String suggestionFor(String category) {
+        return switch (category) {
+            case "positive" -> "保持这份好心情，记得和身边的人分享";
+            case "negative" -> "慢慢来，给自己一点时间和耐心";
+            default -> "情绪状态平稳，慢慢来就好";
+        };
+    }
+
+    private static List<String> improvementsFor(String category) {
+        return switch (category) {
+            case "positive" -> List.of("记录今天的小确幸", "和朋友分享喜悦", "保持规律作息");
+            case "negative" -> List.of("深呼吸放松", "听首轻音乐", "和信任的人聊聊");
+            default -> List.of("保持规律作息", "适当运动", "与朋友交流");
+        };
+    }
+
+    private static Map<String, LexiconEntry> loadLexicon(String path) {
+        Map<String, LexiconEntry> entries = new HashMap<>();
+        ClassPathResource resource = new ClassPathResource(path);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                if (parts.length < 3) {
+                    continue;
+                }
+                EmotionTypeEnum emotion = EmotionTypeEnum.getByEmotionName(parts[1].trim());
+                if (emotion == null) {
+                    log.warn("情绪词典中存在未知情绪类型，已忽略: {}", line);
+                    continue;
+                }
+                entries.put(parts[0].trim(), new LexiconEntry(emotion, Double.parseDouble(parts[2].trim())));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("加载情绪词典失败: " + path, e);
+        }
+        return entries;
+    }
+
+    private record LexiconEntry(EmotionTypeEnum emotion, double weight) {
+    }
+
+    /**
+     * 本地分类结果
+     *
+     * @param result     临时情绪分析结果，未命中词典时为null
+     * @param matched    是否命中词典
+     * @param intensity  估算的情绪强度（0-100）
+     * @param negativity 负面度（负面情绪占比 × 情绪强度，0-1）
+     * @param textLength 有效文本长度
+     */
+    public record Classification(StructOutPut.EmotionAnalysisResult result, boolean matched,
+                                 int intensity, double negativity, int textLength) {
+
+        static Classification unmatched(int textLength) {
+            return new Classification(null, false, 0, 0, textLength);
+        }
+    }
+
+    /**
+     * 升级决策
+     *
+     * @param escalate 是否调用大模型
+     * @param reason   决策原因
+     */
+    public record Decision(boolean escalate, String reason) {
+    }
+}
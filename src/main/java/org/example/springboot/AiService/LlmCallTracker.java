@@ -0,0 +1,194 @@
+package org.example.springboot.AiService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.config.TransactionGuard;
+import org.springframework.ai.chat.client.ResponseEntity;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 大模型调用跟踪器
+ * 按调用点记录调用耗时、首token时间（流式）与token用量
+ *
+ * 指标：
+ * llm.call    Timer，标签 callSite / mode / outcome
+ * llm.ttft    Timer，标签 callSite（仅流式）
+ * llm.tokens  Counter，标签 callSite / type(prompt|completion)
+ *
+ * 发起调用前经 TransactionGuard 检查，调用方不应持有数据库事务
+ */
+@Slf4j
+@Component
+public class LlmCallTracker {
+
+    /**
+     * 调用点：情绪分析
+     */
+    public static final String CALL_SITE_EMOTION = "analyzeUserEmotion";
+
+    /**
+     * 调用点：心理疏导对话
+     */
+    public static final String CALL_SITE_CHAT = "chat";
+
+    /**
+     * 调用点：测评分析
+     */
+    public static final String CALL_SITE_EVALUATION = "evaluation";
+
+    /**
+     * 调用点：危机检测复核
+     */
+    public static final String CALL_SITE_CRISIS = "crisisDetection";
+
+    private final MeterRegistry meterRegistry;
+    private final TransactionGuard transactionGuard;
+
+    public LlmCallTracker(MeterRegistry meterRegistry, TransactionGuard transactionGuard) {
+        this.meterRegistry = meterRegistry;
+        this.transactionGuard = transactionGuard;
+    }
+
+    /**
+     * 跟踪结构化输出调用（.call().responseEntity(...)）
+     *
+     * @param callSite 调用点
+     * @param call     实际调用
+     * @return 结构化结果
+     */
+    public <T> T callEntity(String callSite, Supplier<ResponseEntity<ChatResponse, T>> call) {
+        transactionGuard.checkNoTransaction(callSite);
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            ResponseEntity<ChatResponse, T> response = call.get();
+            recordUsage(callSite, response.getResponse());
+            return response.getEntity();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            recordLatency(callSite, "call", outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 跟踪文本调用（.call().chatResponse()）
+     *
+     * @param callSite 调用点
+     * @param call     实际调用
+     * @return 文本内容
+     */
+    public String callContent(String callSite, Supplier<ChatResponse> call) {
+        transactionGuard.checkNoTransaction(callSite);
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            ChatResponse response = call.get();
+            recordUsage(callSite, response);
+            return extractText(response);
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            recordLatency(callSite, "call", outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 跟踪流式调用（.stream().chatResponse()），返回文本片段流
+     * 首个非空片段到达时记录TTFT，流结束时记录总耗时与最后一次上报的token用量
+     *
+     * @param callSite 调用点
+     * @param stream   原始响应流
+     * @return 文本片段流
+     */
+    public Flux<String> trackStream(String callSite, Flux<ChatResponse> stream) {
+        return Flux.defer(() -> {
+            transactionGuard.checkNoTransaction(callSite);
+            long start = System.nanoTime();
+            AtomicBoolean firstToken = new AtomicBoolean(true);
+            AtomicReference<ChatResponse> lastWithUsage = new AtomicReference<>();
+            return stream
+                    .doOnNext(response -> {
+                        if (hasUsage(response)) {
+                            lastWithUsage.set(response);
+                        }
+                    })
+                    .map(LlmCallTracker::extractText)
+                    .filter(text -> !text.isEmpty())
+                    .doOnNext(text -> {
+                        if (firstToken.compareAndSet(true, false)) {
+                            Timer.builder("llm.ttft")
+                                    .description("大模型首token时间")
+                                    .tag("callSite", callSite)
+                                    .register(meterRegistry)
+                                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        recordUsage(callSite, lastWithUsage.get());
+                        recordLatency(callSite, "stream", "success", System.nanoTime() - start);
+                    })
+                    .doOnError(e -> recordLatency(callSite, "stream", "error", System.nanoTime() - start))
+                    .doOnCancel(() -> recordLatency(callSite, "stream", "cancel", System.nanoTime() - start));
+        });
+    }
+
+    private void recordLatency(String callSite, String mode, String outcome, long nanos) {
+        Timer.builder("llm.call")
+                .description("大模型调用耗时")
+                .tag("callSite", callSite)
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordUsage(String callSite, ChatResponse response) {
+        if (!hasUsage(response)) {
+            return;
+        }
+        Usage usage = response.getMetadata().getUsage();
+        tokenCounter(callSite, "prompt").increment(nullToZero(usage.getPromptTokens()));
+        tokenCounter(callSite, "completion").increment(nullToZero(usage.getCompletionTokens()));
+    }
+
+    private Counter tokenCounter(String callSite, String type) {
+        return Counter.builder("llm.tokens")
+                .description("大模型token用量")
+                .tag("callSite", callSite)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static boolean hasUsage(ChatResponse response) {
+        if (response == null || response.getMetadata() == null) {
+            return false;
+        }
+        Usage usage = response.getMetadata().getUsage();
+        return usage != null && usage.getTotalTokens() != null && usage.getTotalTokens() > 0;
+    }
+
+    private static String extractText(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return "";
+        }
+        String text = response.getResult().getOutput().getText();
+        return text == null ? "" : text;
+    }
+
+    private static double nullToZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
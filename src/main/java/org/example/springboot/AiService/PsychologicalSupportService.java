@@ -5,6 +5,7 @@ import cn.hutool.json.JSONUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.example.springboot.DTO.response.ConsultationMessageResponseDTO;
 import org.example.springboot.DTO.command.ConsultationSessionCreateDTO;
+import org.example.springboot.entity.ConsultationMessage;
 import org.example.springboot.entity.ConsultationSession;
 import org.example.springboot.service.ConsultationMessageService;
 import org.example.springboot.service.ConsultationSessionService;
@@ -22,7 +23,11 @@ import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 流式心理疏导智能对话机器人服务
@@ -46,6 +51,24 @@ public class PsychologicalSupportService {
     @Autowired
     private ConsultationMessageService consultationMessageService;
 
+    @Autowired
+    private LlmCallTracker llmCallTracker;
+
+    @Autowired
+    private EmotionPreClassifier emotionPreClassifier;
+
+    @Autowired
+    private CrisisResponseService crisisResponseService;
+
+    @Autowired
+    @Qualifier("chatEmotionExecutor")
+    private Executor chatEmotionExecutor;
+
+    /**
+     * 本实例正在生成回复的客户端消息（会话ID:客户端消息ID）
+     */
+    private final Set<String> repliesInProgress = ConcurrentHashMap.newKeySet();
+
     /**
      * 开始新的心理疏导会话
      *
@@ -61,7 +84,13 @@ public class PsychologicalSupportService {
             ConsultationSession dbSession = consultationSessionService.createSession(userId, createDTO);
             
             // 保存初始用户消息到数据库
-            consultationMessageService.saveUserMessage(dbSession.getId(), createDTO.getInitialMessage(), null);
+            ConsultationMessage initialMessage = consultationMessageService.saveUserMessage(dbSession.getId(),
+                    createDTO.getInitialMessage(), null, createDTO.getClientMessageId());
+            // 初始消息随后发起对话时按初始消息跳过保存，复核任务在这里创建
+            if (initialMessage != null) {
+                crisisResponseService.screenChatMessage(userId, dbSession.getId(), initialMessage.getSeq(),
+                        createDTO.getInitialMessage());
+            }
 
             // 创建会话ID（使用数据库会话ID）
             String sessionId = "session_" + dbSession.getId();
@@ -99,8 +128,16 @@ public class PsychologicalSupportService {
 
     /**
      * 流式心理疏导对话
+     *
+     * @param clientMessageId 客户端消息ID，可为空；重复提交时不会再次保存，已有回复时直接返回已保存的回复，
+     *                        原请求仍在生成时直接结束，尚无回复时（开始会话时保存的初始消息、上次生成失败）重新生成
+     * @param outputFilter    本次输出的过滤会话，回复经过滤后推送，保存到数据库和对话记忆的也是过滤后的文本
+     * @param crisisScan      用户消息的危机词扫描结果，命中时只为新保存的消息创建复核任务，重复提交不会重复创建
+     * @return 过滤后的输出片段
      */
-    public Flux<String> streamPsychologicalChat(String sessionId, String userMessage) {
+    public Flux<SensitiveWordStreamFilter.Segment> streamPsychologicalChat(String sessionId, String userMessage, String clientMessageId,
+                                                                           SensitiveWordStreamFilter.Session outputFilter,
+                                                                           CrisisTermDetector.Scan crisisScan) {
         log.info("开始流式心理疏导对话，会话ID: {}, 用户消息: {}", sessionId, userMessage);
 
         return Flux.create(sink -> {
@@ -124,85 +161,110 @@ public class PsychologicalSupportService {
                 // 生成conversationId用于ChatMemory
                 String conversationId = generateConversationId(sessionId);
 
+                // 同一条客户端消息同时只处理一个请求
+                String replyKey = clientMessageId == null ? null : dbSessionId + ":" + clientMessageId;
+                if (replyKey != null) {
+                    if (!repliesInProgress.add(replyKey)) {
+                        log.info("重复提交的消息正在生成回复，本次请求直接结束，会话ID: {}, clientMessageId: {}",
+                                sessionId, clientMessageId);
+                        sink.complete();
+                        return;
+                    }
+                    sink.onDispose(() -> repliesInProgress.remove(replyKey));
+                }
+
                 // 保存用户消息到数据库（检查是否为初始消息，避免重复保存）
+                boolean resubmitted = false;
+                ConsultationMessage savedMessage = null;
                 try {
-                    Integer messageCount = consultationMessageService.getMessageCountBySessionId(dbSessionId);
                     boolean isInitialMessage = false;
-                    
-                    if (messageCount == 1) {
+                    // 携带客户端消息ID时由消息服务按ID去重；未携带时，仅当会话只分配过一个序号
+                    // 且该消息内容相同，才视为开始会话时已保存的初始消息，其余轮次无需额外查询
+                    if (clientMessageId == null && dbSession.getMessageSeq() != null && dbSession.getMessageSeq() == 1) {
                         ConsultationMessageResponseDTO lastMessage = consultationMessageService.getLastMessageBySessionId(dbSessionId);
-                        if (lastMessage != null && lastMessage.getSenderType() == 1 && 
-                            userMessage.equals(lastMessage.getContent())) {
-                            isInitialMessage = true;
-                            log.info("检测到重复的初始消息，跳过保存");
-                        }
+                        isInitialMessage = lastMessage != null
+                                && lastMessage.getSenderType() == 1
+                                && userMessage.equals(lastMessage.getContent());
                     }
-                    
-                    if (!isInitialMessage) {
-                        consultationMessageService.saveUserMessage(dbSessionId, userMessage, null);
-                        log.info("用户消息已保存到数据库");
+                    if (isInitialMessage) {
+                        log.info("检测到重复的初始消息，跳过保存");
+                    } else {
+                        savedMessage = consultationMessageService.saveUserMessage(dbSessionId, userMessage, null, clientMessageId);
+                        if (savedMessage != null) {
+                            log.info("用户消息已保存到数据库");
+                        } else {
+                            resubmitted = true;
+                        }
                     }
                 } catch (Exception e) {
                     log.warn("保存用户消息到数据库失败: {}", e.getMessage());
+                    // 消息未能保存时仍创建复核任务（不带消息序号），宁可重复也不漏掉预警
+                    crisisResponseService.escalateChatMessage(dbSession.getUserId(), dbSessionId, null, userMessage, crisisScan);
                 }
 
-                // 添加用户消息到ChatMemory
-                List<Message> userMessages = new ArrayList<>();
-                userMessages.add(new UserMessage(userMessage));
-                chatMemory.add(conversationId, userMessages);
-
-                // 异步执行情绪分析
-                CompletableFuture.runAsync(() -> {
-                    try {
-                        log.info("开始异步情绪分析，用户消息: {}", userMessage);
-                        StructOutPut.EmotionAnalysisResult emotionAnalysis = analyzeUserEmotion(userMessage);
-                        
-                        // 更新情绪分析到数据库会话表
+                // 危机复核任务只为本次新保存的消息创建，关联会话与消息序号
+                if (savedMessage != null) {
+                    crisisResponseService.escalateChatMessage(dbSession.getUserId(), dbSessionId,
+                            savedMessage.getSeq(), userMessage, crisisScan);
+                }
+
+                if (resubmitted) {
+                    // 重复提交：已有回复时原样返回，不再调用大模型，也不再写入对话记忆
+                    ConsultationMessage reply = consultationMessageService.findReplyTo(dbSessionId, clientMessageId);
+                    if (reply != null) {
+                        log.info("重复提交的消息已有回复，返回已保存的回复，会话ID: {}, clientMessageId: {}",
+                                sessionId, clientMessageId);
+                        outputFilter.accept(reply.getContent()).forEach(sink::next);
+                        outputFilter.finish().forEach(sink::next);
+                        sink.complete();
+                        return;
+                    }
+                    log.info("重复提交的消息尚无回复，重新生成，会话ID: {}, clientMessageId: {}", sessionId, clientMessageId);
+                } else {
+                    // 添加用户消息到ChatMemory
+                    List<Message> userMessages = new ArrayList<>();
+                    userMessages.add(new UserMessage(userMessage));
+                    chatMemory.add(conversationId, userMessages);
+                }
+
+                // 本地预分类：仅当情绪强度、负面度或相对上次分析的变化超过阈值时才调用大模型
+                EmotionPreClassifier.Classification provisional = emotionPreClassifier.classify(userMessage);
+                EmotionPreClassifier.Decision decision = emotionPreClassifier.decide(
+                        provisional, parseEmotionAnalysis(dbSession.getLastEmotionAnalysis()));
+                if (decision.escalate()) {
+                    // 异步执行情绪分析（专用线程池，队列满时跳过本条消息的分析）
+                    submitEmotionAnalysis(() -> {
                         try {
-                            JSONObject emotionJson = new JSONObject();
-                            emotionJson.set("primaryEmotion", emotionAnalysis.primaryEmotion());
-                            emotionJson.set("emotionScore", emotionAnalysis.emotionScore());
-                            emotionJson.set("isNegative", emotionAnalysis.isNegative());
-                            emotionJson.set("riskLevel", emotionAnalysis.riskLevel());
-                            emotionJson.set("keywords", emotionAnalysis.keywords());
-                            emotionJson.set("suggestion", emotionAnalysis.suggestion());
-                            emotionJson.set("icon", emotionAnalysis.icon());
-                            emotionJson.set("label", emotionAnalysis.label());
-                            emotionJson.set("riskDescription", emotionAnalysis.riskDescription());
-                            emotionJson.set("improvementSuggestions", emotionAnalysis.improvementSuggestions());
-                            emotionJson.set("timestamp", emotionAnalysis.timestamp());
-                            
-                            consultationSessionService.updateLastEmotionAnalysis(dbSessionId, JSONUtil.toJsonStr(emotionJson));
+                            log.info("开始异步情绪分析，升级原因: {}", decision.reason());
+                            StructOutPut.EmotionAnalysisResult emotionAnalysis = analyzeUserEmotion(userMessage);
+                            saveSessionEmotion(dbSessionId, emotionAnalysis, "llm");
+                            log.info("异步情绪分析完成，emotion={}, riskLevel={}",
+                                    emotionAnalysis.primaryEmotion(), emotionAnalysis.riskLevel());
                         } catch (Exception e) {
-                            log.warn("更新数据库情绪分析失败: {}", e.getMessage());
+                            log.error("异步情绪分析失败: {}", e.getMessage(), e);
                         }
+                    });
+                } else if (provisional.matched()) {
+                    saveSessionEmotion(dbSessionId, provisional.result(), "lexicon");
+                    log.debug("本地情绪预分类: emotion={}, 强度={}, 跳过大模型分析（{}）",
+                            provisional.result().primaryEmotion(), provisional.intensity(), decision.reason());
+                }
 
-                        log.info("异步情绪分析完成，emotion={}, riskLevel={}",
-                                emotionAnalysis.primaryEmotion(), emotionAnalysis.riskLevel());
-
-                    } catch (Exception e) {
-                        log.error("异步情绪分析失败: {}", e.getMessage(), e);
-                    }
-                });
-
-                StringBuilder fullResponse = new StringBuilder();
                 Prompt prompt = new Prompt(List.of(
                         new SystemMessage(PromptManage.PSYCHOLOGICAL_SUPPORT_SYSTEM_PROMPT)
                 ));
 
                 // 使用ChatClient进行对话，ChatMemory会自动管理上下文
-                chatClient.prompt(prompt)
-                        .user(userMessage)
-                        .advisors(advisorSpec -> advisorSpec
-                                .param(ChatMemory.CONVERSATION_ID, conversationId))
-                        .stream()
-                        .content()
-                        .doOnNext(fragment -> {
-                            fullResponse.append(fragment);
-                            sink.next(fragment);
-                        })
+                llmCallTracker.trackStream(LlmCallTracker.CALL_SITE_CHAT, chatClient.prompt(prompt)
+                                .user(userMessage)
+                                .advisors(advisorSpec -> advisorSpec
+                                        .param(ChatMemory.CONVERSATION_ID, conversationId))
+                                .stream()
+                                .chatResponse())
+                        .doOnNext(fragment -> outputFilter.accept(fragment).forEach(sink::next))
                         .doOnComplete(() -> {
-                            String completeResponse = fullResponse.toString();
+                            outputFilter.finish().forEach(sink::next);
+                            String completeResponse = outputFilter.summary().filteredContent();
 
                             // 保存AI回复到数据库
                             try {
@@ -234,6 +296,77 @@ public class PsychologicalSupportService {
 
 
 
+    /**
+     * 更新会话最新情绪分析
+     *
+     * @param source 分析来源：llm（大模型）/ lexicon（本地预分类）
+     */
+    private void saveSessionEmotion(Long dbSessionId, StructOutPut.EmotionAnalysisResult emotionAnalysis, String source) {
+        try {
+            JSONObject emotionJson = new JSONObject();
+            emotionJson.set("primaryEmotion", emotionAnalysis.primaryEmotion());
+            emotionJson.set("emotionScore", emotionAnalysis.emotionScore());
+            emotionJson.set("isNegative", emotionAnalysis.isNegative());
+            emotionJson.set("riskLevel", emotionAnalysis.riskLevel());
+            emotionJson.set("keywords", emotionAnalysis.keywords());
+            emotionJson.set("suggestion", emotionAnalysis.suggestion());
+            emotionJson.set("icon", emotionAnalysis.icon());
+            emotionJson.set("label", emotionAnalysis.label());
+            emotionJson.set("riskDescription", emotionAnalysis.riskDescription());
+            emotionJson.set("improvementSuggestions", emotionAnalysis.improvementSuggestions());
+            emotionJson.set("timestamp", emotionAnalysis.timestamp());
+            emotionJson.set("source", source);
+
+            consultationSessionService.updateLastEmotionAnalysis(dbSessionId, JSONUtil.toJsonStr(emotionJson));
+        } catch (Exception e) {
+            log.warn("更新数据库情绪分析失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 解析会话中保存的情绪分析JSON
+     *
+     * @param json 情绪分析JSON
+     * @return 情绪分析结果，为空或解析失败时返回null
+     */
+    public StructOutPut.EmotionAnalysisResult parseEmotionAnalysis(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            JSONObject emotionJson = JSONUtil.parseObj(json);
+            return new StructOutPut.EmotionAnalysisResult(
+                    emotionJson.getStr("primaryEmotion", "平静"),
+                    emotionJson.getInt("emotionScore", 50),
+                    emotionJson.getBool("isNegative", false),
+                    emotionJson.getInt("riskLevel", 0),
+                    emotionJson.getJSONArray("keywords") != null
+                            ? emotionJson.getJSONArray("keywords").toList(String.class) : new ArrayList<>(),
+                    emotionJson.getStr("suggestion", "保持现状"),
+                    emotionJson.getStr("icon", "😐"),
+                    emotionJson.getStr("label", "平静"),
+                    emotionJson.getStr("riskDescription", "情绪状态稳定"),
+                    emotionJson.getJSONArray("improvementSuggestions") != null
+                            ? emotionJson.getJSONArray("improvementSuggestions").toList(String.class) : List.of("保持现状"),
+                    emotionJson.getLong("timestamp", System.currentTimeMillis())
+            );
+        } catch (Exception e) {
+            log.warn("解析会话情绪分析失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 提交情绪分析任务，线程池拒绝时只记录日志，不影响对话主流程
+     */
+    private void submitEmotionAnalysis(Runnable task) {
+        try {
+            CompletableFuture.runAsync(task, chatEmotionExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("情绪分析线程池繁忙，本条消息跳过情绪分析: {}", e.getMessage());
+        }
+    }
+
     /**
      * 结束会话
      */
@@ -342,11 +475,12 @@ public class PsychologicalSupportService {
                     new SystemMessage(PromptManage.EMOTION_ANALYSIS_SYSTEM_PROMPT)
             ));
 
-            StructOutPut.EmotionAnalysisResult result = chatClient
-                    .prompt(prompt)
-                    .user("请快速分析以下内容的情绪状态：\n" + content)
-                    .call()
-                    .entity(StructOutPut.EmotionAnalysisResult.class);
+            StructOutPut.EmotionAnalysisResult result = llmCallTracker.callEntity(LlmCallTracker.CALL_SITE_EMOTION,
+                    () -> chatClient
+                            .prompt(prompt)
+                            .user("请快速分析以下内容的情绪状态：\n" + content)
+                            .call()
+                            .responseEntity(StructOutPut.EmotionAnalysisResult.class));
 
             log.info("情绪分析完成: emotion={}, riskLevel={}", result.primaryEmotion(), result.riskLevel());
             return result;
@@ -0,0 +1,238 @@
+package org.example.springboot.AiService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.util.AhoCorasickMatcher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 大模型流式输出过滤器
+ * 敏感词与风险标记（⚠️、💡 建议:）编译在同一个 Aho-Corasick 自动机中，每个流创建一个 {@link Session}，
+ * 自动机状态跨片段保留，只暂存可能构成词条前缀的末尾字符，因此被拆到多个 token 片段中的标记和敏感词也能识别
+ */
+@Slf4j
+@Component
+public class SensitiveWordStreamFilter {
+
+    private static final String LEXICON = "lexicon/sensitive-words.txt";
+
+    /**
+     * 风险/建议段落的最大暂存长度，超过后即使未遇到换行也先推送
+     */
+    private static final int MAX_MARKED_LINE = 500;
+
+    private final AhoCorasickMatcher<Term> matcher;
+    private final MeterRegistry meterRegistry;
+
+    public SensitiveWordStreamFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        AhoCorasickMatcher.Builder<Term> builder = AhoCorasickMatcher.builder();
+        loadLexicon(builder);
+        builder.add("⚠", new Term(SegmentType.RISK, null));
+        builder.add("💡 建议:", new Term(SegmentType.SUGGESTION, null));
+        builder.add("💡 建议：", new Term(SegmentType.SUGGESTION, null));
+        builder.add("💡建议", new Term(SegmentType.SUGGESTION, null));
+        this.matcher = builder.build();
+        log.info("输出敏感词典加载完成，词条数: {}", matcher.size());
+    }
+
+    /**
+     * 为一次流式输出创建过滤会话，会话非线程安全，需按片段顺序调用
+     */
+    public Session newSession() {
+        return new Session();
+    }
+
+    private void loadLexicon(AhoCorasickMatcher.Builder<Term> builder) {
+        ClassPathResource resource = new ClassPathResource(LEXICON);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                String severity = parts.length > 1 ? parts[1].trim() : "medium";
+                builder.add(parts[0].trim().toLowerCase(), new Term(SegmentType.NORMAL, severity));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("加载输出敏感词典失败: " + LEXICON, e);
+        }
+    }
+
+    private static int severityRank(String severity) {
+        return switch (severity) {
+            case "high" -> 3;
+            case "medium" -> 2;
+            default -> 1;
+        };
+    }
+
+    /**
+     * 片段类型
+     */
+    public enum SegmentType {
+        /**
+         * 普通回复内容
+         */
+        NORMAL,
+        /**
+         * ⚠️ 开头的风险提示段落
+         */
+        RISK,
+        /**
+         * 💡 建议: 开头的建议段落
+         */
+        SUGGESTION
+    }
+
+    /**
+     * 过滤后的输出片段
+     *
+     * @param type    片段类型
+     * @param content 内容（敏感词已替换）
+     */
+    public record Segment(SegmentType type, String content) {
+    }
+
+    /**
+     * 词条：type 为 NORMAL 时表示敏感词，severity 为其严重程度；否则为段落标记
+     */
+    private record Term(SegmentType type, String severity) {
+    }
+
+    /**
+     * 单次流式输出的过滤状态
+     */
+    public final class Session {
+
+        private int state = AhoCorasickMatcher.ROOT;
+        private final StringBuilder pending = new StringBuilder();
+        private final StringBuilder markedLine = new StringBuilder();
+        private final StringBuilder filtered = new StringBuilder();
+        private SegmentType mode = SegmentType.NORMAL;
+        private final Set<String> words = new LinkedHashSet<>();
+        private String severity = "low";
+        private List<Segment> out;
+
+        private Session() {
+        }
+
+        /**
+         * 处理一个输出片段
+         *
+         * @param fragment 大模型输出片段
+         * @return 可以立即推送的片段（可能为空，被暂存的字符会在后续片段或 finish 时输出）
+         */
+        public List<Segment> accept(String fragment) {
+            out = new ArrayList<>(2);
+            for (int i = 0; i < fragment.length(); i++) {
+                char c = fragment.charAt(i);
+                pending.append(c);
+                state = matcher.step(state, Character.toLowerCase(c));
+                for (AhoCorasickMatcher.Entry<Term> entry : matcher.outputs(state)) {
+                    int start = pending.length() - entry.pattern().length();
+                    Term term = entry.payload();
+                    if (term.type() == SegmentType.NORMAL) {
+                        onSensitiveWord(start, entry.pattern(), term.severity());
+                    } else {
+                        // 标记之前的内容按原类型输出，标记及其后内容直到换行归入风险/建议段落
+                        release(start);
+                        flushMarkedLine();
+                        mode = term.type();
+                    }
+                }
+                if (c == '\n' && mode != SegmentType.NORMAL) {
+                    release(pending.length());
+                    flushMarkedLine();
+                    mode = SegmentType.NORMAL;
+                }
+            }
+            release(pending.length() - matcher.depth(state));
+            return out;
+        }
+
+        /**
+         * 流结束，输出全部暂存内容
+         */
+        public List<Segment> finish() {
+            out = new ArrayList<>(2);
+            release(pending.length());
+            flushMarkedLine();
+            mode = SegmentType.NORMAL;
+            state = AhoCorasickMatcher.ROOT;
+            if (!words.isEmpty()) {
+                Counter.builder("llm.output.sensitive")
+                        .description("大模型输出命中敏感词的流数量")
+                        .tag("severity", severity)
+                        .register(meterRegistry)
+                        .increment();
+            }
+            return out;
+        }
+
+        /**
+         * 敏感词检测汇总
+         */
+        public StructOutPut.SensitiveWordResult summary() {
+            return new StructOutPut.SensitiveWordResult(!words.isEmpty(), List.copyOf(words), severity, filtered.toString());
+        }
+
+        private void onSensitiveWord(int start, String word, String wordSeverity) {
+            words.add(word);
+            if (severityRank(wordSeverity) > severityRank(severity)) {
+                severity = wordSeverity;
+            }
+            if (severityRank(wordSeverity) >= 2) {
+                for (int k = Math.max(0, start); k < pending.length(); k++) {
+                    pending.setCharAt(k, '*');
+                }
+            }
+        }
+
+        /**
+         * 输出暂存区前 length 个字符
+         */
+        private void release(int length) {
+            if (length <= 0) {
+                return;
+            }
+            String text = pending.substring(0, length);
+            pending.delete(0, length);
+            filtered.append(text);
+            if (mode != SegmentType.NORMAL) {
+                markedLine.append(text);
+                if (markedLine.length() >= MAX_MARKED_LINE) {
+                    flushMarkedLine();
+                }
+                return;
+            }
+            int last = out.size() - 1;
+            if (last >= 0 && out.get(last).type() == SegmentType.NORMAL) {
+                out.set(last, new Segment(SegmentType.NORMAL, out.get(last).content() + text));
+            } else {
+                out.add(new Segment(SegmentType.NORMAL, text));
+            }
+        }
+
+        private void flushMarkedLine() {
+            if (mode != SegmentType.NORMAL && !markedLine.isEmpty()) {
+                out.add(new Segment(mode, markedLine.toString()));
+                markedLine.setLength(0);
+            }
+        }
+    }
+}
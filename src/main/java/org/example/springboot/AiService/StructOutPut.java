@@ -56,6 +56,26 @@ public class StructOutPut {
             long timestamp
     ) {}
 
+    /**
+     * 危机检测结果
+     * @param isCrisis 是否存在心理危机
+     * @param urgencyLevel 紧急程度：0-无危机，1-轻度关注，2-中度预警，3-高度危机
+     * @param crisisSignals 识别到的危机信号
+     * @param immediateRisk 即时安全风险说明
+     * @param recommendedActions 建议的处理措施
+     * @param needsProfessionalHelp 是否需要专业干预
+     * @param summary 简要结论
+     */
+    public record CrisisDetectionResult(
+            boolean isCrisis,
+            int urgencyLevel,
+            List<String> crisisSignals,
+            String immediateRisk,
+            List<String> recommendedActions,
+            boolean needsProfessionalHelp,
+            String summary
+    ) {}
+
     /**
      * 敏感词检测结果
      * @param hasSensitiveWords 是否包含敏感词
@@ -0,0 +1,45 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * 分片上传初始化请求DTO
+ * @author system
+ */
+@Data
+@Schema(description = "分片上传初始化请求DTO")
+public class ChunkedUploadInitDTO {
+
+    @NotBlank(message = "文件名不能为空")
+    @Schema(description = "原始文件名", example = "lecture.mp4")
+    private String originalName;
+
+    @NotNull(message = "文件大小不能为空")
+    @Positive(message = "文件大小必须大于0")
+    @Schema(description = "文件总大小(字节)", example = "104857600")
+    private Long fileSize;
+
+    @Schema(description = "分片大小(字节)，为空时使用服务端默认值", example = "5242880")
+    private Integer chunkSize;
+
+    @NotBlank(message = "业务类型不能为空")
+    @Schema(description = "业务类型", example = "ARTICLE")
+    private String businessType;
+
+    @NotBlank(message = "业务对象ID不能为空")
+    @Schema(description = "业务对象ID（支持数字ID和UUID格式）", example = "1")
+    private String businessId;
+
+    @Schema(description = "业务字段名", example = "video")
+    private String businessField;
+
+    @Schema(description = "是否临时文件", example = "false")
+    private Boolean isTemp;
+
+    @Schema(description = "完成后是否替换旧文件", example = "false")
+    private Boolean replaceOld;
+}
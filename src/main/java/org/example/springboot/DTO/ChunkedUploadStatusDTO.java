@@ -0,0 +1,43 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 分片上传状态DTO（初始化与续传查询共用）
+ * @author system
+ */
+@Data
+@Schema(description = "分片上传状态DTO")
+public class ChunkedUploadStatusDTO {
+
+    @Schema(description = "上传ID")
+    private String uploadId;
+
+    @Schema(description = "原始文件名")
+    private String originalName;
+
+    @Schema(description = "文件总大小(字节)")
+    private Long fileSize;
+
+    @Schema(description = "分片大小(字节)")
+    private Integer chunkSize;
+
+    @Schema(description = "分片总数")
+    private Integer totalChunks;
+
+    @Schema(description = "已接收的分片序号，续传时跳过")
+    private List<Integer> receivedChunks;
+
+    @Schema(description = "状态：UPLOADING-上传中，COMPLETING-合并中，COMPLETED-已完成")
+    private String status;
+
+    @Schema(description = "完成后生成的文件ID")
+    private Long fileId;
+
+    @Schema(description = "过期时间")
+    private LocalDateTime expireTime;
+}
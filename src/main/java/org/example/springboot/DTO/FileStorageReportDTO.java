@@ -0,0 +1,80 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 文件存储对账报告DTO
+ * @author system
+ */
+@Data
+@Schema(description = "文件存储对账报告DTO")
+public class FileStorageReportDTO {
+
+    @Schema(description = "开始时间")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "耗时(毫秒)")
+    private long durationMillis;
+
+    @Schema(description = "磁盘文件数（不含衍生图与预压缩副本）")
+    private long diskFiles;
+
+    @Schema(description = "磁盘占用字节数（含衍生图与预压缩副本）")
+    private long diskBytes;
+
+    @Schema(description = "衍生图与预压缩副本字节数")
+    private long derivedBytes;
+
+    @Schema(description = "内容存储中无记录引用的文件数（未删除部分）")
+    private long orphanContentFiles;
+
+    @Schema(description = "内容存储中无记录引用的字节数（未删除部分）")
+    private long orphanContentBytes;
+
+    @Schema(description = "本次删除的无引用文件数")
+    private long deletedFiles;
+
+    @Schema(description = "本次删除的字节数")
+    private long deletedBytes;
+
+    @Schema(description = "内容存储以外未登记的文件数（可能由其他表直接引用，只统计不删除）")
+    private long unregisteredFiles;
+
+    @Schema(description = "内容存储以外未登记的字节数")
+    private long unregisteredBytes;
+
+    @Schema(description = "未登记文件路径样例")
+    private List<String> unregisteredSamples = new ArrayList<>();
+
+    @Schema(description = "有效文件记录数")
+    private long recordCount;
+
+    @Schema(description = "物理文件缺失的记录数")
+    private long missingFiles;
+
+    @Schema(description = "物理文件缺失的路径样例")
+    private List<String> missingSamples = new ArrayList<>();
+
+    @Schema(description = "按业务类型统计的记录数与字节数（共享内容按记录分别计算）")
+    private Map<String, BusinessTypeUsage> businessTypes = new TreeMap<>();
+
+    /**
+     * 业务类型用量
+     */
+    @Data
+    public static class BusinessTypeUsage {
+
+        @Schema(description = "记录数")
+        private long files;
+
+        @Schema(description = "字节数")
+        private long bytes;
+    }
+}
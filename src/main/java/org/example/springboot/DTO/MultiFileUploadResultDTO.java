@@ -0,0 +1,59 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量文件上传结果DTO
+ * @author system
+ */
+@Data
+@Schema(description = "批量文件上传结果DTO")
+public class MultiFileUploadResultDTO {
+
+    @Schema(description = "逐个文件的上传结果，与提交顺序一致")
+    private List<Item> items = new ArrayList<>();
+
+    @Schema(description = "成功数量")
+    private int successCount;
+
+    @Schema(description = "失败数量")
+    private int failedCount;
+
+    @Schema(description = "成功写入的总字节数")
+    private long totalBytes;
+
+    @Schema(description = "总耗时(毫秒)")
+    private long elapsedMillis;
+
+    @Schema(description = "整体吞吐量(字节/秒)")
+    private long bytesPerSecond;
+
+    /**
+     * 单个文件的上传结果
+     */
+    @Data
+    public static class Item {
+
+        @Schema(description = "在本次提交中的序号（从0开始）")
+        private int index;
+
+        @Schema(description = "原始文件名")
+        private String originalName;
+
+        @Schema(description = "文件大小")
+        private long size;
+
+        @Schema(description = "是否成功")
+        private boolean success;
+
+        @Schema(description = "访问路径，失败时为空")
+        private String filePath;
+
+        @Schema(description = "失败原因")
+        private String message;
+    }
+}
@@ -23,4 +23,8 @@ public class ConsultationSessionCreateDTO {
     @NotBlank(message = "初始消息不能为空")
     @Size(max = 2000, message = "初始消息长度不能超过2000个字符")
     private String initialMessage;
+
+    @Schema(description = "初始消息的客户端消息ID，流式对话再次提交同一ID时不会重复保存")
+    @Size(max = 64, message = "客户端消息ID长度不能超过64个字符")
+    private String clientMessageId;
 }
@@ -19,6 +19,12 @@ public class AiAnalysisTaskResponseDTO {
     @Schema(description = "日记ID")
     private Long diaryId;
 
+    @Schema(description = "会话ID")
+    private Long sessionId;
+
+    @Schema(description = "消息序号")
+    private Long messageSeq;
+
     @Schema(description = "用户ID")
     private Long userId;
 
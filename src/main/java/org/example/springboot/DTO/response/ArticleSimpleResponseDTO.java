@@ -37,6 +37,9 @@ public class ArticleSimpleResponseDTO {
     @Schema(description = "封面图片")
     private String coverImage;
 
+    @Schema(description = "封面缩略图地址（列表展示用，外部图片为空时使用原图）")
+    private String coverThumbnail;
+
     @Schema(description = "标签")
     private String tags;
 
@@ -0,0 +1,50 @@
+package org.example.springboot.DTO.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 咨询消息历史分页响应DTO（按序号向前翻页）
+ * @author system
+ */
+@Data
+@Schema(description = "咨询消息历史分页响应DTO")
+public class ConsultationMessageHistoryDTO {
+
+    @Schema(description = "本页消息，按序号正序排列")
+    private List<MessageItem> messages;
+
+    @Schema(description = "是否还有更早的消息")
+    private Boolean hasMore;
+
+    @Schema(description = "加载更早消息时使用的游标（本页最小序号），没有更早消息时为空")
+    private Long nextBeforeSeq;
+
+    /**
+     * 消息渲染所需的字段
+     */
+    @Data
+    @Schema(description = "历史消息")
+    public static class MessageItem {
+        @Schema(description = "消息ID（尚未落库的消息为空）")
+        private Long id;
+
+        @Schema(description = "会话内消息序号")
+        private Long seq;
+
+        @Schema(description = "发送者类型 1:用户 2:AI助手")
+        private Integer senderType;
+
+        @Schema(description = "消息内容")
+        private String content;
+
+        @Schema(description = "情绪标签")
+        private String emotionTag;
+
+        @Schema(description = "创建时间")
+        private LocalDateTime createdAt;
+    }
+}
@@ -19,6 +19,9 @@ public class ConsultationMessageResponseDTO {
     @Schema(description = "会话ID")
     private Long sessionId;
 
+    @Schema(description = "会话内消息序号，可作为分页游标")
+    private Long seq;
+
     @Schema(description = "发送者类型 1:用户 2:AI助手")
     private Integer senderType;
 
@@ -0,0 +1,47 @@
+package org.example.springboot.DTO.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 聊天记录检索结果DTO（按会话分组）
+ * @author system
+ */
+@Data
+@Schema(description = "聊天记录检索结果DTO")
+public class ConsultationSearchResultDTO {
+
+    @Schema(description = "会话ID")
+    private Long sessionId;
+
+    @Schema(description = "会话标题")
+    private String sessionTitle;
+
+    @Schema(description = "本次检索在该会话中命中的消息数（受检索上限约束）")
+    private Integer hitCount;
+
+    @Schema(description = "命中消息片段，最近的在前")
+    private List<MessageSnippet> snippets;
+
+    /**
+     * 命中消息片段
+     */
+    @Data
+    @Schema(description = "命中消息片段")
+    public static class MessageSnippet {
+        @Schema(description = "会话内消息序号，可用于定位消息")
+        private Long seq;
+
+        @Schema(description = "发送者类型 1:用户 2:AI助手")
+        private Integer senderType;
+
+        @Schema(description = "高亮片段（已转义HTML，命中词以<em>标记）")
+        private String snippet;
+
+        @Schema(description = "创建时间")
+        private LocalDateTime createdAt;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.springboot.DTO.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 测评历史分页响应DTO（按记录ID向前翻页）
+ * @author system
+ */
+@Data
+@Schema(description = "测评历史分页响应DTO")
+public class EvaluationHistoryDTO {
+
+    @Schema(description = "本页记录，按测试时间倒序排列，不含答题记录")
+    private List<EvaluationResultDTO> records;
+
+    @Schema(description = "是否还有更早的记录")
+    private Boolean hasMore;
+
+    @Schema(description = "加载更早记录时使用的游标（本页最小记录ID），没有更早记录时为空")
+    private Integer nextBeforeId;
+}
@@ -26,9 +26,12 @@ public class EvaluationResultDTO {
     @Schema(description = "得分")
     private String score;
 
-    @Schema(description = "结果解读")
+    @Schema(description = "结果解读（生成中时为已生成的部分）")
     private String result;
 
+    @Schema(description = "AI解读状态：PENDING/COMPLETED/FAILED")
+    private String analysisStatus;
+
     @Schema(description = "测试时间")
     private String testtime;
 
@@ -35,6 +35,9 @@ public class UserDetailResponseDTO {
     @Schema(description = "头像", example = "/avatars/admin.jpg")
     private String avatar;
 
+    @Schema(description = "头像缩略图地址（外部图片为空时使用原图）")
+    private String avatarThumbnail;
+
     @Schema(description = "手机号", example = "13800138000")
     private String phone;
 
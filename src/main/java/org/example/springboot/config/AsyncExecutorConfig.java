@@ -0,0 +1,158 @@
+package org.example.springboot.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 后台任务线程池配置
+ *
+ * chatEmotionExecutor        对话消息情绪分析
+ * diaryAnalysisExecutor      情绪日记AI分析
+ * evaluationAnalysisExecutor 测评报告AI分析
+ * crisisDetectionExecutor    危机预警大模型复核
+ * maintenanceExecutor        维护类任务，同时作为 @Async 默认线程池
+ * fileIoExecutor             批量上传文件的并发写盘
+ * applicationTaskExecutor    Spring MVC 异步请求（SSE 流式输出、Callable）
+ *
+ * 线程池指标（executor.active / executor.queued / executor.completed 等）由Actuator按Bean名称自动导出，
+ * 拒绝次数通过 executor.rejected 计数器导出
+ *
+ * 执行模式：spring.threads.virtual.enabled=true 且运行在 JDK 21+ 时，改为每任务一个虚拟线程，
+ * 以 virtual-concurrency-limit 限制并发，超出时与平台线程池一样先进入 queue-capacity 等待队列，队列满后按拒绝策略处理，
+ * 并由 BoundedVirtualTaskExecutor 自行导出同名指标；否则使用平台线程池
+ */
+@Slf4j
+@Configuration
+public class AsyncExecutorConfig implements AsyncConfigurer {
+
+    private final AsyncExecutorProperties properties;
+    private final SqlBudgetTaskDecorator sqlBudgetTaskDecorator;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    public AsyncExecutorConfig(AsyncExecutorProperties properties,
+                               SqlBudgetTaskDecorator sqlBudgetTaskDecorator,
+                               MeterRegistry meterRegistry,
+                               Environment environment) {
+        this.properties = properties;
+        this.sqlBudgetTaskDecorator = sqlBudgetTaskDecorator;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+    }
+
+    @Bean
+    public AsyncTaskExecutor chatEmotionExecutor() {
+        return buildExecutor("chatEmotionExecutor", "chat-emotion-", properties.getChatEmotion());
+    }
+
+    @Bean
+    public AsyncTaskExecutor diaryAnalysisExecutor() {
+        return buildExecutor("diaryAnalysisExecutor", "diary-analysis-", properties.getDiaryAnalysis());
+    }
+
+    @Bean
+    public AsyncTaskExecutor evaluationAnalysisExecutor() {
+        return buildExecutor("evaluationAnalysisExecutor", "evaluation-analysis-", properties.getEvaluationAnalysis());
+    }
+
+    @Bean
+    public AsyncTaskExecutor crisisDetectionExecutor() {
+        return buildExecutor("crisisDetectionExecutor", "crisis-detection-", properties.getCrisisDetection());
+    }
+
+    @Bean
+    public AsyncTaskExecutor maintenanceExecutor() {
+        return buildExecutor("maintenanceExecutor", "maintenance-", properties.getMaintenance());
+    }
+
+    @Bean
+    public AsyncTaskExecutor fileIoExecutor() {
+        return buildExecutor("fileIoExecutor", "file-io-", properties.getFileIo());
+    }
+
+    /**
+     * 声明了上面的 Executor Bean 后，Boot 不再自动配置 applicationTaskExecutor，
+     * MVC 异步请求会退回到 SimpleAsyncTaskExecutor（每次新建线程，也不经过 SqlBudgetTaskDecorator），
+     * 因此按 Boot 约定的名称显式声明，由 WebMvcAutoConfiguration 自动设为 MVC 异步执行器
+     */
+    @Bean(name = "applicationTaskExecutor")
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return buildExecutor("applicationTaskExecutor", "mvc-async-", properties.getWebAsync());
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return maintenanceExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) ->
+                log.error("异步任务执行异常，方法: {}，错误: {}", method.getName(), ex.getMessage(), ex);
+    }
+
+    private AsyncTaskExecutor buildExecutor(String name, String threadPrefix, AsyncExecutorProperties.Pool pool) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return buildVirtualExecutor(name, threadPrefix, pool);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadPrefix);
+        executor.setCorePoolSize(pool.getCoreSize());
+        executor.setMaxPoolSize(Math.max(pool.getCoreSize(), pool.getMaxSize()));
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setKeepAliveSeconds(pool.getKeepAliveSeconds());
+        executor.setAllowCoreThreadTimeOut(false);
+        executor.setTaskDecorator(sqlBudgetTaskDecorator);
+        executor.setRejectedExecutionHandler(countingHandler(name, pool.getRejectionPolicy()));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(pool.getAwaitTerminationSeconds());
+        log.info("初始化线程池 {}：core={}，max={}，queue={}，拒绝策略={}",
+                name, pool.getCoreSize(), pool.getMaxSize(), pool.getQueueCapacity(), pool.getRejectionPolicy());
+        return executor;
+    }
+
+    /**
+     * 虚拟线程执行器：不复用线程，只限制并发数，超出上限时排队，队列满后按同一拒绝策略处理
+     */
+    private AsyncTaskExecutor buildVirtualExecutor(String name, String threadPrefix, AsyncExecutorProperties.Pool pool) {
+        log.info("初始化虚拟线程执行器 {}：并发上限={}，拒绝策略={}",
+                name, pool.getVirtualConcurrencyLimit(), pool.getRejectionPolicy());
+        return new BoundedVirtualTaskExecutor(name, threadPrefix, pool, sqlBudgetTaskDecorator, meterRegistry);
+    }
+
+    /**
+     * 包装拒绝策略，记录拒绝次数
+     */
+    private RejectedExecutionHandler countingHandler(String name, AsyncExecutorProperties.RejectionPolicy policy) {
+        RejectedExecutionHandler delegate = switch (policy == null ? AsyncExecutorProperties.RejectionPolicy.CALLER_RUNS : policy) {
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+            case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+            case DISCARD_OLDEST -> new ThreadPoolExecutor.DiscardOldestPolicy();
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+        };
+        Counter rejected = Counter.builder("executor.rejected")
+                .description("线程池拒绝任务次数")
+                .tag("name", name)
+                .tag("policy", String.valueOf(policy))
+                .register(meterRegistry);
+        return (task, executor) -> {
+            rejected.increment();
+            log.warn("线程池 {} 已满（活跃 {}，排队 {}），按 {} 策略处理",
+                    name, executor.getActiveCount(), executor.getQueue().size(), policy);
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 后台任务线程池配置
+ * 按业务负载拆分线程池，避免慢速的大模型调用占满公共线程池
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "async.executors")
+public class AsyncExecutorProperties {
+
+    /**
+     * 对话消息情绪分析：队列为所有用户共享，满时拒绝新提交的任务（提交方记录日志并跳过本条消息），
+     * 不丢弃队列中其他用户已排队的任务
+     */
+    private Pool chatEmotion = new Pool(4, 8, 200, RejectionPolicy.ABORT);
+
+    /**
+     * 情绪日记AI分析：保存日记时在事务提交回调中提交，此时事务连接尚未归还，队列满时拒绝，
+     * 由提交方跳过本次分析（保存日记）或返回失败（手动、批量触发），不能让提交线程自己执行分析
+     */
+    private Pool diaryAnalysis = new Pool(2, 4, 500, RejectionPolicy.ABORT);
+
+    /**
+     * 测评报告AI分析：任务在提交测评的请求线程上登记，队列满时拒绝，由调用方直接写入默认解读，
+     * 不能让请求线程自己执行长达数分钟的生成
+     */
+    private Pool evaluationAnalysis = new Pool(2, 4, 100, RejectionPolicy.ABORT);
+
+    /**
+     * 危机预警大模型复核：同样在事务提交回调中提交，队列满时拒绝；
+     * 紧急复核任务已落库并保持待处理状态，由人工跟进，预警不会丢失
+     */
+    private Pool crisisDetection = new Pool(1, 4, 200, RejectionPolicy.ABORT);
+
+    /**
+     * 维护类任务（文件清理、数据删除等），同时作为 @Async 默认线程池
+     */
+    private Pool maintenance = new Pool(1, 2, 1000, RejectionPolicy.CALLER_RUNS);
+
+    /**
+     * 批量上传文件的并发写盘：线程数即单机同时写盘的文件数上限，队列满时由请求线程自行写入
+     */
+    private Pool fileIo = new Pool(4, 8, 100, RejectionPolicy.CALLER_RUNS);
+
+    /**
+     * Spring MVC 异步请求（SSE 流式输出逐条写回、Callable）：单个任务很短，队列满时由提交线程写回
+     */
+    private Pool webAsync = new Pool(8, 32, 1000, RejectionPolicy.CALLER_RUNS);
+
+    /**
+     * 线程池参数
+     */
+    @Data
+    public static class Pool {
+        /**
+         * 核心线程数
+         */
+        private int coreSize;
+
+        /**
+         * 最大线程数
+         */
+        private int maxSize;
+
+        /**
+         * 队列容量
+         */
+        private int queueCapacity;
+
+        /**
+         * 空闲线程存活时间（秒）
+         */
+        private int keepAliveSeconds = 60;
+
+        /**
+         * 队列满时的拒绝策略
+         */
+        private RejectionPolicy rejectionPolicy;
+
+        /**
+         * 虚拟线程模式下的最大并发任务数
+         */
+        private int virtualConcurrencyLimit = 16;
+
+        /**
+         * 关闭时等待任务完成的最长时间（秒）
+         */
+        private int awaitTerminationSeconds = 30;
+
+        public Pool() {
+        }
+
+        public Pool(int coreSize, int maxSize, int queueCapacity, RejectionPolicy rejectionPolicy) {
+            this.coreSize = coreSize;
+            this.maxSize = maxSize;
+            this.queueCapacity = queueCapacity;
+            this.rejectionPolicy = rejectionPolicy;
+        }
+    }
+
+    /**
+     * 拒绝策略
+     */
+    public enum RejectionPolicy {
+        /**
+         * 由提交线程执行
+         */
+        CALLER_RUNS,
+        /**
+         * 抛出 RejectedExecutionException
+         */
+        ABORT,
+        /**
+         * 丢弃当前任务
+         */
+        DISCARD,
+        /**
+         * 丢弃队列中最旧的任务
+         */
+        DISCARD_OLDEST
+    }
+}
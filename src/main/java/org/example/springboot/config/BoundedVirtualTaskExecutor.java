@@ -0,0 +1,177 @@
+package org.example.springboot.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有界虚拟线程执行器
+ * 每个任务一个虚拟线程，以信号量限制同时运行的任务数；许可用完时任务进入容量为 queue-capacity 的等待队列，
+ * 正在运行的任务结束后按提交顺序取出执行，与平台线程池一样先排队再拒绝。
+ * 队列也满时按配置的拒绝策略处理：DISCARD_OLDEST 丢弃队首任务后再入队，提交方不会被阻塞（CALLER_RUNS 除外）。
+ * 导出与平台线程池同名的指标（executor.active / executor.queued / executor.completed / executor.pool.max / executor.rejected），
+ * 切换执行模式后监控面板无需调整
+ * @author system
+ */
+@Slf4j
+public class BoundedVirtualTaskExecutor implements AsyncTaskExecutor, AutoCloseable {
+
+    private static final long CLOSE_POLL_MILLIS = 50;
+
+    private final String name;
+    private final int concurrencyLimit;
+    private final int queueCapacity;
+    private final AsyncExecutorProperties.RejectionPolicy policy;
+    private final TaskDecorator taskDecorator;
+    private final long awaitTerminationMillis;
+    private final VirtualThreadTaskExecutor threads;
+    private final Semaphore permits;
+    private final BlockingDeque<Runnable> queue;
+    private final AtomicLong completed = new AtomicLong();
+    private final Counter rejected;
+
+    public BoundedVirtualTaskExecutor(String name, String threadPrefix, AsyncExecutorProperties.Pool pool,
+                                      TaskDecorator taskDecorator, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.concurrencyLimit = Math.max(1, pool.getVirtualConcurrencyLimit());
+        this.policy = pool.getRejectionPolicy() == null
+                ? AsyncExecutorProperties.RejectionPolicy.CALLER_RUNS : pool.getRejectionPolicy();
+        this.taskDecorator = taskDecorator;
+        this.awaitTerminationMillis = pool.getAwaitTerminationSeconds() * 1000L;
+        this.threads = new VirtualThreadTaskExecutor(threadPrefix);
+        this.permits = new Semaphore(concurrencyLimit);
+        this.queue = new LinkedBlockingDeque<>(Math.max(1, pool.getQueueCapacity()));
+        this.queueCapacity = Math.max(0, pool.getQueueCapacity());
+
+        Gauge.builder("executor.active", permits, p -> concurrencyLimit - p.availablePermits())
+                .description("正在执行的任务数")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("executor.queued", queue, BlockingDeque::size)
+                .description("排队中的任务数")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("executor.pool.max", () -> concurrencyLimit)
+                .description("最大并发任务数")
+                .tag("name", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("executor.completed", completed, AtomicLong::get)
+                .description("已完成的任务数")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("executor.rejected")
+                .description("线程池拒绝任务次数")
+                .tag("name", name)
+                .tag("policy", String.valueOf(policy))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Runnable decorated = taskDecorator == null ? task : taskDecorator.decorate(task);
+        if (permits.tryAcquire()) {
+            start(decorated);
+            return;
+        }
+        if (!enqueue(decorated)) {
+            reject(decorated);
+            return;
+        }
+        // 入队前可能恰好有任务结束并释放了许可，补一次调度，避免任务滞留在队列中
+        drain();
+    }
+
+    /**
+     * 在已持有许可的前提下启动任务，任务结束后释放许可并调度队列中的下一个任务
+     */
+    private void start(Runnable task) {
+        try {
+            threads.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    completed.incrementAndGet();
+                    permits.release();
+                    drain();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private boolean enqueue(Runnable task) {
+        return queueCapacity > 0 && queue.offerLast(task);
+    }
+
+    /**
+     * 有空闲许可时按提交顺序启动排队的任务
+     */
+    private void drain() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            Runnable next = queue.pollFirst();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            start(next);
+        }
+    }
+
+    private void reject(Runnable task) {
+        rejected.increment();
+        log.warn("虚拟线程执行器 {} 已满（并发上限 {}，排队 {}），按 {} 策略处理",
+                name, concurrencyLimit, queue.size(), policy);
+        switch (policy) {
+            case CALLER_RUNS -> {
+                try {
+                    task.run();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            }
+            case ABORT -> throw new RejectedExecutionException(
+                    "执行器 " + name + " 已达并发上限 " + concurrencyLimit + " 且队列已满");
+            case DISCARD -> {
+            }
+            case DISCARD_OLDEST -> {
+                queue.pollFirst();
+                if (enqueue(task)) {
+                    drain();
+                }
+            }
+        }
+    }
+
+    /**
+     * 关闭时等待正在执行和排队中的任务完成，最长等待 awaitTerminationSeconds
+     */
+    @Override
+    public void close() {
+        long deadline = System.currentTimeMillis() + awaitTerminationMillis;
+        try {
+            while (!queue.isEmpty() || permits.availablePermits() < concurrencyLimit) {
+                if (System.currentTimeMillis() >= deadline) {
+                    log.warn("虚拟线程执行器 {} 关闭时仍有 {} 个任务未完成，{} 个任务排队中", name,
+                            concurrencyLimit - permits.availablePermits(), queue.size());
+                    return;
+                }
+                Thread.sleep(CLOSE_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分片上传配置
+ * 大文件按分片上传到预分配的文件中，分片可并发、乱序上传，断线后按已接收分片续传
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file.chunked-upload")
+public class ChunkedUploadProperties {
+
+    /**
+     * 客户端未指定时的分片大小（字节）
+     */
+    private int defaultChunkSize = 5 * 1024 * 1024;
+
+    /**
+     * 允许的最小分片大小（字节），避免分片过多
+     */
+    private int minChunkSize = 256 * 1024;
+
+    /**
+     * 允许的最大分片大小（字节）
+     */
+    private int maxChunkSize = 16 * 1024 * 1024;
+
+    /**
+     * 分片上传的单文件大小上限（字节）
+     */
+    private long maxFileSize = 2L * 1024 * 1024 * 1024;
+
+    /**
+     * 上传会话在最后一次接收分片后保留的时间（小时），过期后清理已上传的分片
+     */
+    private int expireHours = 24;
+
+    /**
+     * 分片写入目录（位于文件上传目录下，需与内容存储在同一文件系统）
+     */
+    private String directory = "uploads";
+}
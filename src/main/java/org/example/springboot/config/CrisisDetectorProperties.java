@@ -0,0 +1,41 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 危机词检测配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "crisis.detector")
+public class CrisisDetectorProperties {
+
+    /**
+     * 是否启用危机词检测
+     */
+    private boolean enabled = true;
+
+    /**
+     * 危机词典路径
+     */
+    private String lexicon = "lexicon/crisis-terms.txt";
+
+    /**
+     * 命中后是否创建紧急复核任务
+     */
+    private boolean reviewTaskEnabled = true;
+
+    /**
+     * 命中后是否调用大模型（CRISIS_DETECTION_SYSTEM_PROMPT）复核
+     */
+    private boolean llmConfirmEnabled = true;
+
+    /**
+     * 对话中命中危机词时立即推送给用户的提示
+     */
+    private String warningMessage = "⚠️ 我注意到你现在可能非常痛苦，你的安全最重要。"
+            + "如果你有伤害自己的想法，请立即联系身边信任的人，或拨打心理援助热线 12356；"
+            + "情况紧急时请拨打 110 或 120。我会一直在这里陪你聊。";
+}
@@ -0,0 +1,40 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 级联删除任务配置
+ * 每条 DELETE 最多删除 chunk-size 行并立即提交，块之间暂停 pause-millis，避免长时间锁住热点表
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "deletion-job")
+public class DeletionJobProperties {
+
+    /**
+     * 每块删除的最大行数
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * 两块之间的暂停时间（毫秒），用于限流
+     */
+    private long pauseMillis = 50;
+
+    /**
+     * 轮询待执行任务的间隔（秒），同时负责接管租约过期的任务
+     */
+    private long pollIntervalSeconds = 30;
+
+    /**
+     * 执行中任务的租约时长（秒），超过该时间未更新进度视为执行者已失效，可被重新接管
+     */
+    private long leaseSeconds = 120;
+
+    /**
+     * 关闭时等待当前块完成的最长时间（秒）
+     */
+    private int shutdownTimeoutSeconds = 10;
+}
@@ -0,0 +1,45 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 本地情绪预分类配置
+ * 控制对话消息何时升级为大模型情绪分析
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "emotion.pre-classifier")
+public class EmotionPreClassifierProperties {
+
+    /**
+     * 是否启用预分类门控，关闭后每条消息都调用大模型
+     */
+    private boolean enabled = true;
+
+    /**
+     * 情绪词典路径
+     */
+    private String lexicon = "lexicon/emotion-lexicon.txt";
+
+    /**
+     * 情绪强度（0-100）达到该值时升级
+     */
+    private int intensityThreshold = 70;
+
+    /**
+     * 负面度（负面情绪占比 × 情绪强度，0-1）达到该值且主情绪为负面时升级
+     */
+    private double negativityThreshold = 0.5;
+
+    /**
+     * 与上次分析相比情绪强度变化达到该值时升级
+     */
+    private int changeThreshold = 30;
+
+    /**
+     * 未命中词典时，消息长度达到该值才升级（过滤"嗯"、"好的"等短回复）
+     */
+    private int unmatchedMinLength = 20;
+}
@@ -1,14 +1,21 @@
 package org.example.springboot.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.DTO.FileStorageReportDTO;
+import org.example.springboot.service.ChunkedUploadService;
 import org.example.springboot.service.FileService;
+import org.example.springboot.service.FileStorageReconciler;
+import org.example.springboot.service.ScheduledJobRunner;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.Resource;
 
+import java.time.Duration;
+
 /**
  * 文件清理定时任务
+ * 任务经 ScheduledJobRunner 执行，多实例部署时同一时刻只有一个节点执行
  * @author system
  */
 @Slf4j
@@ -18,43 +25,41 @@ public class FileCleanupScheduler {
     @Resource
     private FileService sysFileInfoService;
 
+    @Resource
+    private ChunkedUploadService chunkedUploadService;
+
+    @Resource
+    private FileStorageReconciler fileStorageReconciler;
+
+    @Resource
+    private ScheduledJobRunner scheduledJobRunner;
+
     /**
      * 清理过期临时文件
      * 每天凌晨3点执行
      */
     @Scheduled(cron = "0 0 3 * * ?")
     public void cleanupExpiredTempFiles() {
-        try {
-            log.info("开始执行定时清理过期临时文件任务");
-            
+        scheduledJobRunner.run("file-cleanup", Duration.ofHours(2), Duration.ofMinutes(5), () -> {
             int cleanupCount = sysFileInfoService.cleanupExpiredTempFiles();
-            
-            log.info("定时清理过期临时文件任务完成，清理数量: {}", cleanupCount);
-            
-        } catch (Exception e) {
-            log.error("定时清理过期临时文件任务执行失败", e);
-        }
+            int uploadCount = chunkedUploadService.cleanupExpiredUploads();
+            return String.format("过期临时文件: %d，过期分片上传: %d", cleanupCount, uploadCount);
+        });
     }
 
     /**
-     * 文件存储监控
+     * 文件存储监控：对账上传目录与文件记录，清理无引用的内容文件并统计各业务类型用量
      * 每天上午8点执行
      */
     @Scheduled(cron = "0 0 8 * * ?")
     public void monitorFileStorage() {
-        try {
-            log.info("开始执行文件存储监控任务");
-            
-            // TODO: 实现文件存储监控逻辑
-            // 1. 统计文件总数
-            // 2. 统计存储空间使用情况
-            // 3. 检查孤立文件
-            // 4. 生成监控报告
-            
-            log.info("文件存储监控任务完成");
-            
-        } catch (Exception e) {
-            log.error("文件存储监控任务执行失败", e);
-        }
+        scheduledJobRunner.run("file-storage-reconcile", Duration.ofHours(6), Duration.ofMinutes(5), () -> {
+            FileStorageReportDTO report = fileStorageReconciler.reconcile();
+            return String.format("磁盘文件: %d（%d 字节），有效记录: %d，删除无引用: %d（%d 字节），"
+                            + "剩余无引用: %d，未登记: %d，缺失: %d",
+                    report.getDiskFiles(), report.getDiskBytes(), report.getRecordCount(),
+                    report.getDeletedFiles(), report.getDeletedBytes(), report.getOrphanContentFiles(),
+                    report.getUnregisteredFiles(), report.getMissingFiles());
+        });
     }
-} 
\ No newline at end of file
+}
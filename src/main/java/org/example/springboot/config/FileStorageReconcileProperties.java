@@ -0,0 +1,40 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 文件存储对账配置
+ * 对账任务分批遍历上传目录和 sys_file_info，内存中只保留当前批次；孤立内容的删除按批限速并限制单次总量
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file.storage-reconcile")
+public class FileStorageReconcileProperties {
+
+    /**
+     * 每批处理的文件数（磁盘遍历）或记录数（数据库分页）
+     */
+    private int batchSize = 500;
+
+    /**
+     * 是否删除内容存储中无引用的文件；关闭时只统计
+     */
+    private boolean deleteOrphans = true;
+
+    /**
+     * 单次对账最多删除的文件数，超出部分留到下次
+     */
+    private int maxDeletesPerRun = 5000;
+
+    /**
+     * 发生删除的批次之后暂停的时间（毫秒），降低对磁盘的冲击
+     */
+    private long pauseMillis = 100;
+
+    /**
+     * 报告中保留的异常路径样例数
+     */
+    private int sampleSize = 20;
+}
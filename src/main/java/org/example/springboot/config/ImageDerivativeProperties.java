@@ -0,0 +1,44 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图片衍生图配置
+ * 封面、头像等图片按配置的宽度生成缩放后的 JPEG，与原图放在同一目录并缓存
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file.image-derivative")
+public class ImageDerivativeProperties {
+
+    /**
+     * 是否启用衍生图，关闭后一律返回原图
+     */
+    private boolean enabled = true;
+
+    /**
+     * 尺寸名称到目标宽度（像素）的映射，高度按原图比例计算
+     */
+    private Map<String, Integer> sizes = new LinkedHashMap<>(Map.of("thumb", 320, "medium", 960));
+
+    /**
+     * JPEG 编码质量（0-1）
+     */
+    private float quality = 0.8f;
+
+    /**
+     * 原图像素上限，超过时不生成衍生图，防止解码超大图片耗尽内存
+     */
+    private long maxSourcePixels = 40_000_000L;
+
+    /**
+     * 上传后立即预生成衍生图的业务类型
+     */
+    private List<String> pregenerateBusinessTypes = List.of("ARTICLE", "USER_AVATAR");
+}
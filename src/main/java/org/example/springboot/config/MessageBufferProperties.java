@@ -0,0 +1,45 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 咨询消息写缓冲配置
+ * 消息先进入内存缓冲，按时间间隔或条数批量写入数据库
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "chat.message-buffer")
+public class MessageBufferProperties {
+
+    /**
+     * 是否启用写缓冲，关闭后每条消息同步插入
+     */
+    private boolean enabled = true;
+
+    /**
+     * 定时刷新间隔（毫秒）
+     */
+    private long flushIntervalMs = 50;
+
+    /**
+     * 每批最多写入的消息数，缓冲达到该数量时立即触发刷新
+     */
+    private int batchSize = 100;
+
+    /**
+     * 缓冲上限，超过后由写入线程同步刷新，形成反压
+     */
+    private int maxBuffered = 5000;
+
+    /**
+     * 单条消息因数据错误写入失败的最大轮数，超过后记录日志并移出缓冲
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * 关闭时等待刷新完成的最长时间（秒）
+     */
+    private int shutdownTimeoutSeconds = 10;
+}
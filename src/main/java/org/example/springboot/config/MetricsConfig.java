@@ -0,0 +1,85 @@
+package org.example.springboot.config;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.entity.AiAnalysisTask;
+import org.example.springboot.enumClass.AiTaskStatus;
+import org.example.springboot.mapper.AiAnalysisTaskMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 监控指标配置
+ * 注册需要查询数据库的业务仪表（AI分析任务队列深度），HTTP接口延迟由Actuator自动采集
+ */
+@Slf4j
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 队列深度快照的有效期，避免每次Prometheus抓取都查询数据库
+     */
+    private static final long QUEUE_SNAPSHOT_TTL_MS = 10_000L;
+
+    @Bean
+    public MeterBinder aiTaskQueueMetrics(AiAnalysisTaskMapper aiAnalysisTaskMapper) {
+        QueueDepthSnapshot snapshot = new QueueDepthSnapshot(aiAnalysisTaskMapper);
+        return registry -> {
+            for (AiTaskStatus status : new AiTaskStatus[]{AiTaskStatus.PENDING, AiTaskStatus.PROCESSING}) {
+                Gauge.builder("ai.task.queue.depth", snapshot, s -> s.get(status))
+                        .description("AI分析任务队列深度")
+                        .tag("status", status.getCode())
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * 按状态统计的任务数量快照
+     */
+    static class QueueDepthSnapshot {
+        private final AiAnalysisTaskMapper mapper;
+        private volatile Map<AiTaskStatus, Long> counts = new EnumMap<>(AiTaskStatus.class);
+        private volatile long refreshedAt;
+        private final ReentrantLock refreshLock = new ReentrantLock();
+
+        QueueDepthSnapshot(AiAnalysisTaskMapper mapper) {
+            this.mapper = mapper;
+        }
+
+        double get(AiTaskStatus status) {
+            refreshIfStale();
+            return counts.getOrDefault(status, 0L);
+        }
+
+        /**
+         * 使用 ReentrantLock 而非 synchronized：持锁期间会查询数据库，虚拟线程下 synchronized 会钉住载体线程；
+         * 已有线程在刷新时直接返回旧快照
+         */
+        private void refreshIfStale() {
+            long now = System.currentTimeMillis();
+            if (now - refreshedAt < QUEUE_SNAPSHOT_TTL_MS || !refreshLock.tryLock()) {
+                return;
+            }
+            try {
+                Map<AiTaskStatus, Long> latest = new EnumMap<>(AiTaskStatus.class);
+                for (AiTaskStatus status : new AiTaskStatus[]{AiTaskStatus.PENDING, AiTaskStatus.PROCESSING}) {
+                    latest.put(status, mapper.selectCount(new LambdaQueryWrapper<AiAnalysisTask>()
+                            .eq(AiAnalysisTask::getStatus, status.getCode())));
+                }
+                counts = latest;
+            } catch (Exception e) {
+                log.warn("统计AI任务队列深度失败: {}", e.getMessage());
+            } finally {
+                refreshedAt = now;
+                refreshLock.unlock();
+            }
+        }
+    }
+}
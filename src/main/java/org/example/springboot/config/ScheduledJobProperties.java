@@ -0,0 +1,40 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时任务配置
+ * 所有 @Scheduled 任务运行在固定大小的调度线程池中；多实例部署时通过数据库租约锁保证同一任务同一时刻只在一个节点执行
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "scheduled-job")
+public class ScheduledJobProperties {
+
+    /**
+     * 调度线程数
+     */
+    private int poolSize = 2;
+
+    /**
+     * 关闭时等待正在执行的任务完成的最长时间（秒）
+     */
+    private int awaitTerminationSeconds = 30;
+
+    /**
+     * 是否启用分布式锁；单实例开发环境可关闭
+     */
+    private boolean lockEnabled = true;
+
+    /**
+     * 当前节点标识，为空时使用 进程号@主机名
+     */
+    private String nodeId;
+
+    /**
+     * 执行记录保留天数
+     */
+    private int historyRetentionDays = 30;
+}
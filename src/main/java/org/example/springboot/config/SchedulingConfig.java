@@ -0,0 +1,44 @@
+package org.example.springboot.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * 定时任务调度配置
+ *
+ * maintenanceScheduler 只负责按时触发 @Scheduled 任务，线程数固定（scheduled-job.pool-size），
+ * 长任务不会无限制地占用线程；任务本身的互斥、执行记录由 ScheduledJobRunner 负责
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    private final ScheduledJobProperties properties;
+
+    public SchedulingConfig(ScheduledJobProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler maintenanceScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(properties.getPoolSize());
+        scheduler.setThreadNamePrefix("scheduled-");
+        scheduler.setErrorHandler(e -> log.error("定时任务执行异常: {}", e.getMessage(), e));
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(properties.getAwaitTerminationSeconds());
+        log.info("初始化定时任务调度线程池：线程数={}", properties.getPoolSize());
+        return scheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setTaskScheduler(maintenanceScheduler());
+    }
+}
@@ -43,6 +43,10 @@ public class SecurityConfig {
         "/",
         "/health",
         "/favicon.ico",
+
+        // 监控端点（健康检查与Prometheus抓取），只在 management.server 管理端口提供，业务端口不可访问
+        "/actuator/health",
+        "/actuator/prometheus",
         
         // API文档相关
         "/doc.html",
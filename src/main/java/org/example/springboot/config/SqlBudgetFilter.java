@@ -0,0 +1,70 @@
+package org.example.springboot.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.util.SqlBudgetContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * SQL预算过滤器
+ * 为每个HTTP请求开启 SqlBudgetContext 作用域，请求结束后按 "METHOD 路径模板" 对照预算输出报告
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final SqlBudgetInterceptor sqlBudgetInterceptor;
+    private final SqlBudgetProperties properties;
+
+    public SqlBudgetFilter(SqlBudgetInterceptor sqlBudgetInterceptor, SqlBudgetProperties properties) {
+        this.sqlBudgetInterceptor = sqlBudgetInterceptor;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!properties.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        SqlBudgetContext context = SqlBudgetContext.begin(() -> scopeName(request), false);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed) {
+                sqlBudgetInterceptor.finishScope(context);
+            } else {
+                // 请求本身已异常，不再用预算异常覆盖原始异常
+                try {
+                    sqlBudgetInterceptor.finishScope(context);
+                } catch (IllegalStateException e) {
+                    log.debug("请求异常结束，忽略SQL预算异常: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 作用域名称：优先使用路径模板（如 /api/emotion-diary/{id}），避免按具体ID分散
+     */
+    private static String scopeName(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : request.getRequestURI();
+        return request.getMethod() + " " + path;
+    }
+}
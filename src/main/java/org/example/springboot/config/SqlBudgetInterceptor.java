@@ -0,0 +1,163 @@
+package org.example.springboot.config;
+
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.example.springboot.util.SqlBudgetContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * SQL预算拦截器
+ * 在 SqlBudgetContext 作用域内统计每条语句的执行次数、参数指纹与业务调用点，
+ * 作用域结束时输出紧凑报告：超出接口预算或同一语句以不同参数重复执行（疑似N+1）时告警，
+ * 开启 sql-budget.fail-on-exceed 后直接抛出异常（测试环境使用），使N+1回归在发布前暴露
+ */
+@Slf4j
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class SqlBudgetInterceptor implements Interceptor {
+
+    private static final String APP_PACKAGE = "org.example.springboot.";
+    private static final String CONFIG_PACKAGE = "org.example.springboot.config.";
+    private static final String UTIL_PACKAGE = "org.example.springboot.util.";
+
+    /**
+     * 嵌套调用深度：分页等插件会在 query(4参) 内部再调用 query(6参)，只统计最外层一次
+     */
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public SqlBudgetInterceptor(SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        SqlBudgetContext context = SqlBudgetContext.current();
+        int[] depth = DEPTH.get();
+        if (context == null || !properties.isEnabled() || depth[0] > 0) {
+            return invocation.proceed();
+        }
+
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        context.record(ms.getId(), fingerprint(args[1]), properties.getMaxCallSites(), SqlBudgetInterceptor::callSite);
+
+        depth[0]++;
+        try {
+            return invocation.proceed();
+        } finally {
+            depth[0]--;
+            if (depth[0] == 0) {
+                DEPTH.remove();
+            }
+        }
+    }
+
+    /**
+     * 结束作用域：输出报告、记录指标，按配置决定是否抛出异常
+     *
+     * @param context 作用域
+     */
+    public void finishScope(SqlBudgetContext context) {
+        if (context == null) {
+            return;
+        }
+        String scope = context.scopeName();
+        int budget = properties.budgetFor(scope, context.isAsync());
+        SqlBudgetContext.Report report = context.finish(budget, properties.getRepeatThreshold());
+        if (!report.hasProblems()) {
+            if (log.isDebugEnabled() && report.total() > 0) {
+                log.debug(report.format());
+            }
+            return;
+        }
+
+        log.warn(report.format());
+        if (report.overBudget()) {
+            Counter.builder("sql.budget.exceeded")
+                    .description("超出SQL预算的请求/任务次数")
+                    .tag("scope", report.async() ? "async" : scope)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        for (SqlBudgetContext.Suspect suspect : report.suspects()) {
+            Counter.builder("sql.n_plus_one")
+                    .description("疑似N+1的语句检测次数")
+                    .tag("statement", suspect.statementId())
+                    .register(meterRegistry)
+                    .increment();
+        }
+        if (properties.isFailOnExceed()) {
+            throw new IllegalStateException(report.format());
+        }
+    }
+
+    /**
+     * 计算参数指纹，MyBatis-Plus 条件构造器按其参数值计算，其余按值的字符串形式计算
+     */
+    static int fingerprint(Object parameter) {
+        if (parameter instanceof Map<?, ?> map) {
+            int hash = 1;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                hash = 31 * hash + (Objects.hashCode(entry.getKey()) ^ valueFingerprint(entry.getValue()));
+            }
+            return hash;
+        }
+        return valueFingerprint(parameter);
+    }
+
+    private static int valueFingerprint(Object value) {
+        if (value instanceof AbstractWrapper<?, ?, ?> wrapper) {
+            return Objects.hash(wrapper.getSqlSegment(), String.valueOf(wrapper.getParamNameValuePairs()));
+        }
+        return Objects.hashCode(String.valueOf(value));
+    }
+
+    /**
+     * 定位业务调用点：跳过框架、代理类与本拦截器所在包，取最近的两层业务栈帧
+     */
+    private static String callSite() {
+        String site = StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> {
+                    String className = frame.getClassName();
+                    return className.startsWith(APP_PACKAGE)
+                            && !className.startsWith(CONFIG_PACKAGE)
+                            && !className.startsWith(UTIL_PACKAGE)
+                            && !className.contains("$$");
+                })
+                .limit(2)
+                .map(frame -> {
+                    String className = frame.getClassName();
+                    return className.substring(className.lastIndexOf('.') + 1)
+                            + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+                })
+                .collect(Collectors.joining(" <- ")));
+        return site.isEmpty() ? null : site;
+    }
+}
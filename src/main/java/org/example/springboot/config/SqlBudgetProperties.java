@@ -0,0 +1,75 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL预算与N+1检测配置
+ *
+ * 示例：
+ * sql-budget:
+ *   repeat-threshold: 5
+ *   default-budget: 50
+ *   fail-on-exceed: false
+ *   endpoints:
+ *     "[GET /api/emotion-diary/admin/page]": 6
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sql-budget")
+public class SqlBudgetProperties {
+
+    /**
+     * 是否启用统计
+     */
+    private boolean enabled = true;
+
+    /**
+     * 同一语句以不同参数执行超过该次数即判定为疑似N+1
+     */
+    private int repeatThreshold = 5;
+
+    /**
+     * 未单独配置的HTTP接口的默认SQL预算
+     */
+    private int defaultBudget = 50;
+
+    /**
+     * 异步任务的默认SQL预算
+     */
+    private int asyncBudget = 200;
+
+    /**
+     * 超出预算或检测到N+1时是否抛出异常（测试环境开启）
+     */
+    private boolean failOnExceed = false;
+
+    /**
+     * 每条语句最多记录的调用点数量
+     */
+    private int maxCallSites = 3;
+
+    /**
+     * 按接口配置的SQL预算，key 为 "METHOD 路径模板"，如 "GET /api/emotion-diary/admin/page"
+     */
+    private Map<String, Integer> endpoints = new LinkedHashMap<>();
+
+    /**
+     * 获取指定作用域的SQL预算
+     *
+     * @param scope 作用域名称
+     * @param async 是否为异步任务
+     * @return SQL预算
+     */
+    public int budgetFor(String scope, boolean async) {
+        Integer budget = endpoints.get(scope);
+        if (budget != null) {
+            return budget;
+        }
+        return async ? asyncBudget : defaultBudget;
+    }
+}
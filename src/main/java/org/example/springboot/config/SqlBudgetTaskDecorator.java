@@ -0,0 +1,46 @@
+package org.example.springboot.config;
+
+import org.example.springboot.util.SqlBudgetContext;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQL预算任务装饰器
+ * 为每个异步任务开启独立的 SqlBudgetContext 作用域，作用域名称沿用提交方的请求/任务名称
+ */
+@Component
+public class SqlBudgetTaskDecorator implements TaskDecorator {
+
+    private final SqlBudgetInterceptor sqlBudgetInterceptor;
+    private final SqlBudgetProperties properties;
+
+    public SqlBudgetTaskDecorator(SqlBudgetInterceptor sqlBudgetInterceptor, SqlBudgetProperties properties) {
+        this.sqlBudgetInterceptor = sqlBudgetInterceptor;
+        this.properties = properties;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        if (!properties.isEnabled()) {
+            return runnable;
+        }
+        SqlBudgetContext parent = SqlBudgetContext.current();
+        String origin = parent != null ? parent.scopeName() : "background";
+        String scope = origin + " -> async";
+        return () -> {
+            SqlBudgetContext context = SqlBudgetContext.begin(() -> scope, true);
+            try {
+                runnable.run();
+            } finally {
+                if (context != null) {
+                    // 异步任务中仅告警，不向执行器抛出预算异常
+                    try {
+                        sqlBudgetInterceptor.finishScope(context);
+                    } catch (IllegalStateException ignored) {
+                        // 报告已在 finishScope 中输出
+                    }
+                }
+            }
+        };
+    }
+}
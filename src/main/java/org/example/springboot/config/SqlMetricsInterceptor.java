@@ -0,0 +1,111 @@
+package org.example.springboot.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis SQL 指标拦截器
+ * 按 Mapper 语句ID（如 org.example.springboot.mapper.UserMapper.selectById）记录执行耗时与影响/返回行数，
+ * 替代 StdOutImpl 逐条打印SQL的排查方式
+ *
+ * 指标：
+ * mybatis.statement       Timer，标签 statement / type / outcome
+ * mybatis.statement.rows  DistributionSummary，标签 statement / type
+ */
+@Slf4j
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+
+    /**
+     * 嵌套调用深度：分页等插件会在 query(4参) 内部再调用 query(6参)，只统计最外层一次
+     */
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        int[] depth = DEPTH.get();
+        if (depth[0] > 0) {
+            return invocation.proceed();
+        }
+
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        String statementId = ms.getId();
+        String type = ms.getSqlCommandType().name();
+        long start = System.nanoTime();
+        String outcome = "success";
+        Object result = null;
+        depth[0]++;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            depth[0]--;
+            if (depth[0] == 0) {
+                DEPTH.remove();
+            }
+            long elapsed = System.nanoTime() - start;
+            try {
+                Timer.builder("mybatis.statement")
+                        .description("MyBatis语句执行耗时")
+                        .tag("statement", statementId)
+                        .tag("type", type)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+                if (result != null) {
+                    DistributionSummary.builder("mybatis.statement.rows")
+                            .description("MyBatis语句返回/影响行数")
+                            .tag("statement", statementId)
+                            .tag("type", type)
+                            .register(meterRegistry)
+                            .record(rowCount(result));
+                }
+            } catch (Exception e) {
+                log.debug("记录SQL指标失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        return 1;
+    }
+}
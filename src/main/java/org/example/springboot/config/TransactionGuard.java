@@ -0,0 +1,80 @@
+package org.example.springboot.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务内远程调用守卫
+ * 大模型调用耗时以秒计，在事务内发起会一直占用数据库连接，少量慢调用即可耗尽连接池。
+ * 约定：事务内只做数据库读写并先提交，远程调用在事务外执行，结果再用短事务写回。
+ *
+ * checkNoTransaction  远程调用入口调用，当前线程存在活动事务时记录告警与 transaction.remote_call 计数（测试环境直接抛异常）
+ * runAfterCommit      事务提交后再执行的工作（提交异步任务等），没有事务时立即执行
+ */
+@Slf4j
+@Component
+public class TransactionGuard {
+
+    private final TransactionGuardProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public TransactionGuard(TransactionGuardProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 检查当前线程没有活动事务
+     *
+     * @param callSite 远程调用点，用于日志和指标标签
+     */
+    public void checkNoTransaction(String callSite) {
+        if (!properties.isEnabled() || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        String message = String.format("在事务内发起远程调用，调用点: %s，事务: %s",
+                callSite, TransactionSynchronizationManager.getCurrentTransactionName());
+        Counter.builder("transaction.remote_call")
+                .description("在事务内发起的远程调用次数")
+                .tag("callSite", callSite)
+                .register(meterRegistry)
+                .increment();
+        if (properties.isFailOnViolation()) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message, new IllegalStateException("调用位置"));
+    }
+
+    /**
+     * 在当前事务提交后执行；没有事务时立即执行，事务回滚时不执行
+     * 两种情况下执行失败都只记录日志，不影响调用方的返回结果。
+     * afterCommit 回调时事务连接尚未归还，task 只能把工作交给线程池，不能在当前线程执行远程调用：
+     * 经由这里提交的线程池应使用 ABORT 策略并由提交方降级，不能使用 CALLER_RUNS
+     *
+     * @param task 提交后执行的工作，应尽快返回（如提交到线程池）
+     */
+    public static void runAfterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runQuietly(task);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runQuietly(task);
+            }
+        });
+    }
+
+    private static void runQuietly(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("事务提交后执行任务失败: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 事务内远程调用检测配置
+ *
+ * 示例：
+ * transaction-guard:
+ *   enabled: true
+ *   fail-on-violation: false
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "transaction-guard")
+public class TransactionGuardProperties {
+
+    /**
+     * 是否检测
+     */
+    private boolean enabled = true;
+
+    /**
+     * 在事务内发起远程调用时是否抛出异常（测试环境开启）
+     */
+    private boolean failOnViolation = false;
+}
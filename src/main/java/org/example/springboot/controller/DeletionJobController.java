@@ -0,0 +1,44 @@
+package org.example.springboot.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.common.Result;
+import org.example.springboot.entity.DeletionJob;
+import org.example.springboot.enumClass.UserType;
+import org.example.springboot.service.DeletionJobService;
+import org.example.springboot.util.JwtTokenUtils;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 级联删除任务控制器
+ * @author system
+ */
+@Tag(name = "级联删除任务", description = "查询用户/会话删除后的后台清理进度")
+@Slf4j
+@RestController
+@RequestMapping("/deletion-jobs")
+public class DeletionJobController {
+
+    @Resource
+    private DeletionJobService deletionJobService;
+
+    /**
+     * 查询删除任务进度（管理员或任务发起人）
+     */
+    @Operation(summary = "查询删除任务进度")
+    @GetMapping("/{id}")
+    public Result<DeletionJob> getJob(@Parameter(description = "任务ID") @PathVariable Long id) {
+        DeletionJob job = deletionJobService.getJob(id);
+
+        Long currentUserId = JwtTokenUtils.getCurrentUserId();
+        Integer currentUserRole = JwtTokenUtils.getCurrentUserRole();
+        if (!UserType.ADMIN.getCode().equals(currentUserRole)
+                && (currentUserId == null || !currentUserId.equals(job.getRequestedBy()))) {
+            return Result.error("权限不足");
+        }
+        return Result.success(job);
+    }
+}
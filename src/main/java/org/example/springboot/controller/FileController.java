@@ -5,11 +5,19 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.example.springboot.DTO.BussinessFileUploadConfig;
+import org.example.springboot.DTO.ChunkedUploadInitDTO;
+import org.example.springboot.DTO.ChunkedUploadStatusDTO;
 import org.example.springboot.DTO.FileInfoDTO;
+import org.example.springboot.DTO.FileStorageReportDTO;
 import org.example.springboot.DTO.FileUploadDTO;
+import org.example.springboot.DTO.MultiFileUploadResultDTO;
 import org.example.springboot.DTO.SimpleFileInfoDTO;
 import org.example.springboot.common.Result;
+import org.example.springboot.enumClass.UserType;
+import org.example.springboot.service.ChunkedUploadService;
+import org.example.springboot.service.FileDownloadService;
 import org.example.springboot.service.FileService;
+import org.example.springboot.service.FileStorageReconciler;
 import org.example.springboot.service.SimpleFileService;
 import org.example.springboot.util.JwtTokenUtils;
 import org.springframework.validation.annotation.Validated;
@@ -17,7 +25,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -38,6 +49,15 @@ public class FileController {
     @Resource
     private SimpleFileService simpleFileService;
 
+    @Resource
+    private FileDownloadService fileDownloadService;
+
+    @Resource
+    private ChunkedUploadService chunkedUploadService;
+
+    @Resource
+    private FileStorageReconciler fileStorageReconciler;
+
     // ========== 简单文件上传接口（不保存在数据库） ==========
 
     @Operation(summary = "简单图片上传", description = "上传图片文件，返回访问路径")
@@ -57,9 +77,9 @@ public class FileController {
         return simpleFileService.uploadSimpleFile(file, fileType);
     }
 
-    @Operation(summary = "多文件上传", description = "批量上传多个文件，支持部分成功")
+    @Operation(summary = "多文件上传", description = "批量并发上传多个文件，支持部分成功，按提交顺序返回每个文件的结果")
     @PostMapping("/simple/upload/multiple")
-    public Result<List<String>> uploadMultipleFiles(
+    public Result<MultiFileUploadResultDTO> uploadMultipleFiles(
             @RequestParam("files") MultipartFile[] files,
             @RequestParam(value = "fileType", defaultValue = "COMMON") String fileType) {
         log.info("收到批量文件上传请求，文件数量：{}，类型：{}", files != null ? files.length : 0, fileType);
@@ -87,8 +107,26 @@ public class FileController {
         return simpleFileService.getDownloadPath(filename);
     }
 
+    @Operation(summary = "文件流式访问", description = "按访问路径输出文件内容，支持Range断点/拖动播放、ETag与304协商缓存；图片可通过size参数获取缩略图")
+    @GetMapping("/stream")
+    public void streamFile(
+            @Parameter(description = "文件访问路径，如 /files/cas/ab/cd/xxx.mp4") @RequestParam("path") String path,
+            @Parameter(description = "图片尺寸（thumb/medium），为空返回原图") @RequestParam(value = "size", required = false) String size,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        fileDownloadService.streamFile(path, size, request, response);
+    }
+
     // ========== 完整业务文件管理接口 ==========
 
+    @Operation(summary = "业务文件下载", description = "按文件ID以附件形式下载，支持Range断点续传、ETag与304协商缓存")
+    @GetMapping("/download/{fileId}")
+    public void downloadBusinessFile(
+            @Parameter(description = "文件ID") @PathVariable Long fileId,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("业务文件下载请求: 文件ID={}", fileId);
+        fileDownloadService.downloadFile(fileId, request, response);
+    }
+
     @Operation(summary = "业务文件上传", description = "上传文件并绑定业务对象，可选择是否替换旧文件")
     @PostMapping("/upload")
     public Result<FileInfoDTO> uploadFile(
@@ -154,6 +192,51 @@ public class FileController {
         }
     }
 
+    // ========== 分片上传接口（大文件、断点续传） ==========
+
+    @Operation(summary = "初始化分片上传", description = "登记上传会话，返回上传ID与分片规格")
+    @PostMapping("/chunked/init")
+    public Result<ChunkedUploadStatusDTO> initChunkedUpload(
+            @Parameter(description = "文件与业务信息") @Valid @RequestBody ChunkedUploadInitDTO initDTO) {
+        Long userId = getCurrentUserId();
+        log.info("分片上传初始化请求: 用户ID={}, 文件名={}, 大小={}", userId, initDTO.getOriginalName(), initDTO.getFileSize());
+        return Result.success(chunkedUploadService.initUpload(initDTO, userId));
+    }
+
+    @Operation(summary = "上传分片", description = "请求体为分片原始字节，X-Chunk-Sha256 为分片的 SHA-256；分片可并发、乱序上传，重复上传以最后一次为准")
+    @PutMapping(value = "/chunked/{uploadId}/chunks/{chunkIndex}", consumes = "application/octet-stream")
+    public Result<Void> uploadChunk(
+            @Parameter(description = "上传ID") @PathVariable String uploadId,
+            @Parameter(description = "分片序号（从0开始）") @PathVariable int chunkIndex,
+            @Parameter(description = "分片 SHA-256") @RequestHeader(value = "X-Chunk-Sha256", required = false) String checksum,
+            HttpServletRequest request) throws IOException {
+        chunkedUploadService.uploadChunk(uploadId, chunkIndex, checksum, request.getInputStream(), getCurrentUserId());
+        return Result.success();
+    }
+
+    @Operation(summary = "查询分片上传状态", description = "返回已接收的分片序号，用于断点续传")
+    @GetMapping("/chunked/{uploadId}")
+    public Result<ChunkedUploadStatusDTO> getChunkedUploadStatus(
+            @Parameter(description = "上传ID") @PathVariable String uploadId) {
+        return Result.success(chunkedUploadService.getStatus(uploadId, getCurrentUserId()));
+    }
+
+    @Operation(summary = "完成分片上传", description = "校验分片完整性后登记文件；重复调用返回同一文件")
+    @PostMapping("/chunked/{uploadId}/complete")
+    public Result<FileInfoDTO> completeChunkedUpload(
+            @Parameter(description = "上传ID") @PathVariable String uploadId,
+            @Parameter(description = "整个文件的 SHA-256（可选）") @RequestParam(value = "sha256", required = false) String sha256) {
+        return Result.success(chunkedUploadService.completeUpload(uploadId, sha256, getCurrentUserId()));
+    }
+
+    @Operation(summary = "取消分片上传", description = "删除上传会话与已上传的分片")
+    @DeleteMapping("/chunked/{uploadId}")
+    public Result<Void> abortChunkedUpload(
+            @Parameter(description = "上传ID") @PathVariable String uploadId) {
+        chunkedUploadService.abortUpload(uploadId, getCurrentUserId());
+        return Result.success();
+    }
+
     @Operation(summary = "确认临时文件", description = "将临时文件确认为正式文件并绑定业务对象")
     @PutMapping("/confirm/{tempFileId}")
     public Result<FileInfoDTO> confirmTempFile(
@@ -268,6 +351,19 @@ public class FileController {
         }
     }
 
+    @Operation(summary = "文件存储对账报告", description = "系统管理接口：最近一次存储对账的用量统计与孤立文件情况")
+    @GetMapping("/storage/report")
+    public Result<FileStorageReportDTO> getStorageReport() {
+        if (!UserType.ADMIN.getCode().equals(JwtTokenUtils.getCurrentUserRole())) {
+            return Result.error("权限不足");
+        }
+        FileStorageReportDTO report = fileStorageReconciler.getLastReport();
+        if (report == null) {
+            return Result.error("尚未执行存储对账");
+        }
+        return Result.success(report);
+    }
+
     @Operation(summary = "清理过期临时文件", description = "系统管理接口：清理过期的临时文件")
     @PostMapping("/cleanup/temp")
     public Result<Integer> cleanupExpiredTempFiles() {
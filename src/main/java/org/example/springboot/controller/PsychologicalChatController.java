@@ -3,18 +3,24 @@ package org.example.springboot.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.AiService.CrisisResponseService;
+import org.example.springboot.AiService.CrisisTermDetector;
 import org.example.springboot.AiService.PsychologicalSupportService;
+import org.example.springboot.AiService.SensitiveWordStreamFilter;
 import org.example.springboot.AiService.StructOutPut;
 import org.example.springboot.common.Result;
 import org.example.springboot.DTO.command.ConsultationSessionCreateDTO;
 import org.example.springboot.DTO.query.ConsultationSessionQueryDTO;
 import org.example.springboot.DTO.response.ConsultationSessionResponseDTO;
 import org.example.springboot.DTO.response.ConsultationMessageResponseDTO;
+import org.example.springboot.DTO.response.ConsultationMessageHistoryDTO;
+import org.example.springboot.DTO.response.ConsultationSearchResultDTO;
 import org.example.springboot.enumClass.UserType;
 import org.example.springboot.service.ConsultationSessionService;
 import org.example.springboot.service.ConsultationMessageService;
 import org.example.springboot.entity.ConsultationSession;
 import org.example.springboot.util.JwtTokenUtils;
+import org.example.springboot.util.MetricsUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
@@ -45,6 +51,15 @@ public class PsychologicalChatController {
     @Autowired
     private ConsultationMessageService consultationMessageService;
 
+    @Autowired
+    private MetricsUtils metricsUtils;
+
+    @Autowired
+    private CrisisResponseService crisisResponseService;
+
+    @Autowired
+    private SensitiveWordStreamFilter sensitiveWordStreamFilter;
+
     /**
      * 开始新的心理疏导会话
      */
@@ -90,25 +105,46 @@ public class PsychologicalChatController {
                                 .build());
             }
 
+            // 危机词检测：命中时在模型回复之前立即推送风险提示；复核任务在消息去重保存后由对话服务创建
+            CrisisTermDetector.Scan crisisScan = crisisResponseService.scanChatMessage(request.userMessage());
+            Flux<ServerSentEvent<String>> crisisWarning = crisisScan.hit()
+                    ? Flux.just(ServerSentEvent.<String>builder()
+                            .event("risk-warning")
+                            .data(toSseData(Result.success(Map.of(
+                                    "content", crisisResponseService.warningMessage(),
+                                    "type", "risk",
+                                    "riskLevel", crisisScan.riskLevel()))))
+                            .build())
+                    : Flux.empty();
+
+            // 输出过滤：敏感词替换、风险/建议段落识别，状态跨片段保留
+            SensitiveWordStreamFilter.Session outputFilter = sensitiveWordStreamFilter.newSession();
+
             // 开始流式对话
-            return psychologicalSupportService.streamPsychologicalChat(request.sessionId(), request.userMessage())
-                .map(fragment -> {
-                    // 检查是否是风险警告消息
-                    if (fragment.contains("⚠️") || fragment.contains("💡 建议:")) {
-                        // 风险警告消息使用特殊事件类型
-                        return ServerSentEvent.<String>builder()
-                                .event("risk-warning")
-                                .data(toSseData(Result.success(Map.of("content", fragment, "type", "risk"))))
-                                .build();
-                    } else {
-                        // 正常消息
-                        return ServerSentEvent.<String>builder()
-                                .event("message")
-                                .data(toSseData(Result.success(Map.of("content", fragment, "type", "normal"))))
-                                .build();
+            return psychologicalSupportService.streamPsychologicalChat(request.sessionId(), request.userMessage(),
+                        request.clientMessageId(), outputFilter, crisisScan)
+                .map(this::toSegmentEvent)
+                .concatWith(Flux.defer(() -> {
+                    // 命中敏感词时推送汇总（不含content字段，前端不会追加到回复中）
+                    StructOutPut.SensitiveWordResult summary = outputFilter.summary();
+                    if (!summary.hasSensitiveWords()) {
+                        return Flux.empty();
                     }
-                })
+                    log.warn("大模型输出命中敏感词，会话ID: {}, 严重程度: {}, 词条: {}",
+                            request.sessionId(), summary.severity(), summary.sensitiveWords());
+                    return Flux.just(ServerSentEvent.<String>builder()
+                            .event("sensitive-summary")
+                            .data(toSseData(Result.success(Map.of(
+                                    "hasSensitiveWords", true,
+                                    "sensitiveWords", summary.sensitiveWords(),
+                                    "severity", summary.severity(),
+                                    "filteredContent", summary.filteredContent(),
+                                    "type", "sensitive-summary"))))
+                            .build());
+                }))
+                .startWith(crisisWarning)
                 .doOnSubscribe(subscription -> {
+                    metricsUtils.sseStreamOpened();
                     log.info("开始流式心理疏导对话，会话ID: {}", request.sessionId());
                 })
                 .doOnComplete(() -> {
@@ -125,7 +161,8 @@ public class PsychologicalChatController {
                                       .event("done")
                                       .data("{}")
                                       .build())) // 结束事件
-                .delayElements(Duration.ofMillis(50)); // 添加小延迟以确保流式体验
+                .delayElements(Duration.ofMillis(50)) // 添加小延迟以确保流式体验
+                .doFinally(signal -> metricsUtils.sseStreamClosed());
                 
         } catch (Exception e) {
             log.error("流式心理疏导对话初始化失败: {}", e.getMessage(), e);
@@ -244,6 +281,27 @@ public class PsychologicalChatController {
         }
     }
 
+    /**
+     * 检索当前用户的聊天记录
+     */
+    @Operation(summary = "检索聊天记录", description = "在当前用户的聊天记录中全文检索，按会话返回高亮片段")
+    @GetMapping("/search")
+    public Result<List<ConsultationSearchResultDTO>> searchChatHistory(@RequestParam String keyword) {
+        log.info("检索聊天记录，关键词: {}", keyword);
+
+        try {
+            Long userId = JwtTokenUtils.getCurrentUserId();
+            if (userId == null) {
+                return Result.error("用户未登录");
+            }
+            return Result.success(consultationSessionService.searchChatHistory(userId, keyword));
+
+        } catch (Exception e) {
+            log.error("检索聊天记录失败: {}", e.getMessage(), e);
+            return Result.error("检索聊天记录失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 获取会话详情
      */
@@ -280,6 +338,35 @@ public class PsychologicalChatController {
         }
     }
 
+    /**
+     * 分页获取会话历史消息（按序号向前翻页）
+     */
+    @Operation(summary = "分页获取会话历史消息", description = "先返回最新一页，传入上一页返回的nextBeforeSeq加载更早的消息")
+    @GetMapping("/sessions/{sessionId}/messages/history")
+    public Result<ConsultationMessageHistoryDTO> getSessionMessageHistory(
+            @PathVariable Long sessionId,
+            @RequestParam(required = false) Long beforeSeq,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        log.info("分页获取会话历史消息，会话ID: {}, beforeSeq: {}, limit: {}", sessionId, beforeSeq, limit);
+
+        try {
+            Long userId = JwtTokenUtils.getCurrentUserId();
+            if (userId == null) {
+                return Result.error("用户未登录");
+            }
+            ConsultationSession session = consultationSessionService.getSessionById(sessionId);
+            if (session == null || !userId.equals(session.getUserId())) {
+                return Result.error("会话不存在或无权访问");
+            }
+
+            return Result.success(consultationMessageService.getMessageHistory(sessionId, beforeSeq, limit));
+
+        } catch (Exception e) {
+            log.error("分页获取会话历史消息失败: {}", e.getMessage(), e);
+            return Result.error("获取历史消息失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 删除咨询会话
      */
@@ -340,6 +427,26 @@ public class PsychologicalChatController {
         }
     }
 
+    /**
+     * 过滤后的输出片段转换为SSE事件：风险提示与建议段落使用 risk-warning 事件，其余为 message 事件
+     */
+    private ServerSentEvent<String> toSegmentEvent(SensitiveWordStreamFilter.Segment segment) {
+        return switch (segment.type()) {
+            case RISK -> ServerSentEvent.<String>builder()
+                    .event("risk-warning")
+                    .data(toSseData(Result.success(Map.of("content", segment.content(), "type", "risk"))))
+                    .build();
+            case SUGGESTION -> ServerSentEvent.<String>builder()
+                    .event("risk-warning")
+                    .data(toSseData(Result.success(Map.of("content", segment.content(), "type", "suggestion"))))
+                    .build();
+            case NORMAL -> ServerSentEvent.<String>builder()
+                    .event("message")
+                    .data(toSseData(Result.success(Map.of("content", segment.content(), "type", "normal"))))
+                    .build();
+        };
+    }
+
     /**
      * 转换为SSE数据格式
      */
@@ -358,7 +465,8 @@ public class PsychologicalChatController {
      */
     public record StreamChatRequest(
         String sessionId,      // 会话ID
-        String userMessage     // 用户消息
+        String userMessage,    // 用户消息
+        String clientMessageId // 客户端消息ID（可选，重复提交同一ID不会重复保存）
     ) {}
 
     /**
@@ -1,19 +1,34 @@
 package org.example.springboot.controller;
 
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.example.springboot.DTO.request.EvaluationSubmitDTO;
 import org.example.springboot.DTO.response.AssessmentScaleDTO;
-import org.example.springboot.DTO.response.EvaluationQuestionDTO;
+import org.example.springboot.DTO.response.EvaluationHistoryDTO;
 import org.example.springboot.DTO.response.EvaluationResultDTO;
 import org.example.springboot.common.Result;
+import org.example.springboot.enumClass.UserType;
+import org.example.springboot.service.AssessmentScaleCatalog;
 import org.example.springboot.service.PsychologicalEvaluationService;
+import org.example.springboot.util.JwtTokenUtils;
+import org.example.springboot.util.MetricsUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 心理测评控制器
@@ -28,6 +43,12 @@ public class PsychologicalEvaluationController {
     @Autowired
     private PsychologicalEvaluationService evaluationService;
 
+    @Autowired
+    private AssessmentScaleCatalog scaleCatalog;
+
+    @Autowired
+    private MetricsUtils metricsUtils;
+
     @Operation(summary = "获取测评量表列表", description = "获取所有可用的心理测评量表")
     @GetMapping("/scales")
     public Result<List<AssessmentScaleDTO>> getEvaluationScales() {
@@ -40,16 +61,22 @@ public class PsychologicalEvaluationController {
         }
     }
 
-    @Operation(summary = "获取测评题目", description = "根据测评ID获取对应的题目列表")
+    @Operation(summary = "获取测评题目", description = "根据测评ID获取对应的题目列表，响应体预先序列化，支持ETag与304协商缓存；量表不可作答时由全局异常处理返回错误结果")
     @GetMapping("/questions/{evaluationId}")
-    public Result<List<EvaluationQuestionDTO>> getEvaluationQuestions(@PathVariable Long evaluationId) {
-        try {
-            List<EvaluationQuestionDTO> questions = evaluationService.getEvaluationQuestions(evaluationId);
-            return Result.success(questions);
-        } catch (Exception e) {
-            log.error("获取测评题目失败，evaluationId: {}", evaluationId, e);
-            return Result.error("获取测评题目失败: " + e.getMessage());
+    public ResponseEntity<byte[]> getEvaluationQuestions(@PathVariable Long evaluationId,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        AssessmentScaleCatalog.CompiledScale scale = scaleCatalog.requireAnswerableScale(evaluationId);
+        String etag = scale.getQuestionsEtag();
+        if (ifNoneMatch != null && Arrays.stream(ifNoneMatch.split(","))
+                .map(tag -> StrUtil.removePrefix(tag.trim(), "W/"))
+                .anyMatch(tag -> "*".equals(tag) || etag.equals(tag))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
         }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(scale.getQuestionsPayload());
     }
 
     @Operation(summary = "提交测评答案", description = "提交用户的测评答案并获取结果")
@@ -66,6 +93,53 @@ public class PsychologicalEvaluationController {
         }
     }
 
+    @Operation(summary = "获取测评结果", description = "获取当前用户的单条测评结果；AI解读生成中（analysisStatus=PENDING）时返回已生成的部分，可轮询至完成")
+    @GetMapping("/results/{recordId}")
+    public Result<EvaluationResultDTO> getEvaluationResult(@PathVariable Integer recordId) {
+        try {
+            return Result.success(evaluationService.getEvaluationResult(JwtTokenUtils.getCurrentUserId(), recordId));
+        } catch (Exception e) {
+            log.error("获取测评结果失败，recordId: {}", recordId, e);
+            return Result.error("获取测评结果失败: " + e.getMessage());
+        }
+    }
+
+    @Operation(summary = "订阅测评AI解读", description = "以SSE推送AI解读片段（delta），写回后推送完整结果（result）并结束（done）；解读已完成时直接推送结果")
+    @GetMapping(value = "/results/{recordId}/analysis-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamEvaluationAnalysis(@PathVariable Integer recordId) {
+        Long userId = JwtTokenUtils.getCurrentUserId();
+        try {
+            return evaluationService.streamEvaluationAnalysis(userId, recordId)
+                    .map(chunk -> ServerSentEvent.<String>builder()
+                            .event("delta")
+                            .data(toSseData(Result.success(Map.of("content", chunk))))
+                            .build())
+                    .concatWith(Flux.defer(() -> Flux.just(ServerSentEvent.<String>builder()
+                            .event("result")
+                            .data(toSseData(Result.success(evaluationService.getEvaluationResult(userId, recordId))))
+                            .build())))
+                    .onErrorResume(error -> {
+                        log.error("推送测评解读失败，recordId: {}", recordId, error);
+                        return Flux.just(ServerSentEvent.<String>builder()
+                                .event("error")
+                                .data(toSseData(Result.error("获取测评解读失败: " + error.getMessage())))
+                                .build());
+                    })
+                    .concatWith(Flux.just(ServerSentEvent.<String>builder()
+                            .event("done")
+                            .data("{}")
+                            .build()))
+                    .doOnSubscribe(subscription -> metricsUtils.sseStreamOpened())
+                    .doFinally(signal -> metricsUtils.sseStreamClosed());
+        } catch (Exception e) {
+            log.error("订阅测评解读失败，recordId: {}", recordId, e);
+            return Flux.just(ServerSentEvent.<String>builder()
+                    .event("error")
+                    .data(toSseData(Result.error("订阅测评解读失败: " + e.getMessage())))
+                    .build());
+        }
+    }
+
     @Operation(summary = "获取用户测评记录", description = "获取指定用户的所有测评记录")
     @GetMapping("/records/{userId}")
     public Result<List<EvaluationResultDTO>> getUserEvaluationRecords(@PathVariable Long userId) {
@@ -78,6 +152,28 @@ public class PsychologicalEvaluationController {
         }
     }
 
+    @Operation(summary = "分页获取用户测评历史", description = "先返回最新一页，传入上一页返回的nextBeforeId加载更早的记录；只能查看本人的历史，管理员可查看任意用户")
+    @GetMapping("/records/{userId}/history")
+    public Result<EvaluationHistoryDTO> getUserEvaluationHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long evaluationId,
+            @RequestParam(required = false) Integer beforeId,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        Long currentUserId = JwtTokenUtils.getCurrentUserId();
+        if (currentUserId == null) {
+            return Result.error("用户未登录");
+        }
+        if (!currentUserId.equals(userId) && !UserType.ADMIN.getCode().equals(JwtTokenUtils.getCurrentUserRole())) {
+            return Result.error("无权查看该用户的测评历史");
+        }
+        try {
+            return Result.success(evaluationService.getUserEvaluationHistory(userId, evaluationId, beforeId, limit));
+        } catch (Exception e) {
+            log.error("分页获取用户测评历史失败，userId: {}", userId, e);
+            return Result.error("获取测评历史失败: " + e.getMessage());
+        }
+    }
+
     @Operation(summary = "获取用户最新测评结果", description = "获取指定用户某个测评的最新结果")
     @GetMapping("/latest/{userId}/{evaluationId}")
     public Result<EvaluationResultDTO> getLatestEvaluationResult(
@@ -91,4 +187,28 @@ public class PsychologicalEvaluationController {
             return Result.error("获取最新测评结果失败: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "刷新测评量表目录", description = "修改量表或题目后重新加载内存目录（管理员功能）；只刷新处理本请求的实例，多实例部署需逐个实例调用")
+    @PostMapping("/catalog/refresh")
+    public Result<Integer> refreshCatalog() {
+        Integer currentUserRole = JwtTokenUtils.getCurrentUserRole();
+        if (!UserType.ADMIN.getCode().equals(currentUserRole)) {
+            return Result.error("权限不足");
+        }
+        try {
+            return Result.success(scaleCatalog.refresh());
+        } catch (Exception e) {
+            log.error("刷新测评量表目录失败", e);
+            return Result.error("刷新测评量表目录失败: " + e.getMessage());
+        }
+    }
+
+    private String toSseData(Object data) {
+        try {
+            return JSONUtil.toJsonStr(data);
+        } catch (Exception e) {
+            log.error("转换SSE数据失败: {}", e.getMessage(), e);
+            return "{\"code\":500,\"message\":\"数据格式化失败\"}";
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.springboot.controller;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.common.Result;
+import org.example.springboot.entity.ScheduledJobRun;
+import org.example.springboot.enumClass.UserType;
+import org.example.springboot.service.ScheduledJobRunner;
+import org.example.springboot.util.JwtTokenUtils;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 定时任务控制器
+ * @author system
+ */
+@Tag(name = "定时任务", description = "查询定时任务执行记录")
+@Slf4j
+@RestController
+@RequestMapping("/scheduled-jobs")
+public class ScheduledJobController {
+
+    @Resource
+    private ScheduledJobRunner scheduledJobRunner;
+
+    /**
+     * 分页查询执行记录（管理员功能）
+     */
+    @Operation(summary = "分页查询定时任务执行记录")
+    @GetMapping("/runs")
+    public Result<Page<ScheduledJobRun>> getRuns(
+            @Parameter(description = "任务名称") @RequestParam(required = false) String jobName,
+            @Parameter(description = "执行状态 RUNNING/SUCCEEDED/FAILED") @RequestParam(required = false) String status,
+            @Parameter(description = "当前页码") @RequestParam(defaultValue = "1") Integer currentPage,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "20") Integer size) {
+        Integer currentUserRole = JwtTokenUtils.getCurrentUserRole();
+        if (!UserType.ADMIN.getCode().equals(currentUserRole)) {
+            return Result.error("权限不足");
+        }
+        return Result.success(scheduledJobRunner.getRuns(jobName, status, currentPage, size));
+    }
+}
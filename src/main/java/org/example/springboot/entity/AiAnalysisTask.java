@@ -19,10 +19,18 @@ public class AiAnalysisTask {
     @Schema(description = "任务ID")
     private Long id;
 
-    @Schema(description = "日记ID")
+    @Schema(description = "日记ID（对话消息触发的危机预警任务为空）")
     @TableField("diary_id")
     private Long diaryId;
 
+    @Schema(description = "会话ID（对话消息触发的危机预警任务）")
+    @TableField("session_id")
+    private Long sessionId;
+
+    @Schema(description = "触发任务的用户消息在会话内的序号")
+    @TableField("message_seq")
+    private Long messageSeq;
+
     @Schema(description = "用户ID")
     @TableField("user_id")
     private Long userId;
@@ -31,7 +39,7 @@ public class AiAnalysisTask {
     @TableField("status")
     private String status;
 
-    @Schema(description = "任务类型：AUTO-自动触发，MANUAL-手动触发，ADMIN-管理员触发，BATCH-批量触发")
+    @Schema(description = "任务类型：AUTO-自动触发，MANUAL-手动触发，ADMIN-管理员触发，BATCH-批量触发，CRISIS-危机预警复核")
     @TableField("task_type")
     private String taskType;
 
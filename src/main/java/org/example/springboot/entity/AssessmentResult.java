@@ -1,5 +1,6 @@
 package org.example.springboot.entity;
 
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableField;
@@ -29,10 +30,18 @@ public class AssessmentResult {
     @TableField("uid")
     private String uid;
 
+    @Schema(description = "用户ID（数值，由uid生成，只读）")
+    @TableField(value = "user_id", insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Long userId;
+
     @Schema(description = "量表ID")
     @TableField("testid")
     private String testid;
 
+    @Schema(description = "量表ID（数值，由testid生成，只读）")
+    @TableField(value = "test_id", insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Long testId;
+
     @Schema(description = "得分")
     @TableField("score")
     private String score;
@@ -41,6 +50,10 @@ public class AssessmentResult {
     @TableField("result")
     private String result;
 
+    @Schema(description = "AI解读状态：PENDING/COMPLETED/FAILED")
+    @TableField("analysis_status")
+    private String analysisStatus;
+
     @Schema(description = "测试时间")
     @TableField("testtime")
     private String testtime;
@@ -59,6 +59,14 @@ public class ConsultationMessage {
     @TableField("ai_model")
     private String aiModel;
 
+    @Schema(description = "会话内消息序号，由会话计数器分配，单调递增")
+    private Long seq;
+
+    @Schema(description = "客户端消息ID，用于重复提交去重")
+    @Size(max = 64, message = "客户端消息ID长度不能超过64个字符")
+    @TableField("client_message_id")
+    private String clientMessageId;
+
     @Schema(description = "创建时间")
     @TableField("created_at")
     private LocalDateTime createdAt;
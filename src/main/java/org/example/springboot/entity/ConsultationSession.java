@@ -3,6 +3,7 @@ package org.example.springboot.entity;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
 import com.baomidou.mybatisplus.annotation.TableName;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Max;
@@ -44,6 +45,14 @@ public class ConsultationSession {
     @TableField("started_at")
     private LocalDateTime startedAt;
 
+    @Schema(description = "已分配的最大消息序号")
+    @TableField("message_seq")
+    private Long messageSeq;
+
+    @Schema(description = "删除标记 0:正常 1:已删除（等待后台删除任务清理）")
+    @TableLogic
+    private Integer deleted;
+
     @Schema(description = "最后一次情绪分析结果(JSON格式)")
     @TableField("last_emotion_analysis")
     private String lastEmotionAnalysis;
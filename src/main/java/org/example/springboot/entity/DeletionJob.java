@@ -0,0 +1,77 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 级联删除任务实体类
+ * 目标在请求中立即标记为已删除，依赖数据由后台按步骤分块删除，进度写回本表以便重启后续跑
+ * @author system
+ */
+@Data
+@TableName("deletion_job")
+@Schema(description = "级联删除任务实体类")
+public class DeletionJob {
+
+    @TableId(type = IdType.AUTO)
+    @Schema(description = "任务ID")
+    private Long id;
+
+    @Schema(description = "目标类型：USER-用户，SESSION-咨询会话")
+    @TableField("target_type")
+    private String targetType;
+
+    @Schema(description = "目标ID")
+    @TableField("target_id")
+    private Long targetId;
+
+    @Schema(description = "任务状态：PENDING-待执行，RUNNING-执行中，COMPLETED-已完成，FAILED-失败")
+    @TableField("status")
+    private String status;
+
+    @Schema(description = "当前执行到的步骤序号（从0开始）")
+    @TableField("current_step")
+    private Integer currentStep;
+
+    @Schema(description = "总步骤数")
+    @TableField("total_steps")
+    private Integer totalSteps;
+
+    @Schema(description = "已删除的行数")
+    @TableField("deleted_rows")
+    private Long deletedRows;
+
+    @Schema(description = "连续失败次数")
+    @TableField("attempts")
+    private Integer attempts;
+
+    @Schema(description = "发起人用户ID")
+    @TableField("requested_by")
+    private Long requestedBy;
+
+    @Schema(description = "错误信息")
+    @TableField("error_message")
+    private String errorMessage;
+
+    @Schema(description = "创建时间")
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "更新时间（执行中作为租约心跳）")
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+
+    @Schema(description = "完成时间")
+    @TableField("completed_at")
+    private LocalDateTime completedAt;
+
+    /**
+     * 判断任务是否已结束
+     */
+    public boolean isFinished() {
+        return "COMPLETED".equals(status) || "FAILED".equals(status);
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务执行记录实体类
+ * 每次获得锁并实际执行的任务记录一条，未获得锁而跳过的执行不记录
+ * @author system
+ */
+@Data
+@TableName("scheduled_job_run")
+@Schema(description = "定时任务执行记录实体类")
+public class ScheduledJobRun {
+
+    @TableId(type = IdType.AUTO)
+    @Schema(description = "记录ID")
+    private Long id;
+
+    @Schema(description = "任务名称")
+    @TableField("job_name")
+    private String jobName;
+
+    @Schema(description = "执行节点")
+    @TableField("node_id")
+    private String nodeId;
+
+    @Schema(description = "执行状态：RUNNING-执行中，SUCCEEDED-成功，FAILED-失败")
+    @TableField("status")
+    private String status;
+
+    @Schema(description = "执行结果摘要")
+    @TableField("result")
+    private String result;
+
+    @Schema(description = "错误信息")
+    @TableField("error_message")
+    private String errorMessage;
+
+    @Schema(description = "开始时间")
+    @TableField("started_at")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "结束时间")
+    @TableField("finished_at")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "耗时（毫秒）")
+    @TableField("duration_millis")
+    private Long durationMillis;
+}
@@ -28,6 +28,9 @@ public class SysFileInfo {
     @Schema(description = "文件访问路径")
     private String filePath;
 
+    @Schema(description = "文件内容SHA-256（内容寻址存储，同一内容的记录共享物理文件）")
+    private String contentHash;
+
     @Schema(description = "文件大小(字节)")
     private Long fileSize;
 
@@ -0,0 +1,38 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已接收的上传分片实体类
+ * (upload_id, chunk_index) 唯一，分片重传时覆盖校验和
+ * @author system
+ */
+@Data
+@TableName("sys_upload_chunk")
+@Schema(description = "已接收的上传分片实体类")
+public class SysUploadChunk {
+
+    @TableId(type = IdType.AUTO)
+    @Schema(description = "主键ID")
+    private Long id;
+
+    @Schema(description = "上传ID")
+    @TableField("upload_id")
+    private String uploadId;
+
+    @Schema(description = "分片序号（从0开始）")
+    @TableField("chunk_index")
+    private Integer chunkIndex;
+
+    @Schema(description = "分片 SHA-256")
+    @TableField("checksum")
+    private String checksum;
+
+    @Schema(description = "接收时间")
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+}
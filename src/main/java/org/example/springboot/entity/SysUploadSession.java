@@ -0,0 +1,90 @@
+package org.example.springboot.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传会话实体类
+ * 记录一次大文件分片上传的元数据，已接收的分片记录在 sys_upload_chunk 中，断线后按此续传
+ * @author system
+ */
+@Data
+@TableName("sys_upload_session")
+@Schema(description = "分片上传会话实体类")
+public class SysUploadSession {
+
+    @TableId(type = IdType.INPUT)
+    @Schema(description = "上传ID")
+    private String id;
+
+    @Schema(description = "上传用户ID")
+    @TableField("upload_user_id")
+    private Long uploadUserId;
+
+    @Schema(description = "原始文件名")
+    @TableField("original_name")
+    private String originalName;
+
+    @Schema(description = "文件总大小(字节)")
+    @TableField("file_size")
+    private Long fileSize;
+
+    @Schema(description = "分片大小(字节)，最后一片可能更小")
+    @TableField("chunk_size")
+    private Integer chunkSize;
+
+    @Schema(description = "分片总数")
+    @TableField("total_chunks")
+    private Integer totalChunks;
+
+    @Schema(description = "业务类型")
+    @TableField("business_type")
+    private String businessType;
+
+    @Schema(description = "业务对象ID")
+    @TableField("business_id")
+    private String businessId;
+
+    @Schema(description = "业务字段名")
+    @TableField("business_field")
+    private String businessField;
+
+    @Schema(description = "是否临时文件(0:否 1:是)")
+    @TableField("is_temp")
+    private Integer isTemp;
+
+    @Schema(description = "完成后是否替换旧文件(0:否 1:是)")
+    @TableField("replace_old")
+    private Integer replaceOld;
+
+    @Schema(description = "状态：UPLOADING-上传中，COMPLETING-合并中，COMPLETED-已完成")
+    @TableField("status")
+    private String status;
+
+    @Schema(description = "完成后生成的文件ID")
+    @TableField("file_id")
+    private Long fileId;
+
+    @Schema(description = "过期时间，每接收一个分片顺延")
+    @TableField("expire_time")
+    private LocalDateTime expireTime;
+
+    @Schema(description = "创建时间")
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "更新时间")
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * 计算指定分片的字节数
+     */
+    public long chunkLength(int chunkIndex) {
+        long start = (long) chunkIndex * chunkSize;
+        return Math.min(chunkSize, fileSize - start);
+    }
+}
@@ -8,7 +8,8 @@ public enum AiTaskType {
     AUTO("AUTO", "自动触发"),
     MANUAL("MANUAL", "手动触发"),
     ADMIN("ADMIN", "管理员触发"),
-    BATCH("BATCH", "批量触发");
+    BATCH("BATCH", "批量触发"),
+    CRISIS("CRISIS", "危机预警复核");
 
     private final String code;
     private final String description;
@@ -0,0 +1,37 @@
+package org.example.springboot.enumClass;
+
+/**
+ * 删除任务状态枚举
+ * @author system
+ */
+public enum DeletionJobStatus {
+    PENDING("PENDING", "待执行"),
+    RUNNING("RUNNING", "执行中"),
+    COMPLETED("COMPLETED", "已完成"),
+    FAILED("FAILED", "失败");
+
+    private final String code;
+    private final String description;
+
+    DeletionJobStatus(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public static DeletionJobStatus fromCode(String code) {
+        for (DeletionJobStatus status : values()) {
+            if (status.code.equals(code)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("未知的删除任务状态: " + code);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.springboot.enumClass;
+
+/**
+ * 删除任务目标类型枚举
+ * @author system
+ */
+public enum DeletionTargetType {
+    USER("USER", "用户"),
+    SESSION("SESSION", "咨询会话");
+
+    private final String code;
+    private final String description;
+
+    DeletionTargetType(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public static DeletionTargetType fromCode(String code) {
+        for (DeletionTargetType type : values()) {
+            if (type.code.equals(code)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的删除目标类型: " + code);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.springboot.enumClass;
+
+/**
+ * 测评AI解读状态枚举
+ * @author system
+ */
+public enum EvaluationAnalysisStatus {
+    PENDING("PENDING", "生成中"),
+    COMPLETED("COMPLETED", "已完成"),
+    FAILED("FAILED", "生成失败");
+
+    private final String code;
+    private final String description;
+
+    EvaluationAnalysisStatus(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public static EvaluationAnalysisStatus fromCode(String code) {
+        for (EvaluationAnalysisStatus status : values()) {
+            if (status.code.equals(code)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("未知的测评解读状态: " + code);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.springboot.enumClass;
+
+/**
+ * 定时任务执行状态枚举
+ * @author system
+ */
+public enum ScheduledJobStatus {
+    RUNNING("RUNNING", "执行中"),
+    SUCCEEDED("SUCCEEDED", "成功"),
+    FAILED("FAILED", "失败");
+
+    private final String code;
+    private final String description;
+
+    ScheduledJobStatus(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public static ScheduledJobStatus fromCode(String code) {
+        for (ScheduledJobStatus status : values()) {
+            if (status.code.equals(code)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("未知的定时任务状态: " + code);
+    }
+}
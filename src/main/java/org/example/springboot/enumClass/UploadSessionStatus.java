@@ -0,0 +1,36 @@
+package org.example.springboot.enumClass;
+
+/**
+ * 分片上传会话状态枚举
+ * @author system
+ */
+public enum UploadSessionStatus {
+    UPLOADING("UPLOADING", "上传中"),
+    COMPLETING("COMPLETING", "合并中"),
+    COMPLETED("COMPLETED", "已完成");
+
+    private final String code;
+    private final String description;
+
+    UploadSessionStatus(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public static UploadSessionStatus fromCode(String code) {
+        for (UploadSessionStatus status : values()) {
+            if (status.code.equals(code)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("未知的上传会话状态: " + code);
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.example.springboot.entity.DeletionJob;
+
+/**
+ * 级联删除任务Mapper接口
+ * @author system
+ */
+@Mapper
+public interface DeletionJobMapper extends BaseMapper<DeletionJob> {
+}
@@ -0,0 +1,13 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.example.springboot.entity.ScheduledJobRun;
+
+/**
+ * 定时任务执行记录Mapper接口
+ * @author system
+ */
+@Mapper
+public interface ScheduledJobRunMapper extends BaseMapper<ScheduledJobRun> {
+}
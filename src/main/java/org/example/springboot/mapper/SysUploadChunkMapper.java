@@ -0,0 +1,13 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.example.springboot.entity.SysUploadChunk;
+
+/**
+ * 上传分片Mapper接口
+ * @author system
+ */
+@Mapper
+public interface SysUploadChunkMapper extends BaseMapper<SysUploadChunk> {
+}
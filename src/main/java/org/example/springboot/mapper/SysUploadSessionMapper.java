@@ -0,0 +1,13 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.example.springboot.entity.SysUploadSession;
+
+/**
+ * 分片上传会话Mapper接口
+ * @author system
+ */
+@Mapper
+public interface SysUploadSessionMapper extends BaseMapper<SysUploadSession> {
+}
@@ -52,6 +52,24 @@ public class AiAnalysisTaskService {
 
         AiAnalysisTask task = new AiAnalysisTask();
         task.setDiaryId(diaryId);
+        return insertTask(task, userId, taskType, priority);
+    }
+
+    /**
+     * 创建由对话消息触发的任务，记录来源会话与消息序号
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Long createMessageTask(Long sessionId, Long messageSeq, Long userId, AiTaskType taskType, Integer priority) {
+        log.info("创建AI分析任务，会话ID: {}, 消息序号: {}, 用户ID: {}, 任务类型: {}",
+                sessionId, messageSeq, userId, taskType.getCode());
+
+        AiAnalysisTask task = new AiAnalysisTask();
+        task.setSessionId(sessionId);
+        task.setMessageSeq(messageSeq);
+        return insertTask(task, userId, taskType, priority);
+    }
+
+    private Long insertTask(AiAnalysisTask task, Long userId, AiTaskType taskType, Integer priority) {
         task.setUserId(userId);
         task.setStatus(AiTaskStatus.PENDING.getCode());
         task.setTaskType(taskType.getCode());
@@ -155,8 +173,9 @@ public class AiAnalysisTaskService {
                         .apply("retry_count < max_retry_count");
         }
 
-        // 按创建时间倒序排列
-        queryWrapper.orderByDesc(AiAnalysisTask::getCreatedAt);
+        // 按优先级、创建时间倒序排列，紧急的危机复核任务排在最前
+        queryWrapper.orderByDesc(AiAnalysisTask::getPriority)
+                    .orderByDesc(AiAnalysisTask::getCreatedAt);
 
         Page<AiAnalysisTask> taskPage = aiAnalysisTaskMapper.selectPage(page, queryWrapper);
         
@@ -322,6 +341,8 @@ public class AiAnalysisTaskService {
         
         dto.setId(task.getId());
         dto.setDiaryId(task.getDiaryId());
+        dto.setSessionId(task.getSessionId());
+        dto.setMessageSeq(task.getMessageSeq());
         dto.setUserId(task.getUserId());
         dto.setStatus(task.getStatus());
         dto.setStatusDescription(AiTaskStatus.fromCode(task.getStatus()).getDescription());
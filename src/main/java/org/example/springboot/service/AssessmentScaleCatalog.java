@@ -0,0 +1,293 @@
+package org.example.springboot.service;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.DTO.request.EvaluationAnswerDTO;
+import org.example.springboot.DTO.response.AssessmentScaleDTO;
+import org.example.springboot.DTO.response.EvaluationQuestionDTO;
+import org.example.springboot.common.Result;
+import org.example.springboot.entity.AssessmentScale;
+import org.example.springboot.entity.PsychologicalEvaluationQuestion;
+import org.example.springboot.exception.BusinessException;
+import org.example.springboot.mapper.AssessmentScaleMapper;
+import org.example.springboot.mapper.PsychologicalEvaluationQuestionMapper;
+import org.example.springboot.util.DenseIdIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 测评量表目录
+ * 量表和题目几乎不变，启动时一次性加载并编译：题目按ID建立数组索引，选项JSON预先解析，
+ * 题目列表的响应体预先序列化并计算 ETag；取题和计分只读内存快照，不访问数据库。
+ * 管理员修改量表或题目后调用 refresh() 整体重建快照，读请求始终看到一致的旧快照或新快照。
+ * 快照只存在于当前进程：多实例部署时 refresh() 只刷新收到请求的实例，其余实例需逐个刷新或重启后才会生效
+ * @author system
+ */
+@Slf4j
+@Service
+public class AssessmentScaleCatalog {
+
+    @Resource
+    private AssessmentScaleMapper scaleMapper;
+
+    @Resource
+    private PsychologicalEvaluationQuestionMapper questionMapper;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 使用 ReentrantLock 而非 synchronized：持锁期间会查询数据库，虚拟线程下 synchronized 会钉住载体线程
+     */
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    /**
+     * 启动完成后预加载，失败时在首次访问时重试
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("测评量表目录预加载失败，将在首次访问时重试: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从数据库重建目录，并发的刷新依次执行；仅刷新当前实例
+     *
+     * @return 加载的量表数
+     */
+    public int refresh() {
+        refreshLock.lock();
+        try {
+            return rebuild();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private int rebuild() {
+        long start = System.currentTimeMillis();
+        List<AssessmentScale> scales = scaleMapper.selectList(
+                new LambdaQueryWrapper<AssessmentScale>().orderByAsc(AssessmentScale::getId));
+        Map<Long, List<PsychologicalEvaluationQuestion>> questionsByScale = questionMapper.selectList(
+                        new LambdaQueryWrapper<PsychologicalEvaluationQuestion>()
+                                .orderByAsc(PsychologicalEvaluationQuestion::getEvaluationId)
+                                .orderByAsc(PsychologicalEvaluationQuestion::getSortOrder)
+                                .orderByAsc(PsychologicalEvaluationQuestion::getId))
+                .stream()
+                .collect(Collectors.groupingBy(PsychologicalEvaluationQuestion::getEvaluationId,
+                        LinkedHashMap::new, Collectors.toList()));
+
+        Map<Long, CompiledScale> compiled = new LinkedHashMap<>();
+        List<AssessmentScaleDTO> enabledScales = new ArrayList<>();
+        int questionCount = 0;
+        for (AssessmentScale scale : scales) {
+            List<PsychologicalEvaluationQuestion> questions =
+                    questionsByScale.getOrDefault(scale.getId().longValue(), Collections.emptyList());
+            CompiledScale compiledScale = compile(scale, questions);
+            compiled.put(scale.getId().longValue(), compiledScale);
+            if (scale.isEnabled()) {
+                enabledScales.add(compiledScale.getScaleDTO());
+            }
+            questionCount += questions.size();
+        }
+        snapshot = new Snapshot(compiled, Collections.unmodifiableList(enabledScales));
+        log.info("测评量表目录已加载: 量表 {} 个（启用 {} 个），题目 {} 道，耗时 {}ms",
+                compiled.size(), enabledScales.size(), questionCount, System.currentTimeMillis() - start);
+        return compiled.size();
+    }
+
+    /**
+     * 启用的量表列表
+     */
+    public List<AssessmentScaleDTO> getEnabledScales() {
+        return current().enabledScales();
+    }
+
+    /**
+     * 获取量表（含禁用的量表，历史测评记录仍需展示名称）
+     *
+     * @return 编译后的量表，不存在时返回null
+     */
+    public CompiledScale getScale(long scaleId) {
+        return current().scales().get(scaleId);
+    }
+
+    /**
+     * 获取可作答的量表：存在、已启用且有题目
+     */
+    public CompiledScale requireAnswerableScale(Long scaleId) {
+        if (scaleId == null) {
+            throw new BusinessException("测评ID不能为空");
+        }
+        CompiledScale scale = getScale(scaleId);
+        if (scale == null || !scale.getScale().isEnabled()) {
+            throw new BusinessException("测评量表不存在或已禁用");
+        }
+        if (!scale.hasQuestions()) {
+            throw new BusinessException("该测评暂无题目");
+        }
+        return scale;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refreshLock.lock();
+            try {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private CompiledScale compile(AssessmentScale scale, List<PsychologicalEvaluationQuestion> questions) {
+        AssessmentScaleDTO scaleDTO = new AssessmentScaleDTO();
+        BeanUtil.copyProperties(scale, scaleDTO);
+
+        int count = questions.size();
+        long[] ids = new long[count];
+        int[] scoreWeights = new int[count];
+        List<EvaluationQuestionDTO> questionDTOs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PsychologicalEvaluationQuestion question = questions.get(i);
+            EvaluationQuestionDTO dto = new EvaluationQuestionDTO();
+            BeanUtil.copyProperties(question, dto);
+            dto.setOptions(parseOptions(question));
+            questionDTOs.add(dto);
+
+            ids[i] = question.getId();
+            scoreWeights[i] = question.getScoreWeight() == null ? 0 : question.getScoreWeight();
+        }
+        questionDTOs = Collections.unmodifiableList(questionDTOs);
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(Result.success(questionDTOs));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化测评题目失败，量表ID: " + scale.getId(), e);
+        }
+        String etag = "\"" + DigestUtil.md5Hex(payload) + "\"";
+
+        return new CompiledScale(scale, scaleDTO, questionDTOs, DenseIdIndex.of(ids),
+                scoreWeights, payload, etag);
+    }
+
+    private List<String> parseOptions(PsychologicalEvaluationQuestion question) {
+        if (StrUtil.isBlank(question.getOptions())) {
+            return Collections.emptyList();
+        }
+        try {
+            return Collections.unmodifiableList(JSONUtil.parseArray(question.getOptions()).toList(String.class));
+        } catch (Exception e) {
+            log.warn("测评题目选项格式错误，按无选项处理，题目ID: {}，错误: {}", question.getId(), e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 编译后的量表，创建后不可变
+     */
+    public static final class CompiledScale {
+
+        private final AssessmentScale scale;
+        private final AssessmentScaleDTO scaleDTO;
+        private final List<EvaluationQuestionDTO> questions;
+        private final DenseIdIndex questionIndex;
+        private final int[] scoreWeights;
+        private final byte[] questionsPayload;
+        private final String questionsEtag;
+
+        private CompiledScale(AssessmentScale scale, AssessmentScaleDTO scaleDTO,
+                              List<EvaluationQuestionDTO> questions, DenseIdIndex questionIndex,
+                              int[] scoreWeights,
+                              byte[] questionsPayload, String questionsEtag) {
+            this.scale = scale;
+            this.scaleDTO = scaleDTO;
+            this.questions = questions;
+            this.questionIndex = questionIndex;
+            this.scoreWeights = scoreWeights;
+            this.questionsPayload = questionsPayload;
+            this.questionsEtag = questionsEtag;
+        }
+
+        /**
+         * 计算总分：每道题得分 = 分值权重 × 选中选项数，题目按ID在数组中直接定位
+         */
+        public int score(List<EvaluationAnswerDTO> answers) {
+            int totalScore = 0;
+            for (EvaluationAnswerDTO answer : answers) {
+                int index = answer.getQuestionId() == null ? -1 : questionIndex.indexOf(answer.getQuestionId());
+                if (index < 0) {
+                    throw new BusinessException("题目不存在: " + answer.getQuestionId());
+                }
+                totalScore += scoreWeights[index] * answer.getSelectedOptions().size();
+            }
+            return totalScore;
+        }
+
+        public AssessmentScale getScale() {
+            return scale;
+        }
+
+        public AssessmentScaleDTO getScaleDTO() {
+            return scaleDTO;
+        }
+
+        public boolean hasQuestions() {
+            return !questions.isEmpty();
+        }
+
+        /**
+         * 题目列表的副本，调用方修改不会影响目录中缓存的题目
+         */
+        public List<EvaluationQuestionDTO> getQuestions() {
+            List<EvaluationQuestionDTO> copies = new ArrayList<>(questions.size());
+            for (EvaluationQuestionDTO question : questions) {
+                EvaluationQuestionDTO copy = BeanUtil.copyProperties(question, EvaluationQuestionDTO.class);
+                copy.setOptions(new ArrayList<>(question.getOptions()));
+                copies.add(copy);
+            }
+            return Collections.unmodifiableList(copies);
+        }
+
+        /**
+         * 预先序列化的题目列表响应体（Result 包装后的 JSON），调用方不得修改
+         */
+        public byte[] getQuestionsPayload() {
+            return questionsPayload;
+        }
+
+        public String getQuestionsEtag() {
+            return questionsEtag;
+        }
+    }
+
+    private record Snapshot(Map<Long, CompiledScale> scales, List<AssessmentScaleDTO> enabledScales) {
+    }
+}
@@ -0,0 +1,370 @@
+package org.example.springboot.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.DTO.ChunkedUploadInitDTO;
+import org.example.springboot.DTO.ChunkedUploadStatusDTO;
+import org.example.springboot.DTO.FileInfoDTO;
+import org.example.springboot.DTO.FileUploadDTO;
+import org.example.springboot.config.ChunkedUploadProperties;
+import org.example.springboot.entity.SysUploadChunk;
+import org.example.springboot.entity.SysUploadSession;
+import org.example.springboot.enumClass.UploadSessionStatus;
+import org.example.springboot.exception.BusinessException;
+import org.example.springboot.mapper.SysUploadChunkMapper;
+import org.example.springboot.mapper.SysUploadSessionMapper;
+import org.example.springboot.util.ChunkedFileWriter;
+import org.example.springboot.util.ContentAddressedStorage;
+import org.example.springboot.util.FileUtil;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 分片上传服务
+ * 协议：初始化（登记会话并预分配文件）→ 并发、乱序上传各分片（校验 SHA-256 通过后按偏移量写入）→
+ * 完成（逐片复核登记的校验和并计算整体哈希，通过后移入内容存储并登记文件）。
+ * 已接收的分片记录在数据库中，断线后查询会话即可跳过已上传的分片续传；复核失败的分片记录会被删除，客户端重传这些分片即可
+ * @author system
+ */
+@Slf4j
+@Service
+public class ChunkedUploadService {
+
+    @Resource
+    private SysUploadSessionMapper uploadSessionMapper;
+
+    @Resource
+    private SysUploadChunkMapper uploadChunkMapper;
+
+    @Resource
+    private ChunkedUploadProperties properties;
+
+    @Resource
+    private BussinessFileValidationService bussinessFileValidationService;
+
+    @Resource
+    private FileService fileService;
+
+    /**
+     * 初始化分片上传
+     *
+     * @param initDTO      文件与业务信息
+     * @param uploadUserId 上传用户ID
+     * @return 上传状态（含上传ID与分片规格）
+     */
+    public ChunkedUploadStatusDTO initUpload(ChunkedUploadInitDTO initDTO, Long uploadUserId) {
+        FileUtil.validateName(initDTO.getOriginalName());
+        if (StrUtil.isBlank(FileUtil.getFileExtension(initDTO.getOriginalName()))) {
+            throw new BusinessException("文件没有扩展名");
+        }
+        if (initDTO.getFileSize() > properties.getMaxFileSize()) {
+            throw new BusinessException(String.format("文件大小超出限制，当前: %d 字节，最大允许: %d 字节",
+                    initDTO.getFileSize(), properties.getMaxFileSize()));
+        }
+        bussinessFileValidationService.validateFileUpload(initDTO.getOriginalName(), initDTO.getBusinessType());
+        bussinessFileValidationService.validateBusinessPermission(initDTO.getBusinessType(),
+                initDTO.getBusinessId(), uploadUserId);
+
+        int chunkSize = initDTO.getChunkSize() != null ? initDTO.getChunkSize() : properties.getDefaultChunkSize();
+        if (chunkSize < properties.getMinChunkSize() || chunkSize > properties.getMaxChunkSize()) {
+            throw new BusinessException(String.format("分片大小须在 %d 到 %d 字节之间",
+                    properties.getMinChunkSize(), properties.getMaxChunkSize()));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        SysUploadSession session = new SysUploadSession();
+        session.setId(UUID.randomUUID().toString().replace("-", ""));
+        session.setUploadUserId(uploadUserId);
+        session.setOriginalName(initDTO.getOriginalName());
+        session.setFileSize(initDTO.getFileSize());
+        session.setChunkSize(chunkSize);
+        session.setTotalChunks((int) ((initDTO.getFileSize() + chunkSize - 1) / chunkSize));
+        session.setBusinessType(initDTO.getBusinessType());
+        session.setBusinessId(initDTO.getBusinessId());
+        session.setBusinessField(initDTO.getBusinessField());
+        session.setIsTemp(Boolean.TRUE.equals(initDTO.getIsTemp()) ? 1 : 0);
+        session.setReplaceOld(Boolean.TRUE.equals(initDTO.getReplaceOld()) ? 1 : 0);
+        session.setStatus(UploadSessionStatus.UPLOADING.getCode());
+        session.setExpireTime(now.plusHours(properties.getExpireHours()));
+        session.setCreatedAt(now);
+        session.setUpdatedAt(now);
+
+        try {
+            ChunkedFileWriter.preallocate(partFile(session.getId()), session.getFileSize());
+        } catch (IOException e) {
+            log.error("预分配上传文件失败: 上传ID={}, 错误={}", session.getId(), e.getMessage(), e);
+            throw new BusinessException("初始化上传失败: " + e.getMessage());
+        }
+        uploadSessionMapper.insert(session);
+
+        log.info("分片上传初始化: 上传ID={}, 文件名={}, 大小={}, 分片={}x{}", session.getId(),
+                session.getOriginalName(), session.getFileSize(), session.getTotalChunks(), chunkSize);
+        return toStatusDTO(session, List.of());
+    }
+
+    /**
+     * 写入一个分片；同一分片可重复上传，以最后一次校验通过的为准。
+     * 分片直接写入目标位置，校验失败或写入中断时该区域已不可信，撤销该分片的登记等待重传
+     *
+     * @param uploadId     上传ID
+     * @param chunkIndex   分片序号（从0开始）
+     * @param checksum     客户端计算的分片 SHA-256
+     * @param in           分片内容
+     * @param uploadUserId 上传用户ID
+     */
+    public void uploadChunk(String uploadId, int chunkIndex, String checksum, InputStream in, Long uploadUserId) {
+        if (StrUtil.isBlank(checksum)) {
+            throw new BusinessException("缺少分片校验和");
+        }
+        SysUploadSession session = getActiveSession(uploadId, uploadUserId);
+        if (chunkIndex < 0 || chunkIndex >= session.getTotalChunks()) {
+            throw new BusinessException("分片序号超出范围");
+        }
+
+        String actual;
+        try {
+            actual = ChunkedFileWriter.writeChunk(partFile(uploadId), (long) chunkIndex * session.getChunkSize(),
+                    session.chunkLength(chunkIndex), checksum, in);
+        } catch (IOException e) {
+            // 可能已写入一部分，该分片区域不再可信，撤销登记等待重传
+            deleteChunk(uploadId, chunkIndex);
+            log.warn("分片写入中断: 上传ID={}, 分片={}, 错误={}", uploadId, chunkIndex, e.getMessage());
+            throw new BusinessException("分片写入失败，请重试: " + e.getMessage());
+        } catch (BusinessException e) {
+            deleteChunk(uploadId, chunkIndex);
+            log.warn("分片被拒绝: 上传ID={}, 分片={}, 原因={}", uploadId, chunkIndex, e.getMessage());
+            throw e;
+        }
+
+        recordChunk(uploadId, chunkIndex, actual);
+
+        // 顺延过期时间，长时间断线后仍可续传
+        LambdaUpdateWrapper<SysUploadSession> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(SysUploadSession::getId, uploadId)
+                .set(SysUploadSession::getExpireTime, LocalDateTime.now().plusHours(properties.getExpireHours()))
+                .set(SysUploadSession::getUpdatedAt, LocalDateTime.now());
+        uploadSessionMapper.update(null, updateWrapper);
+    }
+
+    /**
+     * 查询上传状态，用于断线续传
+     */
+    public ChunkedUploadStatusDTO getStatus(String uploadId, Long uploadUserId) {
+        SysUploadSession session = getOwnedSession(uploadId, uploadUserId);
+        return toStatusDTO(session, receivedChunks(uploadId));
+    }
+
+    /**
+     * 完成上传：校验分片齐全、逐片复核校验和与整体哈希后移入内容存储并登记文件；已完成的会话重复调用返回同一文件。
+     * 复核失败的分片撤销登记，错误信息中列出其序号
+     *
+     * @param uploadId     上传ID
+     * @param sha256       客户端计算的整体 SHA-256（可选）
+     * @param uploadUserId 上传用户ID
+     * @return 文件信息
+     */
+    public FileInfoDTO completeUpload(String uploadId, String sha256, Long uploadUserId) {
+        SysUploadSession session = getOwnedSession(uploadId, uploadUserId);
+        if (UploadSessionStatus.COMPLETED.getCode().equals(session.getStatus())) {
+            return fileService.getFileInfo(session.getFileId());
+        }
+
+        LambdaQueryWrapper<SysUploadChunk> chunkWrapper = new LambdaQueryWrapper<>();
+        chunkWrapper.select(SysUploadChunk::getChunkIndex, SysUploadChunk::getChecksum)
+                .eq(SysUploadChunk::getUploadId, uploadId);
+        Map<Integer, String> chunkChecksums = uploadChunkMapper.selectList(chunkWrapper).stream()
+                .collect(Collectors.toMap(SysUploadChunk::getChunkIndex, SysUploadChunk::getChecksum));
+        if (chunkChecksums.size() < session.getTotalChunks()) {
+            throw new BusinessException(String.format("分片未上传完整: %d/%d", chunkChecksums.size(), session.getTotalChunks()));
+        }
+
+        // 抢占合并，防止并发的完成请求重复登记
+        if (!transitStatus(uploadId, UploadSessionStatus.UPLOADING, UploadSessionStatus.COMPLETING)) {
+            throw new BusinessException("上传正在合并中，请稍后查询");
+        }
+
+        try {
+            Path part = partFile(uploadId);
+            ChunkedFileWriter.Verification verification = ChunkedFileWriter.verify(part, session.getChunkSize(), chunkChecksums);
+            if (!verification.corruptChunks().isEmpty()) {
+                verification.corruptChunks().forEach(index -> deleteChunk(uploadId, index));
+                log.warn("分片复核失败: 上传ID={}, 分片={}", uploadId, verification.corruptChunks());
+                throw new BusinessException("以下分片校验失败，请重新上传: " + verification.corruptChunks());
+            }
+            String contentHash = verification.sha256();
+            if (StrUtil.isNotBlank(sha256) && !contentHash.equalsIgnoreCase(sha256.trim())) {
+                throw new BusinessException("文件整体校验失败");
+            }
+            ContentAddressedStorage.StoredContent content = ContentAddressedStorage.storeFile(part, contentHash,
+                    FileUtil.getFileExtension(session.getOriginalName()));
+
+            FileUploadDTO uploadDTO = new FileUploadDTO();
+            uploadDTO.setBusinessType(session.getBusinessType());
+            uploadDTO.setBusinessId(session.getBusinessId());
+            uploadDTO.setBusinessField(session.getBusinessField());
+            uploadDTO.setIsTemp(session.getIsTemp() != null && session.getIsTemp() == 1);
+            FileInfoDTO fileInfo = fileService.saveStoredFile(content, session.getOriginalName(), uploadDTO,
+                    uploadUserId, session.getReplaceOld() != null && session.getReplaceOld() == 1);
+
+            LambdaUpdateWrapper<SysUploadSession> updateWrapper = new LambdaUpdateWrapper<>();
+            updateWrapper.eq(SysUploadSession::getId, uploadId)
+                    .set(SysUploadSession::getStatus, UploadSessionStatus.COMPLETED.getCode())
+                    .set(SysUploadSession::getFileId, fileInfo.getId())
+                    .set(SysUploadSession::getUpdatedAt, LocalDateTime.now());
+            uploadSessionMapper.update(null, updateWrapper);
+            deleteChunks(uploadId);
+
+            log.info("分片上传完成: 上传ID={}, 文件ID={}, 复用已有内容={}", uploadId, fileInfo.getId(), content.deduplicated());
+            return fileInfo;
+        } catch (Exception e) {
+            // 回到上传中，客户端可重传分片后再次完成
+            transitStatus(uploadId, UploadSessionStatus.COMPLETING, UploadSessionStatus.UPLOADING);
+            log.error("分片上传合并失败: 上传ID={}, 错误={}", uploadId, e.getMessage(), e);
+            if (e instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            throw new BusinessException("文件合并失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 取消上传，删除已上传的分片
+     */
+    public void abortUpload(String uploadId, Long uploadUserId) {
+        SysUploadSession session = getOwnedSession(uploadId, uploadUserId);
+        if (UploadSessionStatus.COMPLETING.getCode().equals(session.getStatus())) {
+            throw new BusinessException("上传正在合并中，无法取消");
+        }
+        removeSession(uploadId);
+        log.info("分片上传已取消: 上传ID={}", uploadId);
+    }
+
+    /**
+     * 清理过期的上传会话（未完成的删除分片文件，已完成的只删除会话记录）
+     *
+     * @return 清理的会话数
+     */
+    public int cleanupExpiredUploads() {
+        LambdaQueryWrapper<SysUploadSession> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.select(SysUploadSession::getId)
+                .lt(SysUploadSession::getExpireTime, LocalDateTime.now());
+        List<SysUploadSession> expired = uploadSessionMapper.selectList(queryWrapper);
+        for (SysUploadSession session : expired) {
+            removeSession(session.getId());
+        }
+        log.info("过期上传会话清理完成: 清理数量={}", expired.size());
+        return expired.size();
+    }
+
+    private SysUploadSession getOwnedSession(String uploadId, Long uploadUserId) {
+        SysUploadSession session = uploadSessionMapper.selectById(uploadId);
+        if (session == null || (uploadUserId != null && !uploadUserId.equals(session.getUploadUserId()))) {
+            throw new BusinessException("上传会话不存在");
+        }
+        return session;
+    }
+
+    private SysUploadSession getActiveSession(String uploadId, Long uploadUserId) {
+        SysUploadSession session = getOwnedSession(uploadId, uploadUserId);
+        if (!UploadSessionStatus.UPLOADING.getCode().equals(session.getStatus())) {
+            throw new BusinessException("上传会话已结束");
+        }
+        if (session.getExpireTime() != null && session.getExpireTime().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("上传会话已过期，请重新上传");
+        }
+        return session;
+    }
+
+    /**
+     * 登记已接收的分片，重传的分片覆盖校验和
+     */
+    private void recordChunk(String uploadId, int chunkIndex, String checksum) {
+        SysUploadChunk chunk = new SysUploadChunk();
+        chunk.setUploadId(uploadId);
+        chunk.setChunkIndex(chunkIndex);
+        chunk.setChecksum(checksum);
+        chunk.setCreatedAt(LocalDateTime.now());
+        try {
+            uploadChunkMapper.insert(chunk);
+        } catch (DuplicateKeyException e) {
+            LambdaUpdateWrapper<SysUploadChunk> updateWrapper = new LambdaUpdateWrapper<>();
+            updateWrapper.eq(SysUploadChunk::getUploadId, uploadId)
+                    .eq(SysUploadChunk::getChunkIndex, chunkIndex)
+                    .set(SysUploadChunk::getChecksum, checksum)
+                    .set(SysUploadChunk::getCreatedAt, chunk.getCreatedAt());
+            uploadChunkMapper.update(null, updateWrapper);
+        }
+    }
+
+    private void deleteChunk(String uploadId, int chunkIndex) {
+        LambdaQueryWrapper<SysUploadChunk> deleteWrapper = new LambdaQueryWrapper<>();
+        deleteWrapper.eq(SysUploadChunk::getUploadId, uploadId)
+                .eq(SysUploadChunk::getChunkIndex, chunkIndex);
+        uploadChunkMapper.delete(deleteWrapper);
+    }
+
+    private List<Integer> receivedChunks(String uploadId) {
+        LambdaQueryWrapper<SysUploadChunk> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.select(SysUploadChunk::getChunkIndex)
+                .eq(SysUploadChunk::getUploadId, uploadId)
+                .orderByAsc(SysUploadChunk::getChunkIndex);
+        return uploadChunkMapper.selectList(queryWrapper).stream().map(SysUploadChunk::getChunkIndex).toList();
+    }
+
+    private boolean transitStatus(String uploadId, UploadSessionStatus from, UploadSessionStatus to) {
+        LambdaUpdateWrapper<SysUploadSession> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(SysUploadSession::getId, uploadId)
+                .eq(SysUploadSession::getStatus, from.getCode())
+                .set(SysUploadSession::getStatus, to.getCode())
+                .set(SysUploadSession::getUpdatedAt, LocalDateTime.now());
+        return uploadSessionMapper.update(null, updateWrapper) > 0;
+    }
+
+    private void removeSession(String uploadId) {
+        try {
+            Files.deleteIfExists(partFile(uploadId));
+        } catch (IOException e) {
+            log.warn("删除分片文件失败: 上传ID={}, 错误={}", uploadId, e.getMessage());
+        }
+        deleteChunks(uploadId);
+        uploadSessionMapper.deleteById(uploadId);
+    }
+
+    private void deleteChunks(String uploadId) {
+        LambdaQueryWrapper<SysUploadChunk> deleteWrapper = new LambdaQueryWrapper<>();
+        deleteWrapper.eq(SysUploadChunk::getUploadId, uploadId);
+        uploadChunkMapper.delete(deleteWrapper);
+    }
+
+    private Path partFile(String uploadId) {
+        return Paths.get(FileUtil.FILE_BASE_PATH, properties.getDirectory(), uploadId + ".part");
+    }
+
+    private ChunkedUploadStatusDTO toStatusDTO(SysUploadSession session, List<Integer> receivedChunks) {
+        ChunkedUploadStatusDTO dto = new ChunkedUploadStatusDTO();
+        dto.setUploadId(session.getId());
+        dto.setOriginalName(session.getOriginalName());
+        dto.setFileSize(session.getFileSize());
+        dto.setChunkSize(session.getChunkSize());
+        dto.setTotalChunks(session.getTotalChunks());
+        dto.setReceivedChunks(receivedChunks);
+        dto.setStatus(session.getStatus());
+        dto.setFileId(session.getFileId());
+        dto.setExpireTime(session.getExpireTime());
+        return dto;
+    }
+}
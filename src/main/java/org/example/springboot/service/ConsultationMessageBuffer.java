@@ -0,0 +1,508 @@
+package org.example.springboot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.config.MessageBufferProperties;
+import org.example.springboot.entity.ConsultationMessage;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * 咨询消息写缓冲
+ * 消息按追加顺序进入内存队列，由后台线程每隔 flush-interval-ms 或累计 batch-size 条时用 JDBC 批量插入，
+ * 会话内的顺序以消息的 seq 为准（追加前已由 {@link MessageSeqAllocator} 分配），读取方按 seq 排序。
+ *
+ * 并发约定：
+ * bufferLock 只保护内存队列，追加消息时不会等待数据库；
+ * flushLock 写锁覆盖"一批写库 + 出队"，读锁覆盖"取缓冲快照 + 查询数据库"，读取期间不会有批次落库，结果不重不漏。
+ *
+ * 写入失败：整批失败且属于数据错误时逐条重试，单条消息连续 max-attempts 轮刷新都写入失败后记录日志并移出缓冲（死信），
+ * 不会卡住后面的消息；数据库不可用等整体故障不计入失败次数，消息留在缓冲中等待下次刷新。
+ *
+ * 关闭时（SmartLifecycle，晚于Web服务器停止）停止接收并把剩余消息全部写入，之后的消息改为同步插入
+ */
+@Slf4j
+@Component
+public class ConsultationMessageBuffer implements SmartLifecycle {
+
+    /**
+     * 唯一索引冲突不在SQL中吞掉：整批失败后逐条写入，冲突的消息若已有相同 clientMessageId 的记录则按重复提交忽略，
+     * 否则（如 seq 冲突）按写入失败处理，不会被静默丢弃
+     */
+    private static final String INSERT_SQL = "INSERT INTO consultation_message "
+            + "(session_id, seq, client_message_id, sender_type, message_type, content, emotion_tag, ai_model, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String EXISTS_CLIENT_MESSAGE_SQL = "SELECT COUNT(*) FROM consultation_message "
+            + "WHERE session_id = ? AND client_message_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageBufferProperties properties;
+
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private final ArrayDeque<ConsultationMessage> pending = new ArrayDeque<>();
+    private final Map<Long, ArrayDeque<ConsultationMessage>> pendingBySession = new HashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    /**
+     * 消息因数据错误写入失败的轮数，只在 flushLock 写锁内访问
+     */
+    private final Map<ConsultationMessage, Integer> failedAttempts = new IdentityHashMap<>();
+
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter failureCounter;
+    private final Counter deadLetterCounter;
+
+    private ScheduledExecutorService scheduler;
+    private boolean running;
+
+    public ConsultationMessageBuffer(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MessageBufferProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.flushTimer = Timer.builder("chat.message.buffer.flush")
+                .description("咨询消息批量写入耗时")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("chat.message.buffer.flushed")
+                .description("批量写入的咨询消息数")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("chat.message.buffer.failures")
+                .description("咨询消息批量写入失败次数")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("chat.message.buffer.dead_letter")
+                .description("多次写入失败后放弃的咨询消息数")
+                .register(meterRegistry);
+        Gauge.builder("chat.message.buffer.pending", pendingCount, AtomicInteger::get)
+                .description("尚未落库的咨询消息数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 追加消息；缓冲未运行或已关闭时直接同步插入
+     *
+     * @param message 消息（id 在落库前为空）
+     * @return 同一会话中已有相同 clientMessageId 的待写入消息时返回 false，消息被忽略
+     */
+    public boolean append(ConsultationMessage message) {
+        int size;
+        bufferLock.lock();
+        try {
+            if (!running) {
+                size = -1;
+            } else if (isPendingLocked(message.getSessionId(), message.getClientMessageId())) {
+                return false;
+            } else {
+                pending.addLast(message);
+                pendingBySession.computeIfAbsent(message.getSessionId(), k -> new ArrayDeque<>()).addLast(message);
+                size = pendingCount.incrementAndGet();
+            }
+        } finally {
+            bufferLock.unlock();
+        }
+
+        if (size < 0) {
+            insertBatch(List.of(message));
+        } else if (size >= properties.getMaxBuffered()) {
+            log.warn("咨询消息缓冲已达上限 {}，由写入线程同步刷新", properties.getMaxBuffered());
+            flush();
+        } else if (size >= properties.getBatchSize() && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+        return true;
+    }
+
+    /**
+     * 会话中是否有尚未落库、且客户端消息ID相同的消息
+     *
+     * @param sessionId       会话ID
+     * @param clientMessageId 客户端消息ID，为空时返回 false
+     */
+    public boolean isPending(Long sessionId, String clientMessageId) {
+        bufferLock.lock();
+        try {
+            return isPendingLocked(sessionId, clientMessageId);
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private boolean isPendingLocked(Long sessionId, String clientMessageId) {
+        if (clientMessageId == null) {
+            return false;
+        }
+        ArrayDeque<ConsultationMessage> queue = pendingBySession.get(sessionId);
+        if (queue == null) {
+            return false;
+        }
+        for (ConsultationMessage pendingMessage : queue) {
+            if (clientMessageId.equals(pendingMessage.getClientMessageId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在 flushLock 读锁内读取：reader 拿到该会话尚未落库的消息快照（按追加顺序）后自行查询数据库
+     *
+     * @param sessionId 会话ID
+     * @param reader    读取逻辑
+     * @return reader 的结果
+     */
+    public <R> R read(Long sessionId, Function<List<ConsultationMessage>, R> reader) {
+        flushLock.readLock().lock();
+        try {
+            List<ConsultationMessage> buffered;
+            bufferLock.lock();
+            try {
+                ArrayDeque<ConsultationMessage> queue = pendingBySession.get(sessionId);
+                buffered = queue == null ? List.of() : new ArrayList<>(queue);
+            } finally {
+                bufferLock.unlock();
+            }
+            return reader.apply(buffered);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 批量版 {@link #read}：reader 拿到各会话尚未落库的消息快照（没有缓冲消息的会话不在 Map 中）
+     *
+     * @param sessionIds 会话ID
+     * @param reader     读取逻辑
+     * @return reader 的结果
+     */
+    public <R> R readAll(Collection<Long> sessionIds, Function<Map<Long, List<ConsultationMessage>>, R> reader) {
+        flushLock.readLock().lock();
+        try {
+            Map<Long, List<ConsultationMessage>> buffered = new HashMap<>();
+            bufferLock.lock();
+            try {
+                for (Long sessionId : sessionIds) {
+                    ArrayDeque<ConsultationMessage> queue = pendingBySession.get(sessionId);
+                    if (queue != null) {
+                        buffered.put(sessionId, new ArrayList<>(queue));
+                    }
+                }
+            } finally {
+                bufferLock.unlock();
+            }
+            return reader.apply(buffered);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 丢弃会话尚未落库的消息（删除会话时使用，避免删除后又被写入）
+     *
+     * @param sessionId 会话ID
+     * @return 丢弃的消息数
+     */
+    public int discard(Long sessionId) {
+        flushLock.writeLock().lock();
+        bufferLock.lock();
+        try {
+            ArrayDeque<ConsultationMessage> queue = pendingBySession.remove(sessionId);
+            if (queue == null) {
+                return 0;
+            }
+            for (Iterator<ConsultationMessage> it = pending.iterator(); it.hasNext(); ) {
+                if (sessionId.equals(it.next().getSessionId())) {
+                    it.remove();
+                }
+            }
+            queue.forEach(failedAttempts::remove);
+            pendingCount.addAndGet(-queue.size());
+            return queue.size();
+        } finally {
+            bufferLock.unlock();
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 把当前缓冲中的消息全部写入数据库；每批单独持有写锁，批次之间读请求可以进入。
+     * 本轮写入失败、仍留在缓冲中的消息不再重复尝试，等待下次刷新
+     */
+    public void flush() {
+        Set<ConsultationMessage> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        int remaining = pendingCount.get();
+        while (remaining > 0) {
+            int removed = flushBatch(failed);
+            if (removed == 0) {
+                return;
+            }
+            remaining -= removed;
+        }
+    }
+
+    /**
+     * 写入一批消息
+     *
+     * @param failed 本轮已失败的消息，取批次时跳过；本批失败的消息会加入其中
+     * @return 移出缓冲的消息数（写入成功或转为死信）
+     */
+    private int flushBatch(Set<ConsultationMessage> failed) {
+        flushLock.writeLock().lock();
+        try {
+            List<ConsultationMessage> batch;
+            bufferLock.lock();
+            try {
+                batch = new ArrayList<>(Math.min(pending.size(), properties.getBatchSize()));
+                Iterator<ConsultationMessage> it = pending.iterator();
+                while (it.hasNext() && batch.size() < properties.getBatchSize()) {
+                    ConsultationMessage message = it.next();
+                    if (!failed.contains(message)) {
+                        batch.add(message);
+                    }
+                }
+            } finally {
+                bufferLock.unlock();
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            List<ConsultationMessage> removed;
+            try {
+                flushTimer.record(() -> insertBatch(batch));
+                flushedCounter.increment(batch.size());
+                batch.forEach(failedAttempts::remove);
+                removed = batch;
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                if (!isDataError(e)) {
+                    // 数据库不可用等整体故障：整批留在队列中，等待下次刷新
+                    failed.addAll(batch);
+                    log.error("咨询消息批量写入失败，待写入: {}，将在下次刷新时重试: {}", pendingCount.get(), e.getMessage(), e);
+                    return 0;
+                }
+                log.warn("咨询消息批量写入失败，改为逐条写入，批大小: {}，错误: {}", batch.size(), e.getMessage());
+                removed = insertOneByOne(batch, failed);
+            }
+
+            bufferLock.lock();
+            try {
+                for (ConsultationMessage message : removed) {
+                    removeFirst(pending, message);
+                    ArrayDeque<ConsultationMessage> queue = pendingBySession.get(message.getSessionId());
+                    if (queue != null) {
+                        removeFirst(queue, message);
+                        if (queue.isEmpty()) {
+                            pendingBySession.remove(message.getSessionId());
+                        }
+                    }
+                }
+                pendingCount.addAndGet(-removed.size());
+            } finally {
+                bufferLock.unlock();
+            }
+            return removed.size();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 逐条写入，隔离出导致整批失败的消息
+     *
+     * @return 写入成功或转为死信的消息
+     */
+    private List<ConsultationMessage> insertOneByOne(List<ConsultationMessage> batch, Set<ConsultationMessage> failed) {
+        List<ConsultationMessage> removed = new ArrayList<>(batch.size());
+        for (ConsultationMessage message : batch) {
+            try {
+                insertBatch(List.of(message));
+                flushedCounter.increment();
+                failedAttempts.remove(message);
+                removed.add(message);
+            } catch (RuntimeException e) {
+                if (e instanceof DuplicateKeyException && isStoredSubmission(message)) {
+                    failedAttempts.remove(message);
+                    removed.add(message);
+                    log.info("重复提交的咨询消息已落库，忽略本条，会话ID: {}，clientMessageId: {}",
+                            message.getSessionId(), message.getClientMessageId());
+                    continue;
+                }
+                failed.add(message);
+                if (!isDataError(e)) {
+                    continue;
+                }
+                int attempts = failedAttempts.merge(message, 1, Integer::sum);
+                if (attempts < properties.getMaxAttempts()) {
+                    log.warn("咨询消息写入失败（第 {} 次），会话ID: {}，seq: {}，错误: {}",
+                            attempts, message.getSessionId(), message.getSeq(), e.getMessage());
+                    continue;
+                }
+                failedAttempts.remove(message);
+                deadLetterCounter.increment();
+                removed.add(message);
+                log.error("咨询消息连续 {} 次写入失败，已放弃写入：会话ID: {}，seq: {}，clientMessageId: {}，发送方: {}，内容: {}，错误: {}",
+                        attempts, message.getSessionId(), message.getSeq(), message.getClientMessageId(),
+                        message.getSenderType(), message.getContent(), e.getMessage(), e);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 是否为消息本身导致的写入失败（约束冲突、字段超长等），重试同一条消息不会成功；
+     * 连接失败、超时、死锁等与具体消息无关，不计入该消息的失败次数
+     */
+    private static boolean isDataError(RuntimeException e) {
+        return e instanceof NonTransientDataAccessException && !(e instanceof DataAccessResourceFailureException);
+    }
+
+    /**
+     * 数据库中是否已有该消息的 clientMessageId
+     */
+    private boolean isStoredSubmission(ConsultationMessage message) {
+        if (message.getClientMessageId() == null) {
+            return false;
+        }
+        Long count = jdbcTemplate.queryForObject(EXISTS_CLIENT_MESSAGE_SQL, Long.class,
+                message.getSessionId(), message.getClientMessageId());
+        return count != null && count > 0;
+    }
+
+    private static void removeFirst(ArrayDeque<ConsultationMessage> queue, ConsultationMessage message) {
+        for (Iterator<ConsultationMessage> it = queue.iterator(); it.hasNext(); ) {
+            if (it.next() == message) {
+                it.remove();
+                return;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.error("咨询消息批量写入失败，待写入: {}，将在下次刷新时重试: {}", pendingCount.get(), e.getMessage(), e);
+        }
+    }
+
+    private void insertBatch(List<ConsultationMessage> batch) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, message) -> {
+                    ps.setLong(1, message.getSessionId());
+                    ps.setObject(2, message.getSeq());
+                    ps.setString(3, message.getClientMessageId());
+                    ps.setObject(4, message.getSenderType());
+                    ps.setObject(5, message.getMessageType());
+                    ps.setString(6, message.getContent());
+                    ps.setString(7, message.getEmotionTag());
+                    ps.setString(8, message.getAiModel());
+                    ps.setObject(9, message.getCreatedAt());
+                }));
+    }
+
+    @Override
+    public void start() {
+        bufferLock.lock();
+        try {
+            if (running || !properties.isEnabled()) {
+                return;
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "message-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                    properties.getFlushIntervalMs(), properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+            running = true;
+            log.info("咨询消息写缓冲已启动，刷新间隔 {}ms，批大小 {}", properties.getFlushIntervalMs(), properties.getBatchSize());
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        bufferLock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            bufferLock.unlock();
+        }
+
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(properties.getShutdownTimeoutSeconds(), TimeUnit.SECONDS)) {
+                log.warn("咨询消息刷新线程未在 {} 秒内结束", properties.getShutdownTimeoutSeconds());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+            if (pendingCount.get() > 0) {
+                log.error("咨询消息写缓冲已关闭，{} 条消息未能写入", pendingCount.get());
+            } else {
+                log.info("咨询消息写缓冲已关闭，剩余消息已全部写入");
+            }
+        } catch (Exception e) {
+            log.error("关闭时写入咨询消息失败，丢失 {} 条消息: {}", pendingCount.get(), e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        bufferLock.lock();
+        try {
+            return running;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    /**
+     * 较小的阶段值：停止顺序晚于Web服务器，确保最后一批请求产生的消息也能写入
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
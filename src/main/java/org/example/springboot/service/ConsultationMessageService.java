@@ -2,17 +2,29 @@ package org.example.springboot.service;
 
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.DTO.response.ConsultationMessageHistoryDTO;
 import org.example.springboot.DTO.response.ConsultationMessageResponseDTO;
 import org.example.springboot.entity.ConsultationMessage;
 import org.example.springboot.exception.BusinessException;
 import org.example.springboot.mapper.ConsultationMessageMapper;
+import org.example.springboot.util.FullTextSearchUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -26,21 +38,62 @@ public class ConsultationMessageService {
     @Resource
     private ConsultationMessageMapper consultationMessageMapper;
 
+    @Resource
+    private ConsultationMessageBuffer consultationMessageBuffer;
+
+    @Resource
+    private MessageSeqAllocator messageSeqAllocator;
+
+    /**
+     * 历史消息单页最大条数
+     */
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    /**
+     * 单次检索最多读取的命中消息数
+     */
+    public static final int MAX_SEARCH_HITS = 200;
+
+    /**
+     * 会话内按序号排序；历史数据迁移前没有序号的排在最前
+     */
+    private static final Comparator<ConsultationMessage> BY_SEQ =
+            Comparator.comparing(ConsultationMessage::getSeq, Comparator.nullsFirst(Comparator.naturalOrder()));
 
     /**
-     * 保存用户消息
+     * 保存用户消息（写入缓冲，批量落库，返回的实体暂无ID）
      *
      * @param sessionId 会话ID
      * @param content 消息内容
      * @param emotionTag 情绪标签
      * @return 消息实体
      */
-    @Transactional(rollbackFor = Exception.class)
     public ConsultationMessage saveUserMessage(Long sessionId, String content, String emotionTag) {
+        return saveUserMessage(sessionId, content, emotionTag, null);
+    }
+
+    /**
+     * 保存用户消息，按客户端消息ID幂等：同一会话内重复提交的ID不会再次保存
+     * 缓冲和数据库中的重复在这里识别；两次提交恰好交错时由 (session_id, client_message_id) 唯一索引在落库时兜底
+     *
+     * @param sessionId 会话ID
+     * @param content 消息内容
+     * @param emotionTag 情绪标签
+     * @param clientMessageId 客户端消息ID，可为空
+     * @return 消息实体；识别为重复提交时返回 null
+     */
+    public ConsultationMessage saveUserMessage(Long sessionId, String content, String emotionTag, String clientMessageId) {
         log.info("保存用户消息，会话ID: {}", sessionId);
 
+        if (isSubmitted(sessionId, clientMessageId)) {
+            log.info("重复提交的用户消息，跳过保存，会话ID: {}, clientMessageId: {}", sessionId, clientMessageId);
+            return null;
+        }
+
         ConsultationMessage message = ConsultationMessage.builder()
                 .sessionId(sessionId)
+                .seq(messageSeqAllocator.next(sessionId))
+                .clientMessageId(StrUtil.emptyToNull(clientMessageId))
                 .senderType(1) // 用户
                 .messageType(1) // 文本
                 .content(content)
@@ -48,25 +101,88 @@ public class ConsultationMessageService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        consultationMessageMapper.insert(message);
-        log.info("用户消息保存成功，消息ID: {}", message.getId());
+        if (!consultationMessageBuffer.append(message)) {
+            log.info("重复提交的用户消息，跳过保存，会话ID: {}, clientMessageId: {}", sessionId, clientMessageId);
+            return null;
+        }
         return message;
     }
 
     /**
-     * 保存AI助手消息
+     * 会话中是否已有该客户端消息ID的消息（含尚未落库的缓冲消息）
+     *
+     * @param sessionId 会话ID
+     * @param clientMessageId 客户端消息ID，为空时返回 false
+     */
+    public boolean isSubmitted(Long sessionId, String clientMessageId) {
+        if (StrUtil.isEmpty(clientMessageId)) {
+            return false;
+        }
+        return consultationMessageBuffer.read(sessionId, buffered ->
+                buffered.stream().anyMatch(message -> clientMessageId.equals(message.getClientMessageId()))
+                        || consultationMessageMapper.exists(new LambdaQueryWrapper<ConsultationMessage>()
+                                .eq(ConsultationMessage::getSessionId, sessionId)
+                                .eq(ConsultationMessage::getClientMessageId, clientMessageId)));
+    }
+
+    /**
+     * 查找用户消息对应的AI回复：紧跟在该消息之后的AI消息（含尚未落库的缓冲消息）
+     *
+     * @param sessionId 会话ID
+     * @param clientMessageId 用户消息的客户端消息ID
+     * @return AI回复，用户消息不存在、尚未回复或其后是另一条用户消息时返回 null
+     */
+    public ConsultationMessage findReplyTo(Long sessionId, String clientMessageId) {
+        if (StrUtil.isEmpty(clientMessageId)) {
+            return null;
+        }
+        return consultationMessageBuffer.read(sessionId, buffered -> {
+            Long userSeq = buffered.stream()
+                    .filter(message -> clientMessageId.equals(message.getClientMessageId()))
+                    .map(ConsultationMessage::getSeq)
+                    .findFirst()
+                    .orElseGet(() -> {
+                        ConsultationMessage stored = consultationMessageMapper.selectOne(new LambdaQueryWrapper<ConsultationMessage>()
+                                .select(ConsultationMessage::getSeq)
+                                .eq(ConsultationMessage::getSessionId, sessionId)
+                                .eq(ConsultationMessage::getClientMessageId, clientMessageId));
+                        return stored == null ? null : stored.getSeq();
+                    });
+            if (userSeq == null) {
+                return null;
+            }
+
+            List<ConsultationMessage> candidates = new ArrayList<>(consultationMessageMapper.selectList(
+                    new LambdaQueryWrapper<ConsultationMessage>()
+                            .eq(ConsultationMessage::getSessionId, sessionId)
+                            .gt(ConsultationMessage::getSeq, userSeq)
+                            .orderByAsc(ConsultationMessage::getSeq)
+                            .last("LIMIT 1")));
+            buffered.stream()
+                    .filter(message -> message.getSeq() != null && message.getSeq() > userSeq)
+                    .min(BY_SEQ)
+                    .ifPresent(candidates::add);
+            return candidates.stream()
+                    .min(BY_SEQ)
+                    .filter(ConsultationMessage::isAiMessage)
+                    .orElse(null);
+        });
+    }
+
+    /**
+     * 保存AI助手消息（写入缓冲，批量落库，返回的实体暂无ID）
      *
      * @param sessionId 会话ID
      * @param content 消息内容
      * @param aiModel AI模型名称
      * @return 消息实体
      */
-    @Transactional(rollbackFor = Exception.class)
     public ConsultationMessage saveAiMessage(Long sessionId, String content, String aiModel) {
         log.info("保存AI助手消息，会话ID: {}", sessionId);
 
         ConsultationMessage message = ConsultationMessage.builder()
                 .sessionId(sessionId)
+                .seq(messageSeqAllocator.next(sessionId))
                 .senderType(2) // AI助手
                 .messageType(1) // 文本
                 .content(content)
@@ -74,13 +190,12 @@ public class ConsultationMessageService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        consultationMessageMapper.insert(message);
-        log.info("AI助手消息保存成功，消息ID: {}", message.getId());
+        consultationMessageBuffer.append(message);
         return message;
     }
 
     /**
-     * 获取会话的所有消息
+     * 获取会话的所有消息（包含尚未落库的缓冲消息）
      *
      * @param sessionId 会话ID
      * @return 消息列表
@@ -88,11 +203,15 @@ public class ConsultationMessageService {
     public List<ConsultationMessageResponseDTO> getMessagesBySessionId(Long sessionId) {
         log.info("获取会话消息，会话ID: {}", sessionId);
 
-        LambdaQueryWrapper<ConsultationMessage> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ConsultationMessage::getSessionId, sessionId)
-                    .orderByAsc(ConsultationMessage::getCreatedAt);
-
-        List<ConsultationMessage> messages = consultationMessageMapper.selectList(queryWrapper);
+        List<ConsultationMessage> messages = consultationMessageBuffer.read(sessionId, buffered -> {
+            LambdaQueryWrapper<ConsultationMessage> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.eq(ConsultationMessage::getSessionId, sessionId)
+                        .orderByAsc(ConsultationMessage::getSeq);
+            List<ConsultationMessage> stored = new ArrayList<>(consultationMessageMapper.selectList(queryWrapper));
+            stored.addAll(buffered);
+            stored.sort(BY_SEQ);
+            return stored;
+        });
         
         List<ConsultationMessageResponseDTO> responseDTOList = messages.stream()
                 .map(this::convertToResponseDTO)
@@ -109,11 +228,13 @@ public class ConsultationMessageService {
      * @return 消息数量
      */
     public Integer getMessageCountBySessionId(Long sessionId) {
-        LambdaQueryWrapper<ConsultationMessage> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ConsultationMessage::getSessionId, sessionId);
-        
-        Long count = consultationMessageMapper.selectCount(queryWrapper);
-        return count.intValue();
+        return consultationMessageBuffer.read(sessionId, buffered -> {
+            LambdaQueryWrapper<ConsultationMessage> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.eq(ConsultationMessage::getSessionId, sessionId);
+
+            Long count = consultationMessageMapper.selectCount(queryWrapper);
+            return count.intValue() + buffered.size();
+        });
     }
 
     /**
@@ -123,13 +244,122 @@ public class ConsultationMessageService {
      * @return 最后一条消息
      */
     public ConsultationMessageResponseDTO getLastMessageBySessionId(Long sessionId) {
-        LambdaQueryWrapper<ConsultationMessage> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ConsultationMessage::getSessionId, sessionId)
-                    .orderByDesc(ConsultationMessage::getCreatedAt)
-                    .last("LIMIT 1");
+        List<ConsultationMessageResponseDTO> recent = getRecentMessages(sessionId, 1);
+        return recent.isEmpty() ? null : recent.get(0);
+    }
 
-        ConsultationMessage message = consultationMessageMapper.selectOne(queryWrapper);
-        return message != null ? convertToResponseDTO(message) : null;
+    /**
+     * 获取会话最近的若干条消息（包含尚未落库的缓冲消息），缓冲中的消息足够时不查询数据库
+     *
+     * @param sessionId 会话ID
+     * @param limit 条数
+     * @return 按序号正序排列的消息
+     */
+    public List<ConsultationMessageResponseDTO> getRecentMessages(Long sessionId, int limit) {
+        List<ConsultationMessage> messages = consultationMessageBuffer.read(sessionId, buffered -> {
+            List<ConsultationMessage> merged = new ArrayList<>(buffered);
+            if (buffered.size() < limit) {
+                LambdaQueryWrapper<ConsultationMessage> queryWrapper = new LambdaQueryWrapper<>();
+                queryWrapper.eq(ConsultationMessage::getSessionId, sessionId)
+                            .orderByDesc(ConsultationMessage::getSeq)
+                            .last("LIMIT " + (limit - buffered.size()));
+                merged.addAll(consultationMessageMapper.selectList(queryWrapper));
+            }
+            merged.sort(BY_SEQ);
+            return merged.subList(Math.max(0, merged.size() - limit), merged.size());
+        });
+        return messages.stream()
+                .map(this::convertToResponseDTO)
+                .toList();
+    }
+
+    /**
+     * 按序号游标向后读取消息（包含尚未落库的缓冲消息），走 (session_id, seq) 索引，只扫描一页
+     *
+     * @param sessionId 会话ID
+     * @param afterSeq 游标，返回序号大于它的消息；为空时从头读取
+     * @param limit 条数
+     * @return 按序号正序排列的消息
+     */
+    public List<ConsultationMessageResponseDTO> getMessagesAfterSeq(Long sessionId, Long afterSeq, int limit) {
+        long cursor = afterSeq == null ? 0L : afterSeq;
+        List<ConsultationMessage> messages = consultationMessageBuffer.read(sessionId, buffered -> {
+            LambdaQueryWrapper<ConsultationMessage> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.eq(ConsultationMessage::getSessionId, sessionId)
+                        .gt(ConsultationMessage::getSeq, cursor)
+                        .orderByAsc(ConsultationMessage::getSeq)
+                        .last("LIMIT " + limit);
+            List<ConsultationMessage> merged = new ArrayList<>(consultationMessageMapper.selectList(queryWrapper));
+            buffered.stream()
+                    .filter(message -> message.getSeq() != null && message.getSeq() > cursor)
+                    .forEach(merged::add);
+            merged.sort(BY_SEQ);
+            return merged.subList(0, Math.min(limit, merged.size()));
+        });
+        return messages.stream()
+                .map(this::convertToResponseDTO)
+                .toList();
+    }
+
+    /**
+     * 按序号向前翻页读取会话历史（包含尚未落库的缓冲消息），先取最新一页，再用 nextBeforeSeq 加载更早的消息
+     * 延迟关联：第一步只在 (session_id, seq) 唯一索引上取本页的ID与序号，不读取消息内容；
+     * 第二步按主键回表读取本页消息的渲染字段，扫描量只与页大小有关，与会话总长度无关
+     *
+     * @param sessionId 会话ID
+     * @param beforeSeq 游标，返回序号小于它的消息；为空时返回最新一页
+     * @param limit 每页条数（1-100）
+     * @return 本页消息（序号正序）及下一页游标
+     */
+    public ConsultationMessageHistoryDTO getMessageHistory(Long sessionId, Long beforeSeq, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_HISTORY_PAGE_SIZE);
+
+        return consultationMessageBuffer.read(sessionId, buffered -> {
+            LambdaQueryWrapper<ConsultationMessage> keyWrapper = new LambdaQueryWrapper<>();
+            keyWrapper.select(ConsultationMessage::getId, ConsultationMessage::getSeq)
+                      .eq(ConsultationMessage::getSessionId, sessionId)
+                      .lt(beforeSeq != null, ConsultationMessage::getSeq, beforeSeq)
+                      .orderByDesc(ConsultationMessage::getSeq)
+                      .last("LIMIT " + (pageSize + 1));
+            List<ConsultationMessage> candidates = new ArrayList<>(consultationMessageMapper.selectList(keyWrapper));
+            buffered.stream()
+                    .filter(message -> beforeSeq == null || (message.getSeq() != null && message.getSeq() < beforeSeq))
+                    .forEach(candidates::add);
+            candidates.sort(BY_SEQ.reversed());
+
+            boolean hasMore = candidates.size() > pageSize;
+            List<ConsultationMessage> page = candidates.subList(0, Math.min(pageSize, candidates.size()));
+
+            List<Long> storedIds = page.stream()
+                    .map(ConsultationMessage::getId)
+                    .filter(Objects::nonNull)
+                    .toList();
+            Map<Long, ConsultationMessage> storedById = Map.of();
+            if (!storedIds.isEmpty()) {
+                LambdaQueryWrapper<ConsultationMessage> rowWrapper = new LambdaQueryWrapper<>();
+                rowWrapper.select(ConsultationMessage::getId, ConsultationMessage::getSeq,
+                                ConsultationMessage::getSenderType, ConsultationMessage::getContent,
+                                ConsultationMessage::getEmotionTag, ConsultationMessage::getCreatedAt)
+                          .in(ConsultationMessage::getId, storedIds);
+                storedById = consultationMessageMapper.selectList(rowWrapper).stream()
+                        .collect(Collectors.toMap(ConsultationMessage::getId, Function.identity()));
+            }
+
+            List<ConsultationMessageHistoryDTO.MessageItem> items = new ArrayList<>(page.size());
+            for (int i = page.size() - 1; i >= 0; i--) {
+                ConsultationMessage key = page.get(i);
+                ConsultationMessage message = key.getId() == null ? key : storedById.get(key.getId());
+                if (message != null) {
+                    items.add(convertToHistoryItem(message));
+                }
+            }
+
+            ConsultationMessageHistoryDTO history = new ConsultationMessageHistoryDTO();
+            history.setMessages(items);
+            history.setHasMore(hasMore);
+            history.setNextBeforeSeq(hasMore && !page.isEmpty() ? page.get(page.size() - 1).getSeq() : null);
+            return history;
+        });
     }
 
     /**
@@ -154,28 +384,160 @@ public class ConsultationMessageService {
     }
 
     /**
-     * 根据关键词搜索消息
+     * 批量统计多个会话的消息概况（包含尚未落库的缓冲消息），查询次数与会话数量无关：
+     * 一次分组查询得到消息数和最大序号，一次按 (session_id, seq) 取各会话最后一条消息，一次取带情绪标签的消息后在内存中去重
      *
-     * @param keyword 关键词
-     * @return 包含关键词的会话ID列表
+     * @param sessionIds 会话ID
+     * @return 会话ID -> 消息概况；没有消息的会话返回消息数为0的概况
      */
-    public List<Long> searchSessionIdsByKeyword(String keyword) {
-        if (StrUtil.isBlank(keyword)) {
+    public Map<Long, SessionMessageSummary> summarizeSessions(Collection<Long> sessionIds) {
+        if (sessionIds == null || sessionIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return consultationMessageBuffer.readAll(sessionIds, buffered -> {
+            QueryWrapper<ConsultationMessage> statsWrapper = new QueryWrapper<>();
+            statsWrapper.select("session_id", "COUNT(*) AS message_count", "MAX(seq) AS max_seq")
+                        .in("session_id", sessionIds)
+                        .groupBy("session_id");
+            Map<Long, Integer> counts = new HashMap<>();
+            Map<Long, Long> maxSeqs = new HashMap<>();
+            for (Map<String, Object> row : consultationMessageMapper.selectMaps(statsWrapper)) {
+                Long sessionId = ((Number) row.get("session_id")).longValue();
+                counts.put(sessionId, ((Number) row.get("message_count")).intValue());
+                if (row.get("max_seq") != null) {
+                    maxSeqs.put(sessionId, ((Number) row.get("max_seq")).longValue());
+                }
+            }
+
+            // 有缓冲消息的会话，最后一条消息一定在缓冲中，无需查询数据库
+            Map<Long, ConsultationMessage> lastMessages = new HashMap<>();
+            List<Long> lastFromDb = maxSeqs.keySet().stream()
+                    .filter(sessionId -> !buffered.containsKey(sessionId))
+                    .toList();
+            if (!lastFromDb.isEmpty()) {
+                LambdaQueryWrapper<ConsultationMessage> lastWrapper = new LambdaQueryWrapper<>();
+                lastWrapper.and(w -> {
+                    for (int i = 0; i < lastFromDb.size(); i++) {
+                        Long sessionId = lastFromDb.get(i);
+                        if (i > 0) {
+                            w.or();
+                        }
+                        w.eq(ConsultationMessage::getSessionId, sessionId)
+                         .eq(ConsultationMessage::getSeq, maxSeqs.get(sessionId));
+                    }
+                });
+                consultationMessageMapper.selectList(lastWrapper)
+                        .forEach(message -> lastMessages.put(message.getSessionId(), message));
+            }
+
+            LambdaQueryWrapper<ConsultationMessage> tagWrapper = new LambdaQueryWrapper<>();
+            tagWrapper.select(ConsultationMessage::getSessionId, ConsultationMessage::getEmotionTag)
+                      .in(ConsultationMessage::getSessionId, sessionIds)
+                      .isNotNull(ConsultationMessage::getEmotionTag)
+                      .ne(ConsultationMessage::getEmotionTag, "")
+                      .orderByAsc(ConsultationMessage::getSessionId)
+                      .orderByAsc(ConsultationMessage::getSeq);
+            Map<Long, Set<String>> emotionTags = new HashMap<>();
+            for (ConsultationMessage message : consultationMessageMapper.selectList(tagWrapper)) {
+                emotionTags.computeIfAbsent(message.getSessionId(), k -> new LinkedHashSet<>()).add(message.getEmotionTag());
+            }
+
+            Map<Long, SessionMessageSummary> summaries = new HashMap<>();
+            for (Long sessionId : sessionIds) {
+                List<ConsultationMessage> pendingMessages = buffered.getOrDefault(sessionId, List.of());
+                ConsultationMessage lastMessage = lastMessages.get(sessionId);
+                Set<String> tags = emotionTags.computeIfAbsent(sessionId, k -> new LinkedHashSet<>());
+                for (ConsultationMessage message : pendingMessages) {
+                    if (lastMessage == null || BY_SEQ.compare(message, lastMessage) > 0) {
+                        lastMessage = message;
+                    }
+                    if (StrUtil.isNotBlank(message.getEmotionTag())) {
+                        tags.add(message.getEmotionTag());
+                    }
+                }
+                summaries.put(sessionId, new SessionMessageSummary(
+                        counts.getOrDefault(sessionId, 0) + pendingMessages.size(),
+                        convertToResponseDTO(lastMessage),
+                        new ArrayList<>(tags)));
+            }
+            return summaries;
+        });
+    }
+
+    /**
+     * 会话消息概况
+     *
+     * @param messageCount 消息数
+     * @param lastMessage  最后一条消息，没有消息时为空
+     * @param emotionTags  去重后的情绪标签
+     */
+    public record SessionMessageSummary(int messageCount,
+                                        ConsultationMessageResponseDTO lastMessage,
+                                        List<String> emotionTags) {
+    }
+
+    /**
+     * 在用户自己的聊天记录中全文检索
+     * 两字及以上的检索词走 content 上的 ngram 全文索引（中文按二元切分），单字检索词退化为 LIKE；
+     * 通过 session_id IN (该用户的会话) 限定范围，不扫描其他用户的消息。
+     * 全文索引随消息插入、删除自动维护，缓冲中尚未落库的消息在下次刷新后可检索
+     *
+     * @param userId 用户ID
+     * @param keyword 关键词，多个词以空白分隔，需全部命中
+     * @param limit 最多返回的消息数
+     * @return 命中的消息，最近的在前；关键词为空时返回空列表
+     */
+    public List<ConsultationMessage> searchMessages(Long userId, String keyword, int limit) {
+        List<String> terms = FullTextSearchUtils.splitTerms(keyword);
+        if (userId == null || terms.isEmpty()) {
             return List.of();
         }
 
+        List<String> indexedTerms = terms.stream()
+                .filter(term -> term.length() >= FullTextSearchUtils.NGRAM_TOKEN_SIZE)
+                .toList();
         LambdaQueryWrapper<ConsultationMessage> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.like(ConsultationMessage::getContent, keyword)
-                    .select(ConsultationMessage::getSessionId);
+        queryWrapper.select(ConsultationMessage::getId, ConsultationMessage::getSessionId, ConsultationMessage::getSeq,
+                        ConsultationMessage::getSenderType, ConsultationMessage::getContent,
+                        ConsultationMessage::getCreatedAt)
+                    .inSql(ConsultationMessage::getSessionId,
+                        "SELECT id FROM consultation_session WHERE deleted = 0 AND user_id = " + userId.longValue())
+                    .apply(!indexedTerms.isEmpty(), "MATCH(content) AGAINST({0} IN BOOLEAN MODE)",
+                        FullTextSearchUtils.booleanQuery(indexedTerms));
+        terms.stream()
+                .filter(term -> term.length() < FullTextSearchUtils.NGRAM_TOKEN_SIZE)
+                .forEach(term -> queryWrapper.like(ConsultationMessage::getContent, term));
+        queryWrapper.orderByDesc(ConsultationMessage::getId)
+                    .last("LIMIT " + limit);
 
-        List<ConsultationMessage> messages = consultationMessageMapper.selectList(queryWrapper);
-        
-        return messages.stream()
+        return consultationMessageMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * 根据关键词搜索用户聊天记录所在的会话
+     *
+     * @param userId 用户ID
+     * @param keyword 关键词
+     * @return 包含关键词的会话ID列表
+     */
+    public List<Long> searchSessionIdsByKeyword(Long userId, String keyword) {
+        return searchMessages(userId, keyword, MAX_SEARCH_HITS).stream()
                 .map(ConsultationMessage::getSessionId)
                 .distinct()
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 丢弃会话尚未落库的缓冲消息（会话标记删除后调用，已落库的消息由后台删除任务清理）
+     *
+     * @param sessionId 会话ID
+     * @return 丢弃的消息数
+     */
+    public int discardBufferedMessages(Long sessionId) {
+        return consultationMessageBuffer.discard(sessionId);
+    }
+
     /**
      * 删除会话的所有消息
      *
@@ -191,6 +553,9 @@ public class ConsultationMessageService {
         }
         
         try {
+            // 先丢弃尚未落库的消息，避免删除后又被批量写入
+            int discarded = consultationMessageBuffer.discard(sessionId);
+
             LambdaQueryWrapper<ConsultationMessage> queryWrapper = new LambdaQueryWrapper<>();
             queryWrapper.eq(ConsultationMessage::getSessionId, sessionId);
             
@@ -200,8 +565,8 @@ public class ConsultationMessageService {
             // 执行删除操作
             int deletedRows = consultationMessageMapper.delete(queryWrapper);
             
-            log.info("删除会话消息完成，会话ID: {}, 预期删除: {}, 实际删除: {}", 
-                    sessionId, messageCount, deletedRows);
+            log.info("删除会话消息完成，会话ID: {}, 预期删除: {}, 实际删除: {}, 丢弃未落库: {}", 
+                    sessionId, messageCount, deletedRows, discarded);
             
             return deletedRows;
         } catch (Exception e) {
@@ -210,6 +575,20 @@ public class ConsultationMessageService {
         }
     }
 
+    /**
+     * 转换为历史消息条目，只包含渲染所需字段
+     */
+    private ConsultationMessageHistoryDTO.MessageItem convertToHistoryItem(ConsultationMessage message) {
+        ConsultationMessageHistoryDTO.MessageItem item = new ConsultationMessageHistoryDTO.MessageItem();
+        item.setId(message.getId());
+        item.setSeq(message.getSeq());
+        item.setSenderType(message.getSenderType());
+        item.setContent(message.getContent());
+        item.setEmotionTag(message.getEmotionTag());
+        item.setCreatedAt(message.getCreatedAt());
+        return item;
+    }
+
     /**
      * 转换为响应DTO
      * 严格遵循DTO转换规范：禁止使用BeanUtil.copyProperties()，采用手动字段赋值
@@ -223,6 +602,7 @@ public class ConsultationMessageService {
         ConsultationMessageResponseDTO responseDTO = new ConsultationMessageResponseDTO();
         responseDTO.setId(message.getId());
         responseDTO.setSessionId(message.getSessionId());
+        responseDTO.setSeq(message.getSeq());
         responseDTO.setSenderType(message.getSenderType());
         responseDTO.setMessageType(message.getMessageType());
         responseDTO.setContent(message.getContent());
@@ -8,19 +8,31 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.extern.slf4j.Slf4j;
 import org.example.springboot.DTO.command.ConsultationSessionCreateDTO;
 import org.example.springboot.DTO.query.ConsultationSessionQueryDTO;
+import org.example.springboot.DTO.response.ConsultationSearchResultDTO;
 import org.example.springboot.DTO.response.ConsultationSessionResponseDTO;
+import org.example.springboot.entity.ConsultationMessage;
+import org.example.springboot.entity.DeletionJob;
 import org.example.springboot.entity.ConsultationSession;
 import org.example.springboot.entity.User;
+import org.example.springboot.enumClass.DeletionTargetType;
 import org.example.springboot.exception.BusinessException;
 import org.example.springboot.mapper.ConsultationSessionMapper;
 import org.example.springboot.mapper.UserMapper;
 import org.example.springboot.service.convert.ConsultationConvert;
+import org.example.springboot.util.FullTextSearchUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 咨询会话服务类
@@ -42,6 +54,19 @@ public class ConsultationSessionService {
     @Autowired
     private ConsultationMessageService consultationMessageService;
 
+    @Autowired
+    private DeletionJobService deletionJobService;
+
+    /**
+     * 检索结果中每个会话最多返回的片段数
+     */
+    private static final int MAX_SNIPPETS_PER_SESSION = 3;
+
+    /**
+     * 高亮片段在命中位置前后保留的字符数
+     */
+    private static final int SNIPPET_RADIUS = 30;
+
     /**
      * 创建咨询会话
      *
@@ -66,6 +91,7 @@ public class ConsultationSessionService {
                 .userId(userId)
                 .sessionTitle(createDTO.getSessionTitle())
                 .startedAt(LocalDateTime.now())
+                .messageSeq(0L)
                 .build();
 
         // 如果未提供标题，使用默认标题
@@ -136,7 +162,13 @@ public class ConsultationSessionService {
         }
         
         if (StrUtil.isNotBlank(queryDTO.getKeyword())) {
-            queryWrapper.like(ConsultationSession::getSessionTitle, queryDTO.getKeyword());
+            // 指定用户时同时检索该用户的消息内容（全文索引）；管理员跨用户查询只匹配标题
+            List<Long> matchedSessionIds = queryDTO.getUserId() == null
+                    ? List.of()
+                    : consultationMessageService.searchSessionIdsByKeyword(queryDTO.getUserId(), queryDTO.getKeyword());
+            queryWrapper.and(w -> w.like(ConsultationSession::getSessionTitle, queryDTO.getKeyword())
+                    .or(!matchedSessionIds.isEmpty())
+                    .in(!matchedSessionIds.isEmpty(), ConsultationSession::getId, matchedSessionIds));
         }
 
         // 排序：最新创建的在前
@@ -153,9 +185,7 @@ public class ConsultationSessionService {
         resultPage.setTotal(sessionPage.getTotal());
         resultPage.setPages(sessionPage.getPages());
 
-        List<ConsultationSessionResponseDTO> responseDTOList = sessionPage.getRecords().stream()
-                .map(this::convertToResponseDTO)
-                .toList();
+        List<ConsultationSessionResponseDTO> responseDTOList = convertToResponseDTOs(sessionPage.getRecords());
         
         resultPage.setRecords(responseDTOList);
 
@@ -163,6 +193,52 @@ public class ConsultationSessionService {
         return resultPage;
     }
 
+    /**
+     * 检索用户的聊天记录，按会话分组返回高亮片段
+     *
+     * @param userId 用户ID
+     * @param keyword 关键词，多个词以空白分隔
+     * @return 命中的会话，最近命中的在前
+     */
+    public List<ConsultationSearchResultDTO> searchChatHistory(Long userId, String keyword) {
+        List<ConsultationMessage> hits = consultationMessageService.searchMessages(
+                userId, keyword, ConsultationMessageService.MAX_SEARCH_HITS);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        List<String> terms = FullTextSearchUtils.splitTerms(keyword);
+
+        // 命中按ID倒序返回，LinkedHashMap 保持会话的首次命中顺序
+        Map<Long, ConsultationSearchResultDTO> results = new LinkedHashMap<>();
+        for (ConsultationMessage hit : hits) {
+            ConsultationSearchResultDTO result = results.computeIfAbsent(hit.getSessionId(), sessionId -> {
+                ConsultationSearchResultDTO dto = new ConsultationSearchResultDTO();
+                dto.setSessionId(sessionId);
+                dto.setHitCount(0);
+                dto.setSnippets(new ArrayList<>());
+                return dto;
+            });
+            result.setHitCount(result.getHitCount() + 1);
+            if (result.getSnippets().size() < MAX_SNIPPETS_PER_SESSION) {
+                ConsultationSearchResultDTO.MessageSnippet snippet = new ConsultationSearchResultDTO.MessageSnippet();
+                snippet.setSeq(hit.getSeq());
+                snippet.setSenderType(hit.getSenderType());
+                snippet.setSnippet(FullTextSearchUtils.highlight(hit.getContent(), terms, SNIPPET_RADIUS));
+                snippet.setCreatedAt(hit.getCreatedAt());
+                result.getSnippets().add(snippet);
+            }
+        }
+
+        LambdaQueryWrapper<ConsultationSession> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.select(ConsultationSession::getId, ConsultationSession::getSessionTitle)
+                    .in(ConsultationSession::getId, results.keySet());
+        consultationSessionMapper.selectList(queryWrapper)
+                .forEach(session -> results.get(session.getId()).setSessionTitle(session.getSessionTitle()));
+
+        log.info("检索聊天记录完成，用户: {}, 命中消息: {}, 命中会话: {}", userId, hits.size(), results.size());
+        return new ArrayList<>(results.values());
+    }
+
     /**
      * 根据ID获取会话详情
      *
@@ -175,7 +251,7 @@ public class ConsultationSessionService {
             throw new BusinessException("会话不存在");
         }
 
-        return convertToResponseDTO(session);
+        return convertToResponseDTOs(List.of(session)).get(0);
     }
 
     /**
@@ -201,14 +277,14 @@ public class ConsultationSessionService {
         }
 
         try {
-            // 级联删除相关消息
-            consultationMessageService.deleteMessagesBySessionId(sessionId);
-            
-            // 删除会话记录
+            // 标记删除（@TableLogic），会话立即从列表和查询中消失
             int deletedRows = consultationSessionMapper.deleteById(sessionId);
             
             if (deletedRows > 0) {
-                log.info("咨询会话删除成功，会话ID: {}", sessionId);
+                // 丢弃尚未落库的消息，已落库的消息和会话记录由后台任务分块删除
+                consultationMessageService.discardBufferedMessages(sessionId);
+                DeletionJob job = deletionJobService.submit(DeletionTargetType.SESSION, sessionId, userId);
+                log.info("咨询会话已标记删除，会话ID: {}, 删除任务ID: {}", sessionId, job.getId());
                 return true;
             } else {
                 log.warn("咨询会话删除失败，会话ID: {}", sessionId);
@@ -272,56 +348,71 @@ public class ConsultationSessionService {
     }
 
     /**
-     * 转换为响应DTO
+     * 批量转换为响应DTO
+     * 用户信息一次批量查询，消息统计由 {@link ConsultationMessageService#summarizeSessions} 批量获取，
+     * 查询次数与会话数量无关
      */
-    private ConsultationSessionResponseDTO convertToResponseDTO(ConsultationSession session) {
-        ConsultationSessionResponseDTO responseDTO = consultationConvert.toResponseDTO(session);
-
-        // 查询用户信息
-        User user = userMapper.selectById(session.getUserId());
-        if (user != null) {
-            responseDTO.setUserNickname(user.getNickname());
-            responseDTO.setUserAvatar(user.getAvatar());
+    private List<ConsultationSessionResponseDTO> convertToResponseDTOs(List<ConsultationSession> sessions) {
+        if (sessions.isEmpty()) {
+            return List.of();
         }
 
-        // 设置描述字段 - 简化后不再需要
+        Set<Long> userIds = sessions.stream()
+                .map(ConsultationSession::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, User> users = userIds.isEmpty() ? Map.of() : userMapper.selectBatchIds(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Long> sessionIds = sessions.stream().map(ConsultationSession::getId).toList();
+        Map<Long, ConsultationMessageService.SessionMessageSummary> summaries;
+        try {
+            summaries = consultationMessageService.summarizeSessions(sessionIds);
+        } catch (Exception e) {
+            log.warn("批量获取会话消息统计失败，会话数: {}, 错误: {}", sessionIds.size(), e.getMessage());
+            summaries = Map.of();
+        }
 
-        // 计算持续时间
-        responseDTO.setDurationMinutes(session.getDurationMinutes());
+        List<ConsultationSessionResponseDTO> responseDTOList = new ArrayList<>(sessions.size());
+        for (ConsultationSession session : sessions) {
+            ConsultationSessionResponseDTO responseDTO = consultationConvert.toResponseDTO(session);
 
-        // 简化后不再计算情绪改善度
+            User user = users.get(session.getUserId());
+            if (user != null) {
+                responseDTO.setUserNickname(user.getNickname());
+                responseDTO.setUserAvatar(user.getAvatar());
+            }
 
-        // 获取消息统计信息
-        enrichWithMessageInfo(responseDTO, session.getId());
+            // 计算持续时间
+            responseDTO.setDurationMinutes(session.getDurationMinutes());
 
-        return responseDTO;
+            enrichWithMessageInfo(responseDTO, summaries.get(session.getId()));
+            responseDTOList.add(responseDTO);
+        }
+        return responseDTOList;
     }
 
-
     /**
      * 丰富消息信息
      */
-    private void enrichWithMessageInfo(ConsultationSessionResponseDTO responseDTO, Long sessionId) {
-        try {
-            // 获取消息统计
-            responseDTO.setMessageCount(consultationMessageService.getMessageCountBySessionId(sessionId));
-            
-            // 获取最后一条消息
-            var lastMessage = consultationMessageService.getLastMessageBySessionId(sessionId);
-            if (lastMessage != null) {
-                responseDTO.setLastMessageContent(lastMessage.getContentPreview());
-                responseDTO.setLastMessageTime(lastMessage.getCreatedAt());
-            }
+    private void enrichWithMessageInfo(ConsultationSessionResponseDTO responseDTO,
+                                       ConsultationMessageService.SessionMessageSummary summary) {
+        if (summary == null) {
+            return;
+        }
+        responseDTO.setMessageCount(summary.messageCount());
 
-            // 获取情绪标签
-            responseDTO.setEmotionTags(consultationMessageService.getEmotionTagsBySessionId(sessionId));
-            
-            // 设置主要情绪
-            if (responseDTO.getEmotionTags() != null && !responseDTO.getEmotionTags().isEmpty()) {
-                responseDTO.setPrimaryEmotion(responseDTO.getEmotionTags().get(0));
-            }
-        } catch (Exception e) {
-            log.warn("丰富消息信息失败，会话ID: {}, 错误: {}", sessionId, e.getMessage());
+        var lastMessage = summary.lastMessage();
+        if (lastMessage != null) {
+            responseDTO.setLastMessageContent(lastMessage.getContentPreview());
+            responseDTO.setLastMessageTime(lastMessage.getCreatedAt());
+        }
+
+        responseDTO.setEmotionTags(summary.emotionTags());
+
+        // 设置主要情绪
+        if (!summary.emotionTags().isEmpty()) {
+            responseDTO.setPrimaryEmotion(summary.emotionTags().get(0));
         }
     }
 }
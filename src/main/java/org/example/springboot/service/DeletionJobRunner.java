@@ -0,0 +1,343 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.config.DeletionJobProperties;
+import org.example.springboot.entity.DeletionJob;
+import org.example.springboot.enumClass.DeletionJobStatus;
+import org.example.springboot.enumClass.DeletionTargetType;
+import org.example.springboot.mapper.DeletionJobMapper;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 级联删除任务执行器
+ * 单个后台线程按任务ID顺序执行删除任务：每个步骤以 DELETE ... LIMIT chunk-size 分块删除并立即提交，
+ * 每块之后写回进度（同时作为租约心跳）并暂停 pause-millis。删除语句都是幂等的，
+ * 进程重启或执行者失效后，其他实例在租约过期后从记录的步骤继续执行即可。
+ *
+ * 新任务提交后立即唤醒；另有定时轮询负责启动时续跑未完成的任务和接管租约过期的任务
+ */
+@Slf4j
+@Component
+public class DeletionJobRunner implements SmartLifecycle {
+
+    /**
+     * 单个任务连续失败的最大次数，超过后标记为失败等待人工处理
+     */
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final String FILES_STEP = "files";
+
+    private static final String BUFFERED_MESSAGES_STEP = "buffered_messages";
+
+    /**
+     * 各目标类型的删除步骤，按依赖顺序排列（先删子表）。
+     * 会话在请求中只做逻辑删除，最后一步删除会话记录；用户记录在请求中已直接删除，这里只清理其依赖数据，
+     * 删除消息前先丢弃其各会话在写缓冲中尚未落库的消息，避免删除后又被批量写入
+     */
+    private static final Map<DeletionTargetType, List<Step>> STEPS = Map.of(
+            DeletionTargetType.SESSION, List.of(
+                    new Step("consultation_message",
+                            "DELETE FROM consultation_message WHERE session_id = ? LIMIT ?"),
+                    new Step("consultation_session",
+                            "DELETE FROM consultation_session WHERE id = ?")),
+            DeletionTargetType.USER, List.of(
+                    new Step(BUFFERED_MESSAGES_STEP, null),
+                    new Step("consultation_message",
+                            "DELETE FROM consultation_message WHERE session_id IN "
+                                    + "(SELECT id FROM consultation_session WHERE user_id = ?) LIMIT ?"),
+                    new Step("consultation_session",
+                            "DELETE FROM consultation_session WHERE user_id = ? LIMIT ?"),
+                    new Step("ai_analysis_task",
+                            "DELETE FROM ai_analysis_task WHERE user_id = ? LIMIT ?"),
+                    new Step("emotion_diary",
+                            "DELETE FROM emotion_diary WHERE user_id = ? LIMIT ?"),
+                    new Step("user_favorite",
+                            "DELETE FROM user_favorite WHERE user_id = ? LIMIT ?"),
+                    new Step(FILES_STEP, null)));
+
+    private final DeletionJobMapper deletionJobMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final DeletionJobProperties properties;
+    private final FileService fileService;
+    private final ConsultationMessageBuffer consultationMessageBuffer;
+    private final Counter deletedRowsCounter;
+    private final AtomicBoolean pollRequested = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public DeletionJobRunner(DeletionJobMapper deletionJobMapper,
+                             JdbcTemplate jdbcTemplate,
+                             DeletionJobProperties properties,
+                             FileService fileService,
+                             ConsultationMessageBuffer consultationMessageBuffer,
+                             MeterRegistry meterRegistry) {
+        this.deletionJobMapper = deletionJobMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.fileService = fileService;
+        this.consultationMessageBuffer = consultationMessageBuffer;
+        this.deletedRowsCounter = Counter.builder("deletion.job.deleted.rows")
+                .description("级联删除任务删除的行数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 目标类型的总步骤数
+     */
+    public static int totalSteps(DeletionTargetType targetType) {
+        return STEPS.get(targetType).size();
+    }
+
+    /**
+     * 唤醒执行线程处理待执行任务，不阻塞调用方
+     */
+    public void wakeUp() {
+        if (running && pollRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::poll);
+        }
+    }
+
+    private void poll() {
+        pollRequested.set(false);
+        try {
+            while (running) {
+                DeletionJob job = claimNext();
+                if (job == null) {
+                    return;
+                }
+                runJob(job);
+            }
+        } catch (Exception e) {
+            log.error("轮询删除任务失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 领取下一个待执行或租约过期的任务；领取通过带条件的 UPDATE 完成，多实例下同一任务只会被一个实例领取
+     */
+    private DeletionJob claimNext() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minusSeconds(properties.getLeaseSeconds());
+        LambdaQueryWrapper<DeletionJob> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.and(w -> w.eq(DeletionJob::getStatus, DeletionJobStatus.PENDING.getCode())
+                        .or(x -> x.eq(DeletionJob::getStatus, DeletionJobStatus.RUNNING.getCode())
+                                .lt(DeletionJob::getUpdatedAt, expiredBefore)))
+                    .orderByAsc(DeletionJob::getId)
+                    .last("LIMIT 10");
+
+        for (DeletionJob candidate : deletionJobMapper.selectList(queryWrapper)) {
+            LambdaUpdateWrapper<DeletionJob> claimWrapper = new LambdaUpdateWrapper<>();
+            claimWrapper.eq(DeletionJob::getId, candidate.getId())
+                        .eq(DeletionJob::getStatus, candidate.getStatus())
+                        .eq(DeletionJob::getUpdatedAt, candidate.getUpdatedAt())
+                        .set(DeletionJob::getStatus, DeletionJobStatus.RUNNING.getCode())
+                        .set(DeletionJob::getUpdatedAt, LocalDateTime.now());
+            if (deletionJobMapper.update(null, claimWrapper) > 0) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void runJob(DeletionJob job) {
+        DeletionTargetType targetType = DeletionTargetType.fromCode(job.getTargetType());
+        List<Step> steps = STEPS.get(targetType);
+        int step = job.getCurrentStep() == null ? 0 : job.getCurrentStep();
+        long deleted = job.getDeletedRows() == null ? 0 : job.getDeletedRows();
+        log.info("开始执行删除任务，任务ID: {}, 目标: {}#{}, 从步骤 {}/{} 继续",
+                job.getId(), targetType, job.getTargetId(), step, steps.size());
+
+        try {
+            while (step < steps.size()) {
+                if (!running) {
+                    // 关闭时交还任务，下次启动立即续跑
+                    releaseJob(job.getId(), step, deleted);
+                    return;
+                }
+                Step current = steps.get(step);
+                int rows = switch (current.name()) {
+                    case FILES_STEP -> deleteUserFilesChunk(job.getTargetId());
+                    case BUFFERED_MESSAGES_STEP -> discardUserBufferedMessages(job.getTargetId());
+                    default -> executeChunk(current, job.getTargetId());
+                };
+                deleted += rows;
+                deletedRowsCounter.increment(rows);
+                if (rows < properties.getChunkSize()) {
+                    step++;
+                }
+                saveProgress(job.getId(), step, deleted);
+                if (properties.getPauseMillis() > 0) {
+                    Thread.sleep(properties.getPauseMillis());
+                }
+            }
+            completeJob(job.getId(), deleted);
+            log.info("删除任务完成，任务ID: {}, 目标: {}#{}, 共删除 {} 行",
+                    job.getId(), targetType, job.getTargetId(), deleted);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseJob(job.getId(), step, deleted);
+        } catch (Exception e) {
+            log.error("删除任务执行失败，任务ID: {}, 步骤: {}, 错误: {}", job.getId(), step, e.getMessage(), e);
+            failAttempt(job, step, deleted, e);
+        }
+    }
+
+    /**
+     * 执行一块删除；不带 LIMIT 的步骤（删除目标本身）只有一个参数
+     */
+    private int executeChunk(Step step, Long targetId) {
+        if (step.sql().endsWith("LIMIT ?")) {
+            return jdbcTemplate.update(step.sql(), targetId, properties.getChunkSize());
+        }
+        return jdbcTemplate.update(step.sql(), targetId);
+    }
+
+    /**
+     * 丢弃用户各会话在本实例写缓冲中尚未落库的消息；不是数据库行，返回0使任务进入下一步
+     */
+    private int discardUserBufferedMessages(Long userId) {
+        List<Long> sessionIds = jdbcTemplate.queryForList(
+                "SELECT id FROM consultation_session WHERE user_id = ?", Long.class, userId);
+        int discarded = 0;
+        for (Long sessionId : sessionIds) {
+            discarded += consultationMessageBuffer.discard(sessionId);
+        }
+        if (discarded > 0) {
+            log.info("已丢弃用户未落库的咨询消息，用户ID: {}, 会话数: {}, 消息数: {}", userId, sessionIds.size(), discarded);
+        }
+        return 0;
+    }
+
+    /**
+     * 删除用户上传的一块文件记录，再按引用计数释放物理文件（内容可能被其他用户的记录共享）
+     */
+    private int deleteUserFilesChunk(Long userId) {
+        List<Map<String, Object>> files = jdbcTemplate.queryForList(
+                "SELECT id, file_path FROM sys_file_info WHERE upload_user_id = ? LIMIT ?",
+                userId, properties.getChunkSize());
+        if (files.isEmpty()) {
+            return 0;
+        }
+        List<Object> ids = files.stream().map(file -> file.get("id")).toList();
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.update("DELETE FROM sys_file_info WHERE id IN (" + placeholders + ")", ids.toArray());
+        fileService.releaseContent(files.stream().map(file -> (String) file.get("file_path")).toList());
+        return files.size();
+    }
+
+    private void saveProgress(Long jobId, int step, long deleted) {
+        LambdaUpdateWrapper<DeletionJob> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(DeletionJob::getId, jobId)
+                    .set(DeletionJob::getCurrentStep, step)
+                    .set(DeletionJob::getDeletedRows, deleted)
+                    .set(DeletionJob::getUpdatedAt, LocalDateTime.now());
+        deletionJobMapper.update(null, updateWrapper);
+    }
+
+    private void completeJob(Long jobId, long deleted) {
+        LocalDateTime now = LocalDateTime.now();
+        LambdaUpdateWrapper<DeletionJob> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(DeletionJob::getId, jobId)
+                    .set(DeletionJob::getStatus, DeletionJobStatus.COMPLETED.getCode())
+                    .set(DeletionJob::getDeletedRows, deleted)
+                    .set(DeletionJob::getErrorMessage, null)
+                    .set(DeletionJob::getUpdatedAt, now)
+                    .set(DeletionJob::getCompletedAt, now);
+        deletionJobMapper.update(null, updateWrapper);
+    }
+
+    private void releaseJob(Long jobId, int step, long deleted) {
+        LambdaUpdateWrapper<DeletionJob> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(DeletionJob::getId, jobId)
+                    .set(DeletionJob::getStatus, DeletionJobStatus.PENDING.getCode())
+                    .set(DeletionJob::getCurrentStep, step)
+                    .set(DeletionJob::getDeletedRows, deleted)
+                    .set(DeletionJob::getUpdatedAt, LocalDateTime.now());
+        deletionJobMapper.update(null, updateWrapper);
+        log.info("删除任务已暂停，任务ID: {}, 步骤: {}", jobId, step);
+    }
+
+    /**
+     * 记录一次失败：未超过最大次数时保持执行中状态，租约过期后由轮询重试；否则标记为失败
+     */
+    private void failAttempt(DeletionJob job, int step, long deleted, Exception e) {
+        int attempts = (job.getAttempts() == null ? 0 : job.getAttempts()) + 1;
+        LambdaUpdateWrapper<DeletionJob> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(DeletionJob::getId, job.getId())
+                    .set(DeletionJob::getCurrentStep, step)
+                    .set(DeletionJob::getDeletedRows, deleted)
+                    .set(DeletionJob::getAttempts, attempts)
+                    .set(DeletionJob::getErrorMessage, e.getMessage());
+        if (attempts >= MAX_ATTEMPTS) {
+            updateWrapper.set(DeletionJob::getStatus, DeletionJobStatus.FAILED.getCode())
+                         .set(DeletionJob::getUpdatedAt, LocalDateTime.now());
+        }
+        try {
+            deletionJobMapper.update(null, updateWrapper);
+        } catch (Exception updateError) {
+            log.error("记录删除任务失败状态失败，任务ID: {}: {}", job.getId(), updateError.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deletion-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        // 首次轮询即续跑上次未完成的任务
+        scheduler.scheduleWithFixedDelay(this::poll, 0, properties.getPollIntervalSeconds(), TimeUnit.SECONDS);
+        log.info("级联删除任务执行器已启动，块大小 {}，块间暂停 {}ms", properties.getChunkSize(), properties.getPauseMillis());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(properties.getShutdownTimeoutSeconds(), TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+                log.warn("删除任务执行线程未在 {} 秒内结束", properties.getShutdownTimeoutSeconds());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 删除步骤
+     *
+     * @param name 步骤名称（通常为表名）
+     * @param sql  删除语句，第一个参数为目标ID，以 LIMIT ? 结尾的语句第二个参数为块大小；非SQL步骤为空
+     */
+    private record Step(String name, String sql) {
+    }
+}
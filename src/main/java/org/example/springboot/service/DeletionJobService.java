@@ -0,0 +1,95 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.entity.DeletionJob;
+import org.example.springboot.enumClass.DeletionJobStatus;
+import org.example.springboot.enumClass.DeletionTargetType;
+import org.example.springboot.exception.BusinessException;
+import org.example.springboot.mapper.DeletionJobMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * 级联删除任务服务
+ * 调用方在请求事务中先把目标标记为已删除，再通过本服务登记删除任务；
+ * 事务提交后唤醒 {@link DeletionJobRunner} 在后台分块删除依赖数据，请求线程不等待删除完成
+ * @author system
+ */
+@Slf4j
+@Service
+public class DeletionJobService {
+
+    @Resource
+    private DeletionJobMapper deletionJobMapper;
+
+    @Resource
+    private DeletionJobRunner deletionJobRunner;
+
+    /**
+     * 登记删除任务；同一目标已有未结束的任务时直接返回该任务
+     *
+     * @param targetType 目标类型
+     * @param targetId 目标ID
+     * @param requestedBy 发起人用户ID
+     * @return 删除任务
+     */
+    public DeletionJob submit(DeletionTargetType targetType, Long targetId, Long requestedBy) {
+        LambdaQueryWrapper<DeletionJob> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(DeletionJob::getTargetType, targetType.getCode())
+                    .eq(DeletionJob::getTargetId, targetId)
+                    .in(DeletionJob::getStatus, DeletionJobStatus.PENDING.getCode(), DeletionJobStatus.RUNNING.getCode())
+                    .last("LIMIT 1");
+        DeletionJob existing = deletionJobMapper.selectOne(queryWrapper);
+        if (existing != null) {
+            log.info("目标已有未完成的删除任务，任务ID: {}", existing.getId());
+            return existing;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        DeletionJob job = new DeletionJob();
+        job.setTargetType(targetType.getCode());
+        job.setTargetId(targetId);
+        job.setStatus(DeletionJobStatus.PENDING.getCode());
+        job.setCurrentStep(0);
+        job.setTotalSteps(DeletionJobRunner.totalSteps(targetType));
+        job.setDeletedRows(0L);
+        job.setAttempts(0);
+        job.setRequestedBy(requestedBy);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        deletionJobMapper.insert(job);
+        log.info("登记删除任务，任务ID: {}, 目标: {}#{}", job.getId(), targetType, targetId);
+
+        // 在事务中登记时，提交后再唤醒，避免执行线程读不到任务或目标的删除标记
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deletionJobRunner.wakeUp();
+                }
+            });
+        } else {
+            deletionJobRunner.wakeUp();
+        }
+        return job;
+    }
+
+    /**
+     * 查询删除任务进度
+     *
+     * @param jobId 任务ID
+     * @return 删除任务
+     */
+    public DeletionJob getJob(Long jobId) {
+        DeletionJob job = deletionJobMapper.selectById(jobId);
+        if (job == null) {
+            throw new BusinessException("删除任务不存在");
+        }
+        return job;
+    }
+}
@@ -19,12 +19,16 @@ import org.example.springboot.mapper.UserMapper;
 import org.example.springboot.service.convert.EmotionDiaryConvert;
 import org.example.springboot.AiService.StructOutPut;
 import org.example.springboot.AiService.PsychologicalSupportService;
+import org.example.springboot.AiService.CrisisResponseService;
+import org.example.springboot.config.TransactionGuard;
 import org.example.springboot.enumClass.AiTaskType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import jakarta.annotation.Resource;
 import java.math.BigDecimal;
@@ -55,6 +59,15 @@ public class EmotionDiaryService {
     @Resource
     private AiAnalysisTaskService aiAnalysisTaskService;
 
+    @Resource
+    private CrisisResponseService crisisResponseService;
+
+    @Resource(name = "diaryAnalysisExecutor")
+    private Executor diaryAnalysisExecutor;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
     /**
      * 创建或更新情绪日记
      * 同一用户同一天只能有一条记录，如果已存在则更新
@@ -85,7 +98,8 @@ public class EmotionDiaryService {
 
         // 异步触发AI情绪分析
         if (diary.getDiaryContent() != null && !diary.getDiaryContent().trim().isEmpty()) {
-            performAiEmotionAnalysisAsync(diary.getId(), diary.getDiaryContent());
+            crisisResponseService.screenDiary(userId, diary.getId(), diary.getDiaryContent());
+            submitAnalysisAfterCommit(diary.getId(), diary.getDiaryContent());
             log.info("已提交AI情绪分析任务到队列，日记ID: {}", diary.getId());
         }
 
@@ -148,7 +162,8 @@ public class EmotionDiaryService {
         
         // 异步触发AI情绪分析（更新后重新分析）
         if (updatedDiary.getDiaryContent() != null && !updatedDiary.getDiaryContent().trim().isEmpty()) {
-            performAiEmotionAnalysisAsync(updatedDiary.getId(), updatedDiary.getDiaryContent());
+            crisisResponseService.screenDiary(userId, updatedDiary.getId(), updatedDiary.getDiaryContent());
+            submitAnalysisAfterCommit(updatedDiary.getId(), updatedDiary.getDiaryContent());
             log.info("已提交更新后的AI情绪分析任务到队列，日记ID: {}", updatedDiary.getId());
         }
         
@@ -302,15 +317,30 @@ public class EmotionDiaryService {
         }
     }
 
+    /**
+     * 事务提交后再提交分析任务，工作线程能读到本次写入
+     * 提交时事务连接仍未归还，线程池已满时不在当前线程执行分析，跳过本次分析，
+     * 日记保持未分析状态，用户可在详情页手动触发
+     */
+    private void submitAnalysisAfterCommit(Long diaryId, String diaryContent) {
+        TransactionGuard.runAfterCommit(() -> {
+            try {
+                performAiEmotionAnalysisAsync(diaryId, diaryContent);
+            } catch (RejectedExecutionException e) {
+                log.warn("AI情绪分析队列已满，跳过本次分析，日记ID: {}", diaryId);
+            }
+        });
+    }
+
     /**
      * 异步执行AI情绪分析并更新到数据库（带队列管理）
+     * 在 diaryAnalysisExecutor 专用线程池中执行，队列满时抛出 RejectedExecutionException，由提交方决定如何降级
      * 
      * @param diaryId 日记ID
      * @param diaryContent 日记内容
      * @param taskType 任务类型
      * @param priority 优先级
      */
-    @Async
     public CompletableFuture<Void> performAiEmotionAnalysisAsync(Long diaryId, String diaryContent, AiTaskType taskType, Integer priority) {
         return CompletableFuture.runAsync(() -> {
             // 获取日记信息
@@ -361,16 +391,15 @@ public class EmotionDiaryService {
                     ObjectMapper objectMapper = new ObjectMapper();
                     String analysisJson = objectMapper.writeValueAsString(analysisResult);
                     
-                    // 更新数据库中的AI分析结果
-                    LambdaUpdateWrapper<EmotionDiary> updateWrapper = new LambdaUpdateWrapper<>();
-                    updateWrapper.eq(EmotionDiary::getId, diaryId)
-                                .set(EmotionDiary::getAiEmotionAnalysis, analysisJson)
-                                .set(EmotionDiary::getAiAnalysisUpdatedAt, java.time.LocalDateTime.now());
-                    
-                    emotionDiaryMapper.update(null, updateWrapper);
-                    
-                    // 标记任务完成
-                    aiAnalysisTaskService.markAsCompleted(taskId);
+                    // 大模型调用已结束，结果与任务状态在一个短事务中写回
+                    transactionTemplate.executeWithoutResult(status -> {
+                        LambdaUpdateWrapper<EmotionDiary> updateWrapper = new LambdaUpdateWrapper<>();
+                        updateWrapper.eq(EmotionDiary::getId, diaryId)
+                                    .set(EmotionDiary::getAiEmotionAnalysis, analysisJson)
+                                    .set(EmotionDiary::getAiAnalysisUpdatedAt, java.time.LocalDateTime.now());
+                        emotionDiaryMapper.update(null, updateWrapper);
+                        aiAnalysisTaskService.markAsCompleted(taskId);
+                    });
                     
                     log.info("AI情绪分析完成并已保存，日记ID: {}, 任务ID: {}, 主要情绪: {}, 风险等级: {}", 
                             diaryId, taskId, analysisResult.primaryEmotion(), analysisResult.riskLevel());
@@ -385,7 +414,7 @@ public class EmotionDiaryService {
                 aiAnalysisTaskService.markAsFailed(taskId, e.getMessage());
                 log.error("异步AI情绪分析失败，日记ID: {}, 任务ID: {}, 错误: {}", diaryId, taskId, e.getMessage(), e);
             }
-        });
+        }, diaryAnalysisExecutor);
     }
 
     /**
@@ -425,13 +454,8 @@ public class EmotionDiaryService {
         log.info("更新现有日记并重置AI分析状态，日记ID: {}", existingDiary.getId());
         
         emotionDiaryMapper.updateById(existingDiary);
-        
-        // 异步触发AI情绪分析（更新后重新分析）
-        if (existingDiary.getDiaryContent() != null && !existingDiary.getDiaryContent().trim().isEmpty()) {
-            performAiEmotionAnalysisAsync(existingDiary.getId(), existingDiary.getDiaryContent());
-            log.info("已提交更新现有日记的AI情绪分析任务到队列，日记ID: {}", existingDiary.getId());
-        }
-        
+
+        // AI情绪分析由 createOrUpdateDiary 在事务提交后统一提交
         return existingDiary;
     }
 
@@ -813,9 +837,10 @@ public class EmotionDiaryService {
     /**
      * 管理员手动触发AI分析（支持重复分析）
      * 
+     * 只读取日记并提交任务，不开启事务；队列满时抛出 RejectedExecutionException
+     *
      * @param diaryId 日记ID
      */
-    @Transactional(rollbackFor = Exception.class)
     public void adminTriggerAiAnalysis(Long diaryId) {
         log.info("管理员触发AI情绪分析，日记ID: {}", diaryId);
 
@@ -842,7 +867,6 @@ public class EmotionDiaryService {
      * @param diaryIds 日记ID列表
      * @return 处理结果统计
      */
-    @Transactional(rollbackFor = Exception.class)
     public Map<String, Object> adminBatchTriggerAiAnalysis(List<Long> diaryIds) {
         log.info("管理员批量触发AI情绪分析，日记数量: {}", diaryIds.size());
 
@@ -0,0 +1,154 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.AiService.LlmCallTracker;
+import org.example.springboot.config.AsyncExecutorProperties;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * 测评AI解读后台生成
+ * 提交测评时只登记生成任务，在 evaluationAnalysisExecutor 中以流式方式调用大模型；
+ * 生成中的文本保存在内存中，可轮询读取已生成部分，也可订阅片段流（晚到的订阅者先收到已生成的全部片段）。
+ * 生成结束（成功或失败）后由调用方回调写回数据库，随后移出内存；其他实例上的请求只能读到数据库中的状态
+ * @author system
+ */
+@Slf4j
+@Service
+public class EvaluationNarrativeService {
+
+    /**
+     * 单次解读的最长生成时间
+     */
+    private static final Duration GENERATION_TIMEOUT = Duration.ofMinutes(2);
+
+    @Resource
+    private ChatClient chatClient;
+
+    @Resource
+    private LlmCallTracker llmCallTracker;
+
+    @Resource(name = "evaluationAnalysisExecutor")
+    private Executor evaluationAnalysisExecutor;
+
+    @Resource
+    private AsyncExecutorProperties asyncExecutorProperties;
+
+    private final Map<Integer, Narrative> running = new ConcurrentHashMap<>();
+
+    /**
+     * 登记并开始生成；线程池已满（拒绝策略为 ABORT）时不排队等待，直接以默认文本结束并标记失败
+     *
+     * @param recordId 测评记录ID
+     * @param prompt   提示词
+     * @param fallback 生成失败时使用的文本
+     * @param onFinish 生成结束回调（最终文本，是否成功），负责写回数据库；回调返回后订阅者才收到结束信号
+     */
+    public void start(Integer recordId, String prompt, String fallback, BiConsumer<String, Boolean> onFinish) {
+        Narrative narrative = new Narrative();
+        running.put(recordId, narrative);
+        try {
+            evaluationAnalysisExecutor.execute(() -> generate(recordId, narrative, prompt, fallback, onFinish));
+        } catch (RejectedExecutionException e) {
+            log.warn("测评解读任务被拒绝，使用默认文本，记录ID: {}", recordId);
+            finish(recordId, narrative, fallback, false, onFinish);
+        }
+    }
+
+    /**
+     * 解读从登记到结束的最长时间：排在队尾的任务要等前面的任务逐批生成完，每批最长 GENERATION_TIMEOUT。
+     * 按平台线程池的最大线程数估算，虚拟线程模式并发上限更高，估算偏保守；超过该时间仍未结束的解读不可能还在生成
+     */
+    public Duration maxPendingDuration() {
+        AsyncExecutorProperties.Pool pool = asyncExecutorProperties.getEvaluationAnalysis();
+        int workers = Math.max(1, Math.max(pool.getCoreSize(), pool.getMaxSize()));
+        int batches = (Math.max(0, pool.getQueueCapacity()) + workers - 1) / workers + 1;
+        return GENERATION_TIMEOUT.multipliedBy(batches);
+    }
+
+    /**
+     * 是否正在本实例生成
+     */
+    public boolean isRunning(Integer recordId) {
+        return running.containsKey(recordId);
+    }
+
+    /**
+     * 已生成的部分，本实例没有在生成时返回null
+     */
+    public String getPartialContent(Integer recordId) {
+        Narrative narrative = running.get(recordId);
+        return narrative == null ? null : narrative.content();
+    }
+
+    /**
+     * 文本片段流：先重放已生成的片段，再实时推送后续片段，写回数据库后结束；本实例没有在生成时为空流
+     */
+    public Flux<String> stream(Integer recordId) {
+        Narrative narrative = running.get(recordId);
+        return narrative == null ? Flux.empty() : narrative.sink.asFlux();
+    }
+
+    private void generate(Integer recordId, Narrative narrative, String prompt, String fallback,
+                          BiConsumer<String, Boolean> onFinish) {
+        long start = System.currentTimeMillis();
+        try {
+            llmCallTracker.trackStream(LlmCallTracker.CALL_SITE_EVALUATION,
+                            chatClient.prompt().user(prompt).stream().chatResponse())
+                    .doOnNext(narrative::append)
+                    .timeout(GENERATION_TIMEOUT)
+                    .blockLast();
+            String content = narrative.content();
+            if (content.isBlank()) {
+                finish(recordId, narrative, fallback, false, onFinish);
+                return;
+            }
+            log.info("测评解读生成完成，记录ID: {}，长度: {}，耗时 {}ms",
+                    recordId, content.length(), System.currentTimeMillis() - start);
+            finish(recordId, narrative, content, true, onFinish);
+        } catch (Exception e) {
+            log.error("生成测评解读失败，记录ID: {}，错误: {}", recordId, e.getMessage(), e);
+            finish(recordId, narrative, fallback, false, onFinish);
+        }
+    }
+
+    private void finish(Integer recordId, Narrative narrative, String content, boolean succeeded,
+                        BiConsumer<String, Boolean> onFinish) {
+        try {
+            onFinish.accept(content, succeeded);
+        } catch (Exception e) {
+            log.error("写回测评解读失败，记录ID: {}，错误: {}", recordId, e.getMessage(), e);
+        } finally {
+            narrative.sink.tryEmitComplete();
+            running.remove(recordId, narrative);
+        }
+    }
+
+    /**
+     * 生成中的解读，只由生成线程写入
+     */
+    private static final class Narrative {
+
+        private final StringBuffer buffer = new StringBuffer();
+        private final Sinks.Many<String> sink = Sinks.many().replay().all();
+
+        void append(String chunk) {
+            buffer.append(chunk);
+            sink.tryEmitNext(chunk);
+        }
+
+        String content() {
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package org.example.springboot.service;
+
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.entity.SysFileInfo;
+import org.example.springboot.exception.BusinessException;
+import org.example.springboot.mapper.SysFileInfoMapper;
+import org.example.springboot.util.ContentAddressedStorage;
+import org.example.springboot.util.FileUtil;
+import org.example.springboot.util.HttpByteRange;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * 文件下载服务
+ * 直接从上传目录输出文件内容，支持单段 Range 请求、强 ETag 与 If-None-Match/If-Modified-Since 304、
+ * 预压缩副本（.br/.gz）。Tomcat 支持 sendfile 时交给连接器零拷贝发送，否则用 FileChannel.transferTo 输出，
+ * 内容不经过堆内缓冲区整体复制
+ * @author system
+ */
+@Slf4j
+@Service
+public class FileDownloadService {
+
+    /**
+     * Tomcat sendfile 请求属性（NIO/NIO2 连接器）
+     */
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 小于该大小的内容直接写出，sendfile 的额外开销不划算
+     */
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    /**
+     * 内容存储中的文件内容不会变化，可长期缓存
+     */
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE_CACHE_CONTROL = "no-cache";
+
+    @Resource
+    private SysFileInfoMapper fileInfoMapper;
+
+    @Resource
+    private ImageDerivativeService imageDerivativeService;
+
+    /**
+     * 按访问路径输出文件（内联展示，用于音视频播放和图片）
+     *
+     * @param filePath 文件访问路径（/files/...）
+     * @param size     图片衍生图尺寸名称，为空时输出原文件
+     */
+    public void streamFile(String filePath, String size, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = resolveFile(filePath);
+        String contentHash = ContentAddressedStorage.hashOf(filePath);
+        if (StrUtil.isNotBlank(size)) {
+            Path derivative = imageDerivativeService.getOrCreate(file, size);
+            if (!derivative.equals(file)) {
+                file = derivative;
+                contentHash = contentHash != null ? contentHash + "-" + size : null;
+            }
+        }
+        serve(file, filePath, contentHash, null, request, response);
+    }
+
+    /**
+     * 按文件记录下载业务文件（附件形式，使用原始文件名）
+     *
+     * @param fileId 文件ID
+     */
+    public void downloadFile(Long fileId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SysFileInfo fileInfo = fileInfoMapper.selectById(fileId);
+        if (fileInfo == null || !fileInfo.isNormalStatus()) {
+            throw new BusinessException("文件不存在");
+        }
+        Path file = resolveFile(fileInfo.getFilePath());
+        serve(file, fileInfo.getFilePath(), fileInfo.getContentHash(), fileInfo.getOriginalName(), request, response);
+    }
+
+    /**
+     * 输出文件内容
+     *
+     * @param contentHash  内容哈希（有则作为 ETag，否则由大小和修改时间生成）
+     * @param downloadName 附件文件名，为空时内联展示
+     */
+    private void serve(Path file, String filePath, String contentHash, String downloadName,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        long fileLength = Files.size(file);
+        String contentType = request.getServletContext().getMimeType(file.getFileName().toString());
+
+        // 无 Range 时优先使用客户端接受的预压缩副本
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        Path body = file;
+        String encoding = null;
+        boolean hasVariant = false;
+        for (String suffix : ContentAddressedStorage.VARIANT_SUFFIXES) {
+            Path variant = file.resolveSibling(file.getFileName() + suffix);
+            if (!Files.isRegularFile(variant)) {
+                continue;
+            }
+            hasVariant = true;
+            String variantEncoding = ".br".equals(suffix) ? "br" : "gzip";
+            if (encoding == null && rangeHeader == null && acceptsEncoding(request, variantEncoding)) {
+                body = variant;
+                encoding = variantEncoding;
+            }
+        }
+        long length = body == file ? fileLength : Files.size(body);
+
+        String etag = buildEtag(contentHash, fileLength, lastModified, encoding);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                ContentAddressedStorage.isContentPath(filePath) ? IMMUTABLE_CACHE_CONTROL : REVALIDATE_CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (hasVariant) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        if (StrUtil.isNotBlank(downloadName)) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(downloadName, StandardCharsets.UTF_8).build().toString());
+        }
+
+        long start = 0;
+        if (encoding == null && rangeHeader != null && isRangeApplicable(request, etag, lastModified)) {
+            HttpByteRange range = HttpByteRange.parse(rangeHeader, fileLength);
+            if (range != null && !range.satisfiable()) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (range != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(fileLength));
+                start = range.start();
+                length = range.length();
+            }
+        }
+        response.setContentLengthLong(length);
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || length == 0) {
+            return;
+        }
+        if (length >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, body.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + length);
+            return;
+        }
+        transfer(body, start, length, response);
+    }
+
+    /**
+     * 通过 FileChannel.transferTo 输出指定区间
+     */
+    private void transfer(Path file, long start, long length, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    /**
+     * 解析访问路径到上传目录内的物理文件，拒绝目录穿越和临时文件
+     */
+    private Path resolveFile(String filePath) {
+        if (StrUtil.isBlank(filePath)) {
+            throw new BusinessException("文件路径不能为空");
+        }
+        FileUtil.validateName(filePath);
+        Path baseDir = Paths.get(FileUtil.FILE_BASE_PATH).toAbsolutePath().normalize();
+        Path file = baseDir.resolve(FileUtil.convertToRelativePath(filePath)).normalize();
+        if (!file.startsWith(baseDir) || file.toString().contains("/.tmp/") || !Files.isRegularFile(file)) {
+            throw new BusinessException("文件不存在");
+        }
+        return file;
+    }
+
+    /**
+     * 强 ETag：内容存储文件直接使用内容哈希，其余使用大小与修改时间；预压缩副本是不同的表示，追加编码后缀
+     */
+    private String buildEtag(String contentHash, long length, long lastModified, String encoding) {
+        String tag = StrUtil.isNotBlank(contentHash)
+                ? contentHash
+                : Long.toHexString(length) + "-" + Long.toHexString(lastModified);
+        return "\"" + tag + (encoding != null ? "-" + encoding : "") + "\"";
+    }
+
+    /**
+     * If-None-Match 优先于 If-Modified-Since（弱比较）
+     */
+    private boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if ("*".equals(tag) || stripWeak(tag).equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = getDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * If-Range 与当前表示一致时才按 Range 返回部分内容（ETag 强比较）
+     */
+    private boolean isRangeApplicable(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        long date = getDateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && lastModified / 1000 == date / 1000;
+    }
+
+    private boolean acceptsEncoding(HttpServletRequest request, String encoding) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (tokens[0].trim().equals(encoding)) {
+                return tokens.length < 2 || !tokens[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private long getDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
@@ -14,16 +14,25 @@ import org.example.springboot.enumClass.FileBusinessTypeEnum;
 import org.example.springboot.enumClass.FileTypeEnum;
 import org.example.springboot.exception.BusinessException;
 import org.example.springboot.mapper.SysFileInfoMapper;
+import org.example.springboot.util.ContentAddressedStorage;
 import org.example.springboot.util.FileUtil;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -41,11 +50,20 @@ public class FileService {
     @Resource
     private BussinessFileValidationService bussinessFileValidationService;
 
+    @Resource
+    private ImageDerivativeService imageDerivativeService;
+
     @Value("${file.upload.path:/files}")
     private String uploadBasePath;
 
 
-    private final static  String BUSSINESS_FILE_RELATIVE_PATH = "bussiness";
+    /**
+     * 内容文件无引用后保留的宽限期（分钟），期间被重复上传复用的内容不会被删除
+     */
+    @Value("${file.content-store.orphan-grace-minutes:60}")
+    private long orphanGraceMinutes;
+
+    private static final int TEMP_CLEANUP_BATCH_SIZE = 500;
 
 
 
@@ -65,20 +83,11 @@ public class FileService {
             bussinessFileValidationService.validateBusinessPermission(uploadDTO.getBusinessType(),
                     uploadDTO.getBusinessId(), uploadUserId);
 
-            // 3. 如果需要替换，先处理旧文件
-            if (replaceOld) {
-                handleOldFiles(uploadDTO.getBusinessType(), uploadDTO.getBusinessId(), uploadDTO.getBusinessField());
-            }
-
-            // 4. 保存文件到磁盘
-            String filePath = FileUtil.saveFile(file, BUSSINESS_FILE_RELATIVE_PATH, FileUtil.parseBussinessFileTypeToFolerName(uploadDTO.getBusinessType()));
-
-            // 5. 保存文件信息到数据库
-            SysFileInfo fileInfo = createFileInfo(file, uploadDTO, filePath, uploadUserId);
-            fileInfoMapper.insert(fileInfo);
+            // 3. 按内容保存到磁盘（相同内容复用已有文件）
+            ContentAddressedStorage.StoredContent content = storeContent(file);
 
-            log.info("文件上传成功: ID={}, 路径={}", fileInfo.getId(), filePath);
-            return convertToDTO(fileInfo);
+            // 4. 替换旧文件并登记文件信息
+            return saveStoredFile(content, file.getOriginalFilename(), uploadDTO, uploadUserId, replaceOld);
 
         } catch (Exception e) {
             log.error("文件上传失败: 文件名={}, 错误={}", file.getOriginalFilename(), e.getMessage(), e);
@@ -86,6 +95,48 @@ public class FileService {
         }
     }
 
+    /**
+     * 登记已写入内容存储的文件并绑定业务对象（普通上传与分片上传完成时共用）
+     *
+     * @param content      内容存储结果
+     * @param originalName 原始文件名
+     * @param uploadDTO    业务绑定信息
+     * @param uploadUserId 上传用户ID
+     * @param replaceOld   是否替换该业务字段下的旧文件
+     * @return 文件信息
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public FileInfoDTO saveStoredFile(ContentAddressedStorage.StoredContent content, String originalName,
+                                      FileUploadDTO uploadDTO, Long uploadUserId, boolean replaceOld) {
+        // 如果需要替换，先处理旧文件
+        if (replaceOld) {
+            handleOldFiles(uploadDTO.getBusinessType(), uploadDTO.getBusinessId(), uploadDTO.getBusinessField());
+        }
+
+        // 保存文件信息到数据库
+        SysFileInfo fileInfo = createFileInfo(originalName, uploadDTO, content, uploadUserId);
+        fileInfoMapper.insert(fileInfo);
+
+        log.info("文件上传成功: ID={}, 路径={}, 复用已有内容={}", fileInfo.getId(), content.filePath(), content.deduplicated());
+
+        // 封面、头像等图片预生成缩略图
+        if (imageDerivativeService.shouldPregenerate(uploadDTO.getBusinessType())) {
+            imageDerivativeService.pregenerate(content.filePath());
+        }
+        return convertToDTO(fileInfo);
+    }
+
+    /**
+     * 根据ID获取文件信息
+     */
+    public FileInfoDTO getFileInfo(Long fileId) {
+        SysFileInfo fileInfo = fileInfoMapper.selectById(fileId);
+        if (fileInfo == null || !fileInfo.isNormalStatus()) {
+            throw new BusinessException("文件不存在");
+        }
+        return convertToDTO(fileInfo);
+    }
+
     /**
      * 上传临时文件
      */
@@ -94,21 +145,18 @@ public class FileService {
         try {
             log.info("开始上传临时文件: 文件名={}", file.getOriginalFilename());
 
-            // 基础验证
-            FileUtil.validateBasicFile(file);
-
-            // 保存到临时目录
-            String filePath = FileUtil.saveFile(file, "temp",null);
+            // 按内容保存（基础验证在其中完成）
+            ContentAddressedStorage.StoredContent content = storeContent(file);
 
             // 创建临时文件记录
             FileUploadDTO tempDTO = buildTempUploadDTO();
-            SysFileInfo fileInfo = createFileInfo(file, tempDTO, filePath, uploadUserId);
+            SysFileInfo fileInfo = createFileInfo(file.getOriginalFilename(), tempDTO, content, uploadUserId);
             fileInfo.setIsTemp(1);
             fileInfo.setExpireTime(LocalDateTime.now().plusHours(24)); // 24小时后过期
 
             fileInfoMapper.insert(fileInfo);
 
-            log.info("临时文件上传成功: ID={}, 路径={}", fileInfo.getId(), filePath);
+            log.info("临时文件上传成功: ID={}, 路径={}", fileInfo.getId(), content.filePath());
             return convertToDTO(fileInfo);
 
         } catch (Exception e) {
@@ -208,8 +256,8 @@ public class FileService {
             fileInfo.setStatus(0);
             fileInfoMapper.updateById(fileInfo);
 
-            // 异步删除物理文件
-            deletePhysicalFileAsync(fileInfo.getFilePath());
+            // 提交后按引用计数释放物理文件
+            releaseContentAfterCommit(List.of(fileInfo.getFilePath()));
 
             log.info("文件删除成功: 文件ID={}", fileId);
             return true;
@@ -251,10 +299,8 @@ public class FileService {
 
             int result = fileInfoMapper.update(null, updateWrapper);
 
-            // 异步删除物理文件
-            for (SysFileInfo fileInfo : fileList) {
-                deletePhysicalFileAsync(fileInfo.getFilePath());
-            }
+            // 提交后按引用计数释放物理文件
+            releaseContentAfterCommit(fileList.stream().map(SysFileInfo::getFilePath).toList());
 
             log.info("批量删除文件成功: 删除数量={}", result);
             return result > 0;
@@ -267,43 +313,45 @@ public class FileService {
 
     /**
      * 清理过期临时文件
+     * 按主键游标分批删除，每批单独提交并释放物理文件，不一次性加载全部过期记录
      */
-    @Transactional(rollbackFor = Exception.class)
     public int cleanupExpiredTempFiles() {
+        log.info("开始清理过期临时文件");
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        long lastId = 0;
         try {
-            log.info("开始清理过期临时文件");
-
-            LocalDateTime now = LocalDateTime.now();
-
-            // 查询过期的临时文件（创建时间超过24小时且业务类型为temp的文件）
-            LambdaQueryWrapper<SysFileInfo> queryWrapper = new LambdaQueryWrapper<>();
-            queryWrapper.eq(SysFileInfo::getBusinessType, "temp")
-                    .eq(SysFileInfo::getStatus, 1)  // 有效文件
-                    .lt(SysFileInfo::getCreateTime, now.minusHours(24));  // 创建时间超过24小时
-
-            List<SysFileInfo> expiredFiles = fileInfoMapper.selectList(queryWrapper);
-
-            if (expiredFiles.isEmpty()) {
-                log.info("没有过期的临时文件需要清理");
-                return 0;
-            }
+            while (true) {
+                // 过期时间已到；未设置过期时间的临时业务文件按创建超过24小时计算
+                LambdaQueryWrapper<SysFileInfo> queryWrapper = new LambdaQueryWrapper<>();
+                queryWrapper.select(SysFileInfo::getId, SysFileInfo::getFilePath)
+                        .eq(SysFileInfo::getIsTemp, 1)
+                        .eq(SysFileInfo::getStatus, 1)
+                        .and(w -> w.lt(SysFileInfo::getExpireTime, now)
+                                .or(x -> x.isNull(SysFileInfo::getExpireTime)
+                                        .lt(SysFileInfo::getCreateTime, now.minusHours(24))))
+                        .gt(SysFileInfo::getId, lastId)
+                        .orderByAsc(SysFileInfo::getId)
+                        .last("LIMIT " + TEMP_CLEANUP_BATCH_SIZE);
+                List<SysFileInfo> expiredFiles = fileInfoMapper.selectList(queryWrapper);
+                if (expiredFiles.isEmpty()) {
+                    break;
+                }
+                lastId = expiredFiles.get(expiredFiles.size() - 1).getId();
 
-            // 批量逻辑删除
-            List<Long> fileIds = expiredFiles.stream().map(SysFileInfo::getId).toList();
-            int result = fileInfoMapper.deleteByIds(fileIds);
+                total += fileInfoMapper.deleteByIds(expiredFiles.stream().map(SysFileInfo::getId).toList());
+                // 按引用计数释放物理文件
+                releaseContent(expiredFiles.stream().map(SysFileInfo::getFilePath).toList());
 
-            // 异步删除物理文件
-            for (SysFileInfo fileInfo : expiredFiles) {
-                deletePhysicalFileAsync(fileInfo.getFilePath());
+                if (expiredFiles.size() < TEMP_CLEANUP_BATCH_SIZE) {
+                    break;
+                }
             }
-
-            log.info("清理过期临时文件完成: 清理数量={}", result);
-            return result;
-
+            log.info("清理过期临时文件完成: 清理数量={}", total);
         } catch (Exception e) {
-            log.error("清理过期临时文件失败: 错误={}", e.getMessage(), e);
-            return 0;
+            log.error("清理过期临时文件失败: 已清理={}, 错误={}", total, e.getMessage(), e);
         }
+        return total;
     }
 
     /**
@@ -335,15 +383,31 @@ public class FileService {
 
 
 
+    /**
+     * 校验并按内容保存上传文件
+     */
+    private ContentAddressedStorage.StoredContent storeContent(MultipartFile file) throws IOException {
+        FileUtil.validateBasicFile(file);
+        String extension = FileUtil.getFileExtension(file.getOriginalFilename());
+        if (StrUtil.isBlank(extension)) {
+            throw new BusinessException("文件没有扩展名");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return ContentAddressedStorage.store(in, extension);
+        }
+    }
+
     /**
      * 创建文件信息对象
      */
-    private SysFileInfo createFileInfo(MultipartFile file, FileUploadDTO uploadDTO, String filePath, Long uploadUserId) {
+    private SysFileInfo createFileInfo(String originalName, FileUploadDTO uploadDTO,
+                                       ContentAddressedStorage.StoredContent content, Long uploadUserId) {
         SysFileInfo fileInfo = new SysFileInfo();
-        fileInfo.setOriginalName(file.getOriginalFilename());
-        fileInfo.setFilePath(filePath);
-        fileInfo.setFileSize(file.getSize());
-        fileInfo.setFileType(FileTypeEnum.getByFileName(file.getOriginalFilename()).getCode());
+        fileInfo.setOriginalName(originalName);
+        fileInfo.setFilePath(content.filePath());
+        fileInfo.setContentHash(content.contentHash());
+        fileInfo.setFileSize(content.size());
+        fileInfo.setFileType(FileTypeEnum.getByFileName(originalName).getCode());
         fileInfo.setBusinessType(uploadDTO.getBusinessType());
         fileInfo.setBusinessId(uploadDTO.getBusinessId());
         fileInfo.setBusinessField(uploadDTO.getBusinessField());
@@ -408,10 +472,8 @@ public class FileService {
                 int deletedCount = fileInfoMapper.update(null, updateWrapper);
                 log.info("数据库记录删除完成，删除数量：{}", deletedCount);
 
-                // 异步删除物理文件
-                for (SysFileInfo oldFile : oldFiles) {
-                    deletePhysicalFileAsync(oldFile.getFilePath());
-                }
+                // 提交后按引用计数释放物理文件
+                releaseContentAfterCommit(oldFiles.stream().map(SysFileInfo::getFilePath).toList());
 
                 log.info("旧文件处理完成，数量：{}", oldFiles.size());
             } else {
@@ -468,22 +530,72 @@ public class FileService {
     }
 
     /**
-     * 异步删除物理文件
+     * 事务提交后释放物理文件；不在事务中时立即释放
      */
-    private void deletePhysicalFileAsync(String filePath) {
-        // 这里可以使用异步任务来删除物理文件
-        try {
-            if (StrUtil.isNotBlank(filePath)) {
-
+    private void releaseContentAfterCommit(Collection<String> filePaths) {
+        if (filePaths.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseContent(filePaths);
+                }
+            });
+        } else {
+            releaseContent(filePaths);
+        }
+    }
 
-                if (FileUtil.deleteFile(filePath)) {
-                    log.info("物理文件删除成功: {}", filePath);
+    /**
+     * 释放物理文件：已没有有效记录引用的路径才删除。
+     * 内容存储中的文件还需超过宽限期未被写入，刚被重复上传复用的内容留给无引用清理处理
+     *
+     * @param filePaths 文件访问路径
+     * @return 删除的物理文件数
+     */
+    public int releaseContent(Collection<String> filePaths) {
+        Set<String> candidates = filePaths.stream().filter(StrUtil::isNotBlank).collect(Collectors.toSet());
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        int released = 0;
+        try {
+            Set<String> referenced = findReferencedPaths(candidates);
+            for (String filePath : candidates) {
+                if (referenced.contains(filePath)) {
+                    continue;
+                }
+                boolean deleted;
+                if (ContentAddressedStorage.isContentPath(filePath)) {
+                    deleted = ContentAddressedStorage.deleteIfIdle(filePath, Duration.ofMinutes(orphanGraceMinutes));
                 } else {
-                    log.warn("物理文件删除失败: {}", filePath);
+                    deleted = FileUtil.deleteFile(filePath);
+                    ContentAddressedStorage.deleteDerivedFiles(
+                            Paths.get(FileUtil.FILE_BASE_PATH, FileUtil.convertToRelativePath(filePath)));
+                }
+                if (deleted) {
+                    released++;
+                    log.info("物理文件删除成功: {}", filePath);
                 }
             }
         } catch (Exception e) {
-            log.error("删除物理文件异常: 路径={}, 错误={}", filePath, e.getMessage());
+            log.error("释放物理文件异常: 路径={}, 错误={}", candidates, e.getMessage());
         }
+        return released;
+    }
+
+    /**
+     * 查询仍被有效记录引用的路径
+     */
+    private Set<String> findReferencedPaths(Collection<String> filePaths) {
+        LambdaQueryWrapper<SysFileInfo> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.select(SysFileInfo::getFilePath)
+                .in(SysFileInfo::getFilePath, filePaths)
+                .eq(SysFileInfo::getStatus, 1);
+        return fileInfoMapper.selectList(queryWrapper).stream()
+                .map(SysFileInfo::getFilePath)
+                .collect(Collectors.toSet());
     }
 }
@@ -0,0 +1,271 @@
+package org.example.springboot.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.DTO.FileStorageReportDTO;
+import org.example.springboot.config.ChunkedUploadProperties;
+import org.example.springboot.config.FileStorageReconcileProperties;
+import org.example.springboot.entity.SysFileInfo;
+import org.example.springboot.mapper.SysFileInfoMapper;
+import org.example.springboot.util.ContentAddressedStorage;
+import org.example.springboot.util.FileUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 文件存储对账
+ * 两个方向分别核对上传目录与 sys_file_info：
+ * 1. 磁盘 → 数据库：Files.walkFileTree 流式遍历上传目录，每攒满一批按路径批量查询引用；
+ *    内容存储中无引用且超过宽限期的文件限速删除，其余目录中未登记的文件（简单上传等由业务表直接引用）只统计不删除
+ * 2. 数据库 → 磁盘：按主键游标分页读取有效记录，统计各业务类型用量并检查物理文件是否存在
+ * 两侧都只在内存中保留当前批次，文件数和记录数达到百万级也不会占用大量内存
+ * @author system
+ */
+@Slf4j
+@Service
+public class FileStorageReconciler {
+
+    @Resource
+    private SysFileInfoMapper fileInfoMapper;
+
+    @Resource
+    private FileStorageReconcileProperties properties;
+
+    @Resource
+    private ChunkedUploadProperties chunkedUploadProperties;
+
+    @Value("${file.content-store.orphan-grace-minutes:60}")
+    private long orphanGraceMinutes;
+
+    /**
+     * 最近一次对账报告
+     */
+    private volatile FileStorageReportDTO lastReport;
+
+    /**
+     * 执行一次完整对账
+     *
+     * @return 对账报告
+     */
+    public FileStorageReportDTO reconcile() throws IOException {
+        return reconcile(Paths.get(FileUtil.FILE_BASE_PATH));
+    }
+
+    FileStorageReportDTO reconcile(Path baseDir) throws IOException {
+        FileStorageReportDTO report = new FileStorageReportDTO();
+        report.setStartedAt(LocalDateTime.now());
+        long start = System.currentTimeMillis();
+
+        scanDisk(baseDir, report);
+        scanRecords(baseDir, report);
+
+        report.setDurationMillis(System.currentTimeMillis() - start);
+        lastReport = report;
+        log.info("文件存储对账完成: 磁盘文件={}，磁盘占用={} 字节，有效记录={}，删除无引用文件={}（{} 字节），"
+                        + "剩余无引用内容={}，未登记文件={}（{} 字节），缺失文件记录={}，耗时 {}ms",
+                report.getDiskFiles(), report.getDiskBytes(), report.getRecordCount(),
+                report.getDeletedFiles(), report.getDeletedBytes(), report.getOrphanContentFiles(),
+                report.getUnregisteredFiles(), report.getUnregisteredBytes(), report.getMissingFiles(),
+                report.getDurationMillis());
+        report.getBusinessTypes().forEach((type, usage) ->
+                log.info("业务类型用量: {}，记录数={}，字节数={}", type, usage.getFiles(), usage.getBytes()));
+        return report;
+    }
+
+    /**
+     * 获取最近一次对账报告，尚未执行过时返回null
+     */
+    public FileStorageReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * 磁盘 → 数据库
+     */
+    private void scanDisk(Path baseDir, FileStorageReportDTO report) throws IOException {
+        if (!Files.isDirectory(baseDir)) {
+            return;
+        }
+        Path casTempDir = baseDir.resolve(ContentAddressedStorage.CONTENT_DIR).resolve(ContentAddressedStorage.TEMP_DIR);
+        Path chunkedDir = baseDir.resolve(chunkedUploadProperties.getDirectory());
+        Instant idleBefore = Instant.now().minus(Duration.ofMinutes(orphanGraceMinutes));
+        List<DiskFile> batch = new ArrayList<>(properties.getBatchSize());
+
+        Files.walkFileTree(baseDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                // 未完成的分片上传由过期上传清理处理
+                return dir.equals(chunkedDir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                boolean idle = attrs.lastModifiedTime().toInstant().isBefore(idleBefore);
+                if (file.startsWith(casTempDir)) {
+                    // 进程中断遗留的未完成写入
+                    if (idle) {
+                        deleteQuietly(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+                report.setDiskBytes(report.getDiskBytes() + attrs.size());
+                if (ContentAddressedStorage.isDerivedFromExisting(file)) {
+                    report.setDerivedBytes(report.getDerivedBytes() + attrs.size());
+                    return FileVisitResult.CONTINUE;
+                }
+                report.setDiskFiles(report.getDiskFiles() + 1);
+                String filePath = "/files/" + baseDir.relativize(file).toString().replace('\\', '/');
+                batch.add(new DiskFile(filePath, attrs.size(), idle));
+                if (batch.size() >= properties.getBatchSize()) {
+                    processDiskBatch(baseDir, batch, report);
+                    batch.clear();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                log.warn("读取文件失败，跳过: {}，错误: {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (!batch.isEmpty()) {
+            processDiskBatch(baseDir, batch, report);
+        }
+    }
+
+    private void processDiskBatch(Path baseDir, List<DiskFile> batch, FileStorageReportDTO report) {
+        LambdaQueryWrapper<SysFileInfo> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.select(SysFileInfo::getFilePath)
+                .in(SysFileInfo::getFilePath, batch.stream().map(DiskFile::filePath).toList())
+                .eq(SysFileInfo::getStatus, 1);
+        Set<String> referenced = fileInfoMapper.selectList(queryWrapper).stream()
+                .map(SysFileInfo::getFilePath)
+                .collect(Collectors.toSet());
+
+        Duration grace = Duration.ofMinutes(orphanGraceMinutes);
+        boolean deletedInBatch = false;
+        for (DiskFile file : batch) {
+            if (referenced.contains(file.filePath())) {
+                continue;
+            }
+            if (!ContentAddressedStorage.isContentPath(file.filePath())) {
+                report.setUnregisteredFiles(report.getUnregisteredFiles() + 1);
+                report.setUnregisteredBytes(report.getUnregisteredBytes() + file.size());
+                addSample(report.getUnregisteredSamples(), file.filePath());
+                continue;
+            }
+            if (file.idle() && properties.isDeleteOrphans()
+                    && report.getDeletedFiles() < properties.getMaxDeletesPerRun()
+                    && ContentAddressedStorage.deleteIfIdle(baseDir, file.filePath(), grace)) {
+                report.setDeletedFiles(report.getDeletedFiles() + 1);
+                report.setDeletedBytes(report.getDeletedBytes() + file.size());
+                deletedInBatch = true;
+                continue;
+            }
+            report.setOrphanContentFiles(report.getOrphanContentFiles() + 1);
+            report.setOrphanContentBytes(report.getOrphanContentBytes() + file.size());
+        }
+        if (deletedInBatch) {
+            pause();
+        }
+    }
+
+    /**
+     * 数据库 → 磁盘
+     */
+    private void scanRecords(Path baseDir, FileStorageReportDTO report) {
+        long lastId = 0;
+        String lastCheckedPath = null;
+        boolean lastExists = true;
+        while (true) {
+            LambdaQueryWrapper<SysFileInfo> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.select(SysFileInfo::getId, SysFileInfo::getFilePath, SysFileInfo::getFileSize,
+                            SysFileInfo::getBusinessType)
+                    .eq(SysFileInfo::getStatus, 1)
+                    .gt(SysFileInfo::getId, lastId)
+                    .orderByAsc(SysFileInfo::getId)
+                    .last("LIMIT " + properties.getBatchSize());
+            List<SysFileInfo> records = fileInfoMapper.selectList(queryWrapper);
+            for (SysFileInfo record : records) {
+                report.setRecordCount(report.getRecordCount() + 1);
+                FileStorageReportDTO.BusinessTypeUsage usage = report.getBusinessTypes().computeIfAbsent(
+                        StrUtil.blankToDefault(record.getBusinessType(), "UNKNOWN"),
+                        type -> new FileStorageReportDTO.BusinessTypeUsage());
+                usage.setFiles(usage.getFiles() + 1);
+                usage.setBytes(usage.getBytes() + (record.getFileSize() == null ? 0 : record.getFileSize()));
+
+                // 相同内容的记录常相邻（同一批上传），复用上一次的检查结果
+                if (!Objects.equals(record.getFilePath(), lastCheckedPath)) {
+                    lastCheckedPath = record.getFilePath();
+                    lastExists = StrUtil.isNotBlank(lastCheckedPath) && Files.isRegularFile(
+                            baseDir.resolve(FileUtil.convertToRelativePath(lastCheckedPath)));
+                }
+                if (!lastExists) {
+                    report.setMissingFiles(report.getMissingFiles() + 1);
+                    addSample(report.getMissingSamples(), record.getFilePath());
+                }
+            }
+            if (records.size() < properties.getBatchSize()) {
+                return;
+            }
+            lastId = records.get(records.size() - 1).getId();
+        }
+    }
+
+    private void addSample(List<String> samples, String filePath) {
+        if (samples.size() < properties.getSampleSize()) {
+            samples.add(filePath);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除残留临时文件失败: {}，错误: {}", file, e.getMessage());
+        }
+    }
+
+    private void pause() {
+        if (properties.getPauseMillis() <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(properties.getPauseMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 磁盘文件
+     *
+     * @param filePath 访问路径
+     * @param size     字节数
+     * @param idle     是否已超过宽限期未被写入
+     */
+    private record DiskFile(String filePath, long size, boolean idle) {
+    }
+}
@@ -0,0 +1,196 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.config.ImageDerivativeProperties;
+import org.example.springboot.exception.BusinessException;
+import org.example.springboot.util.FileUtil;
+import org.example.springboot.util.ImageDerivativeUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 图片衍生图服务
+ * 按配置的宽度把原图缩放并重新编码为 JPEG，写在原图旁边作为磁盘缓存；
+ * 同一衍生图同时只由一个线程生成，其余请求等待同一结果
+ * @author system
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    @Resource
+    private ImageDerivativeProperties properties;
+
+    @Autowired
+    @Qualifier("maintenanceExecutor")
+    private Executor maintenanceExecutor;
+
+    /**
+     * 正在生成的衍生图，键为衍生图物理路径
+     */
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 获取衍生图，不存在时生成；原图不是可处理的图片或本身不超过目标宽度时返回原图
+     *
+     * @param source 原图物理路径
+     * @param size   尺寸名称
+     * @return 应输出的文件
+     */
+    public Path getOrCreate(Path source, String size) throws IOException {
+        Integer width = properties.getSizes().get(size);
+        if (width == null) {
+            throw new BusinessException("不支持的图片尺寸: " + size);
+        }
+        if (!properties.isEnabled() || !ImageDerivativeUtils.isSupportedImage(source.getFileName().toString())) {
+            return source;
+        }
+        Path target = source.resolveSibling(ImageDerivativeUtils.derivativeFileName(source.getFileName().toString(), size));
+        if (isGenerated(target)) {
+            return target;
+        }
+
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(target.toString(), mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            Path result = isGenerated(target) ? target : generate(source, target, width);
+            mine.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(target.toString(), mine);
+        }
+    }
+
+    /**
+     * 上传后在维护线程池中预生成全部尺寸，失败只记录日志（访问时会再次尝试）
+     *
+     * @param filePath 原图访问路径
+     */
+    public void pregenerate(String filePath) {
+        if (!properties.isEnabled() || !ImageDerivativeUtils.isSupportedImage(filePath)) {
+            return;
+        }
+        Path source = Paths.get(FileUtil.FILE_BASE_PATH, FileUtil.convertToRelativePath(filePath));
+        maintenanceExecutor.execute(() -> {
+            for (String size : properties.getSizes().keySet()) {
+                try {
+                    getOrCreate(source, size);
+                } catch (Exception e) {
+                    log.warn("预生成衍生图失败: 路径={}, 尺寸={}, 错误={}", filePath, size, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * 是否需要为该业务类型预生成衍生图
+     */
+    public boolean shouldPregenerate(String businessType) {
+        return properties.getPregenerateBusinessTypes().contains(businessType);
+    }
+
+    private Path generate(Path source, Path target, int width) throws IOException {
+        long start = System.currentTimeMillis();
+        int[] dimensions = readDimensions(source);
+        if (dimensions == null) {
+            return source;
+        }
+        if ((long) dimensions[0] * dimensions[1] > properties.getMaxSourcePixels()) {
+            log.warn("原图像素过大，不生成衍生图: {}，尺寸: {}x{}", source, dimensions[0], dimensions[1]);
+            return source;
+        }
+        if (dimensions[0] <= width) {
+            // 不放大；原图已足够小
+            return source;
+        }
+
+        BufferedImage image = ImageIO.read(source.toFile());
+        if (image == null) {
+            return source;
+        }
+        BufferedImage resized = ImageDerivativeUtils.resize(image, width);
+
+        // 先写临时文件再原子替换，避免并发读取到写了一半的图片
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            ImageDerivativeUtils.writeJpeg(resized, properties.getQuality(), out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.info("生成衍生图: {}，{}x{} -> {}x{}，{} -> {} 字节，耗时 {}ms", target.getFileName(),
+                dimensions[0], dimensions[1], resized.getWidth(), resized.getHeight(),
+                Files.size(source), Files.size(target), System.currentTimeMillis() - start);
+        return target;
+    }
+
+    /**
+     * 只读取图片头获取宽高，不解码像素
+     */
+    private int[] readDimensions(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 上传文件的内容不会被原地修改（内容存储按哈希命名，旧文件按时间戳命名），衍生图存在即可复用
+     */
+    private boolean isGenerated(Path target) {
+        return Files.isRegularFile(target);
+    }
+
+    private Path await(CompletableFuture<Path> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new UncheckedIOException(new IOException(e.getCause()));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.exception.BusinessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * 会话消息序号分配器
+ * 在 consultation_session.message_seq 上用单条 UPDATE 原子自增：LAST_INSERT_ID(expr) 把自增后的值记为本连接的
+ * last insert id，随 UPDATE 的响应一起返回，JDBC 以生成键的形式读取，无需再查询一次；
+ * 并发写入同一会话的消息在行锁上排队，不会拿到相同序号。
+ * 只更新未删除的会话：会话不存在或已被逻辑删除时不分配序号
+ */
+@Slf4j
+@Component
+public class MessageSeqAllocator {
+
+    private static final String NEXT_SEQ_SQL =
+            "UPDATE consultation_session SET message_seq = LAST_INSERT_ID(message_seq + 1) WHERE id = ? AND deleted = 0";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 为会话分配下一个消息序号
+     * 挂起外层事务，UPDATE 自动提交，行锁不会持有到外层事务结束，序号也不随外层事务回滚（允许出现空洞，只要求单调）
+     *
+     * @param sessionId 会话ID
+     * @return 新分配的序号，从1开始
+     * @throws BusinessException 会话不存在或已删除
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long next(Long sessionId) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int updated = jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(NEXT_SEQ_SQL, Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, sessionId);
+            return ps;
+        }, keyHolder);
+        if (updated == 0) {
+            throw new BusinessException("会话不存在");
+        }
+
+        Number key = keyHolder.getKey();
+        if (key == null) {
+            throw new IllegalStateException("分配消息序号失败，未返回序号，会话ID: " + sessionId);
+        }
+        long seq = key.longValue();
+        log.debug("分配消息序号，会话ID: {}, seq: {}", sessionId, seq);
+        return seq;
+    }
+}
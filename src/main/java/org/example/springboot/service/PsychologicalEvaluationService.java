@@ -2,8 +2,11 @@ package org.example.springboot.service;
 
 import org.example.springboot.DTO.request.EvaluationSubmitDTO;
 import org.example.springboot.DTO.response.AssessmentScaleDTO;
+import org.example.springboot.DTO.response.EvaluationHistoryDTO;
 import org.example.springboot.DTO.response.EvaluationQuestionDTO;
 import org.example.springboot.DTO.response.EvaluationResultDTO;
+import reactor.core.publisher.Flux;
+
 import java.util.List;
 
 /**
@@ -27,11 +30,37 @@ public interface PsychologicalEvaluationService {
      */
     EvaluationResultDTO submitEvaluation(Long userId, EvaluationSubmitDTO submitDTO);
 
+    /**
+     * 获取当前用户的单条测评结果，AI解读生成中时返回已生成的部分
+     *
+     * @param userId   当前用户ID
+     * @param recordId 测评记录ID
+     */
+    EvaluationResultDTO getEvaluationResult(Long userId, Integer recordId);
+
+    /**
+     * 订阅当前用户测评记录的AI解读片段流，本实例未在生成时为空流
+     *
+     * @param userId   当前用户ID
+     * @param recordId 测评记录ID
+     */
+    Flux<String> streamEvaluationAnalysis(Long userId, Integer recordId);
+
     /**
      * 获取用户的测评记录
      */
     List<EvaluationResultDTO> getUserEvaluationRecords(Long userId);
 
+    /**
+     * 按记录ID游标分页获取用户的测评历史（最新在前）
+     *
+     * @param userId       用户ID
+     * @param evaluationId 量表ID，为空时不限
+     * @param beforeId     游标，返回ID小于它的记录；为空时返回最新一页
+     * @param limit        每页条数
+     */
+    EvaluationHistoryDTO getUserEvaluationHistory(Long userId, Long evaluationId, Integer beforeId, int limit);
+
     /**
      * 获取用户某个测评的最新结果
      */
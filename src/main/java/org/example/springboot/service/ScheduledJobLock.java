@@ -0,0 +1,75 @@
+package org.example.springboot.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 定时任务租约锁（基于数据库）
+ * 每个任务在 scheduled_job_lock 中占一行，locked_until 之前由持有者独占；加锁通过带条件的 UPDATE 完成，
+ * 首次加锁时插入该行，主键冲突说明其他节点已抢先插入。时间一律取数据库时间，避免各节点时钟偏差。
+ *
+ * 持有者宕机时锁在 lockAtMost 后自动失效；正常结束时锁至少保持到 lockAtLeast，
+ * 防止各节点触发时间略有差异时，执行很快的任务被另一个节点在同一周期内重复执行
+ */
+@Slf4j
+@Component
+public class ScheduledJobLock {
+
+    private static final String ACQUIRE_SQL = "UPDATE scheduled_job_lock "
+            + "SET locked_by = ?, locked_at = NOW(3), locked_until = TIMESTAMPADD(MICROSECOND, ?, NOW(3)) "
+            + "WHERE job_name = ? AND locked_until <= NOW(3)";
+
+    private static final String INSERT_SQL = "INSERT INTO scheduled_job_lock (job_name, locked_by, locked_at, locked_until) "
+            + "VALUES (?, ?, NOW(3), TIMESTAMPADD(MICROSECOND, ?, NOW(3)))";
+
+    private static final String RELEASE_SQL = "UPDATE scheduled_job_lock "
+            + "SET locked_until = GREATEST(NOW(3), TIMESTAMPADD(MICROSECOND, ?, locked_at)) "
+            + "WHERE job_name = ? AND locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduledJobLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 尝试获取任务锁
+     *
+     * @param jobName   任务名称
+     * @param owner     持有者（节点标识）
+     * @param lockAtMost 最长持有时间，超过后视为持有者失效
+     * @return 是否获得锁
+     */
+    public boolean tryAcquire(String jobName, String owner, Duration lockAtMost) {
+        long micros = lockAtMost.toNanos() / 1000;
+        if (jdbcTemplate.update(ACQUIRE_SQL, owner, micros, jobName) > 0) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update(INSERT_SQL, jobName, owner, micros) > 0;
+        } catch (DuplicateKeyException e) {
+            // 锁记录已存在且未过期，由其他节点持有
+            return false;
+        }
+    }
+
+    /**
+     * 释放任务锁；锁已过期并被其他节点取得时不做任何修改
+     *
+     * @param jobName     任务名称
+     * @param owner       持有者（节点标识）
+     * @param lockAtLeast 自加锁起最短持有时间
+     */
+    public void release(String jobName, String owner, Duration lockAtLeast) {
+        try {
+            jdbcTemplate.update(RELEASE_SQL, lockAtLeast.toNanos() / 1000, jobName, owner);
+        } catch (Exception e) {
+            // 释放失败时锁会在 lockAtMost 后自动过期
+            log.warn("释放定时任务锁失败: 任务={}, 错误={}", jobName, e.getMessage());
+        }
+    }
+}
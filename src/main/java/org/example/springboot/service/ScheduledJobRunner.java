@@ -0,0 +1,175 @@
+package org.example.springboot.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.springboot.config.ScheduledJobProperties;
+import org.example.springboot.entity.ScheduledJobRun;
+import org.example.springboot.enumClass.ScheduledJobStatus;
+import org.example.springboot.mapper.ScheduledJobRunMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时任务执行器
+ * 各 @Scheduled 方法把任务体交给 run 执行：先获取租约锁（未获得则跳过本次），再登记执行记录、
+ * 计时执行并写回结果与耗时，最后释放锁。任务体返回的字符串作为结果摘要保存
+ */
+@Slf4j
+@Component
+public class ScheduledJobRunner {
+
+    /**
+     * 结果与错误信息的最大长度（截断时追加省略号，列宽 500）
+     */
+    private static final int MAX_TEXT_LENGTH = 490;
+
+    private static final String HISTORY_CLEANUP_JOB = "scheduled-job-history-cleanup";
+
+    private final ScheduledJobLock scheduledJobLock;
+    private final ScheduledJobRunMapper scheduledJobRunMapper;
+    private final ScheduledJobProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+
+    public ScheduledJobRunner(ScheduledJobLock scheduledJobLock,
+                              ScheduledJobRunMapper scheduledJobRunMapper,
+                              ScheduledJobProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.scheduledJobLock = scheduledJobLock;
+        this.scheduledJobRunMapper = scheduledJobRunMapper;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = StrUtil.isNotBlank(properties.getNodeId())
+                ? properties.getNodeId()
+                : ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    /**
+     * 在集群内互斥地执行一次任务
+     *
+     * @param jobName     任务名称（同时作为锁名称）
+     * @param lockAtMost  最长持有锁的时间，应大于任务的最长执行时间
+     * @param lockAtLeast 最短持有锁的时间，应大于各节点触发时间的偏差
+     * @param task        任务体，返回结果摘要
+     * @return 本节点是否执行了该任务
+     */
+    public boolean run(String jobName, Duration lockAtMost, Duration lockAtLeast, Callable<String> task) {
+        if (properties.isLockEnabled() && !scheduledJobLock.tryAcquire(jobName, nodeId, lockAtMost)) {
+            Counter.builder("scheduled.job.skipped")
+                    .description("因其他节点持有锁而跳过的定时任务次数")
+                    .tag("job", jobName)
+                    .register(meterRegistry)
+                    .increment();
+            log.debug("定时任务 {} 正由其他节点执行，本节点跳过", jobName);
+            return false;
+        }
+
+        ScheduledJobRun run = null;
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            run = startRun(jobName);
+            log.info("定时任务开始: {}，节点: {}", jobName, nodeId);
+            String result = task.call();
+            finishRun(run, ScheduledJobStatus.SUCCEEDED, result, null, start);
+            log.info("定时任务完成: {}，耗时 {}ms，结果: {}", jobName, elapsedMillis(start), result);
+        } catch (Exception e) {
+            outcome = "failure";
+            log.error("定时任务失败: {}，耗时 {}ms，错误: {}", jobName, elapsedMillis(start), e.getMessage(), e);
+            finishRun(run, ScheduledJobStatus.FAILED, null, e.getMessage(), start);
+        } finally {
+            Timer.builder("scheduled.job.duration")
+                    .description("定时任务执行耗时")
+                    .tag("job", jobName)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (properties.isLockEnabled()) {
+                scheduledJobLock.release(jobName, nodeId, lockAtLeast);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 分页查询执行记录
+     *
+     * @param jobName 任务名称，为空时查询全部
+     * @param status  执行状态，为空时查询全部
+     */
+    public Page<ScheduledJobRun> getRuns(String jobName, String status, int currentPage, int size) {
+        LambdaQueryWrapper<ScheduledJobRun> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(StrUtil.isNotBlank(jobName), ScheduledJobRun::getJobName, jobName)
+                    .eq(StrUtil.isNotBlank(status), ScheduledJobRun::getStatus, status)
+                    .orderByDesc(ScheduledJobRun::getId);
+        return scheduledJobRunMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
+    }
+
+    /**
+     * 清理过期的执行记录
+     * 每天凌晨4点执行
+     */
+    @Scheduled(cron = "0 0 4 * * ?")
+    public void cleanupHistory() {
+        run(HISTORY_CLEANUP_JOB, Duration.ofMinutes(30), Duration.ofMinutes(5), () -> {
+            LambdaQueryWrapper<ScheduledJobRun> deleteWrapper = new LambdaQueryWrapper<>();
+            deleteWrapper.lt(ScheduledJobRun::getStartedAt,
+                    LocalDateTime.now().minusDays(properties.getHistoryRetentionDays()));
+            return "删除执行记录 " + scheduledJobRunMapper.delete(deleteWrapper) + " 条";
+        });
+    }
+
+    /**
+     * 登记执行记录；持有锁时仍为执行中的旧记录说明上次执行的节点已中断，一并标记为失败
+     */
+    private ScheduledJobRun startRun(String jobName) {
+        LambdaUpdateWrapper<ScheduledJobRun> staleWrapper = new LambdaUpdateWrapper<>();
+        staleWrapper.eq(ScheduledJobRun::getJobName, jobName)
+                    .eq(ScheduledJobRun::getStatus, ScheduledJobStatus.RUNNING.getCode())
+                    .set(ScheduledJobRun::getStatus, ScheduledJobStatus.FAILED.getCode())
+                    .set(ScheduledJobRun::getErrorMessage, "执行中断（节点退出或锁超时）");
+        scheduledJobRunMapper.update(null, staleWrapper);
+
+        ScheduledJobRun run = new ScheduledJobRun();
+        run.setJobName(jobName);
+        run.setNodeId(nodeId);
+        run.setStatus(ScheduledJobStatus.RUNNING.getCode());
+        run.setStartedAt(LocalDateTime.now());
+        scheduledJobRunMapper.insert(run);
+        return run;
+    }
+
+    private void finishRun(ScheduledJobRun run, ScheduledJobStatus status, String result, String errorMessage, long start) {
+        if (run == null) {
+            return;
+        }
+        LambdaUpdateWrapper<ScheduledJobRun> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(ScheduledJobRun::getId, run.getId())
+                     .set(ScheduledJobRun::getStatus, status.getCode())
+                     .set(ScheduledJobRun::getResult, StrUtil.maxLength(result, MAX_TEXT_LENGTH))
+                     .set(ScheduledJobRun::getErrorMessage, StrUtil.maxLength(errorMessage, MAX_TEXT_LENGTH))
+                     .set(ScheduledJobRun::getFinishedAt, LocalDateTime.now())
+                     .set(ScheduledJobRun::getDurationMillis, elapsedMillis(start));
+        try {
+            scheduledJobRunMapper.update(null, updateWrapper);
+        } catch (Exception e) {
+            log.error("记录定时任务结果失败: 任务={}, 错误={}", run.getJobName(), e.getMessage());
+        }
+    }
+
+    private long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
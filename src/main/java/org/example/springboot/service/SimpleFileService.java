@@ -3,6 +3,7 @@ package org.example.springboot.service;
 import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.example.springboot.DTO.FileInfoDTO;
+import org.example.springboot.DTO.MultiFileUploadResultDTO;
 import org.example.springboot.DTO.SimpleFileInfoDTO;
 import org.example.springboot.common.Result;
 import org.example.springboot.common.ResultCode;
@@ -20,6 +21,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * 简单文件上传服务
@@ -31,7 +35,8 @@ import java.util.List;
 @Service
 public class SimpleFileService {
 
-
+    @Resource(name = "fileIoExecutor")
+    private Executor fileIoExecutor;
 
     /**
      * 简单图片上传
@@ -68,33 +73,54 @@ public class SimpleFileService {
 
     /**
      * 批量文件上传
+     * 各文件在 fileIoExecutor 上并发校验和写盘，文件名由 FileUtil 原子占用，并发写入同一目录不会互相覆盖；
+     * 结果按提交顺序返回，单个文件失败不影响其他文件
      */
-    public Result<List<String>> uploadMultipleFiles(MultipartFile[] files, String fileType) {
+    public Result<MultiFileUploadResultDTO> uploadMultipleFiles(MultipartFile[] files, String fileType) {
         if (files == null || files.length == 0) {
             return Result.error(ResultCode.PARAM_ERROR.code(), "未选择文件");
         }
 
-        List<String> uploadedFiles = new ArrayList<>();
-        List<String> failedFiles = new ArrayList<>();
-
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Result<String>>> futures = new ArrayList<>(files.length);
         for (MultipartFile file : files) {
-            Result<String> result = uploadSimpleFile(file, fileType);
-            if (result.isSuccess()) {
-                uploadedFiles.add(result.getData());
+            futures.add(CompletableFuture.supplyAsync(() -> uploadSimpleFile(file, fileType), fileIoExecutor)
+                    .exceptionally(e -> Result.error(ResultCode.ERROR.code(), "文件上传失败：" + e.getMessage())));
+        }
+
+        MultiFileUploadResultDTO result = new MultiFileUploadResultDTO();
+        for (int i = 0; i < files.length; i++) {
+            Result<String> uploadResult = futures.get(i).join();
+            MultiFileUploadResultDTO.Item item = new MultiFileUploadResultDTO.Item();
+            item.setIndex(i);
+            item.setOriginalName(files[i].getOriginalFilename());
+            item.setSize(files[i].getSize());
+            item.setSuccess(uploadResult.isSuccess());
+            if (uploadResult.isSuccess()) {
+                item.setFilePath(uploadResult.getData());
+                result.setSuccessCount(result.getSuccessCount() + 1);
+                result.setTotalBytes(result.getTotalBytes() + item.getSize());
             } else {
-                failedFiles.add(file.getOriginalFilename() + ": " + result.getMessage());
-                log.error("文件上传失败：{}，原因：{}", file.getOriginalFilename(), result.getMessage());
+                item.setMessage(uploadResult.getMessage());
+                result.setFailedCount(result.getFailedCount() + 1);
+                log.error("文件上传失败：{}，原因：{}", item.getOriginalName(), item.getMessage());
             }
+            result.getItems().add(item);
         }
 
-        if (uploadedFiles.isEmpty()) {
-            return Result.error(ResultCode.ERROR.code(), "所有文件上传失败：" + String.join("; ", failedFiles));
-        } else if (!failedFiles.isEmpty()) {
-            log.warn("部分文件上传失败：{}", String.join("; ", failedFiles));
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        result.setElapsedMillis(elapsed);
+        result.setBytesPerSecond(result.getTotalBytes() * 1000 / elapsed);
+
+        if (result.getSuccessCount() == 0) {
+            return Result.error(ResultCode.ERROR.code(), "所有文件上传失败：" + result.getItems().stream()
+                    .map(item -> item.getOriginalName() + ": " + item.getMessage())
+                    .collect(Collectors.joining("; ")));
         }
 
-        log.info("批量文件上传完成，成功：{}个，失败：{}个", uploadedFiles.size(), failedFiles.size());
-        return Result.success(uploadedFiles);
+        log.info("批量文件上传完成，成功：{}个，失败：{}个，共 {} 字节，耗时 {}ms",
+                result.getSuccessCount(), result.getFailedCount(), result.getTotalBytes(), elapsed);
+        return Result.success(result);
     }
 
     /**
@@ -18,11 +18,15 @@ import java.util.HashMap;
 import java.util.HashMap;
 import java.util.stream.Collectors;
 
+import org.example.springboot.entity.ConsultationSession;
+import org.example.springboot.entity.DeletionJob;
 import org.example.springboot.entity.User;
+import org.example.springboot.mapper.ConsultationSessionMapper;
 import org.example.springboot.mapper.UserMapper;
 import org.example.springboot.DTO.command.*;
 import org.example.springboot.DTO.query.*;
 import org.example.springboot.DTO.response.*;
+import org.example.springboot.enumClass.DeletionTargetType;
 import org.example.springboot.enumClass.UserType;
 import org.example.springboot.enumClass.UserStatus;
 import org.example.springboot.exception.BusinessException;
@@ -42,6 +46,12 @@ public class UserService {
     @Resource
     private UserMapper userMapper;
 
+    @Resource
+    private DeletionJobService deletionJobService;
+
+    @Resource
+    private ConsultationSessionMapper consultationSessionMapper;
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     /**
@@ -345,8 +355,13 @@ public class UserService {
                 throw new BusinessException("不能删除管理员账号");
             }
 
+            // 用户记录立即删除（无法再登录），会话在同一事务中标记删除，立即从列表和查询中消失；
+            // 消息、日记、收藏、AI任务和文件以及已标记的会话记录由后台任务分块清理
             userMapper.deleteById(userId);
-            log.info("用户删除成功: {}", user.getUsername());
+            consultationSessionMapper.delete(new LambdaQueryWrapper<ConsultationSession>()
+                    .eq(ConsultationSession::getUserId, userId));
+            DeletionJob job = deletionJobService.submit(DeletionTargetType.USER, userId, JwtTokenUtils.getCurrentUserId());
+            log.info("用户删除成功: {}，关联数据删除任务ID: {}", user.getUsername(), job.getId());
 
         } catch (BusinessException e) {
             throw e;
@@ -6,6 +6,7 @@ import org.example.springboot.DTO.response.ArticleResponseDTO;
 import org.example.springboot.DTO.response.ArticleSimpleResponseDTO;
 import org.example.springboot.entity.KnowledgeArticle;
 import org.example.springboot.enumClass.ArticleStatus;
+import org.example.springboot.util.ImageDerivativeUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,6 +18,11 @@ import java.util.stream.Collectors;
  */
 public class ArticleConvert {
 
+    /**
+     * 列表中封面使用的衍生图尺寸
+     */
+    private static final String THUMBNAIL_SIZE = "thumb";
+
     /**
      * 创建命令DTO转换为实体
      * @param createDTO 创建命令DTO
@@ -116,6 +122,7 @@ public class ArticleConvert {
                 .title(article.getTitle())
                 .summary(article.getAutoSummary()) // 使用自动摘要
                 .coverImage(article.getCoverImage())
+                .coverThumbnail(ImageDerivativeUtils.derivativeUrl(article.getCoverImage(), THUMBNAIL_SIZE))
                 .tags(article.getTags())
                 .authorName(authorName)
                 .readCount(article.getReadCount())
@@ -150,6 +157,7 @@ public class ArticleConvert {
                 .title(article.getTitle())
                 .summary(article.getAutoSummary()) // 使用自动摘要
                 .coverImage(article.getCoverImage())
+                .coverThumbnail(ImageDerivativeUtils.derivativeUrl(article.getCoverImage(), THUMBNAIL_SIZE))
                 .tags(article.getTags())
                 .authorName(authorName)
                 .readCount(article.getReadCount())
@@ -184,6 +192,7 @@ public class ArticleConvert {
                 .title(article.getTitle())
                 .summary(article.getAutoSummary()) // 使用自动摘要
                 .coverImage(article.getCoverImage())
+                .coverThumbnail(ImageDerivativeUtils.derivativeUrl(article.getCoverImage(), THUMBNAIL_SIZE))
                 .tags(article.getTags())
                 .authorName(authorName)
                 .readCount(article.getReadCount())
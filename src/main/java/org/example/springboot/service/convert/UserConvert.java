@@ -7,6 +7,7 @@ import org.example.springboot.DTO.response.UserLoginResponseDTO;
 
 import org.example.springboot.entity.User;
 import org.example.springboot.enumClass.UserStatus;
+import org.example.springboot.util.ImageDerivativeUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,6 +19,11 @@ import java.util.Map;
  */
 public class UserConvert {
 
+    /**
+     * 头像列表展示使用的衍生图尺寸
+     */
+    private static final String THUMBNAIL_SIZE = "thumb";
+
     /**
      * 注册命令DTO转换为User实体
      * @param registerDTO 注册命令DTO
@@ -52,6 +58,7 @@ public class UserConvert {
                 .email(user.getEmail())
                 .nickname(user.getNickname())
                 .avatar(user.getAvatar())
+                .avatarThumbnail(ImageDerivativeUtils.derivativeUrl(user.getAvatar(), THUMBNAIL_SIZE))
                 .phone(user.getPhone())
                 .gender(user.getGender())
                 .genderDisplayName(getGenderDisplayName(user.getGender()))
@@ -4,29 +4,32 @@ import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import lombok.extern.slf4j.Slf4j;
-import org.example.springboot.DTO.request.EvaluationAnswerDTO;
 import org.example.springboot.DTO.request.EvaluationSubmitDTO;
 import org.example.springboot.DTO.response.AssessmentScaleDTO;
+import org.example.springboot.DTO.response.EvaluationHistoryDTO;
 import org.example.springboot.DTO.response.EvaluationQuestionDTO;
 import org.example.springboot.DTO.response.EvaluationResultDTO;
+import org.example.springboot.config.TransactionGuard;
 import org.example.springboot.entity.AssessmentResult;
 import org.example.springboot.entity.AssessmentScale;
-import org.example.springboot.entity.PsychologicalEvaluationQuestion;
+import org.example.springboot.enumClass.EvaluationAnalysisStatus;
 import org.example.springboot.exception.BusinessException;
 import org.example.springboot.mapper.AssessmentResultMapper;
-import org.example.springboot.mapper.AssessmentScaleMapper;
-import org.example.springboot.mapper.PsychologicalEvaluationQuestionMapper;
+import org.example.springboot.service.AssessmentScaleCatalog;
+import org.example.springboot.service.EvaluationNarrativeService;
 import org.example.springboot.service.PsychologicalEvaluationService;
-import org.springframework.ai.chat.client.ChatClient;
+import org.example.springboot.service.ScheduledJobRunner;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 心理测评服务实现
@@ -36,55 +39,44 @@ import java.util.stream.Collectors;
 @Service
 public class PsychologicalEvaluationServiceImpl implements PsychologicalEvaluationService {
 
-    @Autowired
-    private PsychologicalEvaluationQuestionMapper questionMapper;
+    /**
+     * 测评历史每页最大条数
+     */
+    private static final int MAX_HISTORY_PAGE_SIZE = 50;
+
+    private static final String INTERRUPTED_ANALYSIS_JOB = "evaluation-analysis-interrupted";
+
+    private static final String FALLBACK_ANALYSIS_PREFIX = "系统暂时无法生成详细分析，请稍后再试。您的测评得分为：";
 
     @Autowired
     private AssessmentResultMapper resultMapper;
 
     @Autowired
-    private AssessmentScaleMapper scaleMapper;
+    private AssessmentScaleCatalog scaleCatalog;
 
     @Autowired
-    private ChatClient chatClient;
+    private EvaluationNarrativeService narrativeService;
+
+    @Autowired
+    private ScheduledJobRunner scheduledJobRunner;
 
     @Override
     public List<AssessmentScaleDTO> getEvaluationList() {
         log.info("获取测评量表列表");
-        // 查询启用的量表
-        List<AssessmentScale> scales = scaleMapper.selectList(
-                new LambdaQueryWrapper<AssessmentScale>()
-                        .eq(AssessmentScale::getStatus, "启用")
-        );
-        return scales.stream().map(scale -> {
-            AssessmentScaleDTO dto = new AssessmentScaleDTO();
-            BeanUtil.copyProperties(scale, dto);
-            return dto;
-        }).collect(Collectors.toList());
+        return scaleCatalog.getEnabledScales();
     }
 
     @Override
     public List<EvaluationQuestionDTO> getEvaluationQuestions(Long evaluationId) {
         log.info("获取测评题目，evaluationId: {}", evaluationId);
-        if (evaluationId == null) {
-            throw new BusinessException("测评ID不能为空");
-        }
-
-        List<PsychologicalEvaluationQuestion> questions = questionMapper.selectByEvaluationId(evaluationId);
-        if (questions.isEmpty()) {
-            throw new BusinessException("该测评暂无题目");
-        }
-
-        return questions.stream().map(question -> {
-            EvaluationQuestionDTO dto = new EvaluationQuestionDTO();
-            BeanUtil.copyProperties(question, dto);
-            dto.setOptions(JSONUtil.parseArray(question.getOptions()).toList(String.class));
-            return dto;
-        }).collect(Collectors.toList());
+        return scaleCatalog.requireAnswerableScale(evaluationId).getQuestions();
     }
 
+    /**
+     * 得分与风险等级在本地计算后立即返回，AI解读在后台生成，完成后写回记录
+     * 不开启事务：计分只读内存目录，插入测评记录后再登记解读任务
+     */
     @Override
-    @Transactional
     public EvaluationResultDTO submitEvaluation(Long userId, EvaluationSubmitDTO submitDTO) {
         log.info("用户提交测评，userId: {}, evaluationId: {}", userId, submitDTO.getEvaluationId());
 
@@ -92,36 +84,89 @@ public class PsychologicalEvaluationServiceImpl implements PsychologicalEvaluati
             throw new BusinessException("用户ID不能为空");
         }
 
-        // 获取测评量表信息
-        AssessmentScale scale = scaleMapper.selectById(submitDTO.getEvaluationId());
-        if (scale == null || !scale.isEnabled()) {
-            throw new BusinessException("测评量表不存在或已禁用");
-        }
-
-        // 获取题目列表
-        List<PsychologicalEvaluationQuestion> questions = questionMapper.selectByEvaluationId(submitDTO.getEvaluationId());
-        if (questions.isEmpty()) {
-            throw new BusinessException("该测评暂无题目");
-        }
+        // 获取测评量表及题目（内存目录）
+        AssessmentScaleCatalog.CompiledScale compiledScale =
+                scaleCatalog.requireAnswerableScale(submitDTO.getEvaluationId());
+        AssessmentScale scale = compiledScale.getScale();
 
         // 1. 计算总分
-        int totalScore = calculateTotalScore(submitDTO.getAnswers(), questions);
-
-        // 2. 生成测评结果分析（调用AI）
-        String resultAnalysis = generateEvaluationAnalysis(submitDTO, totalScore, scale.getTestname());
+        int totalScore = compiledScale.score(submitDTO.getAnswers());
 
-        // 3. 评估风险等级
-        int riskLevel = evaluateRiskLevel(totalScore, scale.getTesttype(), resultAnalysis);
+        // 2. 按得分评估风险等级（通用量表依赖解读文本，解读完成后重新评估）
+        int riskLevel = evaluateRiskLevel(totalScore, scale.getTesttype(), "");
 
-        // 4. 保存测评记录
+        // 3. 保存测评记录，解读待生成
         AssessmentResult record = buildAssessmentResult(userId, submitDTO, totalScore,
-                resultAnalysis, riskLevel, scale);
+                "", riskLevel, scale);
+        record.setAnalysisStatus(EvaluationAnalysisStatus.PENDING.getCode());
         resultMapper.insert(record);
 
-        // 5. 构建并返回结果DTO
+        // 4. 后台生成测评结果分析（调用AI）
+        Integer recordId = record.getId();
+        String testType = scale.getTesttype();
+        TransactionGuard.runAfterCommit(() -> narrativeService.start(recordId,
+                buildAnalysisPrompt(totalScore, scale.getTestname()),
+                fallbackAnalysis(totalScore),
+                (analysis, succeeded) -> saveAnalysis(recordId, totalScore, testType, analysis, succeeded)));
+
+        // 5. 构建并返回结果DTO；线程池已满时解读已以默认文本结束并写回，返回写回后的记录
+        if (!narrativeService.isRunning(recordId)) {
+            AssessmentResult finished = resultMapper.selectById(recordId);
+            if (finished != null) {
+                record = finished;
+            }
+        }
         return convertToResultDTO(record, scale);
     }
 
+    @Override
+    public EvaluationResultDTO getEvaluationResult(Long userId, Integer recordId) {
+        AssessmentResult record = requireOwnRecord(userId, recordId);
+        AssessmentScaleCatalog.CompiledScale compiledScale = scaleCatalog.getScale(Long.parseLong(record.getTestid()));
+        if (compiledScale == null) {
+            throw new BusinessException("测评量表不存在");
+        }
+        EvaluationResultDTO dto = convertToResultDTO(record, compiledScale.getScale());
+        // 本实例正在生成时返回已生成的部分
+        String partial = narrativeService.getPartialContent(recordId);
+        if (partial != null && EvaluationAnalysisStatus.PENDING.getCode().equals(record.getAnalysisStatus())) {
+            dto.setResult(partial);
+        }
+        return dto;
+    }
+
+    @Override
+    public Flux<String> streamEvaluationAnalysis(Long userId, Integer recordId) {
+        requireOwnRecord(userId, recordId);
+        return narrativeService.stream(recordId);
+    }
+
+    /**
+     * 实例重启或宕机时中断的解读不会再完成，定期将超过最长排队加生成时间仍在生成中的记录标记为失败；
+     * 截止时间按线程池队列深度估算（见 EvaluationNarrativeService.maxPendingDuration），正常排队中的任务不会被误判。
+     * 经 ScheduledJobRunner 执行，多实例部署时同一时刻只有一个节点执行
+     * 每10分钟执行
+     */
+    @Scheduled(cron = "0 */10 * * * ?")
+    public void failInterruptedAnalyses() {
+        scheduledJobRunner.run(INTERRUPTED_ANALYSIS_JOB, Duration.ofMinutes(5), Duration.ofMinutes(1),
+                () -> "标记中断的测评解读 " + markInterruptedAnalysesFailed() + " 条");
+    }
+
+    private int markInterruptedAnalysesFailed() {
+        Date cutoff = new Date(System.currentTimeMillis() - narrativeService.maxPendingDuration().toMillis());
+        String deadline = DateUtil.formatDateTime(cutoff);
+        int count = resultMapper.update(null, new LambdaUpdateWrapper<AssessmentResult>()
+                .eq(AssessmentResult::getAnalysisStatus, EvaluationAnalysisStatus.PENDING.getCode())
+                .lt(AssessmentResult::getTesttime, deadline)
+                .set(AssessmentResult::getAnalysisStatus, EvaluationAnalysisStatus.FAILED.getCode())
+                .setSql("result = CONCAT('" + FALLBACK_ANALYSIS_PREFIX + "', score, '分。')"));
+        if (count > 0) {
+            log.warn("已将 {} 条中断的测评解读标记为失败", count);
+        }
+        return count;
+    }
+
     @Override
     public List<EvaluationResultDTO> getUserEvaluationRecords(Long userId) {
         log.info("获取用户测评记录，userId: {}", userId);
@@ -129,17 +174,56 @@ public class PsychologicalEvaluationServiceImpl implements PsychologicalEvaluati
             throw new BusinessException("用户ID不能为空");
         }
 
-        List<AssessmentResult> records = resultMapper.selectByUserId(String.valueOf(userId));
-        List<EvaluationResultDTO> resultList = new ArrayList<>();
+        List<AssessmentResult> records = resultMapper.selectList(new LambdaQueryWrapper<AssessmentResult>()
+                .eq(AssessmentResult::getUserId, userId)
+                .orderByDesc(AssessmentResult::getId));
+        return toResultDTOs(records);
+    }
 
-        for (AssessmentResult record : records) {
-            AssessmentScale scale = scaleMapper.selectById(Integer.parseInt(record.getTestid()));
-            if (scale != null) {
-                resultList.add(convertToResultDTO(record, scale));
-            }
+    /**
+     * 延迟关联：第一步只在 (user_id[, test_id], id) 索引上取本页记录ID，第二步按主键回表读取展示字段，
+     * 扫描量只与页大小有关，与用户历史记录总数无关；量表名称取自内存目录
+     */
+    @Override
+    public EvaluationHistoryDTO getUserEvaluationHistory(Long userId, Long evaluationId, Integer beforeId, int limit) {
+        log.info("分页获取用户测评历史，userId: {}, evaluationId: {}, beforeId: {}, limit: {}",
+                userId, evaluationId, beforeId, limit);
+        if (userId == null) {
+            throw new BusinessException("用户ID不能为空");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_HISTORY_PAGE_SIZE);
+
+        LambdaQueryWrapper<AssessmentResult> keyWrapper = new LambdaQueryWrapper<>();
+        keyWrapper.select(AssessmentResult::getId)
+                  .eq(AssessmentResult::getUserId, userId)
+                  .eq(evaluationId != null, AssessmentResult::getTestId, evaluationId)
+                  .lt(beforeId != null, AssessmentResult::getId, beforeId)
+                  .orderByDesc(AssessmentResult::getId)
+                  .last("LIMIT " + (pageSize + 1));
+        List<Integer> ids = resultMapper.selectList(keyWrapper).stream()
+                .map(AssessmentResult::getId)
+                .toList();
+
+        boolean hasMore = ids.size() > pageSize;
+        List<Integer> pageIds = ids.subList(0, Math.min(pageSize, ids.size()));
+
+        List<AssessmentResult> records = List.of();
+        if (!pageIds.isEmpty()) {
+            LambdaQueryWrapper<AssessmentResult> rowWrapper = new LambdaQueryWrapper<>();
+            rowWrapper.select(AssessmentResult::getId, AssessmentResult::getUid, AssessmentResult::getTestid,
+                              AssessmentResult::getScore, AssessmentResult::getResult,
+                              AssessmentResult::getAnalysisStatus, AssessmentResult::getTesttime,
+                              AssessmentResult::getRiskLevel, AssessmentResult::getSuggestions)
+                      .in(AssessmentResult::getId, pageIds)
+                      .orderByDesc(AssessmentResult::getId);
+            records = resultMapper.selectList(rowWrapper);
         }
 
-        return resultList;
+        EvaluationHistoryDTO history = new EvaluationHistoryDTO();
+        history.setRecords(toResultDTOs(records));
+        history.setHasMore(hasMore);
+        history.setNextBeforeId(hasMore ? pageIds.get(pageIds.size() - 1) : null);
+        return history;
     }
 
     @Override
@@ -149,58 +233,85 @@ public class PsychologicalEvaluationServiceImpl implements PsychologicalEvaluati
             throw new BusinessException("用户ID和测评ID不能为空");
         }
 
-        AssessmentResult record = resultMapper.selectLatestByUserAndTest(
-                String.valueOf(userId), String.valueOf(evaluationId));
-
+        // 只扫描 (user_id, test_id, id) 索引取最新记录ID，再按主键读取
+        AssessmentResult latest = resultMapper.selectOne(new LambdaQueryWrapper<AssessmentResult>()
+                .select(AssessmentResult::getId)
+                .eq(AssessmentResult::getUserId, userId)
+                .eq(AssessmentResult::getTestId, evaluationId)
+                .orderByDesc(AssessmentResult::getId)
+                .last("LIMIT 1"));
+        if (latest == null) {
+            return null;
+        }
+        AssessmentResult record = resultMapper.selectById(latest.getId());
         if (record == null) {
             return null;
         }
 
-        AssessmentScale scale = scaleMapper.selectById(evaluationId);
-        return convertToResultDTO(record, scale);
+        AssessmentScaleCatalog.CompiledScale compiledScale = scaleCatalog.getScale(evaluationId);
+        if (compiledScale == null) {
+            return null;
+        }
+        return convertToResultDTO(record, compiledScale.getScale());
     }
 
     /**
-     * 计算总分
+     * 转换记录列表，量表名称取自内存目录，量表已删除的记录跳过
      */
-    private int calculateTotalScore(List<EvaluationAnswerDTO> answers, List<PsychologicalEvaluationQuestion> questions) {
-        int totalScore = 0;
+    private List<EvaluationResultDTO> toResultDTOs(List<AssessmentResult> records) {
+        List<EvaluationResultDTO> resultList = new ArrayList<>(records.size());
+        for (AssessmentResult record : records) {
+            AssessmentScaleCatalog.CompiledScale compiledScale = scaleCatalog.getScale(Long.parseLong(record.getTestid()));
+            if (compiledScale != null) {
+                resultList.add(convertToResultDTO(record, compiledScale.getScale()));
+            }
+        }
+        return resultList;
+    }
 
-        for (EvaluationAnswerDTO answer : answers) {
-            PsychologicalEvaluationQuestion question = questions.stream()
-                    .filter(q -> q.getId().equals(answer.getQuestionId()))
-                    .findFirst()
-                    .orElseThrow(() -> new BusinessException("题目不存在: " + answer.getQuestionId()));
+    /**
+     * 构建测评分析提示词
+     */
+    private String buildAnalysisPrompt(int totalScore, String testName) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("请分析用户在[").append(testName).append("]中的测评结果，用户得分为").append(totalScore).append("分。");
+        prompt.append("请从专业心理学角度进行解读，分析用户可能的心理状态，");
+        prompt.append("语言要温和专业，避免使用过于专业的术语，让用户容易理解。");
+        prompt.append("分析内容控制在200-300字左右。");
+        return prompt.toString();
+    }
 
-            // 根据选项计算得分
-            totalScore += question.getScoreWeight() * answer.getSelectedOptions().size();
-        }
+    private String fallbackAnalysis(int totalScore) {
+        return FALLBACK_ANALYSIS_PREFIX + totalScore + "分。";
+    }
 
-        return totalScore;
+    /**
+     * 写回测评分析：按解读文本重新评估风险等级与建议，单条更新
+     */
+    private void saveAnalysis(Integer recordId, int totalScore, String testType, String analysis, boolean succeeded) {
+        int riskLevel = evaluateRiskLevel(totalScore, testType, analysis);
+        resultMapper.update(null, new LambdaUpdateWrapper<AssessmentResult>()
+                .eq(AssessmentResult::getId, recordId)
+                .set(AssessmentResult::getResult, analysis)
+                .set(AssessmentResult::getRiskLevel, riskLevel)
+                .set(AssessmentResult::getSuggestions, generateSuggestions(riskLevel, testType))
+                .set(AssessmentResult::getAnalysisStatus, succeeded
+                        ? EvaluationAnalysisStatus.COMPLETED.getCode()
+                        : EvaluationAnalysisStatus.FAILED.getCode()));
     }
 
     /**
-     * 生成测评分析
+     * 读取当前用户自己的测评记录
      */
-    private String generateEvaluationAnalysis(EvaluationSubmitDTO submitDTO, int totalScore, String testName) {
-        try {
-            // 构建提示词
-            StringBuilder prompt = new StringBuilder();
-            prompt.append("请分析用户在[").append(testName).append("]中的测评结果，用户得分为").append(totalScore).append("分。");
-            prompt.append("请从专业心理学角度进行解读，分析用户可能的心理状态，");
-            prompt.append("语言要温和专业，避免使用过于专业的术语，让用户容易理解。");
-            prompt.append("分析内容控制在200-300字左右。");
-
-            // 调用AI接口生成分析
-            return chatClient.prompt()
-                    .user(prompt.toString())
-                    .call()
-                    .content();
-
-        } catch (Exception e) {
-            log.error("生成测评分析失败", e);
-            return "系统暂时无法生成详细分析，请稍后再试。您的测评得分为：" + totalScore + "分。";
+    private AssessmentResult requireOwnRecord(Long userId, Integer recordId) {
+        if (userId == null) {
+            throw new BusinessException("用户未登录");
+        }
+        AssessmentResult record = recordId == null ? null : resultMapper.selectById(recordId);
+        if (record == null || !String.valueOf(userId).equals(record.getUid())) {
+            throw new BusinessException("测评记录不存在或无权访问");
         }
+        return record;
     }
 
     /**
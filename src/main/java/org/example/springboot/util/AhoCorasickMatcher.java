@@ -0,0 +1,212 @@
+package org.example.springboot.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick 多模式匹配器
+ * 构建完成后不可变、线程安全，一次扫描即可找出文本中所有词条的出现位置，耗时与文本长度成线性关系。
+ * 除整段扫描外，也开放了 {@link #step(int, char)} 状态转移，便于调用方跨多个文本片段保持匹配状态
+ *
+ * @param <T> 词条附带的数据类型
+ */
+public final class AhoCorasickMatcher<T> {
+
+    /**
+     * 根节点状态
+     */
+    public static final int ROOT = 0;
+
+    private final List<Map<Character, Integer>> transitions;
+    private final int[] failure;
+    private final int[] depth;
+    private final List<List<Entry<T>>> outputs;
+    private final int maxPatternLength;
+    private final int patternCount;
+
+    private AhoCorasickMatcher(List<Map<Character, Integer>> transitions, int[] failure, int[] depth,
+                               List<List<Entry<T>>> outputs, int maxPatternLength, int patternCount) {
+        this.transitions = transitions;
+        this.failure = failure;
+        this.depth = depth;
+        this.outputs = outputs;
+        this.maxPatternLength = maxPatternLength;
+        this.patternCount = patternCount;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * 状态转移
+     *
+     * @param state 当前状态
+     * @param c     下一个字符
+     * @return 转移后的状态
+     */
+    public int step(int state, char c) {
+        Integer next;
+        while ((next = transitions.get(state).get(c)) == null && state != ROOT) {
+            state = failure[state];
+        }
+        return next == null ? ROOT : next;
+    }
+
+    /**
+     * 在某状态结束的所有词条（已合并失败链上的输出）
+     */
+    public List<Entry<T>> outputs(int state) {
+        return outputs.get(state);
+    }
+
+    /**
+     * 状态深度，即当前已匹配的词条前缀长度。流式扫描时只需暂存最后 depth 个字符，其余字符不可能再参与匹配
+     */
+    public int depth(int state) {
+        return depth[state];
+    }
+
+    /**
+     * 扫描整段文本
+     *
+     * @param text 文本
+     * @return 全部命中，按结束位置升序
+     */
+    public List<Hit<T>> findAll(CharSequence text) {
+        List<Hit<T>> hits = new ArrayList<>();
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            for (Entry<T> entry : outputs.get(state)) {
+                hits.add(new Hit<>(i + 1 - entry.pattern().length(), i + 1, entry.pattern(), entry.payload()));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * 最长词条长度
+     */
+    public int maxPatternLength() {
+        return maxPatternLength;
+    }
+
+    /**
+     * 词条数量
+     */
+    public int size() {
+        return patternCount;
+    }
+
+    /**
+     * 词条
+     *
+     * @param pattern 词条文本
+     * @param payload 附带数据
+     */
+    public record Entry<T>(String pattern, T payload) {
+    }
+
+    /**
+     * 命中结果
+     *
+     * @param start   起始位置（含）
+     * @param end     结束位置（不含）
+     * @param pattern 命中的词条
+     * @param payload 附带数据
+     */
+    public record Hit<T>(int start, int end, String pattern, T payload) {
+    }
+
+    /**
+     * 构建器，非线程安全
+     */
+    public static final class Builder<T> {
+
+        private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+        private final List<Entry<T>> terminals = new ArrayList<>();
+        private final List<Integer> depths = new ArrayList<>();
+        private int maxPatternLength;
+
+        private Builder() {
+            transitions.add(new HashMap<>());
+            terminals.add(null);
+            depths.add(0);
+        }
+
+        /**
+         * 添加词条，重复添加时以后者为准
+         */
+        public Builder<T> add(String pattern, T payload) {
+            if (pattern == null || pattern.isEmpty()) {
+                return this;
+            }
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                Integer next = transitions.get(state).get(c);
+                if (next == null) {
+                    next = transitions.size();
+                    transitions.add(new HashMap<>());
+                    terminals.add(null);
+                    depths.add(i + 1);
+                    transitions.get(state).put(c, next);
+                }
+                state = next;
+            }
+            terminals.set(state, new Entry<>(pattern, payload));
+            maxPatternLength = Math.max(maxPatternLength, pattern.length());
+            return this;
+        }
+
+        public AhoCorasickMatcher<T> build() {
+            int size = transitions.size();
+            int[] failure = new int[size];
+            int[] depth = depths.stream().mapToInt(Integer::intValue).toArray();
+            List<List<Entry<T>>> outputs = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                outputs.add(terminals.get(i) == null ? new ArrayList<>(0) : new ArrayList<>(List.of(terminals.get(i))));
+            }
+
+            // 按层遍历计算失败指针，并把失败状态的输出合并到当前状态
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int child : transitions.get(ROOT).values()) {
+                failure[child] = ROOT;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> edge : transitions.get(state).entrySet()) {
+                    char c = edge.getKey();
+                    int child = edge.getValue();
+                    int fallback = failure[state];
+                    Integer target;
+                    while ((target = transitions.get(fallback).get(c)) == null && fallback != ROOT) {
+                        fallback = failure[fallback];
+                    }
+                    failure[child] = target == null || target == child ? ROOT : target;
+                    outputs.get(child).addAll(outputs.get(failure[child]));
+                    queue.add(child);
+                }
+            }
+
+            List<Map<Character, Integer>> frozenTransitions = new ArrayList<>(size);
+            List<List<Entry<T>>> frozenOutputs = new ArrayList<>(size);
+            int patternCount = 0;
+            for (int i = 0; i < size; i++) {
+                frozenTransitions.add(Map.copyOf(transitions.get(i)));
+                frozenOutputs.add(Collections.unmodifiableList(outputs.get(i)));
+                if (terminals.get(i) != null) {
+                    patternCount++;
+                }
+            }
+            return new AhoCorasickMatcher<>(frozenTransitions, failure, depth, frozenOutputs, maxPatternLength, patternCount);
+        }
+    }
+}
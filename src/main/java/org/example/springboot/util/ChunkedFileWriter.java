@@ -0,0 +1,142 @@
+package org.example.springboot.util;
+
+import org.example.springboot.exception.BusinessException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分片文件写入工具
+ * 目标文件按总大小预分配，各分片用 FileChannel 按偏移量定位写入，互不重叠，可并发、乱序写入。
+ * 分片内容边写入目标位置边计算 SHA-256，每个字节只写一次；大小或校验和不符时该分片区域已被部分或全部覆盖，
+ * 由调用方撤销该分片的登记等待重传，合并前再用 verify 逐片复核。内存占用只有一个固定大小的缓冲区
+ *
+ * @author system
+ */
+public class ChunkedFileWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 创建并预分配目标文件
+     *
+     * @param file 目标文件
+     * @param size 文件总大小
+     */
+    public static void preallocate(Path file, long size) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size);
+        }
+    }
+
+    /**
+     * 把一个分片写入到指定偏移量并校验；大小或校验和不符时抛出 BusinessException，此时该分片区域的内容不可信
+     *
+     * @param file             预分配的目标文件
+     * @param position         分片起始偏移量
+     * @param expectedLength   分片应有的字节数
+     * @param expectedChecksum 分片应有的 SHA-256（十六进制，不区分大小写），为空时不校验内容
+     * @param in               分片内容（由调用方关闭）
+     * @return 分片内容的 SHA-256（十六进制小写）
+     * @throws IOException 读取分片或写入目标文件失败；该分片区域的内容不确定
+     */
+    public static String writeChunk(Path file, long position, long expectedLength, String expectedChecksum,
+                                    InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long received = 0;
+        ReadableByteChannel source = Channels.newChannel(in);
+        try (FileChannel target = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (source.read(buffer.clear()) >= 0) {
+                buffer.flip();
+                if (received + buffer.remaining() > expectedLength) {
+                    throw new BusinessException("分片大小超出预期: " + expectedLength + " 字节");
+                }
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    received += target.write(buffer, position + received);
+                }
+            }
+        }
+        if (received != expectedLength) {
+            throw new BusinessException("分片不完整，期望 " + expectedLength + " 字节，实际 " + received + " 字节");
+        }
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (expectedChecksum != null && !actual.equalsIgnoreCase(expectedChecksum.trim())) {
+            throw new BusinessException("分片校验失败，请重新上传该分片");
+        }
+        return actual;
+    }
+
+    /**
+     * 顺序读取一遍文件，同时计算整体 SHA-256 和各分片的 SHA-256 并与登记的校验和比对
+     *
+     * @param file           目标文件
+     * @param chunkSize      分片大小
+     * @param chunkChecksums 登记的分片校验和（分片序号 → SHA-256）
+     * @return 整体哈希与校验失败（或未登记）的分片序号
+     */
+    public static Verification verify(Path file, int chunkSize, Map<Integer, String> chunkChecksums) throws IOException {
+        MessageDigest whole = newDigest();
+        MessageDigest chunk = newDigest();
+        List<Integer> corruptChunks = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+            for (int index = 0; index < chunkCount; index++) {
+                long position = (long) index * chunkSize;
+                long end = Math.min(size, position + chunkSize);
+                while (position < end) {
+                    buffer.clear().limit((int) Math.min(BUFFER_SIZE, end - position));
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new EOFException("文件在读取过程中被截断: " + file);
+                    }
+                    buffer.flip();
+                    whole.update(buffer.duplicate());
+                    chunk.update(buffer);
+                    position += read;
+                }
+                String expected = chunkChecksums.get(index);
+                if (expected == null || !expected.equalsIgnoreCase(HexFormat.of().formatHex(chunk.digest()))) {
+                    corruptChunks.add(index);
+                }
+            }
+        }
+        return new Verification(HexFormat.of().formatHex(whole.digest()), corruptChunks);
+    }
+
+    /**
+     * 文件校验结果
+     *
+     * @param sha256        整个文件的 SHA-256（十六进制小写）
+     * @param corruptChunks 内容与登记的校验和不符或没有登记的分片序号，升序
+     */
+    public record Verification(String sha256, List<Integer> corruptChunks) {
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持SHA-256", e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.example.springboot.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 内容寻址文件存储
+ * 上传内容边写临时文件边计算 SHA-256，写完后按哈希前缀分片存放：cas/ab/cd/&lt;sha256&gt;&lt;扩展名&gt;。
+ * 相同内容只保存一份，是否仍被引用由 sys_file_info 中指向该路径的有效记录数决定；
+ * 物理文件只在无引用且超过宽限期未被写入（重复上传会刷新修改时间）时删除，避免与并发的重复上传竞争
+ *
+ * @author system
+ */
+public class ContentAddressedStorage {
+    private static final Logger log = LoggerFactory.getLogger(ContentAddressedStorage.class);
+
+    /**
+     * 内容存储目录（位于 FILE_BASE_PATH 下）
+     */
+    public static final String CONTENT_DIR = "cas";
+
+    /**
+     * 预压缩副本后缀（与原文件同目录，如 &lt;sha256&gt;.js.br），与图片衍生图一样随原文件一起删除
+     */
+    public static final List<String> VARIANT_SUFFIXES = List.of(".br", ".gz");
+
+    /**
+     * 写入中的临时文件目录（位于内容存储目录下）
+     */
+    public static final String TEMP_DIR = ".tmp";
+    private static final int HASH_LENGTH = 64;
+    private static final String ROOT_PATH = "/files/";
+
+    /**
+     * 存储结果
+     *
+     * @param contentHash  内容 SHA-256（十六进制小写）
+     * @param filePath     文件访问路径（/files/cas/...）
+     * @param size         内容字节数
+     * @param deduplicated 是否命中已有内容（未新增物理文件）
+     */
+    public record StoredContent(String contentHash, String filePath, long size, boolean deduplicated) {
+    }
+
+    /**
+     * 保存内容到默认文件目录
+     *
+     * @param in        内容输入流（由调用方关闭）
+     * @param extension 文件扩展名（含点，如 .png）
+     * @return 存储结果
+     */
+    public static StoredContent store(InputStream in, String extension) throws IOException {
+        return store(Paths.get(FileUtil.FILE_BASE_PATH), in, extension);
+    }
+
+    static StoredContent store(Path baseDir, InputStream in, String extension) throws IOException {
+        Path tempDir = baseDir.resolve(CONTENT_DIR).resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+        Path tempFile = tempDir.resolve(UUID.randomUUID() + ".part");
+
+        MessageDigest digest = newDigest();
+        long size;
+        try (DigestInputStream digestIn = new DigestInputStream(in, digest)) {
+            size = Files.copy(digestIn, tempFile);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        return commit(baseDir, tempFile, HexFormat.of().formatHex(digest.digest()), size, extension);
+    }
+
+    /**
+     * 把已在上传目录中写好的文件（如分片上传合成的文件）移入内容存储，文件须与存储目录位于同一文件系统
+     *
+     * @param file        已写好的文件，调用后被移动或删除
+     * @param contentHash 文件内容 SHA-256
+     * @param extension   文件扩展名（含点）
+     * @return 存储结果
+     */
+    public static StoredContent storeFile(Path file, String contentHash, String extension) throws IOException {
+        return commit(Paths.get(FileUtil.FILE_BASE_PATH), file, contentHash, Files.size(file), extension);
+    }
+
+    private static StoredContent commit(Path baseDir, Path tempFile, String hash, long size, String extension) throws IOException {
+        String relativePath = shardPath(hash, extension);
+        Path target = baseDir.resolve(relativePath);
+
+        boolean deduplicated = Files.exists(target);
+        if (!deduplicated) {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // 并发上传了相同内容
+                deduplicated = true;
+            }
+        }
+        if (deduplicated) {
+            Files.deleteIfExists(tempFile);
+            // 刷新修改时间，防止无引用清理在新记录提交前删除该内容
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            log.info("内容已存在，复用物理文件：{}", relativePath);
+        } else {
+            log.info("新内容保存成功：{}，大小：{} 字节", relativePath, size);
+        }
+        return new StoredContent(hash, ROOT_PATH + relativePath, size, deduplicated);
+    }
+
+    /**
+     * 按哈希前两级分片构造相对路径，每级目录最多 256 个子目录，避免单目录文件过多
+     */
+    public static String shardPath(String hash, String extension) {
+        String ext = extension == null ? "" : extension.toLowerCase();
+        return CONTENT_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ext;
+    }
+
+    /**
+     * 是否为内容存储中的文件路径
+     */
+    public static boolean isContentPath(String filePath) {
+        return filePath != null
+                && FileUtil.convertToRelativePath(filePath).startsWith(CONTENT_DIR + "/");
+    }
+
+    /**
+     * 从内容存储路径中取出内容哈希，非内容存储路径返回null
+     */
+    public static String hashOf(String filePath) {
+        if (!isContentPath(filePath)) {
+            return null;
+        }
+        String fileName = filePath.substring(filePath.lastIndexOf('/') + 1);
+        return fileName.length() >= HASH_LENGTH ? fileName.substring(0, HASH_LENGTH) : null;
+    }
+
+    /**
+     * 删除超过宽限期未被写入的物理文件及其预压缩副本（调用方已确认无引用）
+     *
+     * @param filePath 文件访问路径
+     * @param grace    宽限期
+     * @return 是否已删除
+     */
+    public static boolean deleteIfIdle(String filePath, Duration grace) {
+        return deleteIfIdle(Paths.get(FileUtil.FILE_BASE_PATH), filePath, grace);
+    }
+
+    /**
+     * 删除指定上传目录下超过宽限期未被写入的物理文件及其预压缩副本（调用方已确认无引用）
+     *
+     * @param baseDir  上传目录
+     * @param filePath 文件访问路径
+     * @param grace    宽限期
+     * @return 是否已删除
+     */
+    public static boolean deleteIfIdle(Path baseDir, String filePath, Duration grace) {
+        FileUtil.validateName(filePath);
+        Path path = baseDir.resolve(FileUtil.convertToRelativePath(filePath));
+        try {
+            if (!Files.isRegularFile(path) || !isIdle(path, Instant.now().minus(grace))) {
+                return false;
+            }
+            deleteDerivedFiles(path);
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除内容文件失败：{}，错误：{}", filePath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 删除原文件旁的预压缩副本和图片衍生图
+     *
+     * @param path 原文件物理路径
+     */
+    public static void deleteDerivedFiles(Path path) throws IOException {
+        for (String suffix : VARIANT_SUFFIXES) {
+            Files.deleteIfExists(path.resolveSibling(path.getFileName() + suffix));
+        }
+        Path dir = path.getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return;
+        }
+        String prefix = path.getFileName() + ImageDerivativeUtils.SEPARATOR;
+        try (Stream<Path> siblings = Files.list(dir)) {
+            for (Path sibling : (Iterable<Path>) siblings::iterator) {
+                if (sibling.getFileName().toString().startsWith(prefix)) {
+                    Files.deleteIfExists(sibling);
+                }
+            }
+        }
+    }
+
+    /**
+     * 是否为原文件仍存在的预压缩副本或图片衍生图
+     */
+    public static boolean isDerivedFromExisting(Path path) {
+        String fileName = path.getFileName().toString();
+        int separator = fileName.indexOf(ImageDerivativeUtils.SEPARATOR);
+        if (separator > 0 && Files.isRegularFile(path.resolveSibling(fileName.substring(0, separator)))) {
+            return true;
+        }
+        for (String suffix : VARIANT_SUFFIXES) {
+            if (fileName.endsWith(suffix)
+                    && Files.isRegularFile(path.resolveSibling(fileName.substring(0, fileName.length() - suffix.length())))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIdle(Path path, Instant idleBefore) throws IOException {
+        return Files.getLastModifiedTime(path).toInstant().isBefore(idleBefore);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持SHA-256", e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.springboot.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 只读的 ID → 下标索引
+ * ID 分布紧凑（如同一量表下连续插入的自增主键）时按 id - minId 直接寻址数组，查找只需一次数组访问；
+ * 分布过于稀疏时退化为哈希表，避免为少量 ID 分配过大的数组
+ */
+public final class DenseIdIndex {
+
+    /**
+     * 数组长度不超过 ID 数量的倍数，超出则视为稀疏
+     */
+    private static final int MAX_SPREAD_FACTOR = 4;
+
+    /**
+     * 数量很少时允许的额外空位
+     */
+    private static final int MIN_SLACK = 16;
+
+    private static final DenseIdIndex EMPTY = new DenseIdIndex(0, new int[0], null, 0);
+
+    private final long minId;
+    private final int[] slots;
+    private final Map<Long, Integer> sparse;
+    private final int size;
+
+    private DenseIdIndex(long minId, int[] slots, Map<Long, Integer> sparse, int size) {
+        this.minId = minId;
+        this.slots = slots;
+        this.sparse = sparse;
+        this.size = size;
+    }
+
+    /**
+     * 构建索引，ids[i] 的下标即为 i
+     *
+     * @param ids ID 数组，不允许重复
+     * @return 索引
+     */
+    public static DenseIdIndex of(long[] ids) {
+        if (ids.length == 0) {
+            return EMPTY;
+        }
+        long min = Arrays.stream(ids).min().getAsLong();
+        long max = Arrays.stream(ids).max().getAsLong();
+        long span = max - min + 1;
+        if (span > 0 && span <= (long) ids.length * MAX_SPREAD_FACTOR + MIN_SLACK) {
+            int[] slots = new int[(int) span];
+            Arrays.fill(slots, -1);
+            for (int i = 0; i < ids.length; i++) {
+                int offset = (int) (ids[i] - min);
+                if (slots[offset] != -1) {
+                    throw new IllegalArgumentException("ID重复: " + ids[i]);
+                }
+                slots[offset] = i;
+            }
+            return new DenseIdIndex(min, slots, null, ids.length);
+        }
+        Map<Long, Integer> sparse = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            if (sparse.putIfAbsent(ids[i], i) != null) {
+                throw new IllegalArgumentException("ID重复: " + ids[i]);
+            }
+        }
+        return new DenseIdIndex(0, null, sparse, ids.length);
+    }
+
+    /**
+     * 查找 ID 对应的下标
+     *
+     * @return 下标，不存在时返回 -1
+     */
+    public int indexOf(long id) {
+        if (slots == null) {
+            return sparse.getOrDefault(id, -1);
+        }
+        long offset = id - minId;
+        return offset >= 0 && offset < slots.length ? slots[(int) offset] : -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 是否使用数组直接寻址
+     */
+    public boolean isDense() {
+        return slots != null;
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.springboot.util;
 
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.toolkit.StringUtils;
 import lombok.Data;
@@ -22,6 +23,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -77,7 +79,8 @@ public class FileUtil {
      * @param file 上传的文件
      * @param folderName 子目录名称,位于relativeDir（可选）
      * @param relativeDir 基础目录（应与FileTypeEnum的code对应）
-     * @return 文件访问路径，失败返回null
+     * @return 文件访问路径；文件没有扩展名、路径不合法或写盘失败时返回null
+     * @throws BusinessException 文件校验不通过（为空、超出大小限制、类型不允许等），原因交给调用方
      */
     public static String saveFile(MultipartFile file,  String relativeDir,String folderName) {
         try {
@@ -95,10 +98,6 @@ public class FileUtil {
                 return null;
             }
             
-            // 生成唯一文件名
-            long timestamp = System.currentTimeMillis();
-            String uniqueFilename = timestamp + extension.toLowerCase();
-
             // 构造安全的保存路径
             Path fileDirectory = buildSafeFilePath(relativeDir, folderName);
             if (fileDirectory == null) {
@@ -111,11 +110,17 @@ public class FileUtil {
                 log.info("创建目录：{}", fileDirectory);
             }
             
-            // 保存文件
-            Path uploadFilePath = fileDirectory.resolve(uniqueFilename);
+            // 生成唯一文件名并原子地占用，并发上传到同一目录也不会互相覆盖
+            Path uploadFilePath = reserveUniqueFile(fileDirectory, extension);
+            String uniqueFilename = uploadFilePath.getFileName().toString();
             File uploadFile = uploadFilePath.toFile();
 
-            file.transferTo(uploadFile);
+            try {
+                file.transferTo(uploadFile);
+            } catch (IOException e) {
+                Files.deleteIfExists(uploadFilePath);
+                throw e;
+            }
             log.info("文件保存成功：{}", uploadFile.getAbsolutePath());
             
             // 返回相对路径
@@ -125,6 +130,9 @@ public class FileUtil {
             log.info("返回文件访问路径：{}", relativePath);
             return relativePath;
             
+        } catch (BusinessException e) {
+            // 校验失败，原因交给调用方
+            throw e;
         } catch (IOException e) {
             log.error("文件保存异常，文件名：{}，错误：{}", file.getOriginalFilename(), e.getMessage(), e);
             return null;
@@ -134,6 +142,28 @@ public class FileUtil {
         }
     }
 
+    /**
+     * 生成唯一文件名（雪花ID，按时间单调递增）并以 CREATE_NEW 方式创建空文件占位；
+     * 多实例共享目录时ID仍可能重复，创建失败则换一个ID重试
+     *
+     * @param directory 目标目录
+     * @param extension 文件扩展名（含点）
+     * @return 已创建的空文件
+     */
+    public static Path reserveUniqueFile(Path directory, String extension) throws IOException {
+        String ext = extension == null ? "" : extension.toLowerCase();
+        for (int attempt = 0; ; attempt++) {
+            Path candidate = directory.resolve(IdUtil.getSnowflakeNextIdStr() + ext);
+            try {
+                return Files.createFile(candidate);
+            } catch (FileAlreadyExistsException e) {
+                if (attempt >= 2) {
+                    throw e;
+                }
+            }
+        }
+    }
+
     /**
      * 保存图片的便捷方法
      */
@@ -0,0 +1,147 @@
+package org.example.springboot.util;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HtmlUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 全文检索辅助工具
+ * 关键词按空白切分为检索词；长度不小于 ngram_token_size（默认2）的检索词走 ngram 全文索引，
+ * 单字检索词无法被 ngram 索引命中，由调用方改用 LIKE 匹配
+ */
+public final class FullTextSearchUtils {
+
+    /**
+     * 与 MySQL ngram_token_size 一致
+     */
+    public static final int NGRAM_TOKEN_SIZE = 2;
+
+    /**
+     * 单次检索最多使用的检索词数量
+     */
+    private static final int MAX_TERMS = 5;
+
+    private static final String HIGHLIGHT_OPEN = "<em>";
+    private static final String HIGHLIGHT_CLOSE = "</em>";
+
+    private FullTextSearchUtils() {
+    }
+
+    /**
+     * 切分检索词：去掉布尔模式的运算符和引号，去重后最多保留 5 个
+     *
+     * @param keyword 用户输入的关键词
+     * @return 检索词，输入为空时返回空列表
+     */
+    public static List<String> splitTerms(String keyword) {
+        if (StrUtil.isBlank(keyword)) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String part : keyword.trim().split("\\s+")) {
+            String term = part.replaceAll("[+\\-<>()~*\"@]", "");
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+            if (terms.size() >= MAX_TERMS) {
+                break;
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * 构造布尔模式检索式，每个检索词作为必须出现的短语：+"词1" +"词2"
+     *
+     * @param terms 长度不小于 ngram_token_size 的检索词
+     */
+    public static String booleanQuery(List<String> terms) {
+        StringBuilder query = new StringBuilder();
+        for (String term : terms) {
+            if (!query.isEmpty()) {
+                query.append(' ');
+            }
+            query.append("+\"").append(term).append('"');
+        }
+        return query.toString();
+    }
+
+    /**
+     * 截取第一个命中位置附近的片段，转义 HTML 后用 &lt;em&gt; 标记所有命中的检索词
+     *
+     * @param content 消息内容
+     * @param terms   检索词
+     * @param radius  命中位置前后保留的字符数
+     * @return 高亮片段；截断处以省略号表示
+     */
+    public static String highlight(String content, List<String> terms, int radius) {
+        if (StrUtil.isEmpty(content)) {
+            return "";
+        }
+        int first = -1;
+        for (String term : terms) {
+            int index = indexOfIgnoreCase(content, term, 0);
+            if (index >= 0 && (first < 0 || index < first)) {
+                first = index;
+            }
+        }
+        int start = first < 0 ? 0 : Math.max(0, first - radius);
+        int end = first < 0 ? Math.min(content.length(), radius * 2) : Math.min(content.length(), first + radius * 2);
+        String window = content.substring(start, end);
+
+        // 在原文窗口上标出命中区间，再逐段转义，避免转义后的实体被检索词误匹配
+        boolean[] marked = new boolean[window.length()];
+        for (String term : terms) {
+            for (int i = indexOfIgnoreCase(window, term, 0); i >= 0; i = indexOfIgnoreCase(window, term, i + 1)) {
+                for (int k = i; k < i + term.length(); k++) {
+                    marked[k] = true;
+                }
+            }
+        }
+
+        StringBuilder snippet = new StringBuilder(window.length() + 16);
+        if (start > 0) {
+            snippet.append("…");
+        }
+        int i = 0;
+        while (i < window.length()) {
+            int j = i;
+            while (j < window.length() && marked[j] == marked[i]) {
+                j++;
+            }
+            String escaped = HtmlUtil.escape(window.substring(i, j));
+            if (marked[i]) {
+                snippet.append(HIGHLIGHT_OPEN).append(escaped).append(HIGHLIGHT_CLOSE);
+            } else {
+                snippet.append(escaped);
+            }
+            i = j;
+        }
+        if (end < content.length()) {
+            snippet.append("…");
+        }
+        return snippet.toString();
+    }
+
+    /**
+     * 忽略大小写查找检索词，返回原文中的偏移
+     * 逐字符比较而不是先整体转小写：部分字符（如 İ）转小写后长度会变化，转换后的偏移无法对应回原文
+     *
+     * @return 命中位置，未命中或检索词为空时返回 -1
+     */
+    private static int indexOfIgnoreCase(String text, String term, int fromIndex) {
+        if (term.isEmpty()) {
+            return -1;
+        }
+        for (int i = fromIndex; i <= text.length() - term.length(); i++) {
+            if (text.regionMatches(true, i, term, 0, term.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.springboot.util;
+
+/**
+ * HTTP 单段字节范围（Range: bytes=start-end）
+ * 只支持单段范围；多段范围和格式错误的请求头按规范忽略，返回完整内容
+ *
+ * @param start 起始字节（含），不可满足时为 -1
+ * @param end   结束字节（含），不可满足时为 -1
+ * @author system
+ */
+public record HttpByteRange(long start, long end) {
+
+    private static final String BYTES_UNIT = "bytes=";
+    private static final HttpByteRange UNSATISFIABLE = new HttpByteRange(-1, -1);
+
+    /**
+     * 解析 Range 请求头
+     *
+     * @param header Range 请求头
+     * @param length 文件长度
+     * @return 字节范围；应忽略该请求头时返回null；范围不可满足时 {@link #satisfiable()} 为false
+     */
+    public static HttpByteRange parse(String header, long length) {
+        if (header == null || !header.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+        String spec = header.substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (spec.indexOf(',') >= 0 || dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // 后缀范围：最后 N 个字节
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new HttpByteRange(Math.max(0, length - suffix), length - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= length) {
+                return UNSATISFIABLE;
+            }
+            return new HttpByteRange(start, Math.min(end, length - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean satisfiable() {
+        return start >= 0;
+    }
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Content-Range 响应头的值
+     */
+    public String contentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.springboot.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 图片衍生图工具
+ * 衍生图与原图同目录，命名为 原文件名@尺寸.jpg（如 &lt;sha256&gt;.png@thumb.jpg），
+ * 通过文件流接口的 size 参数访问
+ *
+ * @author system
+ */
+public class ImageDerivativeUtils {
+
+    /**
+     * 原文件名与尺寸名之间的分隔符，内容存储按此识别衍生文件
+     */
+    public static final String SEPARATOR = "@";
+
+    private static final String DERIVATIVE_EXTENSION = ".jpg";
+    private static final String STREAM_URL = "/api/file/stream?path=";
+    private static final String UPLOAD_PATH_PREFIX = "/files/";
+    private static final Set<String> SUPPORTED_EXTENSIONS = Set.of(".jpg", ".jpeg", ".png", ".gif", ".bmp");
+
+    /**
+     * 衍生图文件名
+     */
+    public static String derivativeFileName(String originalFileName, String size) {
+        return originalFileName + SEPARATOR + size + DERIVATIVE_EXTENSION;
+    }
+
+    /**
+     * 是否为可生成衍生图的图片（JDK ImageIO 可解码的格式）
+     */
+    public static boolean isSupportedImage(String fileName) {
+        return SUPPORTED_EXTENSIONS.contains(FileUtil.getFileExtension(fileName).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 构造衍生图访问地址；外部链接或空路径返回null，由前端回退到原图
+     *
+     * @param filePath 原图访问路径（/files/...）
+     * @param size     尺寸名称
+     */
+    public static String derivativeUrl(String filePath, String size) {
+        if (filePath == null || !filePath.startsWith(UPLOAD_PATH_PREFIX) || !isSupportedImage(filePath)) {
+            return null;
+        }
+        return STREAM_URL + URLEncoder.encode(filePath, StandardCharsets.UTF_8) + "&size=" + size;
+    }
+
+    /**
+     * 按目标宽度等比缩放，透明区域填充白色；缩小超过一半时逐级减半，避免一次双线性插值产生锯齿
+     */
+    public static BufferedImage resize(BufferedImage source, int targetWidth) {
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = width == targetWidth ? targetHeight : Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    /**
+     * 以指定质量编码为 JPEG
+     */
+    public static void writeJpeg(BufferedImage image, float quality, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
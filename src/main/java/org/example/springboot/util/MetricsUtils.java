@@ -0,0 +1,78 @@
+package org.example.springboot.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 业务指标工具类
+ * 统一维护缓存命中率与SSE活跃流等业务侧指标，指标名与标签在此集中定义
+ */
+@Component
+public class MetricsUtils {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 当前活跃的SSE流数量
+     */
+    private final AtomicInteger activeSseStreams = new AtomicInteger();
+
+    public MetricsUtils(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("sse.streams.active", activeSseStreams, AtomicInteger::get)
+                .description("当前活跃的SSE流数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录缓存命中
+     *
+     * @param cache 缓存名称
+     */
+    public void cacheHit(String cache) {
+        cacheCounter(cache, "hit").increment();
+    }
+
+    /**
+     * 记录缓存未命中
+     *
+     * @param cache 缓存名称
+     */
+    public void cacheMiss(String cache) {
+        cacheCounter(cache, "miss").increment();
+    }
+
+    /**
+     * SSE流开始
+     */
+    public void sseStreamOpened() {
+        activeSseStreams.incrementAndGet();
+    }
+
+    /**
+     * SSE流结束（完成、出错或客户端取消）
+     */
+    public void sseStreamClosed() {
+        activeSseStreams.decrementAndGet();
+    }
+
+    public int getActiveSseStreams() {
+        return activeSseStreams.get();
+    }
+
+    public MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
+    private Counter cacheCounter(String cache, String result) {
+        return Counter.builder("cache.requests")
+                .description("缓存访问次数")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -17,6 +17,9 @@ public class RedisUtils {
     
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private MetricsUtils metricsUtils;
     
     /**
      * 设置缓存
@@ -59,7 +62,16 @@ public class RedisUtils {
      */
     public Object get(String key) {
         try {
-            return key == null ? null : redisTemplate.opsForValue().get(key);
+            if (key == null) {
+                return null;
+            }
+            Object value = redisTemplate.opsForValue().get(key);
+            if (value != null) {
+                metricsUtils.cacheHit("redis");
+            } else {
+                metricsUtils.cacheMiss("redis");
+            }
+            return value;
         } catch (Exception e) {
             log.error("Redis获取缓存失败，key: {}, error: {}", key, e.getMessage(), e);
             return null;
@@ -0,0 +1,183 @@
+package org.example.springboot.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * SQL预算上下文
+ * 以线程为单位统计一次HTTP请求或一次异步任务内执行的SQL，用于发现循环查询（N+1）与超出预算的接口
+ *
+ * 生命周期由 SqlBudgetFilter（HTTP请求）与 SqlBudgetTaskDecorator（异步任务）管理，
+ * 由 SqlBudgetInterceptor 在每条语句执行时写入
+ */
+public final class SqlBudgetContext {
+
+    private static final ThreadLocal<SqlBudgetContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 单条语句最多记录的参数指纹数量，防止批处理任务占用过多内存
+     */
+    private static final int MAX_PARAM_FINGERPRINTS = 1024;
+
+    private final Supplier<String> scopeName;
+    private final boolean async;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, StatementStats> statements = new LinkedHashMap<>();
+    private int total;
+
+    private SqlBudgetContext(Supplier<String> scopeName, boolean async) {
+        this.scopeName = scopeName;
+        this.async = async;
+    }
+
+    /**
+     * 开启统计作用域
+     * 当前线程已存在作用域时（如调用方线程直接执行了被拒绝的异步任务）不重复开启，返回null
+     *
+     * @param scopeName 作用域名称（延迟计算，HTTP请求需在处理完成后才能拿到路径模板）
+     * @param async     是否为异步任务
+     * @return 新开启的作用域，未开启时返回null
+     */
+    public static SqlBudgetContext begin(Supplier<String> scopeName, boolean async) {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+        SqlBudgetContext context = new SqlBudgetContext(scopeName, async);
+        CURRENT.set(context);
+        return context;
+    }
+
+    /**
+     * 获取当前线程的作用域
+     */
+    public static SqlBudgetContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 记录一次语句执行
+     *
+     * @param statementId      Mapper语句ID
+     * @param paramFingerprint 参数指纹
+     * @param maxCallSites     最多记录的调用点数量
+     * @param callSite         调用点（仅在需要时计算）
+     */
+    public void record(String statementId, int paramFingerprint, int maxCallSites, Supplier<String> callSite) {
+        total++;
+        StatementStats stats = statements.computeIfAbsent(statementId, k -> new StatementStats());
+        stats.executions++;
+        if (stats.paramFingerprints.size() < MAX_PARAM_FINGERPRINTS) {
+            stats.paramFingerprints.add(paramFingerprint);
+        }
+        if (stats.callSites.size() < maxCallSites) {
+            String site = callSite.get();
+            if (site != null) {
+                stats.callSites.add(site);
+            }
+        }
+    }
+
+    /**
+     * 结束作用域并生成报告
+     *
+     * @param budget          SQL预算
+     * @param repeatThreshold 判定N+1的重复次数阈值
+     * @return 统计报告
+     */
+    public Report finish(int budget, int repeatThreshold) {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        List<Suspect> suspects = new ArrayList<>();
+        statements.forEach((statementId, stats) -> {
+            int distinctParams = stats.paramFingerprints.size();
+            if (stats.executions > repeatThreshold && distinctParams > 1) {
+                suspects.add(new Suspect(statementId, stats.executions, distinctParams, List.copyOf(stats.callSites)));
+            }
+        });
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        return new Report(scopeName(), async, total, budget, suspects, elapsedMillis);
+    }
+
+    public String scopeName() {
+        String name = scopeName.get();
+        return name == null ? "unknown" : name;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    private static class StatementStats {
+        private int executions;
+        private final Set<Integer> paramFingerprints = new HashSet<>();
+        private final Set<String> callSites = new LinkedHashSet<>();
+    }
+
+    /**
+     * 疑似N+1的语句
+     */
+    public record Suspect(String statementId, int executions, int distinctParams, List<String> callSites) {
+    }
+
+    /**
+     * 作用域统计报告
+     */
+    public record Report(String scope, boolean async, int total, int budget, List<Suspect> suspects, long elapsedMillis) {
+
+        public boolean overBudget() {
+            return total > budget;
+        }
+
+        public boolean hasProblems() {
+            return overBudget() || !suspects.isEmpty();
+        }
+
+        /**
+         * 生成紧凑报告，例如：
+         * [SQL预算] GET /api/x 共执行 23 条SQL（预算 10，耗时 85ms）；疑似N+1：UserMapper.selectById ×20（20组参数）@ EmotionDiaryService.selectAdminPage:412
+         */
+        public String format() {
+            StringBuilder sb = new StringBuilder("[SQL预算] ")
+                    .append(async ? "异步任务 " : "")
+                    .append(scope)
+                    .append(" 共执行 ").append(total).append(" 条SQL（预算 ").append(budget)
+                    .append("，耗时 ").append(elapsedMillis).append("ms）");
+            if (!suspects.isEmpty()) {
+                sb.append("；疑似N+1：");
+                for (int i = 0; i < suspects.size(); i++) {
+                    Suspect suspect = suspects.get(i);
+                    if (i > 0) {
+                        sb.append("；");
+                    }
+                    sb.append(shortStatementId(suspect.statementId()))
+                            .append(" ×").append(suspect.executions())
+                            .append("（").append(suspect.distinctParams()).append("组参数）");
+                    if (!suspect.callSites().isEmpty()) {
+                        sb.append(" @ ").append(String.join(" | ", suspect.callSites()));
+                    }
+                }
+            }
+            return sb.toString();
+        }
+
+        private static String shortStatementId(String statementId) {
+            int idx = statementId.lastIndexOf('.');
+            if (idx <= 0) {
+                return statementId;
+            }
+            int classIdx = statementId.lastIndexOf('.', idx - 1);
+            return statementId.substring(classIdx + 1);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+-- 会话内消息序号与客户端消息ID（MySQL 8.0+）
+-- consultation_session.message_seq 为会话已分配的最大序号，每条消息的 seq 由它原子自增得到
+
+ALTER TABLE consultation_session
+    ADD COLUMN message_seq BIGINT NOT NULL DEFAULT 0 COMMENT '已分配的最大消息序号';
+
+ALTER TABLE consultation_message
+    ADD COLUMN seq BIGINT NULL COMMENT '会话内消息序号' AFTER session_id,
+    ADD COLUMN client_message_id VARCHAR(64) NULL COMMENT '客户端消息ID，用于重复提交去重' AFTER seq;
+
+-- 历史消息按原有的 (created_at, id) 顺序回填序号
+UPDATE consultation_message m
+    JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY session_id ORDER BY created_at, id) AS rn
+          FROM consultation_message) r ON r.id = m.id
+SET m.seq = r.rn;
+
+UPDATE consultation_session s
+    JOIN (SELECT session_id, MAX(seq) AS max_seq FROM consultation_message GROUP BY session_id) m
+        ON m.session_id = s.id
+SET s.message_seq = m.max_seq;
+
+ALTER TABLE consultation_message
+    MODIFY COLUMN seq BIGINT NOT NULL COMMENT '会话内消息序号',
+    ADD UNIQUE INDEX uk_session_seq (session_id, seq),
+    ADD UNIQUE INDEX uk_session_client_message (session_id, client_message_id);
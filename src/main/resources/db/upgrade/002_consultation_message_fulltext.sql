@@ -0,0 +1,6 @@
+-- 聊天记录全文检索（MySQL 5.7.6+ 内置 ngram 分词，中文按 ngram_token_size=2 切分）
+-- InnoDB 全文索引随消息插入、删除自动维护，无需额外同步
+
+ALTER TABLE consultation_message
+    ADD FULLTEXT INDEX ft_content (content) WITH PARSER ngram;
+
@@ -0,0 +1,25 @@
+-- 级联删除任务：用户/会话删除请求只做标记并登记任务，依赖数据由后台分块删除
+-- updated_at 同时作为执行租约的心跳，超过租约未更新的 RUNNING 任务会被重新领取
+
+CREATE TABLE IF NOT EXISTS deletion_job (
+    id            BIGINT       NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    target_type   VARCHAR(20)  NOT NULL COMMENT '目标类型 USER/SESSION',
+    target_id     BIGINT       NOT NULL COMMENT '目标ID',
+    status        VARCHAR(20)  NOT NULL COMMENT '状态 PENDING/RUNNING/COMPLETED/FAILED',
+    current_step  INT          NOT NULL DEFAULT 0 COMMENT '当前步骤（从0开始）',
+    total_steps   INT          NOT NULL COMMENT '总步骤数',
+    deleted_rows  BIGINT       NOT NULL DEFAULT 0 COMMENT '已删除行数',
+    attempts      INT          NOT NULL DEFAULT 0 COMMENT '失败次数',
+    requested_by  BIGINT       NULL COMMENT '发起人用户ID',
+    error_message VARCHAR(500) NULL COMMENT '最近一次错误信息',
+    created_at    DATETIME     NOT NULL COMMENT '创建时间',
+    updated_at    DATETIME     NOT NULL COMMENT '更新时间（执行心跳）',
+    completed_at  DATETIME     NULL COMMENT '完成时间',
+    PRIMARY KEY (id),
+    KEY idx_status_updated (status, updated_at),
+    KEY idx_target (target_type, target_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '级联删除任务';
+
+-- 会话改为逻辑删除，删除请求立即对用户不可见
+ALTER TABLE consultation_session
+    ADD COLUMN deleted TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除标记 0:正常 1:已删除';
@@ -0,0 +1,8 @@
+-- 业务文件改为内容寻址存储：物理文件按 SHA-256 存放于 files/cas/ab/cd/<sha256><扩展名>，
+-- 相同内容的多条记录共享同一 file_path，引用数即 status = 1 且 file_path 相同的记录数
+-- 历史记录 content_hash 为空，仍按原路径独立管理
+
+ALTER TABLE sys_file_info
+    ADD COLUMN content_hash CHAR(64) NULL COMMENT '文件内容SHA-256' AFTER file_path,
+    ADD INDEX idx_file_path (file_path),
+    ADD INDEX idx_content_hash (content_hash);
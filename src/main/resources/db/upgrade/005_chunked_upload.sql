@@ -0,0 +1,33 @@
+-- 分片上传：会话登记目标文件与业务绑定信息，分片按偏移量写入 files/uploads/<上传ID>.part，
+-- 已接收分片逐条登记，断线后按登记结果续传；完成后内容移入内容存储并写入 sys_file_info
+
+CREATE TABLE IF NOT EXISTS sys_upload_session (
+    id             VARCHAR(32)  NOT NULL COMMENT '上传ID',
+    upload_user_id BIGINT       NOT NULL COMMENT '上传用户ID',
+    original_name  VARCHAR(255) NOT NULL COMMENT '原始文件名',
+    file_size      BIGINT       NOT NULL COMMENT '文件大小（字节）',
+    chunk_size     INT          NOT NULL COMMENT '分片大小（字节）',
+    total_chunks   INT          NOT NULL COMMENT '分片总数',
+    business_type  VARCHAR(50)  NOT NULL COMMENT '业务类型',
+    business_id    VARCHAR(64)  NOT NULL COMMENT '业务对象ID',
+    business_field VARCHAR(50)  NULL COMMENT '业务字段名',
+    is_temp        TINYINT      NOT NULL DEFAULT 0 COMMENT '是否临时文件',
+    replace_old    TINYINT      NOT NULL DEFAULT 0 COMMENT '是否替换旧文件',
+    status         VARCHAR(20)  NOT NULL COMMENT '状态 UPLOADING/COMPLETING/COMPLETED',
+    file_id        BIGINT       NULL COMMENT '完成后的文件ID',
+    expire_time    DATETIME     NOT NULL COMMENT '过期时间（每收到一个分片顺延）',
+    created_at     DATETIME     NOT NULL COMMENT '创建时间',
+    updated_at     DATETIME     NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (id),
+    KEY idx_expire_time (expire_time)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '分片上传会话';
+
+CREATE TABLE IF NOT EXISTS sys_upload_chunk (
+    id          BIGINT      NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    upload_id   VARCHAR(32) NOT NULL COMMENT '上传ID',
+    chunk_index INT         NOT NULL COMMENT '分片序号（从0开始）',
+    checksum    CHAR(64)    NOT NULL COMMENT '分片SHA-256',
+    created_at  DATETIME    NOT NULL COMMENT '接收时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_upload_chunk (upload_id, chunk_index)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '分片上传已接收分片';
@@ -0,0 +1,25 @@
+-- 定时任务：scheduled_job_lock 为每个任务一行的租约锁，locked_until 之前由 locked_by 节点独占；
+-- scheduled_job_run 记录每次实际执行的节点、耗时与结果
+
+CREATE TABLE IF NOT EXISTS scheduled_job_lock (
+    job_name     VARCHAR(64)  NOT NULL COMMENT '任务名称',
+    locked_by    VARCHAR(128) NOT NULL COMMENT '持有锁的节点',
+    locked_at    DATETIME(3)  NOT NULL COMMENT '加锁时间',
+    locked_until DATETIME(3)  NOT NULL COMMENT '锁到期时间',
+    PRIMARY KEY (job_name)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '定时任务租约锁';
+
+CREATE TABLE IF NOT EXISTS scheduled_job_run (
+    id              BIGINT       NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    job_name        VARCHAR(64)  NOT NULL COMMENT '任务名称',
+    node_id         VARCHAR(128) NOT NULL COMMENT '执行节点',
+    status          VARCHAR(20)  NOT NULL COMMENT '状态 RUNNING/SUCCEEDED/FAILED',
+    result          VARCHAR(500) NULL COMMENT '执行结果摘要',
+    error_message   VARCHAR(500) NULL COMMENT '错误信息',
+    started_at      DATETIME     NOT NULL COMMENT '开始时间',
+    finished_at     DATETIME     NULL COMMENT '结束时间',
+    duration_millis BIGINT       NULL COMMENT '耗时（毫秒）',
+    PRIMARY KEY (id),
+    KEY idx_job_status (job_name, status),
+    KEY idx_started_at (started_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '定时任务执行记录';
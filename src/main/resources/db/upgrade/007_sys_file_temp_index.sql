@@ -0,0 +1,4 @@
+-- 过期临时文件清理按 is_temp、status 过滤并按主键游标分批读取
+
+ALTER TABLE sys_file_info
+    ADD INDEX idx_temp_status (is_temp, status);
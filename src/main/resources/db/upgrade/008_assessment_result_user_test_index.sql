@@ -0,0 +1,12 @@
+-- 测评结果按数值类型的用户ID、量表ID建立索引（MySQL 5.7+）
+-- uid / testid 为字符串列，按数值比较会逐行类型转换而无法使用索引；
+-- 用存储型生成列得到数值ID，由数据库随 uid / testid 自动维护，应用只按生成列查询
+-- 主键自增，与测试时间同序，放在索引最后一列即按创建时间排序：
+-- 历史记录游标分页与取最新记录都只扫描索引，再按主键回表读取本页记录
+-- 执行前需确认历史数据的 uid / testid 均为数字，否则严格模式下添加生成列会失败
+
+ALTER TABLE assessment_result
+    ADD COLUMN user_id BIGINT AS (CAST(uid AS SIGNED)) STORED COMMENT '用户ID（由uid生成）' AFTER uid,
+    ADD COLUMN test_id BIGINT AS (CAST(testid AS SIGNED)) STORED COMMENT '量表ID（由testid生成）' AFTER testid,
+    ADD INDEX idx_user_id (user_id, id),
+    ADD INDEX idx_user_test_id (user_id, test_id, id);
@@ -0,0 +1,5 @@
+-- 测评提交后立即返回得分，AI解读在后台生成，完成后写回 result
+-- 历史记录的解读均已生成，默认 COMPLETED
+
+ALTER TABLE assessment_result
+    ADD COLUMN analysis_status VARCHAR(16) NOT NULL DEFAULT 'COMPLETED' COMMENT 'AI解读状态：PENDING/COMPLETED/FAILED' AFTER result;
@@ -0,0 +1,8 @@
+-- 对话消息触发的危机复核任务记录来源会话与消息序号，便于人工复核时定位原消息
+-- 这类任务没有关联日记，diary_id 允许为空
+
+ALTER TABLE ai_analysis_task
+    MODIFY COLUMN diary_id BIGINT NULL COMMENT '日记ID（对话消息触发的危机复核任务为空）',
+    ADD COLUMN session_id BIGINT NULL COMMENT '会话ID（对话消息触发的危机复核任务）' AFTER diary_id,
+    ADD COLUMN message_seq BIGINT NULL COMMENT '触发任务的用户消息在会话内的序号' AFTER session_id,
+    ADD INDEX idx_session_message (session_id, message_seq);
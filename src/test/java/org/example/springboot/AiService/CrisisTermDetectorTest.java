@@ -0,0 +1,81 @@
+package org.example.springboot.AiService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.springboot.config.CrisisDetectorProperties;
+import org.example.springboot.util.AhoCorasickMatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CrisisTermDetector 单元测试
+ */
+@DisplayName("危机词检测器测试")
+class CrisisTermDetectorTest {
+
+    private CrisisTermDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new CrisisTermDetector(new CrisisDetectorProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("普通消息不命中")
+    void shouldNotHitOrdinaryMessage() {
+        CrisisTermDetector.Scan scan = detector.scan("今天考试没考好，有点难过", "chat");
+
+        assertFalse(scan.hit());
+        assertEquals(0, scan.riskLevel());
+    }
+
+    @Test
+    @DisplayName("命中多个危机词时取最高风险等级")
+    void shouldReturnHighestRiskLevel() {
+        CrisisTermDetector.Scan scan = detector.scan("最近总想自残，觉得活不下去了", "diary");
+
+        assertTrue(scan.hit());
+        assertEquals(3, scan.riskLevel());
+        assertTrue(scan.terms().contains("自残"));
+        assertTrue(scan.terms().contains("活不下去了"));
+    }
+
+    @Test
+    @DisplayName("空格、标点、全角和拼音变体均能命中")
+    void shouldHitObfuscatedVariants() {
+        assertTrue(detector.scan("我 真 的 想…死", "chat").hit());
+        assertTrue(detector.scan("ＺＩＳＨＡ", "chat").hit());
+        assertTrue(detector.scan("I want to die", "chat").hit());
+    }
+
+    @Test
+    @DisplayName("拼音和英文词条只按整词命中")
+    void shouldMatchLatinTermsOnWordBoundaries() {
+        assertFalse(detector.scan("I bought an orange wand", "chat").hit());
+        assertFalse(detector.scan("jazz I can play", "chat").hit());
+        assertFalse(detector.scan("xiangsihua", "chat").hit());
+
+        CrisisTermDetector.Scan scan = detector.scan("最近总想zisha。", "chat");
+        assertTrue(scan.hit());
+        assertEquals(List.of("zisha"), scan.terms());
+        assertEquals(List.of("kill myself"), detector.scan("I might KILL myself...", "chat").terms());
+    }
+
+    @Test
+    @DisplayName("自动机可找出相互重叠的词条")
+    void shouldFindOverlappingPatterns() {
+        AhoCorasickMatcher<Integer> matcher = AhoCorasickMatcher.<Integer>builder()
+                .add("he", 1).add("she", 2).add("his", 3).add("hers", 4)
+                .build();
+
+        List<String> patterns = matcher.findAll("ushers").stream()
+                .map(AhoCorasickMatcher.Hit::pattern)
+                .toList();
+
+        assertEquals(List.of("she", "he", "hers"), patterns);
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.springboot.AiService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.springboot.config.EmotionPreClassifierProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EmotionPreClassifier 单元测试
+ */
+@DisplayName("情绪预分类器测试")
+class EmotionPreClassifierTest {
+
+    private EmotionPreClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        classifier = new EmotionPreClassifier(new EmotionPreClassifierProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("简短回复不命中词典时不调用大模型")
+    void shouldNotEscalateTrivialReply() {
+        EmotionPreClassifier.Classification classification = classifier.classify("嗯");
+
+        assertFalse(classification.matched());
+        EmotionPreClassifier.Decision decision = classifier.decide(classification, null);
+        assertFalse(decision.escalate());
+        assertEquals("trivial", decision.reason());
+    }
+
+    @Test
+    @DisplayName("强烈负面情绪应升级到大模型分析")
+    void shouldEscalateStrongNegativeEmotion() {
+        EmotionPreClassifier.Classification classification = classifier.classify("今天考试考砸了，非常难过，想哭");
+
+        assertTrue(classification.matched());
+        assertEquals("悲伤", classification.result().primaryEmotion());
+        assertTrue(classification.result().isNegative());
+        assertTrue(classifier.decide(classification, null).escalate());
+    }
+
+    @Test
+    @DisplayName("否定词翻转正面情绪")
+    void shouldFlipNegatedPositiveEmotion() {
+        EmotionPreClassifier.Classification classification = classifier.classify("不开心");
+
+        assertTrue(classification.matched());
+        assertEquals("困扰", classification.result().primaryEmotion());
+    }
+
+    @Test
+    @DisplayName("情绪与上次分析一致时不重复调用大模型")
+    void shouldNotEscalateStableEmotion() {
+        EmotionPreClassifier.Classification first = classifier.classify("还行");
+        EmotionPreClassifier.Classification second = classifier.classify("还行");
+
+        EmotionPreClassifier.Decision decision = classifier.decide(second, first.result());
+        assertFalse(decision.escalate());
+        assertEquals("stable", decision.reason());
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.springboot.AiService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SensitiveWordStreamFilter 单元测试
+ */
+@DisplayName("流式输出过滤器测试")
+class SensitiveWordStreamFilterTest {
+
+    private SensitiveWordStreamFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SensitiveWordStreamFilter(new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("被拆分到多个片段的风险标记仍能识别为一个风险段落")
+    void shouldDetectMarkerSplitAcrossFragments() {
+        List<SensitiveWordStreamFilter.Segment> segments =
+                feed(filter.newSession(), "我理解你。\n", "⚠", "️ 请及时", "寻求帮助\n", "我们继续聊");
+
+        assertEquals(3, segments.size());
+        assertEquals(SensitiveWordStreamFilter.SegmentType.NORMAL, segments.get(0).type());
+        assertEquals(SensitiveWordStreamFilter.SegmentType.RISK, segments.get(1).type());
+        assertEquals("⚠️ 请及时寻求帮助\n", segments.get(1).content());
+        assertEquals("我们继续聊", segments.get(2).content());
+    }
+
+    @Test
+    @DisplayName("跨片段的敏感词被替换，低风险词只记录")
+    void shouldMaskWordSplitAcrossFragments() {
+        SensitiveWordStreamFilter.Session session = filter.newSession();
+        String output = String.join("", feed(session, "不要去查致", "死剂", "量，你不是废物").stream()
+                .map(SensitiveWordStreamFilter.Segment::content)
+                .toList());
+
+        assertEquals("不要去查****，你不是废物", output);
+        StructOutPut.SensitiveWordResult summary = session.summary();
+        assertTrue(summary.hasSensitiveWords());
+        assertEquals(List.of("致死剂量", "废物"), summary.sensitiveWords());
+        assertEquals("high", summary.severity());
+    }
+
+    @Test
+    @DisplayName("普通内容原样输出")
+    void shouldPassThroughOrdinaryContent() {
+        SensitiveWordStreamFilter.Session session = filter.newSession();
+        List<SensitiveWordStreamFilter.Segment> segments = feed(session, "深呼吸，", "慢慢来");
+
+        assertEquals("深呼吸，慢慢来", String.join("", segments.stream()
+                .map(SensitiveWordStreamFilter.Segment::content)
+                .toList()));
+        assertFalse(session.summary().hasSensitiveWords());
+    }
+
+    private List<SensitiveWordStreamFilter.Segment> feed(SensitiveWordStreamFilter.Session session, String... fragments) {
+        List<SensitiveWordStreamFilter.Segment> segments = new ArrayList<>();
+        for (String fragment : fragments) {
+            segments.addAll(session.accept(fragment));
+        }
+        segments.addAll(session.finish());
+        // 相邻的普通片段合并，便于断言
+        List<SensitiveWordStreamFilter.Segment> merged = new ArrayList<>();
+        for (SensitiveWordStreamFilter.Segment segment : segments) {
+            int last = merged.size() - 1;
+            if (last >= 0 && segment.type() == SensitiveWordStreamFilter.SegmentType.NORMAL
+                    && merged.get(last).type() == SensitiveWordStreamFilter.SegmentType.NORMAL) {
+                merged.set(last, new SensitiveWordStreamFilter.Segment(
+                        SensitiveWordStreamFilter.SegmentType.NORMAL, merged.get(last).content() + segment.content()));
+            } else {
+                merged.add(segment);
+            }
+        }
+        return merged;
+    }
+}
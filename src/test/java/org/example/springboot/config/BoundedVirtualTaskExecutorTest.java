@@ -0,0 +1,105 @@
+package org.example.springboot.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BoundedVirtualTaskExecutor 单元测试（虚拟线程需要 JDK 21+）
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@DisplayName("有界虚拟线程执行器测试")
+class BoundedVirtualTaskExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedVirtualTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    @Test
+    @DisplayName("并发已满时先排队，队列也满才按拒绝策略处理")
+    void shouldQueueBeforeRejecting() throws InterruptedException {
+        executor = newExecutor(1, 2, AsyncExecutorProperties.RejectionPolicy.ABORT);
+        List<String> finished = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+
+        executor.execute(() -> {
+            awaitRelease();
+            finished.add("running");
+            done.countDown();
+        });
+        executor.execute(() -> {
+            finished.add("queued-1");
+            done.countDown();
+        });
+        executor.execute(() -> {
+            finished.add("queued-2");
+            done.countDown();
+        });
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> finished.add("rejected")));
+
+        assertEquals(2.0, meterRegistry.get("executor.queued").tag("name", "test").gauge().value());
+        assertEquals(1.0, meterRegistry.get("executor.rejected").tag("name", "test").counter().count());
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("running", "queued-1", "queued-2"), finished);
+        assertEquals(0.0, meterRegistry.get("executor.queued").tag("name", "test").gauge().value());
+    }
+
+    @Test
+    @DisplayName("DISCARD_OLDEST 丢弃队首任务后让新任务入队")
+    void shouldDiscardOldestQueuedTask() throws InterruptedException {
+        executor = newExecutor(1, 1, AsyncExecutorProperties.RejectionPolicy.DISCARD_OLDEST);
+        List<String> finished = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+
+        executor.execute(() -> {
+            awaitRelease();
+            done.countDown();
+        });
+        executor.execute(() -> finished.add("oldest"));
+        executor.execute(() -> {
+            finished.add("newest");
+            done.countDown();
+        });
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("newest"), finished);
+    }
+
+    private BoundedVirtualTaskExecutor newExecutor(int concurrencyLimit, int queueCapacity,
+                                                   AsyncExecutorProperties.RejectionPolicy policy) {
+        AsyncExecutorProperties.Pool pool = new AsyncExecutorProperties.Pool(1, 1, queueCapacity, policy);
+        pool.setVirtualConcurrencyLimit(concurrencyLimit);
+        pool.setAwaitTerminationSeconds(5);
+        return new BoundedVirtualTaskExecutor("test", "test-", pool, null, meterRegistry);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.springboot.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TransactionGuard 单元测试
+ */
+@DisplayName("事务内远程调用守卫测试")
+class TransactionGuardTest {
+
+    private TransactionGuardProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TransactionGuardProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new TransactionGuard(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("没有事务时放行")
+    void shouldPassWithoutTransaction() {
+        properties.setFailOnViolation(true);
+
+        assertDoesNotThrow(() -> guard.checkNoTransaction("evaluation"));
+        assertNull(meterRegistry.find("transaction.remote_call").counter());
+    }
+
+    @Test
+    @DisplayName("事务内调用时计数，开启失败模式时抛出异常")
+    void shouldCountAndFailInsideTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        guard.checkNoTransaction("evaluation");
+        properties.setFailOnViolation(true);
+        assertThrows(IllegalStateException.class, () -> guard.checkNoTransaction("evaluation"));
+
+        assertEquals(2.0, meterRegistry.get("transaction.remote_call").tag("callSite", "evaluation").counter().count());
+    }
+
+    @Test
+    @DisplayName("事务提交后才执行，有无事务时失败都不向外抛出")
+    void shouldRunAfterCommit() {
+        AtomicInteger runs = new AtomicInteger();
+        TransactionGuard.runAfterCommit(runs::incrementAndGet);
+        assertEquals(1, runs.get());
+        assertDoesNotThrow(() -> TransactionGuard.runAfterCommit(() -> {
+            throw new IllegalStateException("线程池已满");
+        }));
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionGuard.runAfterCommit(runs::incrementAndGet);
+        TransactionGuard.runAfterCommit(() -> {
+            throw new IllegalStateException("线程池已满");
+        });
+        assertEquals(1, runs.get());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            assertDoesNotThrow(synchronization::afterCommit);
+        }
+        assertEquals(2, runs.get());
+    }
+}
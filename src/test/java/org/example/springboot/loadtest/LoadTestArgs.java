@@ -0,0 +1,32 @@
+package org.example.springboot.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 压测工具命令行参数解析（--key=value 形式）
+ */
+final class LoadTestArgs {
+
+    private LoadTestArgs() {
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        if (args == null) {
+            return options;
+        }
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            int idx = arg.indexOf('=');
+            if (idx > 2) {
+                options.put(arg.substring(2, idx), arg.substring(idx + 1));
+            } else {
+                options.put(arg.substring(2), "true");
+            }
+        }
+        return options;
+    }
+}
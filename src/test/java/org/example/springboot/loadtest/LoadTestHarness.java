@@ -0,0 +1,497 @@
+package org.example.springboot.loadtest;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 压测工具
+ * 并发驱动 SSE 流式对话、情绪日记保存与数据看板三类场景，输出 p50/p95/p99 延迟、首token时间与吞吐量
+ *
+ * 典型用法：
+ * 1. 启动桩服务：StubLlmServer --port=8089 --tokens-per-second=40
+ * 2. 以 loadtest 配置启动应用：--spring.profiles.active=loadtest
+ * 3. 运行本工具：LoadTestHarness --base-url=http://localhost:1235 --username=u --password=p
+ *    --concurrency=20 --duration-seconds=60 --mix=chat:2,diary:1,dashboard:1
+ *
+ * 执行模式对比（平台线程 vs 虚拟线程）：
+ * 分别以 APP_VIRTUAL_THREADS=false / true 启动应用，各运行一次并追加结果：
+ *   --label=platform --output=loadtest-results.jsonl
+ *   --label=virtual  --output=loadtest-results.jsonl
+ * 压测期间每秒抓取管理端口的 /actuator/prometheus（--metrics-url，默认 http://localhost:9091/actuator/prometheus）
+ * 采样服务端堆内存与线程数；
+ * 最后用 --compare=loadtest-results.jsonl 输出对比表
+ */
+@Slf4j
+public class LoadTestHarness {
+
+    private final String baseUrl;
+    private final String metricsUrl;
+    private final String username;
+    private final String password;
+    private final int concurrency;
+    private final Duration duration;
+    private final Map<String, Integer> mix;
+    private final HttpClient httpClient;
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final String label;
+    private final String output;
+    private final ServerSampler sampler = new ServerSampler();
+
+    private volatile String token;
+
+    public LoadTestHarness(Map<String, String> options) {
+        this.baseUrl = options.getOrDefault("base-url", "http://localhost:1235");
+        this.metricsUrl = options.getOrDefault("metrics-url", "http://localhost:9091/actuator/prometheus");
+        this.username = options.getOrDefault("username", "admin");
+        this.password = options.getOrDefault("password", "123456");
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "10"));
+        this.duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-seconds", "30")));
+        this.mix = parseMix(options.getOrDefault("mix", "chat:2,diary:1,dashboard:1"));
+        this.label = options.getOrDefault("label", "default");
+        this.output = options.get("output");
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency)))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTestArgs.parse(args);
+        if (options.containsKey("compare")) {
+            printComparison(Path.of(options.get("compare")));
+            return;
+        }
+        LoadTestHarness harness = new LoadTestHarness(options);
+        harness.run();
+    }
+
+    public void run() throws Exception {
+        token = login();
+        log.info("压测开始：并发 {}，持续 {} 秒，场景配比 {}", concurrency, duration.toSeconds(), mix);
+
+        List<String> weighted = new ArrayList<>();
+        mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+        });
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch latch = new CountDownLatch(concurrency);
+        long deadline = System.nanoTime() + duration.toNanos();
+        long startNanos = System.nanoTime();
+        ScheduledExecutorService samplerExecutor = Executors.newSingleThreadScheduledExecutor();
+        samplerExecutor.scheduleAtFixedRate(this::sampleServer, 0, 1, TimeUnit.SECONDS);
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        String scenario = weighted.get(ThreadLocalRandom.current().nextInt(weighted.size()));
+                        runScenario(scenario);
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        samplerExecutor.shutdownNow();
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        printReport(elapsedSeconds);
+        if (output != null) {
+            appendResult(elapsedSeconds);
+        }
+    }
+
+    /**
+     * 从管理端口的 /actuator/prometheus 采样服务端堆内存与存活线程数
+     */
+    private void sampleServer() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(metricsUrl))
+                    .timeout(Duration.ofSeconds(2))
+                    .GET()
+                    .build();
+            String body = httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            double heapBytes = 0;
+            double liveThreads = 0;
+            for (String line : body.split("\n")) {
+                if (line.startsWith("jvm_memory_used_bytes{") && line.contains("area=\"heap\"")) {
+                    heapBytes += parseSampleValue(line);
+                } else if (line.startsWith("jvm_threads_live_threads")) {
+                    liveThreads = parseSampleValue(line);
+                }
+            }
+            sampler.record(heapBytes, liveThreads);
+        } catch (Exception e) {
+            log.debug("采样服务端指标失败: {}", e.getMessage());
+        }
+    }
+
+    private static double parseSampleValue(String line) {
+        String[] parts = line.trim().split(" ");
+        return Double.parseDouble(parts[parts.length - 1]);
+    }
+
+    private void runScenario(String scenario) {
+        switch (scenario) {
+            case "chat" -> runChat();
+            case "diary" -> runDiary();
+            case "dashboard" -> runDashboard();
+            default -> log.warn("未知压测场景: {}", scenario);
+        }
+    }
+
+    /**
+     * 流式对话：创建会话后发起 SSE 请求，记录首个 message 事件的到达时间（TTFT）与完整耗时
+     */
+    private void runChat() {
+        Recorder recorder = recorder("chat");
+        long start = System.nanoTime();
+        try {
+            String message = "最近工作压力很大，晚上总是睡不好，" + ThreadLocalRandom.current().nextInt(100000);
+            JSONObject startBody = new JSONObject()
+                    .set("sessionTitle", "压测会话")
+                    .set("initialMessage", message);
+            JSONObject session = postJson("/api/psychological-chat/session/start", startBody);
+            if (!isSuccess(session)) {
+                recorder.recordError();
+                return;
+            }
+            String sessionId = session.getJSONObject("data").getStr("sessionId");
+
+            JSONObject streamBody = new JSONObject().set("sessionId", sessionId).set("userMessage", message);
+            HttpRequest request = authorized(baseUrl + "/api/psychological-chat/stream")
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "text/event-stream")
+                    .timeout(Duration.ofMinutes(2))
+                    .POST(HttpRequest.BodyPublishers.ofString(streamBody.toString()))
+                    .build();
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 200) {
+                recorder.recordError();
+                return;
+            }
+
+            long firstTokenNanos = -1;
+            boolean failed = false;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith("event:")) {
+                        continue;
+                    }
+                    String event = line.substring("event:".length()).trim();
+                    if ("message".equals(event) && firstTokenNanos < 0) {
+                        firstTokenNanos = System.nanoTime();
+                    } else if ("error".equals(event)) {
+                        failed = true;
+                    } else if ("done".equals(event)) {
+                        break;
+                    }
+                }
+            }
+            long end = System.nanoTime();
+            if (failed || firstTokenNanos < 0) {
+                recorder.recordError();
+                return;
+            }
+            recorder.record(end - start, firstTokenNanos - start);
+        } catch (Exception e) {
+            recorder.recordError();
+            log.debug("流式对话压测请求失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 情绪日记保存：随机日期，触发日记写入与异步AI分析
+     */
+    private void runDiary() {
+        Recorder recorder = recorder("diary");
+        long start = System.nanoTime();
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            JSONObject body = new JSONObject()
+                    .set("diaryDate", LocalDate.now().minusDays(random.nextInt(365)).toString())
+                    .set("moodScore", random.nextInt(1, 11))
+                    .set("dominantEmotion", "焦虑")
+                    .set("diaryContent", "今天的考试让我有些紧张，不过晚上和朋友聊天后好多了。")
+                    .set("sleepQuality", random.nextInt(1, 6))
+                    .set("stressLevel", random.nextInt(1, 6));
+            JSONObject result = postJson("/api/emotion-diary", body);
+            if (isSuccess(result)) {
+                recorder.record(System.nanoTime() - start, -1);
+            } else {
+                recorder.recordError();
+            }
+        } catch (Exception e) {
+            recorder.recordError();
+            log.debug("日记保存压测请求失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 数据看板：个人情绪统计 + 综合数据分析
+     */
+    private void runDashboard() {
+        Recorder recorder = recorder("dashboard");
+        long start = System.nanoTime();
+        try {
+            JSONObject statistics = getJson("/api/emotion-diary/statistics?days=30");
+            JSONObject overview = getJson("/api/data-analytics/overview?days=30");
+            if (isSuccess(statistics) && isSuccess(overview)) {
+                recorder.record(System.nanoTime() - start, -1);
+            } else {
+                recorder.recordError();
+            }
+        } catch (Exception e) {
+            recorder.recordError();
+            log.debug("看板压测请求失败: {}", e.getMessage());
+        }
+    }
+
+    private String login() throws Exception {
+        JSONObject body = new JSONObject().set("username", username).set("password", password);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/user/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        JSONObject result = JSONUtil.parseObj(response.body());
+        if (!isSuccess(result)) {
+            throw new IllegalStateException("压测账号登录失败: " + response.body());
+        }
+        return result.getJSONObject("data").getStr("token");
+    }
+
+    private JSONObject postJson(String path, JSONObject body) throws Exception {
+        HttpRequest request = authorized(baseUrl + path)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return JSONUtil.parseObj(httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    private JSONObject getJson(String path) throws Exception {
+        HttpRequest request = authorized(baseUrl + path)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        return JSONUtil.parseObj(httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    private HttpRequest.Builder authorized(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Authorization", "Bearer " + token);
+    }
+
+    private static boolean isSuccess(JSONObject result) {
+        return result != null && "200".equals(result.getStr("code"));
+    }
+
+    private Recorder recorder(String scenario) {
+        return recorders.computeIfAbsent(scenario, k -> new Recorder());
+    }
+
+    private void printReport(double elapsedSeconds) {
+        StringBuilder sb = new StringBuilder("\n========== 压测报告 ==========\n");
+        sb.append(String.format("持续时间: %.1fs，并发: %d%n", elapsedSeconds, concurrency));
+        sb.append(String.format("%-10s %8s %6s %9s %9s %9s %9s %9s %9s%n",
+                "场景", "成功", "失败", "吞吐/s", "p50(ms)", "p95(ms)", "p99(ms)", "TTFT50", "TTFT99"));
+        recorders.forEach((scenario, recorder) -> {
+            long[] latencies = recorder.latencies();
+            long[] ttfts = recorder.ttfts();
+            sb.append(String.format("%-10s %8d %6d %9.2f %9.1f %9.1f %9.1f %9s %9s%n",
+                    scenario,
+                    latencies.length,
+                    recorder.errors.get(),
+                    latencies.length / elapsedSeconds,
+                    percentileMillis(latencies, 50),
+                    percentileMillis(latencies, 95),
+                    percentileMillis(latencies, 99),
+                    ttfts.length == 0 ? "-" : String.format("%.1f", percentileMillis(ttfts, 50)),
+                    ttfts.length == 0 ? "-" : String.format("%.1f", percentileMillis(ttfts, 99))));
+        });
+        if (sampler.samples() > 0) {
+            sb.append(String.format("服务端：堆内存 平均 %.1fMB / 峰值 %.1fMB，存活线程 平均 %.0f / 峰值 %.0f%n",
+                    sampler.avgHeapMb(), sampler.peakHeapMb(), sampler.avgThreads(), sampler.peakThreads()));
+        }
+        log.info(sb.toString());
+    }
+
+    /**
+     * 追加一行JSON结果，供 --compare 对比不同执行模式
+     */
+    private void appendResult(double elapsedSeconds) throws IOException {
+        JSONObject line = new JSONObject()
+                .set("label", label)
+                .set("concurrency", concurrency)
+                .set("elapsedSeconds", elapsedSeconds)
+                .set("avgHeapMb", sampler.avgHeapMb())
+                .set("peakHeapMb", sampler.peakHeapMb())
+                .set("avgThreads", sampler.avgThreads())
+                .set("peakThreads", sampler.peakThreads());
+        JSONObject scenarios = new JSONObject();
+        recorders.forEach((scenario, recorder) -> {
+            long[] latencies = recorder.latencies();
+            long[] ttfts = recorder.ttfts();
+            scenarios.set(scenario, new JSONObject()
+                    .set("ok", latencies.length)
+                    .set("errors", recorder.errors.get())
+                    .set("throughput", latencies.length / elapsedSeconds)
+                    .set("p50", percentileMillis(latencies, 50))
+                    .set("p99", percentileMillis(latencies, 99))
+                    .set("ttftP50", percentileMillis(ttfts, 50)));
+        });
+        line.set("scenarios", scenarios);
+        Files.writeString(Path.of(output), line + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("压测结果已追加到 {}", output);
+    }
+
+    /**
+     * 输出多次压测结果的对比表（每行一次运行）
+     */
+    static void printComparison(Path file) throws IOException {
+        StringBuilder sb = new StringBuilder("\n========== 执行模式对比 ==========\n");
+        sb.append(String.format("%-10s %-10s %9s %9s %9s %9s %10s %10s %8s%n",
+                "模式", "场景", "吞吐/s", "p50(ms)", "p99(ms)", "TTFT50", "堆均值MB", "堆峰值MB", "线程峰值"));
+        for (String raw : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (raw.isBlank()) {
+                continue;
+            }
+            JSONObject run = JSONUtil.parseObj(raw);
+            JSONObject scenarios = run.getJSONObject("scenarios");
+            for (String scenario : scenarios.keySet()) {
+                JSONObject stats = scenarios.getJSONObject(scenario);
+                sb.append(String.format("%-10s %-10s %9.2f %9.1f %9.1f %9.1f %10.1f %10.1f %8.0f%n",
+                        run.getStr("label"), scenario,
+                        stats.getDouble("throughput"), stats.getDouble("p50"), stats.getDouble("p99"),
+                        stats.getDouble("ttftP50"),
+                        run.getDouble("avgHeapMb"), run.getDouble("peakHeapMb"), run.getDouble("peakThreads")));
+            }
+        }
+        log.info(sb.toString());
+    }
+
+    static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        index = Math.min(sortedNanos.length - 1, Math.max(0, index));
+        return sortedNanos[index] / 1_000_000.0;
+    }
+
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        Arrays.stream(spec.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .forEach(item -> {
+                    String[] parts = item.split(":");
+                    result.put(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+                });
+        return result;
+    }
+
+    /**
+     * 服务端资源采样
+     */
+    private static class ServerSampler {
+        private double heapSum;
+        private double heapPeak;
+        private double threadSum;
+        private double threadPeak;
+        private int samples;
+
+        synchronized void record(double heapBytes, double threads) {
+            samples++;
+            heapSum += heapBytes;
+            heapPeak = Math.max(heapPeak, heapBytes);
+            threadSum += threads;
+            threadPeak = Math.max(threadPeak, threads);
+        }
+
+        synchronized int samples() {
+            return samples;
+        }
+
+        synchronized double avgHeapMb() {
+            return samples == 0 ? 0 : heapSum / samples / 1024 / 1024;
+        }
+
+        synchronized double peakHeapMb() {
+            return heapPeak / 1024 / 1024;
+        }
+
+        synchronized double avgThreads() {
+            return samples == 0 ? 0 : threadSum / samples;
+        }
+
+        synchronized double peakThreads() {
+            return threadPeak;
+        }
+    }
+
+    /**
+     * 单个场景的结果记录
+     */
+    private static class Recorder {
+        private final List<Long> latencyNanos = new ArrayList<>();
+        private final List<Long> ttftNanos = new ArrayList<>();
+        private final AtomicLong errors = new AtomicLong();
+
+        synchronized void record(long latency, long ttft) {
+            latencyNanos.add(latency);
+            if (ttft >= 0) {
+                ttftNanos.add(ttft);
+            }
+        }
+
+        void recordError() {
+            errors.incrementAndGet();
+        }
+
+        synchronized long[] latencies() {
+            return latencyNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+
+        synchronized long[] ttfts() {
+            return ttftNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+    }
+}
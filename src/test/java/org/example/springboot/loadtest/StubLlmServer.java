@@ -0,0 +1,379 @@
+package org.example.springboot.loadtest;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地 OpenAI 兼容桩服务
+ * 模拟 /v1/chat/completions 的流式与非流式协议，用于在不依赖真实付费模型的情况下压测所有AI链路
+ *
+ * 启动参数（均为可选）：
+ * --port=8089                 监听端口
+ * --tokens-per-second=40      流式输出速率（每秒token数，按字符近似）
+ * --latency-median-ms=300     首token延迟中位数（对数正态分布）
+ * --latency-sigma=0.5         首token延迟分布的sigma
+ * --error-rate=0.0            直接返回500的请求比例
+ * --stream-abort-rate=0.0     流式输出中途断开的比例
+ * --reply-length=120          普通回复的字符数
+ *
+ * 配合 application-loadtest.yml 使用：spring.ai.openai.base-url 指向本服务
+ */
+@Slf4j
+public class StubLlmServer {
+
+    private static final String COMPLETIONS_PATH = "/v1/chat/completions";
+
+    private static final String REPLY_CORPUS =
+            "我能理解你现在的感受，这些情绪是很正常的反应。我们可以先试着做几次深呼吸，" +
+            "把注意力放回到当下。你愿意和我多聊聊最近让你感到困扰的事情吗？" +
+            "有时候把想法写下来，也能帮助我们更清楚地看到问题所在。";
+
+    private final Config config;
+    private final HttpServer server;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    public StubLlmServer(Config config) throws IOException {
+        this.config = config;
+        this.server = HttpServer.create(new InetSocketAddress(config.port()), 512);
+        this.server.createContext(COMPLETIONS_PATH, this::handleCompletions);
+        this.server.createContext("/v1/models", this::handleModels);
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "stub-llm-" + UUID.randomUUID().toString().substring(0, 8));
+            t.setDaemon(true);
+            return t;
+        });
+        this.server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Config config = Config.fromArgs(args);
+        StubLlmServer stub = new StubLlmServer(config);
+        stub.start();
+        log.info("桩LLM服务已启动: http://localhost:{}{}，配置: {}", config.port(), COMPLETIONS_PATH, config);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        log.info("桩LLM服务已停止，共处理请求: {}，注入错误: {}", requestCount.get(), errorCount.get());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleModels(HttpExchange exchange) throws IOException {
+        JSONObject body = new JSONObject()
+                .set("object", "list")
+                .set("data", new JSONArray().set(new JSONObject().set("id", "stub-model").set("object", "model")));
+        writeJson(exchange, 200, body.toString());
+    }
+
+    private void handleCompletions(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                writeJson(exchange, 405, errorBody("method not allowed"));
+                return;
+            }
+            JSONObject request = JSONUtil.parseObj(readBody(exchange));
+            String model = request.getStr("model", "stub-model");
+            boolean stream = request.getBool("stream", false);
+
+            // 首token延迟
+            sleepQuietly(sampleLatencyMs());
+
+            // 错误注入
+            if (ThreadLocalRandom.current().nextDouble() < config.errorRate()) {
+                errorCount.incrementAndGet();
+                writeJson(exchange, 500, errorBody("stub injected error"));
+                return;
+            }
+
+            String reply = buildReply(request);
+            int promptTokens = estimateTokens(request.getJSONArray("messages"));
+            if (stream) {
+                writeStream(exchange, model, reply, promptTokens);
+            } else {
+                writeCompletion(exchange, model, reply, promptTokens);
+            }
+        } catch (Exception e) {
+            log.warn("桩LLM服务处理请求异常: {}", e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 根据请求内容选择回复：结构化输出请求返回与 StructOutPut 记录匹配的JSON，否则返回普通疏导文本
+     */
+    private String buildReply(JSONObject request) {
+        String allText = collectMessageText(request.getJSONArray("messages"));
+        if (allText.contains("primaryEmotion")) {
+            return emotionAnalysisJson();
+        }
+        if (allText.contains("urgencyLevel")) {
+            return crisisDetectionJson();
+        }
+        return plainReply();
+    }
+
+    private String emotionAnalysisJson() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[][] emotions = {
+                {"平静", "😌", "false"}, {"焦虑", "😰", "true"}, {"开心", "😊", "false"},
+                {"难过", "😢", "true"}, {"疲惫", "😴", "true"}
+        };
+        String[] pick = emotions[random.nextInt(emotions.length)];
+        boolean negative = Boolean.parseBoolean(pick[2]);
+        int riskLevel = negative ? random.nextInt(0, 3) : 0;
+        JSONObject json = new JSONObject()
+                .set("primaryEmotion", pick[0])
+                .set("emotionScore", negative ? random.nextInt(20, 50) : random.nextInt(60, 90))
+                .set("isNegative", negative)
+                .set("riskLevel", riskLevel)
+                .set("keywords", List.of("压力", "睡眠"))
+                .set("suggestion", "保持规律作息，适当运动")
+                .set("icon", pick[1])
+                .set("label", pick[0])
+                .set("riskDescription", riskLevel > 0 ? "存在一定情绪波动" : "情绪状态稳定")
+                .set("improvementSuggestions", List.of("深呼吸练习", "与朋友交流"))
+                .set("timestamp", System.currentTimeMillis());
+        return json.toString();
+    }
+
+    private String crisisDetectionJson() {
+        int urgencyLevel = ThreadLocalRandom.current().nextInt(0, 4);
+        JSONObject json = new JSONObject()
+                .set("isCrisis", urgencyLevel >= 2)
+                .set("urgencyLevel", urgencyLevel)
+                .set("crisisSignals", urgencyLevel >= 2 ? List.of("绝望感") : List.of())
+                .set("immediateRisk", urgencyLevel >= 3 ? "存在即时安全风险" : "暂无即时安全风险")
+                .set("recommendedActions", List.of("保持陪伴", "建议专业咨询"))
+                .set("needsProfessionalHelp", urgencyLevel >= 2)
+                .set("summary", "模拟危机复核结果");
+        return json.toString();
+    }
+
+    private String plainReply() {
+        int length = Math.max(1, config.replyLength());
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(REPLY_CORPUS, 0, Math.min(REPLY_CORPUS.length(), length - sb.length()));
+        }
+        return sb.toString();
+    }
+
+    private void writeCompletion(HttpExchange exchange, String model, String reply, int promptTokens) throws IOException {
+        // 非流式：按速率模拟整段生成耗时
+        sleepQuietly(generationMillis(reply.length()));
+        JSONObject message = new JSONObject().set("role", "assistant").set("content", reply);
+        JSONObject choice = new JSONObject().set("index", 0).set("message", message).set("finish_reason", "stop");
+        JSONObject body = baseBody(model, "chat.completion")
+                .set("choices", new JSONArray().set(choice))
+                .set("usage", usage(promptTokens, reply.length()));
+        writeJson(exchange, 200, body.toString());
+    }
+
+    private void writeStream(HttpExchange exchange, String model, String reply, int promptTokens) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream;charset=UTF-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        String id = "chatcmpl-" + UUID.randomUUID();
+        long created = System.currentTimeMillis() / 1000;
+        boolean abort = ThreadLocalRandom.current().nextDouble() < config.streamAbortRate();
+        int abortAt = abort ? ThreadLocalRandom.current().nextInt(1, Math.max(2, reply.length())) : -1;
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            List<String> tokens = splitTokens(reply);
+            long perTokenMillis = config.tokensPerSecond() > 0 ? 1000L / config.tokensPerSecond() : 0;
+            int emitted = 0;
+            for (int i = 0; i < tokens.size(); i++) {
+                if (abort && emitted >= abortAt) {
+                    errorCount.incrementAndGet();
+                    return;
+                }
+                JSONObject delta = new JSONObject().set("content", tokens.get(i));
+                if (i == 0) {
+                    delta.set("role", "assistant");
+                }
+                writeChunk(out, chunk(id, created, model, delta, null));
+                emitted += tokens.get(i).length();
+                sleepQuietly(perTokenMillis);
+            }
+            JSONObject last = chunk(id, created, model, new JSONObject(), "stop")
+                    .set("usage", usage(promptTokens, reply.length()));
+            writeChunk(out, last);
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+
+    private JSONObject chunk(String id, long created, String model, JSONObject delta, String finishReason) {
+        JSONObject choice = new JSONObject()
+                .set("index", 0)
+                .set("delta", delta)
+                .set("finish_reason", finishReason);
+        return new JSONObject()
+                .set("id", id)
+                .set("object", "chat.completion.chunk")
+                .set("created", created)
+                .set("model", model)
+                .set("choices", new JSONArray().set(choice));
+    }
+
+    private void writeChunk(OutputStream out, JSONObject chunk) throws IOException {
+        out.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * 按2个字符一个token近似切分，保证中文与JSON都能被逐段下发
+     */
+    private List<String> splitTokens(String reply) {
+        List<String> tokens = new ArrayList<>(reply.length() / 2 + 1);
+        for (int i = 0; i < reply.length(); i += 2) {
+            tokens.add(reply.substring(i, Math.min(reply.length(), i + 2)));
+        }
+        return tokens;
+    }
+
+    private JSONObject baseBody(String model, String object) {
+        return new JSONObject()
+                .set("id", "chatcmpl-" + UUID.randomUUID())
+                .set("object", object)
+                .set("created", System.currentTimeMillis() / 1000)
+                .set("model", model);
+    }
+
+    private JSONObject usage(int promptTokens, int replyChars) {
+        int completionTokens = Math.max(1, replyChars / 2);
+        return new JSONObject()
+                .set("prompt_tokens", promptTokens)
+                .set("completion_tokens", completionTokens)
+                .set("total_tokens", promptTokens + completionTokens);
+    }
+
+    private int estimateTokens(JSONArray messages) {
+        return Math.max(1, collectMessageText(messages).length() / 2);
+    }
+
+    private String collectMessageText(JSONArray messages) {
+        if (messages == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Object item : messages) {
+            if (item instanceof JSONObject message) {
+                Object content = message.get("content");
+                if (content != null) {
+                    sb.append(content).append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private long generationMillis(int replyChars) {
+        if (config.tokensPerSecond() <= 0) {
+            return 0;
+        }
+        return (replyChars / 2) * 1000L / config.tokensPerSecond();
+    }
+
+    /**
+     * 对数正态分布采样首token延迟，模拟真实服务的长尾
+     */
+    private long sampleLatencyMs() {
+        if (config.latencyMedianMs() <= 0) {
+            return 0;
+        }
+        double gaussian = ThreadLocalRandom.current().nextGaussian();
+        return (long) (config.latencyMedianMs() * Math.exp(config.latencySigma() * gaussian));
+    }
+
+    private String errorBody(String message) {
+        return new JSONObject()
+                .set("error", new JSONObject().set("message", message).set("type", "stub_error"))
+                .toString();
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void writeJson(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 桩服务配置
+     */
+    public record Config(
+            int port,
+            int tokensPerSecond,
+            long latencyMedianMs,
+            double latencySigma,
+            double errorRate,
+            double streamAbortRate,
+            int replyLength
+    ) {
+        public static Config defaults() {
+            return new Config(8089, 40, 300, 0.5, 0.0, 0.0, 120);
+        }
+
+        public static Config fromArgs(String[] args) {
+            Map<String, String> options = LoadTestArgs.parse(args);
+            Config d = defaults();
+            return new Config(
+                    Integer.parseInt(options.getOrDefault("port", String.valueOf(d.port()))),
+                    Integer.parseInt(options.getOrDefault("tokens-per-second", String.valueOf(d.tokensPerSecond()))),
+                    Long.parseLong(options.getOrDefault("latency-median-ms", String.valueOf(d.latencyMedianMs()))),
+                    Double.parseDouble(options.getOrDefault("latency-sigma", String.valueOf(d.latencySigma()))),
+                    Double.parseDouble(options.getOrDefault("error-rate", String.valueOf(d.errorRate()))),
+                    Double.parseDouble(options.getOrDefault("stream-abort-rate", String.valueOf(d.streamAbortRate()))),
+                    Integer.parseInt(options.getOrDefault("reply-length", String.valueOf(d.replyLength())))
+            );
+        }
+    }
+}
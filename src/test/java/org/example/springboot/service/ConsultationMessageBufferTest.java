@@ -0,0 +1,167 @@
+package org.example.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.springboot.config.MessageBufferProperties;
+import org.example.springboot.entity.ConsultationMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ConsultationMessageBuffer 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("咨询消息写缓冲测试")
+class ConsultationMessageBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ConsultationMessageBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        MessageBufferProperties properties = new MessageBufferProperties();
+        properties.setMaxAttempts(2);
+        // 关闭定时刷新的干扰，由测试手动触发
+        properties.setFlushIntervalMs(60_000);
+        buffer = new ConsultationMessageBuffer(jdbcTemplate, transactionManager, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.stop();
+    }
+
+    @Test
+    @DisplayName("未落库的消息对读取可见，刷新后按追加顺序批量写入")
+    @SuppressWarnings("unchecked")
+    void shouldExposeBufferedMessagesAndFlushInOrder() {
+        buffer.start();
+        buffer.append(message(1L, 1, "你好"));
+        buffer.append(message(2L, 1, "在吗"));
+        buffer.append(message(1L, 2, "我在"));
+
+        List<String> visible = buffer.read(1L, buffered -> buffered.stream().map(ConsultationMessage::getContent).toList());
+        assertEquals(List.of("你好", "我在"), visible);
+        verifyNoInteractions(jdbcTemplate);
+
+        buffer.flush();
+
+        ArgumentCaptor<Collection<ConsultationMessage>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture(), eq(3), any());
+        List<String> written = new ArrayList<>(captor.getValue()).stream().map(ConsultationMessage::getContent).toList();
+        assertEquals(List.of("你好", "在吗", "我在"), written);
+        assertTrue(buffer.read(1L, buffered -> buffered.isEmpty()));
+    }
+
+    @Test
+    @DisplayName("删除会话时丢弃其未落库消息")
+    void shouldDiscardSessionMessages() {
+        buffer.start();
+        buffer.append(message(1L, 1, "第一条"));
+        buffer.append(message(2L, 1, "其他会话"));
+        buffer.append(message(1L, 2, "第二条"));
+
+        assertEquals(2, buffer.discard(1L));
+        assertTrue(buffer.read(1L, buffered -> buffered.isEmpty()));
+        assertEquals(1, buffer.read(2L, List::size));
+    }
+
+    @Test
+    @DisplayName("缓冲未启动时同步写入")
+    void shouldInsertSynchronouslyWhenNotRunning() {
+        buffer.append(message(1L, 1, "你好"));
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyCollection(), eq(1), any());
+        assertTrue(buffer.read(1L, buffered -> buffered.isEmpty()));
+    }
+
+    @Test
+    @DisplayName("同一会话内重复的客户端消息ID只缓冲一次")
+    void shouldIgnoreDuplicateClientMessageId() {
+        buffer.start();
+        ConsultationMessage first = message(1L, 1, "你好");
+        first.setClientMessageId("msg_1");
+        ConsultationMessage retry = message(1L, 1, "你好");
+        retry.setClientMessageId("msg_1");
+        ConsultationMessage otherSession = message(2L, 1, "你好");
+        otherSession.setClientMessageId("msg_1");
+
+        assertTrue(buffer.append(first));
+        assertFalse(buffer.append(retry));
+        assertTrue(buffer.append(otherSession));
+        assertTrue(buffer.isPending(1L, "msg_1"));
+        assertEquals(1, buffer.read(1L, List::size));
+    }
+
+    @Test
+    @DisplayName("整批写入失败时逐条重试，多次失败的消息移出缓冲，不阻塞后续消息")
+    void shouldIsolateAndDeadLetterFailingMessage() {
+        doAnswer(invocation -> {
+            Collection<ConsultationMessage> batch = invocation.getArgument(1);
+            if (batch.stream().anyMatch(m -> "坏数据".equals(m.getContent()))) {
+                throw new DataIntegrityViolationException("Data too long for column 'content'");
+            }
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        buffer.start();
+        buffer.append(message(1L, 1, "你好"));
+        buffer.append(message(1L, 1, "坏数据"));
+        buffer.append(message(1L, 1, "在吗"));
+
+        buffer.flush();
+        assertEquals(List.of("坏数据"), buffer.read(1L, buffered -> buffered.stream().map(ConsultationMessage::getContent).toList()));
+
+        buffer.append(message(1L, 1, "还有人吗"));
+        buffer.flush();
+        assertTrue(buffer.read(1L, buffered -> buffered.isEmpty()));
+    }
+
+    @Test
+    @DisplayName("数据库不可用时消息留在缓冲中，不计入失败次数")
+    void shouldKeepMessagesWhenDatabaseUnavailable() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection refused"));
+        buffer.start();
+        buffer.append(message(1L, 1, "你好"));
+        buffer.append(message(1L, 1, "在吗"));
+
+        for (int i = 0; i < 3; i++) {
+            assertDoesNotThrow(() -> buffer.flush());
+        }
+        assertEquals(2, buffer.read(1L, List::size));
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    private ConsultationMessage message(Long sessionId, int senderType, String content) {
+        return ConsultationMessage.builder()
+                .sessionId(sessionId)
+                .senderType(senderType)
+                .messageType(1)
+                .content(content)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
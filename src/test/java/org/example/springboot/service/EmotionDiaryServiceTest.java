@@ -0,0 +1,111 @@
+package org.example.springboot.service;
+
+import org.example.springboot.AiService.CrisisResponseService;
+import org.example.springboot.AiService.PsychologicalSupportService;
+import org.example.springboot.DTO.command.EmotionDiaryCreateDTO;
+import org.example.springboot.DTO.response.EmotionDiaryResponseDTO;
+import org.example.springboot.entity.EmotionDiary;
+import org.example.springboot.mapper.EmotionDiaryMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * EmotionDiaryService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("情绪日记服务测试")
+class EmotionDiaryServiceTest {
+
+    @Mock
+    private EmotionDiaryMapper emotionDiaryMapper;
+
+    @Mock
+    private PsychologicalSupportService psychologicalSupportService;
+
+    @Mock
+    private AiAnalysisTaskService aiAnalysisTaskService;
+
+    @Mock
+    private CrisisResponseService crisisResponseService;
+
+    @InjectMocks
+    private EmotionDiaryService emotionDiaryService;
+
+    private ThreadPoolExecutor diaryAnalysisExecutor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        // 单线程 + 单个队列位，先占满线程和队列
+        diaryAnalysisExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        diaryAnalysisExecutor.execute(this::awaitRelease);
+        diaryAnalysisExecutor.execute(this::awaitRelease);
+        ReflectionTestUtils.setField(emotionDiaryService, "diaryAnalysisExecutor", diaryAnalysisExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        diaryAnalysisExecutor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("分析线程池已满时保存日记成功，提交回调中不在请求线程执行分析")
+    void shouldSaveDiaryWhenAnalysisPoolSaturated() {
+        doAnswer(invocation -> {
+            invocation.<EmotionDiary>getArgument(0).setId(10L);
+            return 1;
+        }).when(emotionDiaryMapper).insert(any(EmotionDiary.class));
+        EmotionDiaryCreateDTO createDTO = new EmotionDiaryCreateDTO();
+        createDTO.setDiaryDate(LocalDate.now());
+        createDTO.setMoodScore(3);
+        createDTO.setDiaryContent("今天很累");
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        EmotionDiaryResponseDTO response = emotionDiaryService.createOrUpdateDiary(1L, createDTO, false);
+        assertEquals(10L, response.getId());
+        verify(crisisResponseService).screenDiary(1L, 10L, "今天很累");
+
+        // 模拟事务提交：回调时事务仍绑定在当前线程
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            assertDoesNotThrow(synchronization::afterCommit);
+        }
+
+        verifyNoInteractions(psychologicalSupportService, aiAnalysisTaskService);
+        verify(emotionDiaryMapper, never()).selectById(any());
+        assertEquals(1, diaryAnalysisExecutor.getQueue().size());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.example.springboot.DTO.FileStorageReportDTO;
+import org.example.springboot.config.ChunkedUploadProperties;
+import org.example.springboot.config.FileStorageReconcileProperties;
+import org.example.springboot.entity.SysFileInfo;
+import org.example.springboot.mapper.SysFileInfoMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * FileStorageReconciler 单元测试
+ * 第一次 selectList 为磁盘批次的引用查询，第二次为数据库记录分页
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("文件存储对账测试")
+class FileStorageReconcilerTest {
+
+    private static final String HASH_A = "a".repeat(64);
+    private static final String HASH_B = "b".repeat(64);
+    private static final String HASH_C = "c".repeat(64);
+
+    @Mock
+    private SysFileInfoMapper fileInfoMapper;
+
+    @InjectMocks
+    private FileStorageReconciler reconciler;
+
+    private FileStorageReconcileProperties properties;
+    private Path baseDir;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), SysFileInfo.class);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        baseDir = Files.createTempDirectory("reconcile-test");
+        properties = new FileStorageReconcileProperties();
+        properties.setPauseMillis(0);
+        ReflectionTestUtils.setField(reconciler, "properties", properties);
+        ReflectionTestUtils.setField(reconciler, "chunkedUploadProperties", new ChunkedUploadProperties());
+        ReflectionTestUtils.setField(reconciler, "orphanGraceMinutes", 60L);
+    }
+
+    @Test
+    @DisplayName("无引用的内容文件按单次删除上限删除，超出部分只统计")
+    void shouldCapOrphanDeletesPerRun() throws Exception {
+        Path first = writeContent(HASH_A, Duration.ofHours(2));
+        Path second = writeContent(HASH_B, Duration.ofHours(2));
+        Path referenced = writeContent(HASH_C, Duration.ofHours(2));
+        properties.setMaxDeletesPerRun(1);
+        when(fileInfoMapper.selectList(any())).thenReturn(
+                List.of(record(1L, filePath(HASH_C))),
+                List.of(record(1L, filePath(HASH_C))));
+
+        FileStorageReportDTO report = reconciler.reconcile(baseDir);
+
+        assertEquals(3, report.getDiskFiles());
+        assertEquals(1, report.getDeletedFiles());
+        assertEquals(1, report.getOrphanContentFiles());
+        assertTrue(Files.exists(first) ^ Files.exists(second));
+        assertTrue(Files.exists(referenced));
+        assertEquals(0, report.getMissingFiles());
+    }
+
+    @Test
+    @DisplayName("宽限期内的无引用内容文件不删除")
+    void shouldSkipOrphansWithinGracePeriod() throws Exception {
+        Path recent = writeContent(HASH_A, Duration.ofMinutes(5));
+        Path stale = writeContent(HASH_B, Duration.ofHours(2));
+        when(fileInfoMapper.selectList(any())).thenReturn(List.of(), List.of());
+
+        FileStorageReportDTO report = reconciler.reconcile(baseDir);
+
+        assertTrue(Files.exists(recent));
+        assertFalse(Files.exists(stale));
+        assertEquals(1, report.getDeletedFiles());
+        assertEquals(1, report.getOrphanContentFiles());
+    }
+
+    @Test
+    @DisplayName("数据库记录指向的物理文件不存在时计入缺失并记录样例")
+    void shouldReportRecordsWithMissingFiles() throws Exception {
+        writeContent(HASH_A, Duration.ofHours(2));
+        String missingPath = filePath(HASH_B);
+        when(fileInfoMapper.selectList(any())).thenReturn(
+                List.of(record(1L, filePath(HASH_A))),
+                List.of(record(1L, filePath(HASH_A)), record(2L, missingPath), record(3L, missingPath)));
+
+        FileStorageReportDTO report = reconciler.reconcile(baseDir);
+
+        assertEquals(3, report.getRecordCount());
+        assertEquals(2, report.getMissingFiles());
+        assertEquals(List.of(missingPath, missingPath), report.getMissingSamples());
+        assertEquals(0, report.getDeletedFiles());
+        verify(fileInfoMapper, times(2)).selectList(any());
+    }
+
+    private Path writeContent(String hash, Duration age) throws Exception {
+        Path file = baseDir.resolve(filePath(hash).substring("/files/".length()));
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, hash, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+        return file;
+    }
+
+    private static String filePath(String hash) {
+        return "/files/cas/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".txt";
+    }
+
+    private static SysFileInfo record(Long id, String filePath) {
+        SysFileInfo info = new SysFileInfo();
+        info.setId(id);
+        info.setFilePath(filePath);
+        info.setFileSize(64L);
+        info.setBusinessType("DIARY");
+        return info;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.springboot.config.ScheduledJobProperties;
+import org.example.springboot.entity.ScheduledJobRun;
+import org.example.springboot.mapper.ScheduledJobRunMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ScheduledJobRunner 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("定时任务执行器测试")
+class ScheduledJobRunnerTest {
+
+    @Mock
+    private ScheduledJobLock scheduledJobLock;
+
+    @Mock
+    private ScheduledJobRunMapper scheduledJobRunMapper;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScheduledJobRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        ScheduledJobProperties properties = new ScheduledJobProperties();
+        properties.setNodeId("node-a");
+        meterRegistry = new SimpleMeterRegistry();
+        runner = new ScheduledJobRunner(scheduledJobLock, scheduledJobRunMapper, properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("其他节点持有锁时跳过执行且不记录")
+    void shouldSkipWhenLockHeldByAnotherNode() {
+        when(scheduledJobLock.tryAcquire(eq("demo"), eq("node-a"), any())).thenReturn(false);
+        AtomicInteger calls = new AtomicInteger();
+
+        boolean executed = runner.run("demo", Duration.ofMinutes(10), Duration.ofMinutes(1), () -> {
+            calls.incrementAndGet();
+            return "ok";
+        });
+
+        assertFalse(executed);
+        assertEquals(0, calls.get());
+        verify(scheduledJobRunMapper, never()).insert(any(ScheduledJobRun.class));
+        verify(scheduledJobLock, never()).release(any(), any(), any());
+        assertEquals(1.0, meterRegistry.get("scheduled.job.skipped").tag("job", "demo").counter().count());
+    }
+
+    @Test
+    @DisplayName("任务失败时记录执行并释放锁")
+    void shouldRecordRunAndReleaseLockWhenTaskFails() {
+        when(scheduledJobLock.tryAcquire(eq("demo"), eq("node-a"), any())).thenReturn(true);
+
+        boolean executed = runner.run("demo", Duration.ofMinutes(10), Duration.ofMinutes(1), () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertTrue(executed);
+        ArgumentCaptor<ScheduledJobRun> captor = ArgumentCaptor.forClass(ScheduledJobRun.class);
+        verify(scheduledJobRunMapper).insert(captor.capture());
+        assertEquals("demo", captor.getValue().getJobName());
+        assertEquals("node-a", captor.getValue().getNodeId());
+        // 标记中断的旧记录 + 写回本次结果
+        verify(scheduledJobRunMapper, times(2)).update(isNull(), any());
+        verify(scheduledJobLock).release("demo", "node-a", Duration.ofMinutes(1));
+        assertEquals(1L, meterRegistry.get("scheduled.job.duration")
+                .tag("job", "demo").tag("outcome", "failure").timer().count());
+    }
+}
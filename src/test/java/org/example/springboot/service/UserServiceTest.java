@@ -7,11 +7,14 @@ import org.example.springboot.DTO.command.UserRegisterCommandDTO;
 import org.example.springboot.DTO.query.UserListQueryDTO;
 import org.example.springboot.DTO.response.UserDetailResponseDTO;
 import org.example.springboot.DTO.response.UserLoginResponseDTO;
+import org.example.springboot.entity.DeletionJob;
 import org.example.springboot.entity.User;
+import org.example.springboot.enumClass.DeletionTargetType;
 import org.example.springboot.enumClass.UserStatus;
 import org.example.springboot.enumClass.UserType;
 import org.example.springboot.exception.BusinessException;
 import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.ConsultationSessionMapper;
 import org.example.springboot.mapper.UserMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -41,6 +44,12 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private DeletionJobService deletionJobService;
+
+    @Mock
+    private ConsultationSessionMapper consultationSessionMapper;
+
     @InjectMocks
     private UserService userService;
 
@@ -298,6 +307,7 @@ class UserServiceTest {
         // 准备测试数据
         when(userMapper.selectById(1L)).thenReturn(testUser);
         when(userMapper.deleteById(1L)).thenReturn(1);
+        when(deletionJobService.submit(eq(DeletionTargetType.USER), eq(1L), any())).thenReturn(new DeletionJob());
 
         // 执行测试
         assertDoesNotThrow(() -> userService.deleteUser(1L));
@@ -305,6 +315,8 @@ class UserServiceTest {
         // 验证结果
         verify(userMapper).selectById(1L);
         verify(userMapper).deleteById(1L);
+        verify(consultationSessionMapper).delete(any());
+        verify(deletionJobService).submit(eq(DeletionTargetType.USER), eq(1L), any());
     }
 
     @Test
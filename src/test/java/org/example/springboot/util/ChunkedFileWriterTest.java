@@ -0,0 +1,128 @@
+package org.example.springboot.util;
+
+import org.example.springboot.exception.BusinessException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ChunkedFileWriter 单元测试
+ */
+@DisplayName("分片文件写入工具测试")
+class ChunkedFileWriterTest {
+
+    @Test
+    @DisplayName("乱序并发写入分片后文件内容与原文件一致")
+    void shouldAssembleChunksWrittenOutOfOrder() throws Exception {
+        byte[] content = new byte[1000];
+        new Random(42).nextBytes(content);
+        int chunkSize = 256;
+        Path file = Files.createTempDirectory("chunked").resolve("upload.part");
+        ChunkedFileWriter.preallocate(file, content.length);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int index = 3; index >= 0; index--) {
+                int start = index * chunkSize;
+                byte[] chunk = Arrays.copyOfRange(content, start, Math.min(start + chunkSize, content.length));
+                results.add(executor.submit(() -> ChunkedFileWriter.writeChunk(file, start, chunk.length,
+                        sha256(chunk), new ByteArrayInputStream(chunk))));
+            }
+            // 最后一个分片（序号3）只有 232 字节
+            byte[] lastChunk = Arrays.copyOfRange(content, 3 * chunkSize, content.length);
+            assertEquals(sha256(lastChunk), results.get(0).get());
+            for (Future<String> result : results) {
+                assertNotNull(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(Arrays.equals(content, Files.readAllBytes(file)));
+    }
+
+    @Test
+    @DisplayName("分片字节数与预期不符时拒绝")
+    void shouldRejectChunkWithUnexpectedLength() throws Exception {
+        Path file = Files.createTempDirectory("chunked").resolve("upload.part");
+        ChunkedFileWriter.preallocate(file, 100);
+
+        try {
+            ChunkedFileWriter.writeChunk(file, 0, 10, null, new ByteArrayInputStream(new byte[11]));
+            fail("超出预期大小的分片应被拒绝");
+        } catch (BusinessException e) {
+            assertTrue(e.getMessage().contains("超出预期"));
+        }
+        try {
+            ChunkedFileWriter.writeChunk(file, 0, 10, null, new ByteArrayInputStream(new byte[9]));
+            fail("不完整的分片应被拒绝");
+        } catch (BusinessException e) {
+            assertTrue(e.getMessage().contains("不完整"));
+        }
+        assertEquals(100, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("校验和不符时拒绝，复核能发现被覆盖的分片，不留下暂存文件")
+    void shouldRejectCorruptChunkAndDetectItOnVerify() throws Exception {
+        Path file = Files.createTempDirectory("chunked").resolve("upload.part");
+        ChunkedFileWriter.preallocate(file, 10);
+        byte[] good = "0123456789".getBytes();
+        byte[] corrupt = "0123X56789".getBytes();
+        ChunkedFileWriter.writeChunk(file, 0, 10, sha256(good), new ByteArrayInputStream(good));
+
+        BusinessException e = assertThrows(BusinessException.class, () ->
+                ChunkedFileWriter.writeChunk(file, 0, 10, sha256(good), new ByteArrayInputStream(corrupt)));
+        assertTrue(e.getMessage().contains("校验失败"));
+
+        assertEquals(List.of(0), ChunkedFileWriter.verify(file, 10, Map.of(0, sha256(good))).corruptChunks());
+        try (var siblings = Files.list(file.getParent())) {
+            assertEquals(1, siblings.count());
+        }
+    }
+
+    @Test
+    @DisplayName("完成前复核找出内容与登记校验和不符的分片")
+    void shouldReportCorruptChunksOnVerify() throws Exception {
+        byte[] content = new byte[1000];
+        new Random(7).nextBytes(content);
+        int chunkSize = 256;
+        Path file = Files.createTempDirectory("chunked").resolve("upload.part");
+        Files.write(file, content);
+
+        Map<Integer, String> checksums = new HashMap<>();
+        for (int index = 0; index < 4; index++) {
+            int start = index * chunkSize;
+            checksums.put(index, sha256(Arrays.copyOfRange(content, start, Math.min(start + chunkSize, content.length))));
+        }
+        ChunkedFileWriter.Verification verification = ChunkedFileWriter.verify(file, chunkSize, checksums);
+        assertEquals(sha256(content), verification.sha256());
+        assertTrue(verification.corruptChunks().isEmpty());
+
+        content[600] ^= 1;
+        Files.write(file, content);
+        checksums.remove(3);
+        assertEquals(List.of(2, 3), ChunkedFileWriter.verify(file, chunkSize, checksums).corruptChunks());
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+}
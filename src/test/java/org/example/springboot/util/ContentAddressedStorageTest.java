@@ -0,0 +1,70 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ContentAddressedStorage 单元测试
+ */
+@DisplayName("内容寻址存储测试")
+class ContentAddressedStorageTest {
+
+    private Path baseDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        baseDir = Files.createTempDirectory("cas-test");
+    }
+
+    @Test
+    @DisplayName("相同内容只保存一份，按哈希前缀分片存放")
+    void shouldDeduplicateIdenticalContent() throws Exception {
+        ContentAddressedStorage.StoredContent first = ContentAddressedStorage.store(baseDir, stream("avatar"), ".PNG");
+        ContentAddressedStorage.StoredContent second = ContentAddressedStorage.store(baseDir, stream("avatar"), ".png");
+
+        String hash = first.contentHash();
+        assertEquals(64, hash.length());
+        assertEquals("/files/cas/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".png",
+                first.filePath());
+        assertFalse(first.deduplicated());
+        assertTrue(second.deduplicated());
+        assertEquals(first.filePath(), second.filePath());
+        assertEquals(6, second.size());
+        try (var temps = Files.list(baseDir.resolve("cas/.tmp"))) {
+            assertEquals(0, temps.count());
+        }
+
+        ContentAddressedStorage.StoredContent other = ContentAddressedStorage.store(baseDir, stream("cover"), ".png");
+        assertNotEquals(first.filePath(), other.filePath());
+    }
+
+    @Test
+    @DisplayName("宽限期内的内容不会被删除，超过宽限期才能删除")
+    void shouldKeepRecentlyWrittenContent() throws Exception {
+        ContentAddressedStorage.StoredContent stored = ContentAddressedStorage.store(baseDir, stream("diary"), ".txt");
+        Duration grace = Duration.ofMinutes(60);
+
+        assertFalse(ContentAddressedStorage.deleteIfIdle(baseDir, stored.filePath(), grace));
+
+        Path blob = baseDir.resolve(FileUtil.convertToRelativePath(stored.filePath()));
+        assertTrue(Files.exists(blob));
+        Files.setLastModifiedTime(blob, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        assertTrue(ContentAddressedStorage.deleteIfIdle(baseDir, stored.filePath(), grace));
+        assertFalse(Files.exists(blob));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DenseIdIndex 单元测试
+ */
+@DisplayName("ID下标索引测试")
+class DenseIdIndexTest {
+
+    @Test
+    @DisplayName("连续ID使用数组寻址并返回输入顺序中的下标")
+    void shouldIndexContiguousIdsDensely() {
+        DenseIdIndex index = DenseIdIndex.of(new long[]{103, 101, 102, 105});
+
+        assertTrue(index.isDense());
+        assertEquals(4, index.size());
+        assertEquals(1, index.indexOf(101));
+        assertEquals(2, index.indexOf(102));
+        assertEquals(0, index.indexOf(103));
+        assertEquals(3, index.indexOf(105));
+        assertEquals(-1, index.indexOf(104));
+        assertEquals(-1, index.indexOf(100));
+        assertEquals(-1, index.indexOf(106));
+        assertEquals(-1, index.indexOf(Long.MIN_VALUE));
+    }
+
+    @Test
+    @DisplayName("稀疏ID退化为哈希表")
+    void shouldFallBackToHashForSparseIds() {
+        DenseIdIndex index = DenseIdIndex.of(new long[]{1, 1_000_000, Long.MAX_VALUE});
+
+        assertFalse(index.isDense());
+        assertEquals(0, index.indexOf(1));
+        assertEquals(1, index.indexOf(1_000_000));
+        assertEquals(2, index.indexOf(Long.MAX_VALUE));
+        assertEquals(-1, index.indexOf(2));
+    }
+
+    @Test
+    @DisplayName("空数组和重复ID")
+    void shouldHandleEmptyAndRejectDuplicates() {
+        assertEquals(-1, DenseIdIndex.of(new long[0]).indexOf(1));
+        assertThrows(IllegalArgumentException.class, () -> DenseIdIndex.of(new long[]{5, 6, 5}));
+        assertThrows(IllegalArgumentException.class, () -> DenseIdIndex.of(new long[]{1, 1_000_000, 1}));
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FileUtil 单元测试
+ */
+@DisplayName("文件工具测试")
+class FileUtilTest {
+
+    @Test
+    @DisplayName("并发保存同名文件时各自占用不同的文件名")
+    void shouldReserveDistinctNamesForConcurrentSaves() throws Exception {
+        Path directory = Files.createTempDirectory("file-util");
+        String extension = FileUtil.getFileExtension("头像.PNG");
+        int threads = 8;
+        int perThread = 50;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Path>>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<Path> reserved = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        reserved.add(FileUtil.reserveUniqueFile(directory, extension));
+                    }
+                    return reserved;
+                }));
+            }
+            start.countDown();
+
+            Set<String> names = new HashSet<>();
+            for (Future<List<Path>> result : results) {
+                for (Path path : result.get()) {
+                    assertTrue(path.getFileName().toString().endsWith(".png"));
+                    assertTrue(names.add(path.getFileName().toString()), "文件名重复: " + path);
+                }
+            }
+            assertEquals(threads * perThread, names.size());
+            try (var files = Files.list(directory)) {
+                assertEquals(threads * perThread, files.count());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
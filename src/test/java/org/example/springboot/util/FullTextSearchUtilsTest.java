@@ -0,0 +1,50 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FullTextSearchUtils 单元测试
+ */
+@DisplayName("全文检索工具测试")
+class FullTextSearchUtilsTest {
+
+    @Test
+    @DisplayName("检索词去掉布尔运算符并去重，组合为必须命中的短语")
+    void shouldBuildBooleanQuery() {
+        List<String> terms = FullTextSearchUtils.splitTerms("  失眠 +焦虑  \"失眠\" -* ");
+
+        assertEquals(List.of("失眠", "焦虑"), terms);
+        assertEquals("+\"失眠\" +\"焦虑\"", FullTextSearchUtils.booleanQuery(terms));
+    }
+
+    @Test
+    @DisplayName("片段围绕第一个命中位置截取，并高亮所有命中词")
+    void shouldHighlightAroundFirstHit() {
+        String content = "最近工作压力很大，晚上经常失眠，白天又焦虑，失眠的时候总是胡思乱想";
+
+        String snippet = FullTextSearchUtils.highlight(content, List.of("失眠", "焦虑"), 4);
+
+        assertEquals("…晚上经常<em>失眠</em>，白天又<em>焦虑</em>…", snippet);
+    }
+
+    @Test
+    @DisplayName("高亮前转义HTML，检索词不会匹配到转义后的实体")
+    void shouldEscapeHtml() {
+        String snippet = FullTextSearchUtils.highlight("<b>lt</b> 我很焦虑", List.of("lt", "焦虑"), 20);
+
+        assertEquals("&lt;b&gt;<em>lt</em>&lt;/b&gt; 我很<em>焦虑</em>", snippet);
+    }
+
+    @Test
+    @DisplayName("转小写后长度变化的字符不影响命中位置，大小写不同也能高亮")
+    void shouldHighlightAtOriginalOffsets() {
+        String snippet = FullTextSearchUtils.highlight("İİİİ 最近 Anxiety 很重，焦虑", List.of("anxiety", "焦虑"), 20);
+
+        assertEquals("İİİİ 最近 <em>Anxiety</em> 很重，<em>焦虑</em>", snippet);
+    }
+}
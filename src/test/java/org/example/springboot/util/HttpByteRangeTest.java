@@ -0,0 +1,43 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HttpByteRange 单元测试
+ */
+@DisplayName("HTTP字节范围解析测试")
+class HttpByteRangeTest {
+
+    @Test
+    @DisplayName("解析起止范围、开放范围和后缀范围，结束位置截断到文件末尾")
+    void shouldParseSingleRange() {
+        assertEquals(new HttpByteRange(0, 499), HttpByteRange.parse("bytes=0-499", 1000));
+        assertEquals(new HttpByteRange(900, 999), HttpByteRange.parse("bytes=900-", 1000));
+        assertEquals(new HttpByteRange(800, 999), HttpByteRange.parse("bytes=-200", 1000));
+        assertEquals(new HttpByteRange(0, 999), HttpByteRange.parse("bytes=-2000", 1000));
+        assertEquals(new HttpByteRange(500, 999), HttpByteRange.parse("bytes=500-5000", 1000));
+        assertEquals("bytes 0-499/1000", HttpByteRange.parse("bytes=0-499", 1000).contentRange(1000));
+        assertEquals(500L, HttpByteRange.parse("bytes=0-499", 1000).length());
+    }
+
+    @Test
+    @DisplayName("起始位置超出文件长度时范围不可满足")
+    void shouldRejectUnsatisfiableRange() {
+        assertFalse(HttpByteRange.parse("bytes=1000-", 1000).satisfiable());
+        assertFalse(HttpByteRange.parse("bytes=-0", 1000).satisfiable());
+        assertFalse(HttpByteRange.parse("bytes=0-", 0).satisfiable());
+    }
+
+    @Test
+    @DisplayName("多段范围与格式错误的请求头被忽略，返回完整内容")
+    void shouldIgnoreUnsupportedRange() {
+        assertNull(HttpByteRange.parse(null, 1000));
+        assertNull(HttpByteRange.parse("items=0-1", 1000));
+        assertNull(HttpByteRange.parse("bytes=0-1,5-9", 1000));
+        assertNull(HttpByteRange.parse("bytes=9-1", 1000));
+        assertNull(HttpByteRange.parse("bytes=abc", 1000));
+    }
+}
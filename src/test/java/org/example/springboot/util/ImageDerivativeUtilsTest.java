@@ -0,0 +1,44 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ImageDerivativeUtils 单元测试
+ */
+@DisplayName("图片衍生图工具测试")
+class ImageDerivativeUtilsTest {
+
+    @Test
+    @DisplayName("按目标宽度等比缩放并编码为JPEG")
+    void shouldResizeKeepingAspectRatio() throws Exception {
+        BufferedImage source = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage resized = ImageDerivativeUtils.resize(source, 320);
+        assertEquals(320, resized.getWidth());
+        assertEquals(160, resized.getHeight());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageDerivativeUtils.writeJpeg(resized, 0.8f, out);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(320, decoded.getWidth());
+    }
+
+    @Test
+    @DisplayName("衍生图放在原图旁，只为上传目录中的图片生成访问地址")
+    void shouldBuildDerivativeNamesAndUrls() {
+        assertEquals("abc.png@thumb.jpg", ImageDerivativeUtils.derivativeFileName("abc.png", "thumb"));
+        assertEquals("/api/file/stream?path=%2Ffiles%2Fcas%2Fab%2Fcd%2Fabc.png&size=thumb",
+                ImageDerivativeUtils.derivativeUrl("/files/cas/ab/cd/abc.png", "thumb"));
+        assertNull(ImageDerivativeUtils.derivativeUrl("https://example.com/cover.png", "thumb"));
+        assertNull(ImageDerivativeUtils.derivativeUrl("/files/cas/ab/cd/abc.pdf", "thumb"));
+        assertNull(ImageDerivativeUtils.derivativeUrl(null, "thumb"));
+    }
+}
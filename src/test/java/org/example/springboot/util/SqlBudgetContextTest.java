@@ -0,0 +1,67 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SqlBudgetContext 单元测试
+ */
+@DisplayName("SQL预算上下文测试")
+class SqlBudgetContextTest {
+
+    private static final String SELECT_USER = "org.example.springboot.mapper.UserMapper.selectById";
+
+    @AfterEach
+    void tearDown() {
+        SqlBudgetContext context = SqlBudgetContext.current();
+        if (context != null) {
+            context.finish(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+    }
+
+    @Test
+    @DisplayName("同一语句以不同参数循环执行应判定为疑似N+1")
+    void shouldFlagRepeatedStatementWithDifferentParams() {
+        SqlBudgetContext context = SqlBudgetContext.begin(() -> "GET /api/test", false);
+        assertNotNull(context);
+
+        for (int i = 0; i < 10; i++) {
+            context.record(SELECT_USER, i, 3, () -> "EmotionDiaryService.selectAdminPage:100");
+        }
+        SqlBudgetContext.Report report = context.finish(5, 5);
+
+        assertEquals(10, report.total());
+        assertTrue(report.overBudget());
+        assertEquals(1, report.suspects().size());
+        assertEquals(10, report.suspects().get(0).distinctParams());
+        assertTrue(report.format().contains("UserMapper.selectById ×10"));
+        assertTrue(report.format().contains("EmotionDiaryService.selectAdminPage:100"));
+        assertNull(SqlBudgetContext.current());
+    }
+
+    @Test
+    @DisplayName("相同参数重复执行且未超预算时不应告警")
+    void shouldNotFlagSameParams() {
+        SqlBudgetContext context = SqlBudgetContext.begin(() -> "GET /api/test", false);
+        assertNotNull(context);
+
+        for (int i = 0; i < 10; i++) {
+            context.record(SELECT_USER, 42, 3, () -> null);
+        }
+        SqlBudgetContext.Report report = context.finish(20, 5);
+
+        assertFalse(report.hasProblems());
+    }
+
+    @Test
+    @DisplayName("已有作用域时不重复开启")
+    void shouldNotNestScopes() {
+        SqlBudgetContext outer = SqlBudgetContext.begin(() -> "outer", false);
+        assertNotNull(outer);
+        assertNull(SqlBudgetContext.begin(() -> "inner", true));
+        assertSame(outer, SqlBudgetContext.current());
+    }
+}
@@ -129,5 +129,147 @@ export function deleteFilesByBusiness(businessType, businessId, businessField, c
   });
 }
 
+/**
+ * @description 初始化分片上传
+ * @param {object} initInfo - 文件与业务信息（originalName, fileSize, chunkSize, businessType, businessId, businessField, replaceOld）
+ * @returns {Promise<Object>} 上传状态（uploadId, chunkSize, totalChunks, receivedChunks）
+ */
+export function initChunkedUpload(initInfo, callbacks = {}) {
+  return request.post('/file/chunked/init', initInfo, {
+    showDefaultMsg: false,
+    ...callbacks
+  });
+}
+
+/**
+ * @description 上传单个分片（请求体为分片原始字节）
+ * @param {string} uploadId - 上传ID
+ * @param {number} chunkIndex - 分片序号（从0开始）
+ * @param {Blob} chunk - 分片内容
+ * @param {string} checksum - 分片 SHA-256（十六进制）
+ */
+export function uploadChunk(uploadId, chunkIndex, chunk, checksum, callbacks = {}) {
+  return request.put(`/file/chunked/${uploadId}/chunks/${chunkIndex}`, chunk, {
+    headers: { 'Content-Type': 'application/octet-stream', 'X-Chunk-Sha256': checksum },
+    timeout: 120000,
+    showDefaultMsg: false,
+    ...callbacks
+  });
+}
+
+/**
+ * @description 查询分片上传状态（断点续传时获取已接收的分片）
+ * @param {string} uploadId - 上传ID
+ */
+export function getChunkedUploadStatus(uploadId, callbacks = {}) {
+  return request.get(`/file/chunked/${uploadId}`, null, {
+    enableCache: false,
+    showDefaultMsg: false,
+    ...callbacks
+  });
+}
+
+/**
+ * @description 完成分片上传
+ * @param {string} uploadId - 上传ID
+ * @param {string} [sha256] - 整个文件的 SHA-256
+ * @returns {Promise<Object>} 文件信息
+ */
+export function completeChunkedUpload(uploadId, sha256, callbacks = {}) {
+  return request.post(`/file/chunked/${uploadId}/complete`, null, {
+    params: sha256 ? { sha256 } : {},
+    timeout: 120000,
+    successMsg: '文件上传成功',
+    ...callbacks
+  });
+}
 
+/**
+ * @description 取消分片上传
+ * @param {string} uploadId - 上传ID
+ */
+export function abortChunkedUpload(uploadId, callbacks = {}) {
+  return request.delete(`/file/chunked/${uploadId}`, {
+    showDefaultMsg: false,
+    ...callbacks
+  });
+}
+
+async function sha256Hex(blob) {
+  const digest = await crypto.subtle.digest('SHA-256', await blob.arrayBuffer());
+  return Array.from(new Uint8Array(digest)).map(b => b.toString(16).padStart(2, '0')).join('');
+}
 
+/**
+ * @description 分片上传大文件：并发上传分片，失败的分片自动重试；传入上次的 uploadId 可跳过已上传的分片续传
+ * @param {File} file - 原生File对象
+ * @param {object} businessInfo - 业务信息（businessType, businessId, businessField, replaceOld）
+ * @param {object} [options={}]
+ * @param {string} [options.uploadId] - 续传的上传ID
+ * @param {number} [options.concurrency=3] - 并发分片数
+ * @param {number} [options.retryCount=3] - 单个分片的重试次数
+ * @param {function} [options.onProgress] - 进度回调 (已上传字节, 总字节)
+ * @param {function} [options.onInit] - 拿到上传ID后的回调，可保存用于续传
+ * @returns {Promise<Object>} 文件信息
+ */
+export async function uploadLargeFile(file, businessInfo, options = {}) {
+  const { concurrency = 3, retryCount = 3, onProgress, onInit } = options;
+
+  let status = null;
+  if (options.uploadId) {
+    status = await getChunkedUploadStatus(options.uploadId).catch(() => null);
+  }
+  if (!status || status.fileSize !== file.size || status.status === 'COMPLETING') {
+    status = await initChunkedUpload({
+      originalName: file.name,
+      fileSize: file.size,
+      ...businessInfo
+    });
+  }
+  if (typeof onInit === 'function') {
+    onInit(status.uploadId);
+  }
+  if (status.status === 'COMPLETED') {
+    return completeChunkedUpload(status.uploadId);
+  }
+
+  const { uploadId, chunkSize, totalChunks } = status;
+  const received = new Set(status.receivedChunks || []);
+  const pending = [];
+  for (let i = 0; i < totalChunks; i++) {
+    if (!received.has(i)) {
+      pending.push(i);
+    }
+  }
+
+  const chunkBytes = (index) => Math.min(chunkSize, file.size - index * chunkSize);
+  let uploadedBytes = [...received].reduce((sum, index) => sum + chunkBytes(index), 0);
+  if (typeof onProgress === 'function') {
+    onProgress(uploadedBytes, file.size);
+  }
+
+  const worker = async () => {
+    while (pending.length > 0) {
+      const index = pending.shift();
+      const chunk = file.slice(index * chunkSize, index * chunkSize + chunkBytes(index));
+      const checksum = await sha256Hex(chunk);
+      for (let attempt = 0; ; attempt++) {
+        try {
+          await uploadChunk(uploadId, index, chunk, checksum);
+          break;
+        } catch (error) {
+          if (attempt >= retryCount) {
+            throw error;
+          }
+        }
+      }
+      uploadedBytes += chunk.size;
+      if (typeof onProgress === 'function') {
+        onProgress(uploadedBytes, file.size);
+      }
+    }
+  };
+  await Promise.all(Array.from({ length: Math.min(concurrency, Math.max(pending.length, 1)) }, worker));
+
+  return completeChunkedUpload(uploadId);
+}
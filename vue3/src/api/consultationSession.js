@@ -72,6 +72,30 @@ export function getSessionMessages(sessionId, callbacks = {}) {
   return request.get(`/psychological-chat/sessions/${sessionId}/messages`, null, callbacks)
 }
 
+/**
+ * 分页获取会话历史消息
+ * 功能描述：按消息序号向前翻页，首次不传beforeSeq返回最新一页，之后传入上一页的nextBeforeSeq加载更早的消息
+ * 入参：{ beforeSeq?: number, limit?: number }
+ * 返回参数：{ messages: Array of { id: number, seq: number, senderType: number, content: string, emotionTag: string, createdAt: string }, hasMore: boolean, nextBeforeSeq: number }
+ * url地址：/psychological-chat/sessions/{sessionId}/messages/history
+ * 请求方式：GET
+ */
+export function getSessionMessageHistory(sessionId, params = {}, callbacks = {}) {
+  return request.get(`/psychological-chat/sessions/${sessionId}/messages/history`, params, callbacks)
+}
+
+/**
+ * 检索聊天记录
+ * 功能描述：在当前用户的聊天记录中全文检索，多个关键词以空格分隔
+ * 入参：{ keyword: string }
+ * 返回参数：Array of { sessionId: number, sessionTitle: string, hitCount: number, snippets: Array of { seq: number, senderType: number, snippet: string, createdAt: string } }
+ * url地址：/psychological-chat/search
+ * 请求方式：GET
+ */
+export function searchChatHistory(params, callbacks = {}) {
+  return request.get('/psychological-chat/search', params, callbacks)
+}
+
 /**
  * 更新会话标题
  * 功能描述：更新指定会话的标题